@@ -23,6 +23,7 @@ import net.jeremybrooks.knicker.dto.AuthenticationToken;
 import net.jeremybrooks.knicker.dto.TokenStatus;
 import net.jeremybrooks.knicker.dto.User;
 import net.jeremybrooks.knicker.dto.WordList;
+import net.jeremybrooks.knicker.flow.Flow;
 
 import java.util.List;
 
@@ -38,6 +39,11 @@ import java.util.List;
  * The methods are all public static. Most of the methods will return instances
  * of classes in the <code>net.jeremybrooks.knicker.dto</code> package.
  * <p/>
+ * These methods use the default client returned by
+ * <code>KnickerClient.getDefault()</code>. To use a different API key,
+ * endpoint, timeout or transport, create a <code>KnickerClient</code> and
+ * call the same methods on it.
+ * <p/>
  * If there are errors, a <code>KnickerException</code> will be thrown.
  *
  * @author Jeremy Brooks
@@ -63,22 +69,7 @@ public class AccountApi extends Knicker {
      *                          are any errors.
      */
     public static AuthenticationToken authenticate(String username, String password) throws KnickerException {
-        if (username == null || username.isEmpty()) {
-            throw new KnickerException("You must specify a username.");
-        }
-        if (password == null || password.isEmpty()) {
-            throw new KnickerException("You must specify a password.");
-        }
-
-        AuthenticationToken auth = null;
-
-        StringBuilder uri = new StringBuilder(ACCOUNT_ENDPOINT);
-        uri.append("/authenticate/").append(username);
-        uri.append("?password=").append(password);
-
-        auth = DTOBuilder.buildAuthenticationToken(Util.doGet(uri.toString()));
-
-        return auth;
+        return KnickerClient.getDefault().authenticate(username, password);
     }
 
 
@@ -90,10 +81,7 @@ public class AccountApi extends Knicker {
      * @throws KnickerException if there are any errors.
      */
     public static TokenStatus apiTokenStatus() throws KnickerException {
-        StringBuilder uri = new StringBuilder(ACCOUNT_ENDPOINT);
-        uri.append("/apiTokenStatus");
-
-        return DTOBuilder.buildTokenStatus(Util.doGet(uri.toString()));
+        return KnickerClient.getDefault().apiTokenStatus();
     }
 
 
@@ -108,14 +96,7 @@ public class AccountApi extends Knicker {
      * @throws KnickerException if the token is null or if there are any errors.
      */
     public static User user(AuthenticationToken token) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
-
-        StringBuilder uri = new StringBuilder(ACCOUNT_ENDPOINT);
-        uri.append("/user?auth_token=").append(token.getToken());
-
-        return DTOBuilder.buildUser(Util.doGet(uri.toString()));
+        return KnickerClient.getDefault().user(token);
     }
 
 
@@ -130,14 +111,7 @@ public class AccountApi extends Knicker {
      * @throws KnickerException if the token is null, or if there are any errors.
      */
     public static List<WordList> wordLists(AuthenticationToken token) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
-
-        StringBuilder uri = new StringBuilder(ACCOUNT_ENDPOINT);
-        uri.append("/wordLists?auth_token=").append(token.getToken());
-
-        return DTOBuilder.buildWordLists(Util.doGet(uri.toString(), token));
+        return KnickerClient.getDefault().wordLists(token);
     }
 
 
@@ -154,16 +128,22 @@ public class AccountApi extends Knicker {
      * @throws KnickerException if the token is null, or if there are any errors.
      */
     public static List<WordList> wordLists(AuthenticationToken token, int skip, int limit) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
+        return KnickerClient.getDefault().wordLists(token, skip, limit);
+    }
 
-        StringBuilder uri = new StringBuilder(ACCOUNT_ENDPOINT);
-        uri.append("/wordLists?auth_token=").append(token.getToken());
-        uri.append("&limit=").append(limit);
-        uri.append("&skip=").append(skip);
 
-        return DTOBuilder.buildWordLists(Util.doGet(uri.toString()));
+    /**
+     * Publish the authenticated user's word lists, fetching pages as the
+     * subscriber requests items.
+     *
+     * @param token    authentication token.
+     * @param pageSize number of lists to fetch in each call.
+     * @return publisher of word lists.
+     * @throws KnickerException if the token is null.
+     * @see #wordLists(AuthenticationToken, int, int)
+     */
+    public static Flow.Publisher<WordList> wordListsPublisher(AuthenticationToken token,
+                int pageSize) throws KnickerException {
+        return KnickerClient.getDefault().wordListsPublisher(token, pageSize);
     }
-
 }
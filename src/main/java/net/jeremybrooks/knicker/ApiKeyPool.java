@@ -0,0 +1,550 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.TokenStatus;
+import net.jeremybrooks.knicker.transport.TransportResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Spreads API calls over several Wordnik API keys.
+ * <p/>
+ * Each call is sent with the key that has the most calls left. The pool
+ * learns how many calls each key has left from the rate limit headers of
+ * every response, and from <code>refresh</code>, which calls
+ * <code>apiTokenStatus</code> for every key. Between updates, the pool
+ * counts down its own estimate.
+ * <p/>
+ * A key is sidelined when it runs out of calls (no calls left, or HTTP 429)
+ * until its quota resets, and when the server rejects it (HTTP 401 on a call
+ * without a user token) for the sideline time. A sidelined key is tried again
+ * after that time. If every key is sidelined, calls fail without contacting
+ * the server.
+ * <p/>
+ * Give a pool to <code>KnickerClient.Builder.keyPool</code>:
+ * <code>
+ * ApiKeyPool pool = new ApiKeyPool(Arrays.asList(key1, key2, key3));
+ * KnickerClient client = new KnickerClient.Builder().keyPool(pool).build();
+ * pool.refresh(client);
+ * </code>
+ * The default client uses a pool when the WORDNIK_API_KEYS system property
+ * holds a comma separated list of keys.
+ * <p/>
+ * Instances are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class ApiKeyPool {
+
+	/* Default time a rejected key, or an exhausted key with no known reset time, is sidelined, in minutes. */
+	public static final long DEFAULT_SIDELINE_MINUTES = 60;
+
+	/* Response header holding the number of calls left. */
+	public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+	/* Response header holding the time until the quota resets. */
+	public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+	/* Response header holding the time to wait after HTTP 429. */
+	public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+	/* Values of the reset header above this are epoch seconds rather than seconds from now. */
+	private static final long EPOCH_SECONDS_THRESHOLD = 1000000000L;
+
+	/**
+	 * The state of a key.
+	 * <p/>
+	 * <ul>
+	 * <li>ACTIVE: the key is used.</li>
+	 * <li>EXHAUSTED: the key has no calls left until its quota resets.</li>
+	 * <li>INVALID: the server rejected the key.</li>
+	 * </ul>
+	 */
+	public static enum State {
+		ACTIVE,
+		EXHAUSTED,
+		INVALID
+	}
+
+	private final Map<String, Key> keys = new LinkedHashMap<String, Key>();
+
+	/* Guards the state of every key, so a key is chosen and reserved in one step. */
+	private final Object lock = new Object();
+
+	private final long sidelineMillis;
+
+
+	/**
+	 * Create a pool that sidelines keys for <code>DEFAULT_SIDELINE_MINUTES</code>.
+	 *
+	 * @param apiKeys the keys. Blank and duplicate keys are ignored.
+	 */
+	public ApiKeyPool(Collection<String> apiKeys) {
+		this(apiKeys, DEFAULT_SIDELINE_MINUTES, TimeUnit.MINUTES);
+	}
+
+
+	/**
+	 * Create a pool.
+	 *
+	 * @param apiKeys      the keys. Blank and duplicate keys are ignored.
+	 * @param sidelineTime how long to sideline a rejected key, or an exhausted
+	 *                     key whose reset time is not known.
+	 * @param unit         unit of the sideline time.
+	 */
+	public ApiKeyPool(Collection<String> apiKeys, long sidelineTime, TimeUnit unit) {
+		if (apiKeys != null) {
+			for (String apiKey : apiKeys) {
+				if (apiKey != null && !apiKey.trim().isEmpty()) {
+					String k = apiKey.trim();
+					if (!keys.containsKey(k)) {
+						keys.put(k, new Key(k));
+					}
+				}
+			}
+		}
+		if (keys.isEmpty()) {
+			throw new IllegalArgumentException("At least one API key is required.");
+		}
+		this.sidelineMillis = unit.toMillis(sidelineTime);
+	}
+
+
+	/**
+	 * Create a pool from a comma separated list of keys.
+	 *
+	 * @param apiKeys the keys, separated by commas.
+	 * @return new pool.
+	 */
+	public static ApiKeyPool parse(String apiKeys) {
+		List<String> list = new ArrayList<String>();
+		if (apiKeys != null) {
+			Collections.addAll(list, apiKeys.split(","));
+		}
+		return new ApiKeyPool(list);
+	}
+
+
+	/**
+	 * Update every key from <code>apiTokenStatus</code>. Status calls do not
+	 * count against the quota. A key whose status call fails keeps its
+	 * current estimate; a key the server rejects is sidelined.
+	 *
+	 * @param client the client to make the calls with.
+	 * @return number of keys that were updated.
+	 */
+	public int refresh(KnickerClient client) {
+		int updated = 0;
+		for (String apiKey : getKeys()) {
+			try {
+				update(apiKey, client.apiTokenStatus(apiKey));
+				updated++;
+			} catch (KnickerException e) {
+				// the response, if any, has already been recorded
+			}
+		}
+		return updated;
+	}
+
+
+	/**
+	 * Update a key from a token status.
+	 *
+	 * @param apiKey the key.
+	 * @param status the status returned by <code>apiTokenStatus</code> for the key.
+	 */
+	public void update(String apiKey, TokenStatus status) {
+		Key key = keys.get(apiKey);
+		if (key == null || status == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		synchronized (lock) {
+			if (!status.isValid()) {
+				key.sideline(State.INVALID, now + sidelineMillis);
+				return;
+			}
+			key.remaining = status.getRemainingCalls();
+			key.resetAt = status.getResetsInMillis() > 0 ? now + status.getResetsInMillis() : 0;
+			if (key.remaining <= 0) {
+				key.sideline(State.EXHAUSTED, key.resetAt > now ? key.resetAt : now + sidelineMillis);
+			} else {
+				key.state = State.ACTIVE;
+			}
+		}
+	}
+
+
+	/**
+	 * @return the keys in the pool, in the order they were given.
+	 */
+	public List<String> getKeys() {
+		return new ArrayList<String>(keys.keySet());
+	}
+
+
+	/**
+	 * @return a snapshot of the state and usage of every key.
+	 */
+	public List<KeyStatus> getKeyStatuses() {
+		long now = System.currentTimeMillis();
+		List<KeyStatus> list = new ArrayList<KeyStatus>(keys.size());
+		synchronized (lock) {
+			for (Key key : keys.values()) {
+				key.wake(now);
+				list.add(new KeyStatus(key, now));
+			}
+		}
+		return list;
+	}
+
+
+	/**
+	 * Get the status of one key.
+	 *
+	 * @param apiKey the key.
+	 * @return the key's status, or null if the key is not in the pool.
+	 */
+	public KeyStatus getKeyStatus(String apiKey) {
+		Key key = keys.get(apiKey);
+		if (key == null) {
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		synchronized (lock) {
+			key.wake(now);
+			return new KeyStatus(key, now);
+		}
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ keys=").append(this.getKeyStatuses()).append(" ]");
+
+		return sb.toString();
+	}
+
+
+	/*
+	 * Choose the key with the most headroom for a call and reserve it.
+	 * Headroom is the estimated number of calls left less the calls in
+	 * flight; a key with no estimate yet is tried first. Ties go to the key
+	 * used least. The estimate only counts down when a call finishes, so a
+	 * call in flight is counted once.
+	 */
+	String acquire() throws KnickerException {
+		long now = System.currentTimeMillis();
+		synchronized (lock) {
+			Key best = null;
+			long bestHeadroom = 0;
+			long nextWake = Long.MAX_VALUE;
+			for (Key key : keys.values()) {
+				key.wake(now);
+				if (key.state != State.ACTIVE) {
+					nextWake = Math.min(nextWake, key.sidelinedUntil);
+					continue;
+				}
+				long headroom = (key.remaining < 0 ? Integer.MAX_VALUE : key.remaining) - key.inFlight;
+				if (best == null || headroom > bestHeadroom ||
+						(headroom == bestHeadroom && key.requests.get() < best.requests.get())) {
+					best = key;
+					bestHeadroom = headroom;
+				}
+			}
+			if (best == null) {
+				throw new KnickerException("No API key is available for another " +
+						TimeUnit.MILLISECONDS.toSeconds(nextWake - now) + " seconds.");
+			}
+			best.inFlight++;
+			best.requests.incrementAndGet();
+			return best.apiKey;
+		}
+	}
+
+
+	/*
+	 * Finish a call made with a key from acquire.
+	 */
+	void release(String apiKey, TransportResponse response, boolean userToken) {
+		Key key = keys.get(apiKey);
+		if (key == null) {
+			return;
+		}
+		// one step, so no call sees the key freed before its estimate counts down
+		synchronized (lock) {
+			key.inFlight--;
+			record(apiKey, response, userToken);
+		}
+	}
+
+
+	/*
+	 * Learn from a response sent with the key: rate limit headers, HTTP 429
+	 * and HTTP 401. A response without a remaining header counts one call
+	 * down from the estimate. A 401 on a call with a user token may be about
+	 * the token, so it does not sideline the key. A null response means the
+	 * call failed before the server answered.
+	 */
+	void record(String apiKey, TransportResponse response, boolean userToken) {
+		Key key = keys.get(apiKey);
+		if (key == null) {
+			return;
+		}
+		if (response == null || !response.isSuccessful()) {
+			key.errors.incrementAndGet();
+		}
+		if (response == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		long remaining = parseLong(response.getHeader(REMAINING_HEADER));
+		long reset = parseLong(response.getHeader(RESET_HEADER));
+		synchronized (lock) {
+			if (reset >= 0) {
+				key.resetAt = reset > EPOCH_SECONDS_THRESHOLD ? reset * 1000 : now + reset * 1000;
+			}
+			if (remaining >= 0) {
+				key.remaining = (int) Math.min(remaining, Integer.MAX_VALUE);
+			} else if (key.remaining > 0) {
+				key.remaining--;
+			}
+
+			int status = response.getStatusCode();
+			if (status == 429) {
+				key.rateLimited.incrementAndGet();
+				long retryAfter = parseLong(response.getHeader(RETRY_AFTER_HEADER));
+				key.remaining = 0;
+				key.sideline(State.EXHAUSTED, retryAfter >= 0 ? now + retryAfter * 1000 :
+						key.resetAt > now ? key.resetAt : now + sidelineMillis);
+			} else if (status == 401 && !userToken) {
+				key.sideline(State.INVALID, now + sidelineMillis);
+			} else if (key.remaining == 0) {
+				key.sideline(State.EXHAUSTED, key.resetAt > now ? key.resetAt : now + sidelineMillis);
+			}
+		}
+	}
+
+
+	private static long parseLong(String value) {
+		if (value == null) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+
+	/*
+	 * Mutable state of one key. Guarded by the pool's lock, except the counters.
+	 */
+	private static final class Key {
+
+		final String apiKey;
+
+		final AtomicLong requests = new AtomicLong();
+
+		final AtomicLong errors = new AtomicLong();
+
+		final AtomicLong rateLimited = new AtomicLong();
+
+		State state = State.ACTIVE;
+
+		/* Estimated calls left, or -1 if not known. */
+		int remaining = -1;
+
+		/* Time the quota resets, in epoch milliseconds, or 0 if not known. */
+		long resetAt;
+
+		long sidelinedUntil;
+
+		int inFlight;
+
+
+		Key(String apiKey) {
+			this.apiKey = apiKey;
+		}
+
+
+		void sideline(State newState, long until) {
+			state = newState;
+			sidelinedUntil = until;
+		}
+
+
+		/*
+		 * Bring the key back once its sideline time has passed, forgetting an
+		 * estimate that belonged to the quota period that has ended.
+		 */
+		void wake(long now) {
+			if (resetAt != 0 && resetAt <= now) {
+				resetAt = 0;
+				remaining = -1;
+			}
+			if (state != State.ACTIVE && sidelinedUntil <= now) {
+				state = State.ACTIVE;
+				remaining = -1;
+			}
+		}
+	}
+
+
+	/**
+	 * A snapshot of the state and usage of one key.
+	 */
+	public static class KeyStatus {
+
+		private final String apiKey;
+
+		private final State state;
+
+		private final int remainingCalls;
+
+		private final long resetsInMillis;
+
+		private final long sidelinedForMillis;
+
+		private final int inFlight;
+
+		private final long requestCount;
+
+		private final long errorCount;
+
+		private final long rateLimitedCount;
+
+
+		private KeyStatus(Key key, long now) {
+			this.apiKey = key.apiKey;
+			this.state = key.state;
+			this.remainingCalls = key.remaining;
+			this.resetsInMillis = key.resetAt == 0 ? -1 : key.resetAt - now;
+			this.sidelinedForMillis = key.state == State.ACTIVE ? 0 : key.sidelinedUntil - now;
+			this.inFlight = key.inFlight;
+			this.requestCount = key.requests.get();
+			this.errorCount = key.errors.get();
+			this.rateLimitedCount = key.rateLimited.get();
+		}
+
+
+		/**
+		 * @return the API key.
+		 */
+		public String getApiKey() {
+			return apiKey;
+		}
+
+
+		public State getState() {
+			return state;
+		}
+
+
+		/**
+		 * @return estimated calls left, or -1 if not known.
+		 */
+		public int getRemainingCalls() {
+			return remainingCalls;
+		}
+
+
+		/**
+		 * @return time until the quota resets, or -1 if not known.
+		 */
+		public long getResetsInMillis() {
+			return resetsInMillis;
+		}
+
+
+		/**
+		 * @return time until a sidelined key is tried again, or 0 if it is active.
+		 */
+		public long getSidelinedForMillis() {
+			return sidelinedForMillis;
+		}
+
+
+		/**
+		 * @return calls in flight with the key.
+		 */
+		public int getInFlight() {
+			return inFlight;
+		}
+
+
+		/**
+		 * @return calls made with the key.
+		 */
+		public long getRequestCount() {
+			return requestCount;
+		}
+
+
+		/**
+		 * @return calls that failed or returned an error status.
+		 */
+		public long getErrorCount() {
+			return errorCount;
+		}
+
+
+		/**
+		 * @return calls rejected with HTTP 429.
+		 */
+		public long getRateLimitedCount() {
+			return rateLimitedCount;
+		}
+
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(this.getClass().getName());
+			sb.append(": [ apiKey=").append(mask(this.apiKey)).append(" | ");
+			sb.append("state=").append(this.state).append(" | ");
+			sb.append("remainingCalls=").append(this.remainingCalls).append(" | ");
+			sb.append("resetsInMillis=").append(this.resetsInMillis).append(" | ");
+			sb.append("inFlight=").append(this.inFlight).append(" | ");
+			sb.append("requestCount=").append(this.requestCount).append(" | ");
+			sb.append("errorCount=").append(this.errorCount).append(" | ");
+			sb.append("rateLimitedCount=").append(this.rateLimitedCount).append(" ]");
+
+			return sb.toString();
+		}
+
+
+		/*
+		 * Show only the last four characters, so statuses can be logged.
+		 */
+		private static String mask(String apiKey) {
+			return apiKey.length() <= 4 ? "****" : "****" + apiKey.substring(apiKey.length() - 4);
+		}
+	}
+}
@@ -0,0 +1,579 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.Facet;
+import net.jeremybrooks.knicker.Knicker.Priority;
+import net.jeremybrooks.knicker.logger.KnickerLogger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Fills a client's cache from a word list, so that the first requests after
+ * startup are not all misses.
+ * <p/>
+ * The word list is a UTF-8 text file with one word per line, most important
+ * words first. Anything after the first space or tab on a line, such as a
+ * frequency count, is ignored, as are blank lines and lines starting with
+ * <code>#</code>. The file is read as the warm-up goes, so it can be large.
+ * <p/>
+ * For each word, the warmer makes the calls for the chosen facets with the
+ * same arguments as the short <code>WordApi</code> methods, so it is those
+ * requests that are answered from the cache afterwards. The calls are made on
+ * a few low priority daemon threads. If the client has a throttle, the warmer
+ * takes no more than a fraction of its rate, leaving the rest for real
+ * traffic; the calls still count against the client's throttle.
+ * <p/>
+ * The warmer is ready once a given share of the words in the file has been
+ * warmed. Services can wait for that before taking traffic.
+ * <code>
+ * CacheWarmer warmer = new CacheWarmer.Builder(client, new File("top-50000.txt"))
+ *         .readyCoverage(0.5)
+ *         .build()
+ *         .start();
+ * warmer.awaitReady(5, TimeUnit.MINUTES);
+ * </code>
+ *
+ * @author Jeremy Brooks
+ */
+public class CacheWarmer {
+
+	/* Default share of the client's throttle rate used for warm-up. */
+	public static final double DEFAULT_QUOTA_FRACTION = 0.25;
+
+	/* Default share of the word list that must be warmed before the warmer is ready. */
+	public static final double DEFAULT_READY_COVERAGE = 0.9;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final KnickerClient client;
+
+	private final File wordFile;
+
+	private final Set<Facet> facets;
+
+	private final int threads;
+
+	private final Throttle throttle;
+
+	private final double readyCoverage;
+
+	private final int progressInterval;
+
+	private final RequestContext context = RequestContext.create().withPriority(Priority.BULK);
+
+	private final AtomicInteger warmed = new AtomicInteger();
+
+	private final AtomicInteger failed = new AtomicInteger();
+
+	/* Counted down when the warmer becomes ready, or finishes without becoming ready. */
+	private final CountDownLatch settled = new CountDownLatch(1);
+
+	private final CountDownLatch done = new CountDownLatch(1);
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private volatile boolean ready;
+
+	private volatile int wordCount = -1;
+
+	private volatile long startMillis;
+
+	/* Guarded by this. */
+	private BufferedReader reader;
+
+	private ExecutorService executor;
+
+
+	private CacheWarmer(Builder builder) {
+		this.client = builder.client.withContext(context);
+		this.wordFile = builder.wordFile;
+		this.facets = Collections.unmodifiableSet(EnumSet.copyOf(builder.facets));
+		this.threads = builder.threads;
+		this.readyCoverage = builder.readyCoverage;
+		this.progressInterval = builder.progressInterval;
+		if (builder.throttle != null) {
+			this.throttle = builder.throttle;
+		} else if (builder.client.getThrottle() != null) {
+			this.throttle = new Throttle(builder.client.getThrottle().getPermitsPerSecond() * builder.quotaFraction, 1);
+		} else {
+			this.throttle = null;
+		}
+	}
+
+
+	/**
+	 * Count the words in the file and start warming the cache in the background.
+	 *
+	 * @return this warmer.
+	 * @throws KnickerException if the word file cannot be read.
+	 * @throws IllegalStateException if the warmer has already been started.
+	 */
+	public synchronized CacheWarmer start() throws KnickerException {
+		if (executor != null) {
+			throw new IllegalStateException("Warm-up has already been started.");
+		}
+		try {
+			wordCount = countWords();
+			reader = open();
+		} catch (IOException e) {
+			throw new KnickerException("Could not read word file " + wordFile + ".", e);
+		}
+		startMillis = System.currentTimeMillis();
+		KnickerLogger.getLogger().log("Warming cache with " + wordCount + " words from " + wordFile + ".");
+		if (requiredWords() == 0) {
+			markReady();
+		}
+
+		running.set(threads);
+		executor = Executors.newFixedThreadPool(threads, new KnickerClient.DaemonThreadFactory("knicker-warmer") {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = super.newThread(r);
+				t.setPriority(Thread.MIN_PRIORITY);
+				return t;
+			}
+		});
+		for (int i = 0; i < threads; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						work();
+					} finally {
+						finished();
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		return this;
+	}
+
+
+	/**
+	 * Stop warming. Calls in progress are cancelled. Words warmed so far stay
+	 * in the cache.
+	 */
+	public synchronized void stop() {
+		context.cancel();
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+
+	/**
+	 * @return true once the required share of the word list has been warmed.
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+
+	/**
+	 * Wait until the warmer is ready.
+	 *
+	 * @param timeout maximum time to wait.
+	 * @param unit    unit of the timeout.
+	 * @return true if the warmer is ready; false if the time ran out, or if the
+	 *         warm-up finished or was stopped without warming enough words.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+		settled.await(timeout, unit);
+		return ready;
+	}
+
+
+	/**
+	 * @return true if every word has been tried, or the warmer was stopped.
+	 */
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+
+	/**
+	 * Wait until every word has been tried, or the warmer was stopped.
+	 *
+	 * @param timeout maximum time to wait.
+	 * @param unit    unit of the timeout.
+	 * @return true if the warm-up is done, false if the time ran out.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 * @throws IllegalStateException if the warmer has not been started.
+	 */
+	public boolean awaitDone(long timeout, TimeUnit unit) throws InterruptedException {
+		if (wordCount < 0) {
+			throw new IllegalStateException("Warm-up has not been started.");
+		}
+		return done.await(timeout, unit);
+	}
+
+
+	/**
+	 * @return words in the word file, or -1 if the warmer has not been started.
+	 */
+	public int getWordCount() {
+		return wordCount;
+	}
+
+
+	/**
+	 * @return words for which every facet was fetched.
+	 */
+	public int getWarmedCount() {
+		return warmed.get();
+	}
+
+
+	/**
+	 * @return words for which at least one facet could not be fetched.
+	 */
+	public int getFailedCount() {
+		return failed.get();
+	}
+
+
+	/**
+	 * @return share of the word list that has been warmed, from 0 to 1.
+	 */
+	public double getCoverage() {
+		int count = wordCount;
+		if (count <= 0) {
+			return count == 0 ? 1 : 0;
+		}
+		return (double) warmed.get() / count;
+	}
+
+
+	/**
+	 * @return the throttle that limits warm-up calls, or null if they are not throttled.
+	 */
+	public Throttle getThrottle() {
+		return throttle;
+	}
+
+
+	/**
+	 * @return the facets fetched for each word.
+	 */
+	public Set<Facet> getFacets() {
+		return facets;
+	}
+
+
+	private void work() {
+		while (!context.isCancelled()) {
+			String word;
+			try {
+				word = nextWord();
+			} catch (IOException e) {
+				KnickerLogger.getLogger().log("Could not read word file " + wordFile + ".", e);
+				return;
+			}
+			if (word == null) {
+				return;
+			}
+			warm(word);
+		}
+	}
+
+
+	private void warm(String word) {
+		try {
+			for (Facet facet : facets) {
+				if (throttle != null) {
+					throttle.acquire(context);
+				}
+				client.fetchFacet(facet, word);
+			}
+		} catch (KnickerException e) {
+			if (context.isCancelled()) {
+				return;
+			}
+			failed.incrementAndGet();
+			KnickerLogger.getLogger().log("Could not warm '" + word + "': " + e.getMessage());
+			progress();
+			return;
+		}
+		if (warmed.incrementAndGet() >= requiredWords()) {
+			markReady();
+		}
+		progress();
+	}
+
+
+	private void progress() {
+		int tried = warmed.get() + failed.get();
+		if (tried % progressInterval == 0) {
+			long elapsed = Math.max(1, System.currentTimeMillis() - startMillis);
+			KnickerLogger.getLogger().log("Cache warm-up: " + tried + " of " + wordCount + " words tried, "
+					+ Math.round(getCoverage() * 100) + "% warmed, "
+					+ (tried * 60000L / elapsed) + " words per minute.");
+		}
+	}
+
+
+	private int requiredWords() {
+		return (int) Math.ceil(wordCount * readyCoverage);
+	}
+
+
+	private synchronized void markReady() {
+		if (!ready) {
+			ready = true;
+			settled.countDown();
+			KnickerLogger.getLogger().log("Cache warm-up reached " + Math.round(getCoverage() * 100)
+					+ "% coverage and is ready.");
+		}
+	}
+
+
+	private void finished() {
+		if (running.decrementAndGet() == 0) {
+			synchronized (this) {
+				closeReader();
+			}
+			done.countDown();
+			settled.countDown();
+			KnickerLogger.getLogger().log("Cache warm-up finished: " + this);
+		}
+	}
+
+
+	private synchronized String nextWord() throws IOException {
+		if (reader == null) {
+			return null;
+		}
+		String line;
+		while ((line = reader.readLine()) != null) {
+			String word = parseWord(line);
+			if (word != null) {
+				return word;
+			}
+		}
+		closeReader();
+		return null;
+	}
+
+
+	private void closeReader() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			reader = null;
+		}
+	}
+
+
+	private int countWords() throws IOException {
+		BufferedReader in = open();
+		try {
+			int count = 0;
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (parseWord(line) != null) {
+					count++;
+				}
+			}
+			return count;
+		} finally {
+			in.close();
+		}
+	}
+
+
+	private BufferedReader open() throws IOException {
+		return new BufferedReader(new InputStreamReader(new FileInputStream(wordFile), UTF_8));
+	}
+
+
+	/*
+	 * The word on a line of the word file, or null if the line has none.
+	 */
+	static String parseWord(String line) {
+		String word = line.trim();
+		if (word.isEmpty() || word.charAt(0) == '#') {
+			return null;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (word.charAt(i) == ' ' || word.charAt(i) == '\t') {
+				return word.substring(0, i);
+			}
+		}
+		return word;
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ wordFile=").append(wordFile);
+		sb.append(" | wordCount=").append(wordCount);
+		sb.append(" | warmed=").append(warmed.get());
+		sb.append(" | failed=").append(failed.get());
+		sb.append(" | ready=").append(ready);
+		sb.append(" ]");
+		return sb.toString();
+	}
+
+
+	public static class Builder {
+
+		private final KnickerClient client;
+
+		private final File wordFile;
+
+		private Set<Facet> facets = EnumSet.of(Facet.LOOKUP, Facet.DEFINITIONS, Facet.PRONUNCIATIONS);
+
+		private int threads = 2;
+
+		private Throttle throttle;
+
+		private double quotaFraction = DEFAULT_QUOTA_FRACTION;
+
+		private double readyCoverage = DEFAULT_READY_COVERAGE;
+
+		private int progressInterval = 1000;
+
+
+		/**
+		 * @param client   the client whose cache is warmed. It must have a cache.
+		 * @param wordFile the word list.
+		 */
+		public Builder(KnickerClient client, File wordFile) {
+			if (client == null) {
+				throw new IllegalArgumentException("Client cannot be null.");
+			}
+			if (client.getCache() == null) {
+				throw new IllegalArgumentException("Client has no cache to warm.");
+			}
+			if (wordFile == null) {
+				throw new IllegalArgumentException("Word file cannot be null.");
+			}
+			this.client = client;
+			this.wordFile = wordFile;
+		}
+
+
+		/**
+		 * @param facets the facets to fetch for each word. The default is lookup,
+		 *               definitions and pronunciations.
+		 * @return this builder.
+		 */
+		public Builder facets(Set<Facet> facets) {
+			if (facets == null || facets.isEmpty()) {
+				throw new IllegalArgumentException("At least one facet is required.");
+			}
+			this.facets = facets;
+			return this;
+		}
+
+
+		/**
+		 * @param threads number of words warmed at once. The default is 2.
+		 * @return this builder.
+		 */
+		public Builder threads(int threads) {
+			this.threads = threads;
+			return this;
+		}
+
+
+		/**
+		 * @param quotaFraction share of the client's throttle rate the warmer may
+		 *                      use. The default is <code>DEFAULT_QUOTA_FRACTION</code>.
+		 *                      Ignored if the client has no throttle, or if a
+		 *                      throttle is given to this builder.
+		 * @return this builder.
+		 */
+		public Builder quotaFraction(double quotaFraction) {
+			this.quotaFraction = quotaFraction;
+			return this;
+		}
+
+
+		/**
+		 * @param throttle throttle for the warmer's calls, used instead of a
+		 *                 share of the client's throttle.
+		 * @return this builder.
+		 */
+		public Builder throttle(Throttle throttle) {
+			this.throttle = throttle;
+			return this;
+		}
+
+
+		/**
+		 * @param readyCoverage share of the word list, from 0 to 1, that must be
+		 *                      warmed before the warmer is ready. The default is
+		 *                      <code>DEFAULT_READY_COVERAGE</code>.
+		 * @return this builder.
+		 */
+		public Builder readyCoverage(double readyCoverage) {
+			this.readyCoverage = readyCoverage;
+			return this;
+		}
+
+
+		/**
+		 * @param progressInterval log progress every this many words. The default is 1000.
+		 * @return this builder.
+		 */
+		public Builder progressInterval(int progressInterval) {
+			this.progressInterval = progressInterval;
+			return this;
+		}
+
+
+		public CacheWarmer build() {
+			if (threads < 1) {
+				throw new IllegalArgumentException("Threads must be at least 1.");
+			}
+			if (!(quotaFraction > 0 && quotaFraction <= 1)) {
+				throw new IllegalArgumentException("Quota fraction must be greater than 0 and at most 1.");
+			}
+			if (!(readyCoverage >= 0 && readyCoverage <= 1)) {
+				throw new IllegalArgumentException("Ready coverage must be from 0 to 1.");
+			}
+			if (progressInterval < 1) {
+				throw new IllegalArgumentException("Progress interval must be at least 1.");
+			}
+			return new CacheWarmer(this);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * The outcome of one request in a chunked word list update.
+ * <p/>
+ * Large additions and deletions are split into several requests; each
+ * request's words, size and error, if it failed, are reported here so that
+ * the failed words can be sent again.
+ *
+ * @author Jeremy Brooks
+ * @see KnickerClient#addWordsToList(net.jeremybrooks.knicker.dto.AuthenticationToken, String, Iterable, int, int)
+ */
+public class ChunkResult {
+
+	private final int index;
+
+	private final List<String> words;
+
+	private final int byteCount;
+
+	private final KnickerException exception;
+
+
+	ChunkResult(int index, List<String> words, int byteCount, KnickerException exception) {
+		this.index = index;
+		this.words = Collections.unmodifiableList(words);
+		this.byteCount = byteCount;
+		this.exception = exception;
+	}
+
+
+	/**
+	 * @return position of the chunk in the update, starting at zero.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+
+	/**
+	 * @return the words sent in the chunk, in order. The list cannot be modified.
+	 */
+	public List<String> getWords() {
+		return words;
+	}
+
+
+	/**
+	 * @return number of words sent in the chunk.
+	 */
+	public int getWordCount() {
+		return words.size();
+	}
+
+
+	/**
+	 * @return size of the request body, in bytes.
+	 */
+	public int getByteCount() {
+		return byteCount;
+	}
+
+
+	/**
+	 * @return the error, or null if the chunk was sent successfully.
+	 */
+	public KnickerException getException() {
+		return exception;
+	}
+
+
+	public boolean isSuccessful() {
+		return exception == null;
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ index=").append(this.index).append(" | ");
+		sb.append("wordCount=").append(this.words.size()).append(" | ");
+		sb.append("byteCount=").append(this.byteCount).append(" | ");
+		sb.append("exception=").append(this.exception).append(" ]");
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,655 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.Priority;
+import net.jeremybrooks.knicker.transport.TransportResponse;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Limits the number of requests in flight to each Wordnik endpoint, adapting
+ * the limit to how the server is coping.
+ * <p/>
+ * Each endpoint, such as <code>word/definitions</code> or
+ * <code>words/search</code>, has its own limit. The limit grows by about one
+ * for every round of requests that complete with latency near the endpoint's
+ * baseline, the lowest latency seen recently. It is cut by a fixed ratio when
+ * a request times out, when the server answers HTTP 429 or 503, or when
+ * latency rises above the baseline by more than the tolerance; rises of a
+ * few milliseconds are ignored. It is cut at most once per round trip, so a
+ * burst of slow responses counts once.
+ * <p/>
+ * A caller over the limit waits in a queue for a request to finish, as long
+ * as its <code>RequestContext</code> allows. If the queue is full, the call
+ * fails at once. When callers of different priorities are waiting, the
+ * priority of each caller's context decides who gets the next slot.
+ * <p/>
+ * A limiter is an <code>Interceptor</code>. Give it to
+ * <code>KnickerClient.Builder.concurrencyLimiter</code>:
+ * <code>
+ * ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().maxLimit(32).build();
+ * KnickerClient client = new KnickerClient.Builder().concurrencyLimiter(limiter).build();
+ * </code>
+ * Limiters are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class ConcurrencyLimiter implements Interceptor {
+
+	/* Default limit for an endpoint before anything is known about it. */
+	public static final int DEFAULT_INITIAL_LIMIT = 8;
+
+	/* Default lowest limit. */
+	public static final int DEFAULT_MIN_LIMIT = 1;
+
+	/* Default highest limit. */
+	public static final int DEFAULT_MAX_LIMIT = 64;
+
+	/* Default ratio the limit is multiplied by when the server is overloaded. */
+	public static final double DEFAULT_BACKOFF_RATIO = 0.7;
+
+	/* Default latency, as a multiple of the baseline, above which the server is taken to be overloaded. */
+	public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+	/* Default number of callers that may wait for each endpoint. */
+	public static final int DEFAULT_MAX_QUEUE_LENGTH = 100;
+
+	/* Share of the distance to a higher latency that the baseline moves per request. */
+	private static final double BASELINE_DRIFT = 0.01;
+
+	/* Latency rises smaller than this are noise, however large relative to the baseline. */
+	private static final long LATENCY_NOISE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+	private final int initialLimit;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final double backoffRatio;
+
+	private final double latencyTolerance;
+
+	private final int maxQueueLength;
+
+	private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<String, Endpoint>();
+
+
+	private ConcurrencyLimiter(Builder builder) {
+		this.initialLimit = builder.initialLimit;
+		this.minLimit = builder.minLimit;
+		this.maxLimit = builder.maxLimit;
+		this.backoffRatio = builder.backoffRatio;
+		this.latencyTolerance = builder.latencyTolerance;
+		this.maxQueueLength = builder.maxQueueLength;
+	}
+
+
+	/**
+	 * Wait for a slot to send a request to an endpoint.
+	 *
+	 * @param endpoint the endpoint.
+	 * @param context  the caller's context, or null to wait without a deadline
+	 *                 at NORMAL priority.
+	 * @return a permit, which must be released when the request completes.
+	 * @throws KnickerException if the queue is full, if the context is
+	 *                          cancelled or its deadline passes while waiting,
+	 *                          or if the thread is interrupted.
+	 */
+	Permit acquire(String endpoint, RequestContext context) throws KnickerException {
+		final Endpoint e = endpoint(endpoint);
+		Priority priority = context == null ? Priority.NORMAL : context.getPriority();
+		synchronized (e) {
+			e.requests++;
+			if (e.inFlight < e.currentLimit() && e.lanes.isEmpty()) {
+				e.inFlight++;
+				return new Permit(e);
+			}
+			if (e.lanes.getWaiting() >= maxQueueLength) {
+				e.rejected++;
+				throw new KnickerException("Too many requests waiting for " + endpoint + ".");
+			}
+			e.lanes.enter(priority);
+		}
+
+		Runnable wake = new Runnable() {
+			@Override
+			public void run() {
+				synchronized (e) {
+					e.notifyAll();
+				}
+			}
+		};
+		if (context != null) {
+			context.addCancelListener(wake);
+		}
+		try {
+			synchronized (e) {
+				try {
+					while (e.inFlight >= e.currentLimit() || !e.lanes.isTurn(priority)) {
+						if (context == null) {
+							e.wait();
+						} else {
+							context.checkActive();
+							if (context.hasDeadline()) {
+								long remaining = context.getRemainingMillis();
+								if (remaining <= 0) {
+									throw context.newException(null);
+								}
+								e.wait(remaining);
+							} else {
+								e.wait();
+							}
+						}
+					}
+					e.inFlight++;
+					e.lanes.taken(priority);
+					return new Permit(e);
+				} finally {
+					e.lanes.leave(priority);
+					e.notifyAll();
+				}
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new KnickerException("Interrupted while waiting to send a request to " + endpoint + ".", ie);
+		} finally {
+			if (context != null) {
+				context.removeCancelListener(wake);
+			}
+		}
+	}
+
+
+	/**
+	 * Wait for a slot for the request's endpoint, pass the request on, and
+	 * learn from how it went.
+	 *
+	 * @param chain the request and the rest of the chain.
+	 * @return the response.
+	 * @throws KnickerException if the wait fails, or if the rest of the chain does.
+	 */
+	@Override
+	public TransportResponse intercept(Chain chain) throws KnickerException {
+		Permit permit = acquire(chain.getEndpoint(), chain.getContext());
+		TransportResponse response = null;
+		KnickerException failure = null;
+		try {
+			response = chain.proceed(chain.getRequest());
+			return response;
+		} catch (KnickerException e) {
+			failure = e;
+			throw e;
+		} finally {
+			permit.release(response, failure);
+		}
+	}
+
+
+	/**
+	 * @return a snapshot of every endpoint the limiter has seen.
+	 */
+	public List<EndpointStatus> getEndpointStatuses() {
+		List<EndpointStatus> list = new ArrayList<EndpointStatus>();
+		for (Endpoint e : endpoints.values()) {
+			synchronized (e) {
+				list.add(new EndpointStatus(e));
+			}
+		}
+		return list;
+	}
+
+
+	/**
+	 * @param endpoint the endpoint, such as <code>word/definitions</code>.
+	 * @return a snapshot of the endpoint, or null if the limiter has not seen it.
+	 */
+	public EndpointStatus getEndpointStatus(String endpoint) {
+		Endpoint e = endpoints.get(endpoint);
+		if (e == null) {
+			return null;
+		}
+		synchronized (e) {
+			return new EndpointStatus(e);
+		}
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ endpoints=").append(this.getEndpointStatuses()).append(" ]");
+
+		return sb.toString();
+	}
+
+
+	private Endpoint endpoint(String name) {
+		Endpoint e = endpoints.get(name);
+		if (e == null) {
+			Endpoint created = new Endpoint(name, initialLimit);
+			e = endpoints.putIfAbsent(name, created);
+			if (e == null) {
+				e = created;
+			}
+		}
+		return e;
+	}
+
+
+	/*
+	 * The endpoint a request URL belongs to: the resource and the operation,
+	 * without the word, list or other identifiers. For example
+	 * http://api.wordnik.com/v4/word.xml/cat/definitions?limit=5 belongs to
+	 * word/definitions, and .../v4/words.xml/search/ca* to words/search.
+	 */
+	static String endpointOf(String url) {
+		String path = url;
+		int i = path.indexOf('?');
+		if (i >= 0) {
+			path = path.substring(0, i);
+		}
+		String[] parts = path.split("/");
+		for (int p = 0; p < parts.length; p++) {
+			int dot = parts[p].indexOf(".xml");
+			if (dot < 0) {
+				dot = parts[p].indexOf(".json");
+			}
+			if (dot > 0) {
+				String resource = parts[p].substring(0, dot);
+				// word and wordList are followed by the word or list, then the operation
+				int op = resource.equals("word") || resource.equals("wordList") ? p + 2 : p + 1;
+				return op < parts.length && !parts[op].isEmpty() ? resource + "/" + parts[op] : resource;
+			}
+		}
+		return path;
+	}
+
+
+	/*
+	 * Limit and measurements for one endpoint. Guarded by itself.
+	 */
+	private class Endpoint {
+
+		final String name;
+
+		double limit;
+
+		int inFlight;
+
+		/* Callers waiting for a slot. */
+		final PriorityLanes lanes = new PriorityLanes();
+
+		/* Lowest recent latency, or 0 if there has been no sample. */
+		long baselineNanos;
+
+		long lastDecreaseNanos;
+
+		long requests;
+
+		long rejected;
+
+		long dropped;
+
+		long decreases;
+
+
+		Endpoint(String name, int limit) {
+			this.name = name;
+			this.limit = limit;
+		}
+
+
+		int currentLimit() {
+			return (int) limit;
+		}
+
+
+		/*
+		 * Record a completed request. Called with the lock held.
+		 */
+		void sample(long rttNanos, long now) {
+			if (baselineNanos == 0 || rttNanos < baselineNanos) {
+				baselineNanos = rttNanos;
+			} else {
+				baselineNanos += (long) ((rttNanos - baselineNanos) * BASELINE_DRIFT);
+			}
+
+			if (rttNanos > baselineNanos * latencyTolerance && rttNanos - baselineNanos > LATENCY_NOISE_NANOS) {
+				decrease(now);
+			} else if (inFlight + 1 >= limit / 2 && limit < maxLimit) {
+				// only grow a limit that is being used
+				int before = currentLimit();
+				limit = Math.min(maxLimit, limit + 1 / limit);
+				if (currentLimit() > before) {
+					notifyAll();
+				}
+			}
+		}
+
+
+		/*
+		 * Cut the limit, unless it was cut less than a round trip ago. Called
+		 * with the lock held.
+		 */
+		void decrease(long now) {
+			if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < baselineNanos * latencyTolerance) {
+				return;
+			}
+			limit = Math.max(minLimit, limit * backoffRatio);
+			lastDecreaseNanos = now;
+			decreases++;
+		}
+	}
+
+
+	/**
+	 * A slot for one request. Release it exactly once.
+	 */
+	class Permit {
+
+		private final Endpoint endpoint;
+
+		private final long startNanos = System.nanoTime();
+
+		private boolean released;
+
+
+		private Permit(Endpoint endpoint) {
+			this.endpoint = endpoint;
+		}
+
+
+		/**
+		 * Release the slot and learn from the outcome of the request.
+		 *
+		 * @param response the response, or null if there was none.
+		 * @param failure  why there was no response. May be null.
+		 */
+		void release(TransportResponse response, Throwable failure) {
+			long now = System.nanoTime();
+			synchronized (endpoint) {
+				if (released) {
+					return;
+				}
+				released = true;
+				endpoint.inFlight--;
+				if (response != null) {
+					int status = response.getStatusCode();
+					if (status == 429 || status == 503) {
+						endpoint.dropped++;
+						endpoint.decrease(now);
+					} else {
+						endpoint.sample(now - startNanos, now);
+					}
+				} else if (isTimeout(failure)) {
+					endpoint.dropped++;
+					endpoint.decrease(now);
+				}
+				endpoint.notifyAll();
+			}
+		}
+	}
+
+
+	private static boolean isTimeout(Throwable t) {
+		for (int depth = 0; t != null && depth < 10; depth++) {
+			if (t instanceof SocketTimeoutException) {
+				return true;
+			}
+			t = t.getCause();
+		}
+		return false;
+	}
+
+
+	/**
+	 * A snapshot of the limit and usage of one endpoint.
+	 */
+	public static class EndpointStatus {
+
+		private final String endpoint;
+
+		private final int limit;
+
+		private final int inFlight;
+
+		private final int queueLength;
+
+		private final long baselineMillis;
+
+		private final long requestCount;
+
+		private final long rejectedCount;
+
+		private final long droppedCount;
+
+		private final long decreaseCount;
+
+
+		private EndpointStatus(ConcurrencyLimiter.Endpoint e) {
+			this.endpoint = e.name;
+			this.limit = e.currentLimit();
+			this.inFlight = e.inFlight;
+			this.queueLength = e.lanes.getWaiting();
+			this.baselineMillis = TimeUnit.NANOSECONDS.toMillis(e.baselineNanos);
+			this.requestCount = e.requests;
+			this.rejectedCount = e.rejected;
+			this.droppedCount = e.dropped;
+			this.decreaseCount = e.decreases;
+		}
+
+
+		/**
+		 * @return the endpoint, such as <code>word/definitions</code>.
+		 */
+		public String getEndpoint() {
+			return endpoint;
+		}
+
+
+		/**
+		 * @return requests allowed in flight now.
+		 */
+		public int getLimit() {
+			return limit;
+		}
+
+
+		/**
+		 * @return requests in flight.
+		 */
+		public int getInFlight() {
+			return inFlight;
+		}
+
+
+		/**
+		 * @return callers waiting for a slot.
+		 */
+		public int getQueueLength() {
+			return queueLength;
+		}
+
+
+		/**
+		 * @return the latency the limiter treats as normal, or 0 if not known yet.
+		 */
+		public long getBaselineMillis() {
+			return baselineMillis;
+		}
+
+
+		/**
+		 * @return calls that asked for a slot.
+		 */
+		public long getRequestCount() {
+			return requestCount;
+		}
+
+
+		/**
+		 * @return calls that failed because the queue was full.
+		 */
+		public long getRejectedCount() {
+			return rejectedCount;
+		}
+
+
+		/**
+		 * @return requests that timed out or were answered with HTTP 429 or 503.
+		 */
+		public long getDroppedCount() {
+			return droppedCount;
+		}
+
+
+		/**
+		 * @return times the limit was cut.
+		 */
+		public long getDecreaseCount() {
+			return decreaseCount;
+		}
+
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(this.getClass().getName());
+			sb.append(": [ endpoint=").append(this.endpoint).append(" | ");
+			sb.append("limit=").append(this.limit).append(" | ");
+			sb.append("inFlight=").append(this.inFlight).append(" | ");
+			sb.append("queueLength=").append(this.queueLength).append(" | ");
+			sb.append("baselineMillis=").append(this.baselineMillis).append(" | ");
+			sb.append("requestCount=").append(this.requestCount).append(" | ");
+			sb.append("rejectedCount=").append(this.rejectedCount).append(" | ");
+			sb.append("droppedCount=").append(this.droppedCount).append(" | ");
+			sb.append("decreaseCount=").append(this.decreaseCount).append(" ]");
+
+			return sb.toString();
+		}
+	}
+
+
+	public static class Builder {
+
+		private int initialLimit = DEFAULT_INITIAL_LIMIT;
+
+		private int minLimit = DEFAULT_MIN_LIMIT;
+
+		private int maxLimit = DEFAULT_MAX_LIMIT;
+
+		private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+
+		private double latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+
+		private int maxQueueLength = DEFAULT_MAX_QUEUE_LENGTH;
+
+
+		/**
+		 * @param initialLimit limit for an endpoint before anything is known
+		 *                     about it. The default is <code>DEFAULT_INITIAL_LIMIT</code>.
+		 * @return this builder.
+		 */
+		public Builder initialLimit(int initialLimit) {
+			this.initialLimit = initialLimit;
+			return this;
+		}
+
+
+		/**
+		 * @param minLimit lowest limit. The default is <code>DEFAULT_MIN_LIMIT</code>.
+		 * @return this builder.
+		 */
+		public Builder minLimit(int minLimit) {
+			this.minLimit = minLimit;
+			return this;
+		}
+
+
+		/**
+		 * @param maxLimit highest limit. The default is <code>DEFAULT_MAX_LIMIT</code>.
+		 * @return this builder.
+		 */
+		public Builder maxLimit(int maxLimit) {
+			this.maxLimit = maxLimit;
+			return this;
+		}
+
+
+		/**
+		 * @param backoffRatio ratio, greater than 0 and less than 1, the limit is
+		 *                     multiplied by when the server is overloaded. The
+		 *                     default is <code>DEFAULT_BACKOFF_RATIO</code>.
+		 * @return this builder.
+		 */
+		public Builder backoffRatio(double backoffRatio) {
+			this.backoffRatio = backoffRatio;
+			return this;
+		}
+
+
+		/**
+		 * @param latencyTolerance latency, as a multiple of the baseline, above
+		 *                         which the server is taken to be overloaded.
+		 *                         Greater than 1. The default is
+		 *                         <code>DEFAULT_LATENCY_TOLERANCE</code>.
+		 * @return this builder.
+		 */
+		public Builder latencyTolerance(double latencyTolerance) {
+			this.latencyTolerance = latencyTolerance;
+			return this;
+		}
+
+
+		/**
+		 * @param maxQueueLength callers that may wait for each endpoint. With
+		 *                       zero, callers over the limit fail at once. The
+		 *                       default is <code>DEFAULT_MAX_QUEUE_LENGTH</code>.
+		 * @return this builder.
+		 */
+		public Builder maxQueueLength(int maxQueueLength) {
+			this.maxQueueLength = maxQueueLength;
+			return this;
+		}
+
+
+		public ConcurrencyLimiter build() {
+			if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+				throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max.");
+			}
+			if (!(backoffRatio > 0 && backoffRatio < 1)) {
+				throw new IllegalArgumentException("Backoff ratio must be greater than 0 and less than 1.");
+			}
+			if (!(latencyTolerance > 1)) {
+				throw new IllegalArgumentException("Latency tolerance must be greater than 1.");
+			}
+			if (maxQueueLength < 0) {
+				throw new IllegalArgumentException("Maximum queue length cannot be negative.");
+			}
+			return new ConcurrencyLimiter(this);
+		}
+	}
+}
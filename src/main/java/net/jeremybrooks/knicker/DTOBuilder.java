@@ -69,16 +69,16 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static AuthenticationToken buildAuthenticationToken(Document doc) throws KnickerException {
-		AuthenticationToken auth = new AuthenticationToken();
+		AuthenticationToken.Builder auth = new AuthenticationToken.Builder();
 
 		try {
-			auth.setToken(Util.getValueByXPath(doc, "/authenticationToken/token"));
-			auth.setUserId(Util.getValueByXPath(doc, "/authenticationToken/userId"));
+			auth.token(Util.getValueByXPath(doc, "/authenticationToken/token"));
+			auth.userId(Util.getValueByXPath(doc, "/authenticationToken/userId"));
 		} catch (Exception e) {
 			throw buildKnickerException("buildAuthenticationToken", doc, e);
 		}
 
-		return auth;
+		return auth.build();
 	}
 
 
@@ -100,19 +100,19 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static TokenStatus buildTokenStatus(Document doc) throws KnickerException {
-		TokenStatus status = new TokenStatus();
+		TokenStatus.Builder status = new TokenStatus.Builder();
 		try {
-			status.setExpiresInMillis(Util.getValueByXPathAsLong(doc, "/apiTokenStatus/expiresInMillis"));
-			status.setRemainingCalls(Util.getValueByXPathAsInt(doc, "/apiTokenStatus/remainingCalls"));
-			status.setResetsInMillis(Util.getValueByXPathAsLong(doc, "/apiTokenStatus/resetsInMillis"));
-			status.setToken(Util.getValueByXPath(doc, "/apiTokenStatus/token"));
-			status.setTotalRequests(Util.getValueByXPathAsInt(doc, "/apiTokenStatus/totalRequests"));
-			status.setValid(Util.getValueByXPathAsBoolean(doc, "/apiTokenStatus/valid"));
+			status.expiresInMillis(Util.getValueByXPathAsLong(doc, "/apiTokenStatus/expiresInMillis"));
+			status.remainingCalls(Util.getValueByXPathAsInt(doc, "/apiTokenStatus/remainingCalls"));
+			status.resetsInMillis(Util.getValueByXPathAsLong(doc, "/apiTokenStatus/resetsInMillis"));
+			status.token(Util.getValueByXPath(doc, "/apiTokenStatus/token"));
+			status.totalRequests(Util.getValueByXPathAsInt(doc, "/apiTokenStatus/totalRequests"));
+			status.valid(Util.getValueByXPathAsBoolean(doc, "/apiTokenStatus/valid"));
 		} catch (Exception e) {
 			throw buildKnickerException("buildTokenStatus", doc, e);
 		}
 
-		return status;
+		return status.build();
 	}
 
 
@@ -133,18 +133,18 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static User buildUser(Document doc) throws KnickerException {
-		User user = new User();
+		User.Builder user = new User.Builder();
 
 		try {
-			user.setEmail(Util.getValueByXPath(doc, "/user/email"));
-			user.setId(Util.getValueByXPath(doc, "/user/id"));
-			user.setStatus(Util.getValueByXPath(doc, "/user/status"));
-			user.setUserName(Util.getValueByXPath(doc, "/user/userName"));
+			user.email(Util.getValueByXPath(doc, "/user/email"));
+			user.id(Util.getValueByXPath(doc, "/user/id"));
+			user.status(Util.getValueByXPath(doc, "/user/status"));
+			user.userName(Util.getValueByXPath(doc, "/user/userName"));
 		} catch (Exception e) {
 			throw buildKnickerException("buildUser", doc, e);
 		}
 
-		return user;
+		return user.build();
 	}
 
 
@@ -191,27 +191,27 @@ class DTOBuilder {
 			for (int i = 0; i < wordLists.getLength(); i++) {
 				Node listNode = wordLists.item(i);
 				if (listNode.getNodeName().equals("wordList")) {
-					WordList wl = new WordList();
-					wl.setCreatedAt(Util.getNamedChildTextContent(listNode, "createdAt"));
-					wl.setDescription(Util.getNamedChildTextContent(listNode, "description"));
-					wl.setId(Util.getNamedChildTextContent(listNode, "id"));
-					wl.setName(Util.getNamedChildTextContent(listNode, "name"));
-					wl.setNumberWordsInList(Util.getNamedChildTextContentAsInt(listNode, "numberWordsInList"));
-					wl.setPermalink(Util.getNamedChildTextContent(listNode, "permalink"));
-					wl.setUpdatedAt(Util.getNamedChildTextContent(listNode, "updatedAt"));
-					wl.setUserId(Util.getNamedChildTextContent(listNode, "userId"));
-					wl.setUsername(Util.getNamedChildTextContent(listNode, "username"));
+					WordList.Builder wl = new WordList.Builder();
+					wl.createdAt(Util.getNamedChildTextContent(listNode, "createdAt"));
+					wl.description(Util.getNamedChildTextContent(listNode, "description"));
+					wl.id(Util.getNamedChildTextContent(listNode, "id"));
+					wl.name(Util.getNamedChildTextContent(listNode, "name"));
+					wl.numberWordsInList(Util.getNamedChildTextContentAsInt(listNode, "numberWordsInList"));
+					wl.permalink(Util.getNamedChildTextContent(listNode, "permalink"));
+					wl.updatedAt(Util.getNamedChildTextContent(listNode, "updatedAt"));
+					wl.userId(Util.getNamedChildTextContent(listNode, "userId"));
+					wl.username(Util.getNamedChildTextContent(listNode, "username"));
 					String type = Util.getNamedChildTextContent(listNode, "type");
 
 					if (type.equalsIgnoreCase("PUBLIC")) {
-						wl.setType(Knicker.ListType.PUBLIC);
+						wl.type(Knicker.ListType.PUBLIC);
 					} else if (type.equalsIgnoreCase("PRIVATE")) {
-						wl.setType(Knicker.ListType.PRIVATE);
+						wl.type(Knicker.ListType.PRIVATE);
 					} else {
-						wl.setType(null);
+						wl.type(null);
 					}
 
-					list.add(wl);
+					list.add(wl.build());
 				}
 			}
 		} catch (Exception e) {
@@ -242,12 +242,12 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static Word buildWord(Document doc) throws KnickerException {
-		Word w = new Word();
+		Word.Builder w = new Word.Builder();
 
 		try {
-			w.setWord(Util.getValueByXPath(doc, "/wordObject/word"));
-			w.setCanonicalForm(Util.getValueByXPath(doc, "/wordObject/canonicalForm"));
-			w.setOriginalWord(Util.getValueByXPath(doc, "/wordObject/originalWord"));
+			w.word(Util.getValueByXPath(doc, "/wordObject/word"));
+			w.canonicalForm(Util.getValueByXPath(doc, "/wordObject/canonicalForm"));
+			w.originalWord(Util.getValueByXPath(doc, "/wordObject/originalWord"));
 			NodeList sugs = doc.getElementsByTagName("suggestions");
 			for (int i = 0; i < sugs.getLength(); i++) {
 				Node sug = sugs.item(i);
@@ -258,7 +258,7 @@ class DTOBuilder {
 			throw buildKnickerException("buildWord", doc, e);
 		}
 
-		return w;
+		return w.build();
 	}
 
 
@@ -293,19 +293,19 @@ class DTOBuilder {
 		try {
 			NodeList defNodes = doc.getElementsByTagName("definition");
 			for (int i = 0; i < defNodes.getLength(); i++) {
-				Definition definition = new Definition();
+				Definition.Builder definition = new Definition.Builder();
 
 				Node defNode = defNodes.item(i);
 				NamedNodeMap nnm = defNode.getAttributes();
-				definition.setSequence(Util.getAttributeAsInt(nnm, "sequence"));
-				definition.setText(Util.getNamedChildTextContent(defNode, "text"));
-				definition.setPartOfSpeech(Util.getNamedChildTextContent(defNode, "partOfSpeech"));
-				definition.setScore(Util.getNamedChildTextContent(defNode, "score"));
-				definition.setSourceDictionary(Util.getNamedChildTextContent(defNode, "sourceDictionary"));
-				definition.setWord(Util.getNamedChildTextContent(defNode, "word"));
-				definition.setAttributionText(Util.getNamedChildTextContent(defNode, "attributionText"));
-
-				definitions.add(definition);
+				definition.sequence(Util.getAttributeAsInt(nnm, "sequence"));
+				definition.text(Util.getNamedChildTextContent(defNode, "text"));
+				definition.partOfSpeech(Util.getNamedChildTextContent(defNode, "partOfSpeech"));
+				definition.score(Util.getNamedChildTextContent(defNode, "score"));
+				definition.sourceDictionary(Util.getNamedChildTextContent(defNode, "sourceDictionary"));
+				definition.word(Util.getNamedChildTextContent(defNode, "word"));
+				definition.attributionText(Util.getNamedChildTextContent(defNode, "attributionText"));
+
+				definitions.add(definition.build());
 			}
 		} catch (Exception e) {
 			throw buildKnickerException("buildDefinitions", doc, e);
@@ -344,7 +344,7 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static FrequencySummary buildFrequencySummary(Document doc) throws KnickerException {
-		FrequencySummary fs = new FrequencySummary();
+		FrequencySummary.Builder fs = new FrequencySummary.Builder();
 
 		try {
 			NodeList fNodes = doc.getElementsByTagName("frequency");
@@ -358,14 +358,14 @@ class DTOBuilder {
 				}
 			}
 
-			fs.setTotalCount(Util.getValueByXPathAsInt(doc, "/frequencySummary/totalCount"));
-			fs.setUnknownYearCount(Util.getValueByXPathAsInt(doc, "/frequencySummary/unknownYearCount"));
-			fs.setWord(Util.getValueByXPath(doc, "/frequencySummary/word"));
+			fs.totalCount(Util.getValueByXPathAsInt(doc, "/frequencySummary/totalCount"));
+			fs.unknownYearCount(Util.getValueByXPathAsInt(doc, "/frequencySummary/unknownYearCount"));
+			fs.word(Util.getValueByXPath(doc, "/frequencySummary/word"));
 		} catch (Exception e) {
 			throw buildKnickerException("buildFrequencySummary", doc, e);
 		}
 
-		return fs;
+		return fs.build();
 	}
 
 
@@ -402,8 +402,8 @@ class DTOBuilder {
 			if (relatedNodes != null) {
 				for (int i = 0; i < relatedNodes.getLength(); i++) {
 					Node node = relatedNodes.item(i);
-					Related r = new Related();
-					r.setRelationshipType(Util.getAttribute(node.getAttributes(), "relationshipType"));
+					Related.Builder r = new Related.Builder();
+					r.relationshipType(Util.getAttribute(node.getAttributes(), "relationshipType"));
 
 					NodeList wsNodes = Util.getNamedChildNode(node, "words").getChildNodes();
 					for (int j = 0; j < wsNodes.getLength(); j++) {
@@ -412,7 +412,7 @@ class DTOBuilder {
 							r.addWord(wsNode.getTextContent());
 						}
 					}
-					relateds.add(r);
+					relateds.add(r.build());
 				}
 			}
 		} catch (Exception e) {
@@ -454,15 +454,15 @@ class DTOBuilder {
 		try {
 			NodeList nodes = doc.getElementsByTagName("bigram");
 			for (int i = 0; i < nodes.getLength(); i++) {
-				Phrase p = new Phrase();
+				Phrase.Builder p = new Phrase.Builder();
 				Node node = nodes.item(i);
-				p.setCount(Util.getNamedChildTextContentAsInt(node, "count"));
-				p.setMi(Util.getNamedChildTextContent(node, "mi"));
-				p.setWlmi(Util.getNamedChildTextContent(node, "wlmi"));
-				p.setGram1(Util.getNamedChildTextContent(node, "gram1"));
-				p.setGram2(Util.getNamedChildTextContent(node, "gram2"));
+				p.count(Util.getNamedChildTextContentAsInt(node, "count"));
+				p.mi(Util.getNamedChildTextContent(node, "mi"));
+				p.wlmi(Util.getNamedChildTextContent(node, "wlmi"));
+				p.gram1(Util.getNamedChildTextContent(node, "gram1"));
+				p.gram2(Util.getNamedChildTextContent(node, "gram2"));
 
-				phrases.add(p);
+				phrases.add(p.build());
 			}
 		} catch (Exception e) {
 			throw buildKnickerException("buildPhrase", doc, e);
@@ -497,13 +497,13 @@ class DTOBuilder {
 			NodeList nodes = doc.getElementsByTagName("syllable");
 			if (nodes != null) {
 				for (int i = 0; i < nodes.getLength(); i++) {
-					Syllable s = new Syllable();
+					Syllable.Builder s = new Syllable.Builder();
 					Node node = nodes.item(i);
-					s.setType(Util.getAttribute(node.getAttributes(), "type"));
-					s.setSeq(Util.getAttributeAsInt(node.getAttributes(), "seq"));
-					s.setText(Util.getNamedChildTextContent(node, "text"));
+					s.type(Util.getAttribute(node.getAttributes(), "type"));
+					s.seq(Util.getAttributeAsInt(node.getAttributes(), "seq"));
+					s.text(Util.getNamedChildTextContent(node, "text"));
 
-					syllables.add(s);
+					syllables.add(s.build());
 				}
 			}
 		} catch (Exception e) {
@@ -543,12 +543,12 @@ class DTOBuilder {
 			if (nodes != null) {
 				for (int i = 0; i < nodes.getLength(); i++) {
 					Node node = nodes.item(i);
-					Pronunciation pron = new Pronunciation();
-					pron.setId(Util.getNamedChildTextContent(node, "id"));
-					pron.setRaw(Util.getNamedChildTextContent(node, "raw"));
-					pron.setRawType(Util.getNamedChildTextContent(node, "rawType"));
+					Pronunciation.Builder pron = new Pronunciation.Builder();
+					pron.id(Util.getNamedChildTextContent(node, "id"));
+					pron.raw(Util.getNamedChildTextContent(node, "raw"));
+					pron.rawType(Util.getNamedChildTextContent(node, "rawType"));
 
-					list.add(pron);
+					list.add(pron.build());
 				}
 			}
 
@@ -596,15 +596,15 @@ class DTOBuilder {
 			if (nodes != null) {
 				for (int i = 0; i < nodes.getLength(); i++) {
 					Node node = nodes.item(i);
-					AudioFileMetadata meta = new AudioFileMetadata();
-					meta.setCommentCount(Util.getNamedChildTextContentAsInt(node, "commentCount"));
-					meta.setCreatedAt(Util.getNamedChildTextContent(node, "createdAt"));
-					meta.setCreatedBy(Util.getNamedChildTextContent(node, "createdBy"));
-					meta.setFileUrl(Util.getNamedChildTextContent(node, "fileUrl"));
-					meta.setId(Util.getNamedChildTextContent(node, "id"));
-					meta.setWord(Util.getNamedChildTextContent(node, "word"));
-
-					list.add(meta);
+					AudioFileMetadata.Builder meta = new AudioFileMetadata.Builder();
+					meta.commentCount(Util.getNamedChildTextContentAsInt(node, "commentCount"));
+					meta.createdAt(Util.getNamedChildTextContent(node, "createdAt"));
+					meta.createdBy(Util.getNamedChildTextContent(node, "createdBy"));
+					meta.fileUrl(Util.getNamedChildTextContent(node, "fileUrl"));
+					meta.id(Util.getNamedChildTextContent(node, "id"));
+					meta.word(Util.getNamedChildTextContent(node, "word"));
+
+					list.add(meta.build());
 				}
 			}
 		} catch (Exception e) {
@@ -640,9 +640,9 @@ class DTOBuilder {
 			if (nodes != null) {
 				for (int i = 0; i < nodes.getLength(); i++) {
 					Node node = nodes.item(i);
-					Word word = new Word();
-					word.setWord(Util.getNamedChildTextContent(node, "word"));
-					words.add(word);
+					Word.Builder word = new Word.Builder();
+					word.word(Util.getNamedChildTextContent(node, "word"));
+					words.add(word.build());
 				}
 			}
 		} catch (Exception e) {
@@ -699,22 +699,22 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static WordOfTheDay buildWordOfTheDay(Document doc) throws KnickerException {
-		WordOfTheDay wotd = new WordOfTheDay();
+		WordOfTheDay.Builder wotd = new WordOfTheDay.Builder();
 
 		try {
-			wotd.setId(Util.getValueByXPath(doc, "/WordOfTheDay/id"));
-			wotd.setPublishDate(Util.getValueByXPath(doc, "/WordOfTheDay/publishDate"));
-			wotd.setWord(Util.getValueByXPath(doc, "/WordOfTheDay/word"));
-			wotd.setNote(Util.getValueByXPath(doc, "/WordOfTheDay/note"));
+			wotd.id(Util.getValueByXPath(doc, "/WordOfTheDay/id"));
+			wotd.publishDate(Util.getValueByXPath(doc, "/WordOfTheDay/publishDate"));
+			wotd.word(Util.getValueByXPath(doc, "/WordOfTheDay/word"));
+			wotd.note(Util.getValueByXPath(doc, "/WordOfTheDay/note"));
 
 			NodeList nodes = doc.getElementsByTagName("contentProvider");
 			if (nodes != null) {
 				Node node = nodes.item(0);
-				ContentProvider cp = new ContentProvider();
-				cp.setId(Util.getNamedChildTextContent(node, "id"));
-				cp.setName(Util.getNamedChildTextContent(node, "name"));
+				ContentProvider.Builder cp = new ContentProvider.Builder();
+				cp.id(Util.getNamedChildTextContent(node, "id"));
+				cp.name(Util.getNamedChildTextContent(node, "name"));
 
-				wotd.setContentProvider(cp);
+				wotd.contentProvider(cp.build());
 			}
 
 
@@ -726,10 +726,10 @@ class DTOBuilder {
 						Node node = defNodes.item(i);
 						if (node.getNodeName().equals("definition")) {
 
-							Definition d = new Definition();
-							d.setSourceDictionary(Util.getNamedChildTextContent(node, "source"));
-							d.setText(Util.getNamedChildTextContent(node, "text"));
-							wotd.addDefinition(d);
+							Definition.Builder d = new Definition.Builder();
+							d.sourceDictionary(Util.getNamedChildTextContent(node, "source"));
+							d.text(Util.getNamedChildTextContent(node, "text"));
+							wotd.addDefinition(d.build());
 						}
 					}
 				}
@@ -742,12 +742,12 @@ class DTOBuilder {
 					for (int i = 0; i < exNodes.getLength(); i++) {
 						Node node = exNodes.item(i);
 						if (node.getNodeName().equals("example")) {
-							Example e = new Example();
-							e.setExampleId(Util.getNamedChildTextContent(node, "id"));
-							e.setText(Util.getNamedChildTextContent(node, "text"));
-							e.setTitle(Util.getNamedChildTextContent(node, "title"));
-							e.setUrl(Util.getNamedChildTextContent(node, "url"));
-							wotd.addExample(e);
+							Example.Builder e = new Example.Builder();
+							e.exampleId(Util.getNamedChildTextContent(node, "id"));
+							e.text(Util.getNamedChildTextContent(node, "text"));
+							e.title(Util.getNamedChildTextContent(node, "title"));
+							e.url(Util.getNamedChildTextContent(node, "url"));
+							wotd.addExample(e.build());
 						}
 					}
 				}
@@ -757,7 +757,7 @@ class DTOBuilder {
 		}
 
 
-		return wotd;
+		return wotd.build();
 	}
 
 
@@ -787,10 +787,10 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static SearchResults buildSearchResults(Document doc) throws KnickerException {
-		SearchResults sr = new SearchResults();
+		SearchResults.Builder sr = new SearchResults.Builder();
 
 		try {
-			sr.setTotal(Util.getValueByXPathAsInt(doc, "/wordSearchResults/totalResults"));
+			sr.total(Util.getValueByXPathAsInt(doc, "/wordSearchResults/totalResults"));
 
 			NodeList nl = doc.getElementsByTagName("searchResults");
 			if (nl != null && nl.getLength() > 0) {
@@ -798,11 +798,11 @@ class DTOBuilder {
 				for (int i = 0; i < resultNodes.getLength(); i++) {
 					Node n = resultNodes.item(i);
 					if (n.getNodeName().equals("searchResult")) {
-						SearchResult s = new SearchResult();
-						s.setCount(Util.getNamedChildTextContentAsInt(n, "count"));
-						s.setLexicality(Util.getNamedChildTextContent(n, "lexicality"));
-						s.setWord(Util.getNamedChildTextContent(n, "word"));
-						sr.addSearchResult(s);
+						SearchResult.Builder s = new SearchResult.Builder();
+						s.count(Util.getNamedChildTextContentAsInt(n, "count"));
+						s.lexicality(Util.getNamedChildTextContent(n, "lexicality"));
+						s.word(Util.getNamedChildTextContent(n, "word"));
+						sr.addSearchResult(s.build());
 					}
 				}
 			}
@@ -810,7 +810,7 @@ class DTOBuilder {
 			throw buildKnickerException("buildSearchResults", doc, e);
 		}
 
-		return sr;
+		return sr.build();
 	}
 
 
@@ -836,32 +836,32 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static WordList buildWordList(Document doc) throws KnickerException {
-		WordList wordList = new WordList();
+		WordList.Builder wordList = new WordList.Builder();
 
 		try {
-			wordList.setCreatedAt(Util.getValueByXPath(doc, "/wordList/createdAt"));
-			wordList.setDescription(Util.getValueByXPath(doc, "/wordList/description"));
-			wordList.setId(Util.getValueByXPath(doc, "/wordList/id"));
-			wordList.setName(Util.getValueByXPath(doc, "/wordList/name"));
-			wordList.setNumberWordsInList(Util.getValueByXPathAsInt(doc, "/wordList/numberWordsInList"));
-			wordList.setPermalink(Util.getValueByXPath(doc, "/wordList/permalink"));
-			wordList.setUpdatedAt(Util.getValueByXPath(doc, "/wordList/updatedAt"));
-			wordList.setUserId(Util.getValueByXPath(doc, "/wordList/userId"));
-			wordList.setUsername(Util.getValueByXPath(doc, "/wordList/username"));
+			wordList.createdAt(Util.getValueByXPath(doc, "/wordList/createdAt"));
+			wordList.description(Util.getValueByXPath(doc, "/wordList/description"));
+			wordList.id(Util.getValueByXPath(doc, "/wordList/id"));
+			wordList.name(Util.getValueByXPath(doc, "/wordList/name"));
+			wordList.numberWordsInList(Util.getValueByXPathAsInt(doc, "/wordList/numberWordsInList"));
+			wordList.permalink(Util.getValueByXPath(doc, "/wordList/permalink"));
+			wordList.updatedAt(Util.getValueByXPath(doc, "/wordList/updatedAt"));
+			wordList.userId(Util.getValueByXPath(doc, "/wordList/userId"));
+			wordList.username(Util.getValueByXPath(doc, "/wordList/username"));
 
 			String type = Util.getValueByXPath(doc, "/wordList/type");
 			if (type.equalsIgnoreCase("PUBLIC")) {
-				wordList.setType(Knicker.ListType.PUBLIC);
+				wordList.type(Knicker.ListType.PUBLIC);
 			} else if (type.equalsIgnoreCase("PRIVATE")) {
-				wordList.setType(Knicker.ListType.PRIVATE);
+				wordList.type(Knicker.ListType.PRIVATE);
 			} else {
-				wordList.setType(null);
+				wordList.type(null);
 			}
 		} catch (Exception e) {
 			throw buildKnickerException("buildWordList", doc, e);
 		}
 
-		return wordList;
+		return wordList.build();
 	}
 
 
@@ -903,15 +903,15 @@ class DTOBuilder {
 					for (int i = 0; i < wordNodes.getLength(); i++) {
 						Node node = wordNodes.item(i);
 						if (node.getNodeName().equals("wordListWord")) {
-							WordListWord word = new WordListWord();
-							word.setCreatedAt(Util.getNamedChildTextContent(node, "createdAt"));
-							word.setNumberCommentsOnWord(Util.getNamedChildTextContentAsInt(node, "numberCommentsOnWord"));
-							word.setNumberLists(Util.getNamedChildTextContentAsInt(node, "numberLists"));
-							word.setUserId(Util.getNamedChildTextContent(node, "userId"));
-							word.setUsername(Util.getNamedChildTextContent(node, "username"));
-							word.setWord(Util.getNamedChildTextContent(node, "word"));
-
-							list.add(word);
+							WordListWord.Builder word = new WordListWord.Builder();
+							word.createdAt(Util.getNamedChildTextContent(node, "createdAt"));
+							word.numberCommentsOnWord(Util.getNamedChildTextContentAsInt(node, "numberCommentsOnWord"));
+							word.numberLists(Util.getNamedChildTextContentAsInt(node, "numberLists"));
+							word.userId(Util.getNamedChildTextContent(node, "userId"));
+							word.username(Util.getNamedChildTextContent(node, "username"));
+							word.word(Util.getNamedChildTextContent(node, "word"));
+
+							list.add(word.build());
 						}
 					}
 				}
@@ -966,7 +966,7 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static SearchResults buildExamples(Document doc) throws KnickerException {
-		SearchResults results = new SearchResults();
+		SearchResults.Builder results = new SearchResults.Builder();
 
 		try {
 			NodeList nl = doc.getElementsByTagName("examples");
@@ -975,23 +975,23 @@ class DTOBuilder {
 				for (int i = 0; i < resultNodes.getLength(); i++) {
 					Node n = resultNodes.item(i);
 					if (n.getNodeName().equals("example")) {
-						Example e = new Example();
-						e.setText(Util.getNamedChildTextContent(n, "text"));
-						e.setDocumentId(Util.getNamedChildTextContent(n, "documentId"));
-						e.setExampleId(Util.getNamedChildTextContent(n, "exampleId"));
-						e.setRating(Util.getNamedChildTextContent(n, "rating"));
-						e.setTitle(Util.getNamedChildTextContent(n, "title"));
-						e.setUrl(Util.getNamedChildTextContent(n, "url"));
-						e.setWord(Util.getNamedChildTextContent(n, "word"));
-						e.setYear(Util.getNamedChildTextContent(n, "year"));
+						Example.Builder e = new Example.Builder();
+						e.text(Util.getNamedChildTextContent(n, "text"));
+						e.documentId(Util.getNamedChildTextContent(n, "documentId"));
+						e.exampleId(Util.getNamedChildTextContent(n, "exampleId"));
+						e.rating(Util.getNamedChildTextContent(n, "rating"));
+						e.title(Util.getNamedChildTextContent(n, "title"));
+						e.url(Util.getNamedChildTextContent(n, "url"));
+						e.word(Util.getNamedChildTextContent(n, "word"));
+						e.year(Util.getNamedChildTextContent(n, "year"));
 
 						Node pNode = Util.getNamedChildNode(n, "provider");
-						Provider p = new Provider();
-						p.setId(Util.getNamedChildTextContent(pNode, "id"));
-						p.setName(Util.getNamedChildTextContent(pNode, "name"));
-						e.setProvider(p);
+						Provider.Builder p = new Provider.Builder();
+						p.id(Util.getNamedChildTextContent(pNode, "id"));
+						p.name(Util.getNamedChildTextContent(pNode, "name"));
+						e.provider(p.build());
 
-						results.addExample(e);
+						results.addExample(e.build());
 					}
 				}
 			}
@@ -999,7 +999,7 @@ class DTOBuilder {
 			throw buildKnickerException("buildExamples", doc, e);
 		}
 
-		return results;
+		return results.build();
 	}
 
 
@@ -1027,27 +1027,27 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors.
 	 */
 	static Example buildTopExample(Document doc) throws KnickerException {
-		Example example = new Example();
+		Example.Builder example = new Example.Builder();
 		try {
-			example.setText(Util.getValueByXPath(doc, "/example/text"));
-			example.setDocumentId(Util.getValueByXPath(doc, "/example/documentId"));
-			example.setExampleId(Util.getValueByXPath(doc, "/example/exampleId"));
-			example.setRating(Util.getValueByXPath(doc, "/example/rating"));
-			example.setTitle(Util.getValueByXPath(doc, "/example/title"));
-			example.setUrl(Util.getValueByXPath(doc, "/example/url"));
-			example.setWord(Util.getValueByXPath(doc, "/example/word"));
-			example.setYear(Util.getValueByXPath(doc, "/example/year"));
+			example.text(Util.getValueByXPath(doc, "/example/text"));
+			example.documentId(Util.getValueByXPath(doc, "/example/documentId"));
+			example.exampleId(Util.getValueByXPath(doc, "/example/exampleId"));
+			example.rating(Util.getValueByXPath(doc, "/example/rating"));
+			example.title(Util.getValueByXPath(doc, "/example/title"));
+			example.url(Util.getValueByXPath(doc, "/example/url"));
+			example.word(Util.getValueByXPath(doc, "/example/word"));
+			example.year(Util.getValueByXPath(doc, "/example/year"));
 
 			Node pNode = Util.getNamedChildNode(doc, "provider");
-			Provider p = new Provider();
-			p.setId(Util.getNamedChildTextContent(pNode, "id"));
-			p.setName(Util.getNamedChildTextContent(pNode, "name"));
-			example.setProvider(p);
+			Provider.Builder p = new Provider.Builder();
+			p.id(Util.getNamedChildTextContent(pNode, "id"));
+			p.name(Util.getNamedChildTextContent(pNode, "name"));
+			example.provider(p.build());
 		} catch (Exception e) {
 			throw buildKnickerException("buildTopExample", doc, e);
 		}
 
-		return example;
+		return example.build();
 	}
 
 
@@ -1095,21 +1095,21 @@ class DTOBuilder {
 	 * @throws KnickerException if there are any errors parsing the document
 	 */
 	static DefinitionSearchResults buildDefinitionSearchResults(Document doc) throws KnickerException {
-		DefinitionSearchResults results = new DefinitionSearchResults();
+		DefinitionSearchResults.Builder results = new DefinitionSearchResults.Builder();
 		List<DefinitionSearchResult> resultList = new ArrayList<DefinitionSearchResult>();
 		try {
-			results.setTotalResults(Util.getValueByXPathAsInt(doc, "/definitionSearchResults/totalResults"));
+			results.totalResults(Util.getValueByXPathAsInt(doc, "/definitionSearchResults/totalResults"));
 			NodeList nl = doc.getElementsByTagName("results");
 			if (nl != null && nl.getLength() > 0) {
 				NodeList resultNodes = nl.item(0).getChildNodes();
 				for (int i = 0; i < resultNodes.getLength(); i++) {
 					Node n = resultNodes.item(i);
 					if (n.getNodeName().equals("result")) {
-						DefinitionSearchResult result = new DefinitionSearchResult();
-						result.setSequence(Util.getAttributeAsInt(n.getAttributes(), "sequence"));
-						result.setTextProns(Util.getNamedChildTextContent(n, "textProns"));
-						result.setSourceDictionary(Util.getNamedChildTextContent(n, "sourceDictionary"));
-						result.setExampleUses(Util.getNamedChildTextContent(n, "exampleUses"));
+						DefinitionSearchResult.Builder result = new DefinitionSearchResult.Builder();
+						result.sequence(Util.getAttributeAsInt(n.getAttributes(), "sequence"));
+						result.textProns(Util.getNamedChildTextContent(n, "textProns"));
+						result.sourceDictionary(Util.getNamedChildTextContent(n, "sourceDictionary"));
+						result.exampleUses(Util.getNamedChildTextContent(n, "exampleUses"));
 
 						// get related words; yes, this is ugly
 						List<Related> relatedList = new ArrayList<Related>();
@@ -1119,8 +1119,8 @@ class DTOBuilder {
 							for (int j = 0; j < nodeList.getLength(); j++) {
 								Node node1 = nodeList.item(j);
 								if (node1.getNodeName().equals("relWord")) {
-									Related related = new Related();
-									related.setRelationshipType(Util.getAttribute(node1.getAttributes(), "relationshipType"));
+									Related.Builder related = new Related.Builder();
+									related.relationshipType(Util.getAttribute(node1.getAttributes(), "relationshipType"));
 									Node wordsNode = Util.getNamedChildNode(node1, "words");
 									NodeList wordNodeList = wordsNode.getChildNodes();
 									if (wordNodeList != null && wordNodeList.getLength() > 0) {
@@ -1131,31 +1131,31 @@ class DTOBuilder {
 											}
 										}
 									}
-									relatedList.add(related);
+									relatedList.add(related.build());
 								}
 							}
 						}
-						result.setRelatedWords(relatedList);
+						result.relatedWords(relatedList);
 
-						result.setLabels(Util.getNamedChildTextContent(n, "labels"));
-						result.setCitations(Util.getNamedChildTextContent(n, "citations"));
-						result.setWord(Util.getNamedChildTextContent(n, "word"));
-						result.setAttributionText(Util.getNamedChildTextContent(n, "attributionText"));
-						result.setText(Util.getNamedChildTextContent(n, "text"));
-						result.setPartOfSpeech(Util.getNamedChildTextContent(n, "partOfSpeech"));
-						result.setScore(Util.getNamedChildTextContentAsDouble(n, "score"));
+						result.labels(Util.getNamedChildTextContent(n, "labels"));
+						result.citations(Util.getNamedChildTextContent(n, "citations"));
+						result.word(Util.getNamedChildTextContent(n, "word"));
+						result.attributionText(Util.getNamedChildTextContent(n, "attributionText"));
+						result.text(Util.getNamedChildTextContent(n, "text"));
+						result.partOfSpeech(Util.getNamedChildTextContent(n, "partOfSpeech"));
+						result.score(Util.getNamedChildTextContentAsDouble(n, "score"));
 
-						resultList.add(result);
+						resultList.add(result.build());
 					}
 				}
 			}
 
-			results.setResults(resultList);
+			results.results(resultList);
 		} catch (Exception e) {
 			throw buildKnickerException("buildDefinitionSearchResults", doc, e);
 		}
 
-		return results;
+		return results.build();
 	}
 
 
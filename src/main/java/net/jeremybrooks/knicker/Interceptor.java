@@ -0,0 +1,122 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.transport.TransportRequest;
+import net.jeremybrooks.knicker.transport.TransportResponse;
+
+import java.util.Map;
+
+
+/**
+ * Runs around every API request a <code>KnickerClient</code> sends.
+ * <p/>
+ * Interceptors form an ordered chain between the client and its
+ * <code>Transport</code>. Each one is handed the request and calls
+ * <code>Chain.proceed</code> to pass it, or a changed copy, to the next
+ * interceptor and finally to the transport. An interceptor can also
+ * short-circuit the chain by returning a response of its own, or by
+ * throwing, without calling proceed.
+ * <p/>
+ * Responses of every HTTP status pass back up the chain, so interceptors see
+ * errors such as 429 or 503 as responses. The client reports a response
+ * other than 2xx as a <code>KnickerException</code> once the chain returns.
+ * <p/>
+ * The <code>Throttle</code> and <code>ConcurrencyLimiter</code> are
+ * interceptors too. Add interceptors with
+ * <code>KnickerClient.Builder.interceptor</code>:
+ * <code>
+ * KnickerClient client = new KnickerClient.Builder()
+ *     .interceptor(new RetryInterceptor.Builder().build())
+ *     .throttle(Throttle.perHour(15000, 20))
+ *     .build();
+ * </code>
+ * Implementations must be safe to use from multiple threads.
+ *
+ * @author Jeremy Brooks
+ * @see KnickerClient.Builder#interceptor(Interceptor)
+ */
+public interface Interceptor {
+
+	/**
+	 * Handle a request.
+	 *
+	 * @param chain the request and the rest of the chain.
+	 * @return the response, of any HTTP status.
+	 * @throws KnickerException if no response could be had.
+	 */
+	public TransportResponse intercept(Chain chain) throws KnickerException;
+
+
+	/**
+	 * A request on its way through the interceptor chain.
+	 */
+	public interface Chain {
+
+		/**
+		 * @return the request as handed to this interceptor.
+		 */
+		public TransportRequest getRequest();
+
+
+		/**
+		 * @return the endpoint the request is for, such as "word/definitions".
+		 */
+		public String getEndpoint();
+
+
+		/**
+		 * @return the decoded query parameters of the request. The map cannot
+		 *         be modified.
+		 */
+		public Map<String, String> getParameters();
+
+
+		/**
+		 * @return the user's authentication token, or null if the request is
+		 *         not made for a user.
+		 */
+		public AuthenticationToken getAuthenticationToken();
+
+
+		/**
+		 * @return the context the request is made under, or null if there is none.
+		 */
+		public RequestContext getContext();
+
+
+		/**
+		 * @return the <code>System.nanoTime</code> at which the client started
+		 *         the request.
+		 */
+		public long getStartNanos();
+
+
+		/**
+		 * Pass a request to the rest of the chain. May be called more than
+		 * once, for example to retry.
+		 *
+		 * @param request the request to send.
+		 * @return the response, of any HTTP status.
+		 * @throws KnickerException if no response could be had.
+		 */
+		public TransportResponse proceed(TransportRequest request) throws KnickerException;
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.transport.TransportRequest;
+import net.jeremybrooks.knicker.transport.TransportResponse;
+
+import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * One link of the interceptor chain for a single request.
+ * <p/>
+ * Each call to <code>proceed</code> makes the link for the next interceptor;
+ * after the last interceptor the request goes to the client's transport.
+ * When the client has a key pool, the key is chosen there, once for every
+ * attempt, so interceptors see no api_key header on pooled requests.
+ *
+ * @author Jeremy Brooks
+ */
+final class InterceptorChain implements Interceptor.Chain {
+
+	private final KnickerClient client;
+
+	private final List<Interceptor> interceptors;
+
+	private final int index;
+
+	private final TransportRequest request;
+
+	private final AuthenticationToken token;
+
+	private final RequestContext context;
+
+	private final long startNanos;
+
+	private final String errorMessage;
+
+	private Map<String, String> parameters;
+
+
+	InterceptorChain(KnickerClient client, List<Interceptor> interceptors, TransportRequest request,
+					 AuthenticationToken token, String errorMessage) {
+		this(client, interceptors, 0, request, token, client.getContext(), System.nanoTime(), errorMessage);
+	}
+
+
+	private InterceptorChain(KnickerClient client, List<Interceptor> interceptors, int index,
+							 TransportRequest request, AuthenticationToken token, RequestContext context,
+							 long startNanos, String errorMessage) {
+		this.client = client;
+		this.interceptors = interceptors;
+		this.index = index;
+		this.request = request;
+		this.token = token;
+		this.context = context;
+		this.startNanos = startNanos;
+		this.errorMessage = errorMessage;
+	}
+
+
+	@Override
+	public TransportRequest getRequest() {
+		return request;
+	}
+
+
+	@Override
+	public String getEndpoint() {
+		return ConcurrencyLimiter.endpointOf(request.getUrl());
+	}
+
+
+	@Override
+	public Map<String, String> getParameters() {
+		if (parameters == null) {
+			parameters = parseQuery(request.getUrl());
+		}
+		return parameters;
+	}
+
+
+	@Override
+	public AuthenticationToken getAuthenticationToken() {
+		return token;
+	}
+
+
+	@Override
+	public RequestContext getContext() {
+		return context;
+	}
+
+
+	@Override
+	public long getStartNanos() {
+		return startNanos;
+	}
+
+
+	@Override
+	public TransportResponse proceed(TransportRequest request) throws KnickerException {
+		if (request == null) {
+			throw new KnickerException("Interceptors must pass a request to proceed.");
+		}
+		if (index == interceptors.size()) {
+			return client.sendAttempt(request, token, errorMessage);
+		}
+		InterceptorChain next = new InterceptorChain(client, interceptors, index + 1, request, token,
+				context, startNanos, errorMessage);
+		TransportResponse response = interceptors.get(index).intercept(next);
+		if (response == null) {
+			throw new KnickerException("Interceptor " + interceptors.get(index) + " returned no response.");
+		}
+		return response;
+	}
+
+
+	/*
+	 * The decoded query parameters of a URL, in order. A parameter given more
+	 * than once keeps its last value.
+	 */
+	static Map<String, String> parseQuery(String url) {
+		int start = url.indexOf('?');
+		if (start < 0) {
+			return Collections.emptyMap();
+		}
+		int end = url.indexOf('#', start);
+		String query = url.substring(start + 1, end < 0 ? url.length() : end);
+		Map<String, String> params = new LinkedHashMap<String, String>();
+		for (String pair : query.split("&")) {
+			if (pair.isEmpty()) {
+				continue;
+			}
+			int eq = pair.indexOf('=');
+			String name = eq < 0 ? pair : pair.substring(0, eq);
+			String value = eq < 0 ? "" : pair.substring(eq + 1);
+			params.put(decode(name), decode(value));
+		}
+		return Collections.unmodifiableMap(params);
+	}
+
+
+	private static String decode(String s) {
+		try {
+			// a '+' in a URI built by Knicker is a literal plus, not a space
+			return URLDecoder.decode(s.replace("+", "%2B"), "UTF-8");
+		} catch (Exception e) {
+			return s;
+		}
+	}
+}
@@ -169,4 +169,83 @@ public abstract class Knicker {
 		synonym,
 		hypernym
 	}
+
+	/**
+	 * The parts of a word profile. Each facet is fetched by one API call.
+	 * <p/>
+	 * <ul>
+	 * <li>LOOKUP: <code>lookup</code></li>
+	 * <li>DEFINITIONS: <code>definitions</code></li>
+	 * <li>EXAMPLES: <code>examples</code></li>
+	 * <li>TOP_EXAMPLE: <code>topExample</code></li>
+	 * <li>RELATED: <code>related</code></li>
+	 * <li>PRONUNCIATIONS: <code>pronunciations</code></li>
+	 * <li>HYPHENATION: <code>hyphenation</code></li>
+	 * <li>AUDIO: <code>audio</code></li>
+	 * <li>FREQUENCY: <code>frequency</code></li>
+	 * </ul>
+	 */
+	public static enum Facet {
+		LOOKUP,
+		DEFINITIONS,
+		EXAMPLES,
+		TOP_EXAMPLE,
+		RELATED,
+		PRONUNCIATIONS,
+		HYPHENATION,
+		AUDIO,
+		FREQUENCY
+	}
+
+	/**
+	 * The calls whose results the client caches. Used to set how long each may
+	 * be served stale.
+	 * <p/>
+	 * <ul>
+	 * <li>LOOKUP: <code>lookup</code></li>
+	 * <li>EXAMPLES: <code>examples</code></li>
+	 * <li>TOP_EXAMPLE: <code>topExample</code></li>
+	 * <li>DEFINITIONS: <code>definitions</code></li>
+	 * <li>FREQUENCY: <code>frequency</code></li>
+	 * <li>RELATED: <code>related</code></li>
+	 * <li>PHRASES: <code>phrases</code></li>
+	 * <li>HYPHENATION: <code>hyphenation</code></li>
+	 * <li>PRONUNCIATIONS: <code>pronunciations</code></li>
+	 * <li>WORD_OF_THE_DAY: <code>wordOfTheDay</code></li>
+	 * <li>SEARCH: <code>search</code></li>
+	 * <li>REVERSE_DICTIONARY: <code>reverseDictionary</code></li>
+	 * </ul>
+	 */
+	public static enum CachedCall {
+		LOOKUP,
+		EXAMPLES,
+		TOP_EXAMPLE,
+		DEFINITIONS,
+		FREQUENCY,
+		RELATED,
+		PHRASES,
+		HYPHENATION,
+		PRONUNCIATIONS,
+		WORD_OF_THE_DAY,
+		SEARCH,
+		REVERSE_DICTIONARY
+	}
+
+	/**
+	 * The priority of a call, set on its <code>RequestContext</code>. When
+	 * calls wait for a throttle or concurrency limiter, the priorities take
+	 * turns in the ratio 16 : 4 : 1, so interactive calls go first while bulk
+	 * work still makes slow progress.
+	 * <p/>
+	 * <ul>
+	 * <li>INTERACTIVE: a user is waiting for the answer.</li>
+	 * <li>NORMAL: the default.</li>
+	 * <li>BULK: crawls, warm-up and other work that can be deferred.</li>
+	 * </ul>
+	 */
+	public static enum Priority {
+		INTERACTIVE,
+		NORMAL,
+		BULK
+	}
 }
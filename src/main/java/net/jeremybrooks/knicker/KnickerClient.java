@@ -0,0 +1,3891 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.cache.CacheEntry;
+import net.jeremybrooks.knicker.cache.CanonicalAliasTable;
+import net.jeremybrooks.knicker.cache.KnickerCache;
+import net.jeremybrooks.knicker.cache.NegativeCache;
+import net.jeremybrooks.knicker.cache.PageCache;
+import net.jeremybrooks.knicker.dto.AudioFileMetadata;
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.dto.Definition;
+import net.jeremybrooks.knicker.dto.DefinitionSearchResult;
+import net.jeremybrooks.knicker.dto.DefinitionSearchResults;
+import net.jeremybrooks.knicker.dto.Example;
+import net.jeremybrooks.knicker.dto.FrequencySummary;
+import net.jeremybrooks.knicker.dto.Phrase;
+import net.jeremybrooks.knicker.dto.Pronunciation;
+import net.jeremybrooks.knicker.dto.Related;
+import net.jeremybrooks.knicker.dto.SearchResult;
+import net.jeremybrooks.knicker.dto.SearchResults;
+import net.jeremybrooks.knicker.dto.Syllable;
+import net.jeremybrooks.knicker.dto.TokenStatus;
+import net.jeremybrooks.knicker.dto.User;
+import net.jeremybrooks.knicker.dto.Word;
+import net.jeremybrooks.knicker.dto.WordList;
+import net.jeremybrooks.knicker.dto.WordListWord;
+import net.jeremybrooks.knicker.dto.WordOfTheDay;
+import net.jeremybrooks.knicker.dto.WordProfile;
+import net.jeremybrooks.knicker.flow.Flow;
+import net.jeremybrooks.knicker.flow.PagedPublisher;
+import net.jeremybrooks.knicker.logger.KnickerLogger;
+import net.jeremybrooks.knicker.transport.RequestTiming;
+import net.jeremybrooks.knicker.transport.Transport;
+import net.jeremybrooks.knicker.transport.TransportRequest;
+import net.jeremybrooks.knicker.transport.TransportResponse;
+import net.jeremybrooks.knicker.transport.UrlConnectionTransport;
+import org.w3c.dom.Document;
+
+import javax.swing.SortOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A Wordnik API client with its own configuration.
+ * <p/>
+ * Each client holds its own API key, endpoints, timeouts, transport and
+ * executor, so several clients with different settings can be used in the same
+ * JVM. Clients are immutable and safe to share between threads. Create one
+ * with the builder:
+ * <code>
+ * KnickerClient client = new KnickerClient.Builder().apiKey("your key").readTimeout(2000).build();
+ * List&lt;Definition&gt; defs = client.definitions("zebra", null);
+ * </code>
+ * <p/>
+ * The static methods in <code>AccountApi</code>, <code>WordApi</code>,
+ * <code>WordListApi</code> and <code>WordsApi</code> delegate to the default
+ * client returned by <code>getDefault()</code>. Unless replaced with
+ * <code>setDefault()</code>, the default client reads the API key from the
+ * WORDNIK_API_KEY system property on every request, and reads its timeouts
+ * (in milliseconds) from the KNICKER_CONN_TIMEOUT and KNICKER_READ_TIMEOUT
+ * system properties when it is created.
+ * <p/>
+ * Calls made through <code>withContext</code>, or on a thread with a bound
+ * <code>RequestContext</code>, honor that context's deadline and cancellation.
+ * <p/>
+ * A <code>TimingListener</code> given to the builder receives the phase
+ * timings of a sample of requests; see <code>RequestTiming</code>.
+ *
+ * @author Jeremy Brooks
+ */
+public class KnickerClient extends Knicker {
+
+	/* Default connect timeout, in milliseconds. */
+	public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+	/* Default read timeout, in milliseconds. */
+	public static final int DEFAULT_READ_TIMEOUT = 30000;
+
+	/* Default time cached results stay fresh, in minutes. */
+	public static final long DEFAULT_CACHE_TTL_MINUTES = 60;
+
+	/* Default fraction of requests timed when there is a timing listener. */
+	public static final double DEFAULT_TIMING_SAMPLE_RATE = 1.0;
+
+	/* Default largest request body when adding or deleting words, in bytes. */
+	public static final int DEFAULT_MAX_CHUNK_BYTES = 256 * 1024;
+
+	/* Default number of requests in flight while syncing a word list. */
+	public static final int DEFAULT_SYNC_CONCURRENCY = 4;
+
+	/* Words fetched per request when reading a word list to sync it. */
+	private static final int SYNC_PAGE_SIZE = 1000;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/* What the server answers for a word it does not know. */
+	private static final byte[] WORD_NOT_FOUND = "<wordObject/>".getBytes(UTF_8);
+
+	/* WORD_NOT_FOUND parsed, once it has been needed. */
+	private static volatile Word notFoundWord;
+
+	/* Request templates, relative to the endpoint they are expanded with. */
+	private static final RequestTemplate AUTHENTICATE = RequestTemplate.compile("/authenticate/{username}");
+	private static final RequestTemplate API_TOKEN_STATUS = RequestTemplate.compile("/apiTokenStatus");
+	private static final RequestTemplate USER = RequestTemplate.compile("/user");
+	private static final RequestTemplate USER_WORD_LISTS = RequestTemplate.compile("/wordLists");
+	private static final RequestTemplate WORD = RequestTemplate.compile("/{word}");
+	private static final RequestTemplate EXAMPLES = RequestTemplate.compile("/{word}/examples");
+	private static final RequestTemplate DEFINITIONS = RequestTemplate.compile("/{word}/definitions");
+	private static final RequestTemplate FREQUENCY = RequestTemplate.compile("/{word}/frequency");
+	private static final RequestTemplate TOP_EXAMPLE = RequestTemplate.compile("/{word}/topExample");
+	private static final RequestTemplate RELATED_WORDS = RequestTemplate.compile("/{word}/relatedWords");
+	private static final RequestTemplate PHRASES = RequestTemplate.compile("/{word}/phrases");
+	private static final RequestTemplate HYPHENATION = RequestTemplate.compile("/{word}/hyphenation");
+	private static final RequestTemplate PRONUNCIATIONS = RequestTemplate.compile("/{word}/pronunciations");
+	private static final RequestTemplate AUDIO = RequestTemplate.compile("/{word}/audio");
+	private static final RequestTemplate WORD_LIST = RequestTemplate.compile("/{permalink}");
+	private static final RequestTemplate WORD_LIST_WORDS = RequestTemplate.compile("/{permalink}/words");
+	private static final RequestTemplate DELETE_WORDS = RequestTemplate.compile("/{permalink}/deleteWords");
+	private static final RequestTemplate RANDOM_WORD = RequestTemplate.compile("/randomWord");
+	private static final RequestTemplate RANDOM_WORDS = RequestTemplate.compile("/randomWords");
+	private static final RequestTemplate WORD_OF_THE_DAY = RequestTemplate.compile("/wordOfTheDay");
+	private static final RequestTemplate SEARCH = RequestTemplate.compile("/search/{query}");
+	private static final RequestTemplate REVERSE_DICTIONARY = RequestTemplate.compile("/reverseDictionary");
+
+	/* Build the results of calls that are not cached from their responses. */
+	private static final Mapper<AuthenticationToken> AUTHENTICATION_TOKEN_MAPPER = new Mapper<AuthenticationToken>() {
+		@Override
+		public AuthenticationToken map(Document doc) throws KnickerException {
+			return DTOBuilder.buildAuthenticationToken(doc);
+		}
+	};
+
+	private static final Mapper<TokenStatus> TOKEN_STATUS_MAPPER = new Mapper<TokenStatus>() {
+		@Override
+		public TokenStatus map(Document doc) throws KnickerException {
+			return DTOBuilder.buildTokenStatus(doc);
+		}
+	};
+
+	private static final Mapper<User> USER_MAPPER = new Mapper<User>() {
+		@Override
+		public User map(Document doc) throws KnickerException {
+			return DTOBuilder.buildUser(doc);
+		}
+	};
+
+	private static final Mapper<List<WordList>> WORD_LISTS_MAPPER = new Mapper<List<WordList>>() {
+		@Override
+		public List<WordList> map(Document doc) throws KnickerException {
+			return DTOBuilder.buildWordLists(doc);
+		}
+	};
+
+	private static final Mapper<WordList> WORD_LIST_MAPPER = new Mapper<WordList>() {
+		@Override
+		public WordList map(Document doc) throws KnickerException {
+			return DTOBuilder.buildWordList(doc);
+		}
+	};
+
+	private static final Mapper<List<WordListWord>> WORD_LIST_WORDS_MAPPER = new Mapper<List<WordListWord>>() {
+		@Override
+		public List<WordListWord> map(Document doc) throws KnickerException {
+			return DTOBuilder.buildWordListWords(doc);
+		}
+	};
+
+	private static final Mapper<List<Word>> WORDS_MAPPER = new Mapper<List<Word>>() {
+		@Override
+		public List<Word> map(Document doc) throws KnickerException {
+			return DTOBuilder.buildWords(doc);
+		}
+	};
+
+	private static final Mapper<List<AudioFileMetadata>> AUDIO_MAPPER = new Mapper<List<AudioFileMetadata>>() {
+		@Override
+		public List<AudioFileMetadata> map(Document doc) throws KnickerException {
+			return DTOBuilder.buildAudio(doc);
+		}
+	};
+
+	private static volatile KnickerClient defaultClient;
+
+	private final String apiKey;
+	private final String accountEndpoint;
+	private final String wordEndpoint;
+	private final String wordListEndpoint;
+	private final String wordListsEndpoint;
+	private final String wordsEndpoint;
+	private final int connectTimeout;
+	private final int readTimeout;
+	private final Transport transport;
+	private final ExecutorHolder executorHolder;
+	private final RequestContext context;
+	private final NegativeCache negativeCache;
+	private final PageCache pageCache;
+	private final int splitPageSize;
+	private final int splitConcurrency;
+	private final KnickerCache cache;
+	private final long cacheTtlMillis;
+	private final long defaultMaxStaleMillis;
+	/* Stale limits set for single calls, overriding the default. */
+	private final Map<CachedCall, Long> maxStaleMillis;
+	private final double refreshAhead;
+	/* Keys being fetched in the background, shared by every view of the client. */
+	private final Set<String> revalidating;
+	private final CanonicalAliasTable aliasTable;
+	private final Throttle throttle;
+	private final ApiKeyPool keyPool;
+	private final ConcurrencyLimiter concurrencyLimiter;
+	/* Interceptors given to the builder. */
+	private final List<Interceptor> interceptors;
+	/* Interceptors every request runs through, in order. */
+	private final List<Interceptor> chain;
+	private final TimingListener timingListener;
+	private final double timingSampleRate;
+	/* Time one request in this many; zero times none. */
+	private final long timingSamplePeriod;
+	/* Counts requests for sampling, shared by every view of the client. */
+	private final AtomicLong timingSequence;
+	private final SlowRequestLog slowRequestLog;
+
+
+	private KnickerClient(Builder builder) {
+		this.apiKey = builder.apiKey;
+		this.accountEndpoint = builder.accountEndpoint;
+		this.wordEndpoint = builder.wordEndpoint;
+		this.wordListEndpoint = builder.wordListEndpoint;
+		this.wordListsEndpoint = builder.wordListsEndpoint;
+		this.wordsEndpoint = builder.wordsEndpoint;
+		this.connectTimeout = builder.connectTimeout;
+		this.readTimeout = builder.readTimeout;
+		this.transport = builder.transport == null ? new UrlConnectionTransport() : builder.transport;
+		this.executorHolder = new ExecutorHolder(builder.executor);
+		this.context = builder.context;
+		this.negativeCache = builder.negativeCache;
+		this.pageCache = builder.pageCache;
+		this.splitPageSize = builder.splitPageSize;
+		this.splitConcurrency = builder.splitConcurrency;
+		this.cache = builder.cache;
+		this.cacheTtlMillis = builder.cacheTtlMillis;
+		this.defaultMaxStaleMillis = builder.defaultMaxStaleMillis;
+		this.maxStaleMillis = Collections.unmodifiableMap(new EnumMap<CachedCall, Long>(builder.maxStaleMillis));
+		this.refreshAhead = builder.refreshAhead;
+		this.revalidating = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		this.aliasTable = builder.aliasTable;
+		this.throttle = builder.throttle;
+		this.keyPool = builder.keyPool;
+		this.concurrencyLimiter = builder.concurrencyLimiter;
+		this.interceptors = Collections.unmodifiableList(new ArrayList<Interceptor>(builder.interceptors));
+		List<Interceptor> chain = new ArrayList<Interceptor>(builder.interceptors);
+		if (throttle != null && !chain.contains(throttle)) {
+			chain.add(throttle);
+		}
+		if (concurrencyLimiter != null && !chain.contains(concurrencyLimiter)) {
+			chain.add(concurrencyLimiter);
+		}
+		this.chain = Collections.unmodifiableList(chain);
+		this.timingListener = builder.timingListener;
+		this.timingSampleRate = builder.timingSampleRate;
+		this.timingSamplePeriod = timingSampleRate == 0 ? 0 : Math.max(1, Math.round(1 / timingSampleRate));
+		this.timingSequence = new AtomicLong();
+		this.slowRequestLog = builder.slowRequestLog;
+	}
+
+
+	/*
+	 * Copy the source client, replacing its request context.
+	 */
+	private KnickerClient(KnickerClient source, RequestContext context) {
+		this.apiKey = source.apiKey;
+		this.accountEndpoint = source.accountEndpoint;
+		this.wordEndpoint = source.wordEndpoint;
+		this.wordListEndpoint = source.wordListEndpoint;
+		this.wordListsEndpoint = source.wordListsEndpoint;
+		this.wordsEndpoint = source.wordsEndpoint;
+		this.connectTimeout = source.connectTimeout;
+		this.readTimeout = source.readTimeout;
+		this.transport = source.transport;
+		this.executorHolder = source.executorHolder;
+		this.context = context;
+		this.negativeCache = source.negativeCache;
+		this.pageCache = source.pageCache;
+		this.splitPageSize = source.splitPageSize;
+		this.splitConcurrency = source.splitConcurrency;
+		this.cache = source.cache;
+		this.cacheTtlMillis = source.cacheTtlMillis;
+		this.defaultMaxStaleMillis = source.defaultMaxStaleMillis;
+		this.maxStaleMillis = source.maxStaleMillis;
+		this.refreshAhead = source.refreshAhead;
+		this.revalidating = source.revalidating;
+		this.aliasTable = source.aliasTable;
+		this.throttle = source.throttle;
+		this.keyPool = source.keyPool;
+		this.concurrencyLimiter = source.concurrencyLimiter;
+		this.interceptors = source.interceptors;
+		this.chain = source.chain;
+		this.timingListener = source.timingListener;
+		this.timingSampleRate = source.timingSampleRate;
+		this.timingSamplePeriod = source.timingSamplePeriod;
+		this.timingSequence = source.timingSequence;
+		this.slowRequestLog = source.slowRequestLog;
+	}
+
+
+	/**
+	 * Get the client used by the static API classes.
+	 *
+	 * @return the default client.
+	 */
+	public static KnickerClient getDefault() {
+		KnickerClient client = defaultClient;
+		if (client == null) {
+			synchronized (KnickerClient.class) {
+				client = defaultClient;
+				if (client == null) {
+					Builder builder = new Builder()
+							.connectTimeout(Integer.getInteger("KNICKER_CONN_TIMEOUT", DEFAULT_CONNECT_TIMEOUT))
+							.readTimeout(Integer.getInteger("KNICKER_READ_TIMEOUT", DEFAULT_READ_TIMEOUT));
+					String keys = System.getProperty("WORDNIK_API_KEYS");
+					if (keys != null && !keys.trim().isEmpty()) {
+						builder.keyPool(ApiKeyPool.parse(keys));
+					}
+					client = builder.build();
+					defaultClient = client;
+				}
+			}
+		}
+		return client;
+	}
+
+
+	/**
+	 * Replace the client used by the static API classes.
+	 * <p/>
+	 * Passing null restores a default client configured from system properties.
+	 *
+	 * @param client the new default client.
+	 */
+	public static void setDefault(KnickerClient client) {
+		synchronized (KnickerClient.class) {
+			defaultClient = client;
+		}
+	}
+
+
+	/**
+	 * Create a builder initialized with this client's configuration.
+	 *
+	 * @return a new builder.
+	 */
+	public Builder toBuilder() {
+		return new Builder(this);
+	}
+
+
+	/**
+	 * Get a view of this client that makes every call under the given context.
+	 * <p/>
+	 * The view shares this client's configuration and executor, so it is cheap
+	 * to create one per operation.
+	 *
+	 * @param context the context to use. If null, the view uses the context
+	 *                bound to the calling thread, if any.
+	 * @return a client bound to the context.
+	 * @see RequestContext
+	 */
+	public KnickerClient withContext(RequestContext context) {
+		return new KnickerClient(this, context);
+	}
+
+
+	/**
+	 * Get a view of this client whose calls run at the given priority.
+	 * <p/>
+	 * The view keeps the deadline and cancellation of the current context, if
+	 * there is one. Use BULK for batch work so that it yields to interactive
+	 * callers on the throttle and concurrency limiter.
+	 *
+	 * @param priority the priority for calls made through the view.
+	 * @return a client bound to a context with the given priority.
+	 * @throws IllegalArgumentException if priority is null.
+	 * @see RequestContext#withPriority(Priority)
+	 */
+	public KnickerClient withPriority(Priority priority) {
+		RequestContext current = getContext();
+		return withContext((current == null ? RequestContext.create() : current).withPriority(priority));
+	}
+
+
+	/**
+	 * Get the context that calls made now would run under.
+	 *
+	 * @return the context given to <code>withContext</code>, or the context bound
+	 *         to the calling thread, or null if there is neither.
+	 */
+	public RequestContext getContext() {
+		return context == null ? RequestContext.current() : context;
+	}
+
+
+	/**
+	 * @return the negative cache, or null if negative caching is disabled.
+	 */
+	public NegativeCache getNegativeCache() {
+		return negativeCache;
+	}
+
+
+	/**
+	 * @return the page cache, or null if paged results are not cached by position.
+	 */
+	public PageCache getPageCache() {
+		return pageCache;
+	}
+
+
+	/**
+	 * @return most results asked for in one search or reverseDictionary
+	 *         request, or zero if calls are not split.
+	 */
+	public int getSplitPageSize() {
+		return splitPageSize;
+	}
+
+
+	/**
+	 * @return the result cache, or null if results are not cached.
+	 */
+	public KnickerCache getCache() {
+		return cache;
+	}
+
+
+	/**
+	 * @return how long cached results stay fresh, in milliseconds.
+	 */
+	public long getCacheTtlMillis() {
+		return cacheTtlMillis;
+	}
+
+
+	/**
+	 * @param call a cached call.
+	 * @return how long after expiry the call's cached results may be served
+	 *         stale, in milliseconds. Zero if they are never served stale.
+	 */
+	public long getMaxStaleMillis(CachedCall call) {
+		Long millis = maxStaleMillis.get(call);
+		return millis == null ? defaultMaxStaleMillis : millis;
+	}
+
+
+	/**
+	 * @return the share of a cached result's time to live, at the end of it,
+	 *         during which reading the result starts a background refresh.
+	 *         Zero if results are not refreshed ahead of expiry.
+	 */
+	public double getRefreshAhead() {
+		return refreshAhead;
+	}
+
+
+	/**
+	 * @return the canonical alias table, or null if aliases are not learned.
+	 */
+	public CanonicalAliasTable getAliasTable() {
+		return aliasTable;
+	}
+
+
+	/**
+	 * @return the throttle applied to API calls, or null if calls are not throttled.
+	 */
+	public Throttle getThrottle() {
+		return throttle;
+	}
+
+
+	/**
+	 * @return the pool of API keys calls are spread over, or null if one key is used.
+	 */
+	public ApiKeyPool getKeyPool() {
+		return keyPool;
+	}
+
+
+	/**
+	 * @return the limiter on requests in flight, or null if there is no limit.
+	 */
+	public ConcurrencyLimiter getConcurrencyLimiter() {
+		return concurrencyLimiter;
+	}
+
+
+	/**
+	 * Get the interceptors every API request runs through.
+	 * <p/>
+	 * These are the interceptors given to the builder, followed by the
+	 * throttle and the concurrency limiter unless they were added as
+	 * interceptors themselves.
+	 *
+	 * @return the interceptor chain, outermost first. The list cannot be modified.
+	 */
+	public List<Interceptor> getInterceptors() {
+		return chain;
+	}
+
+
+	/**
+	 * @return the listener that receives request timings, or null if there is none.
+	 */
+	public TimingListener getTimingListener() {
+		return timingListener;
+	}
+
+
+	/**
+	 * @return fraction of requests whose timings are sent to the timing listener.
+	 */
+	public double getTimingSampleRate() {
+		return timingSampleRate;
+	}
+
+
+	/**
+	 * @return the log of slow and failed requests, or null if there is none.
+	 */
+	public SlowRequestLog getSlowRequestLog() {
+		return slowRequestLog;
+	}
+
+
+	/**
+	 * @return the API key, or null if the key is read from the WORDNIK_API_KEY system property.
+	 */
+	public String getApiKey() {
+		return apiKey;
+	}
+
+
+	/**
+	 * @return the connect timeout, in milliseconds.
+	 */
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+
+	/**
+	 * @return the read timeout, in milliseconds.
+	 */
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+
+	/**
+	 * @return the transport used for HTTP requests.
+	 */
+	public Transport getTransport() {
+		return transport;
+	}
+
+
+	/**
+	 * Get the executor used for background and concurrent work.
+	 * <p/>
+	 * If no executor was configured, a pool of daemon threads is created the
+	 * first time this method is called. That pool is shut down by
+	 * <code>shutdown()</code>; a configured executor is never shut down by the client.
+	 *
+	 * @return the executor.
+	 */
+	public ExecutorService getExecutor() {
+		return executorHolder.get();
+	}
+
+
+	/**
+	 * Release resources held by this client.
+	 * <p/>
+	 * This shuts down the executor if it was created by the client.
+	 */
+	public void shutdown() {
+		executorHolder.shutdown();
+	}
+
+
+	public String getAccountEndpoint() {
+		return accountEndpoint;
+	}
+
+
+	public String getWordEndpoint() {
+		return wordEndpoint;
+	}
+
+
+	public String getWordListEndpoint() {
+		return wordListEndpoint;
+	}
+
+
+	public String getWordListsEndpoint() {
+		return wordListsEndpoint;
+	}
+
+
+	public String getWordsEndpoint() {
+		return wordsEndpoint;
+	}
+
+
+	/* ********************************************************************
+	 * Account API
+	 * ********************************************************************/
+
+	/**
+	 * Log in to Wordnik.
+	 * <p/>
+	 * Certain methods — currently, user accounts and list-related CRUD
+	 * operations — are only available to you if you pass a valid
+	 * authentication token.
+	 * <p/>
+	 * This method logs you in to Wordnik via the API and returns an instance of
+	 * <code>AuthenticationToken</code> which you can then use to make other
+	 * requests.
+	 *
+	 * @param username Wordnik username.
+	 * @param password Wordnik password for the user.
+	 * @return authentication token for the user.
+	 * @throws KnickerException if the username or password is null, or if there
+	 *                          are any errors.
+	 */
+	public AuthenticationToken authenticate(String username, String password) throws KnickerException {
+		if (username == null || username.isEmpty()) {
+			throw new KnickerException("You must specify a username.");
+		}
+		if (password == null || password.isEmpty()) {
+			throw new KnickerException("You must specify a password.");
+		}
+
+		AuthenticationToken auth = null;
+
+		String uri = AUTHENTICATE.expand(accountEndpoint, username)
+				.param("password", password)
+				.build();
+
+		auth = doGet(uri, null, AUTHENTICATION_TOKEN_MAPPER);
+
+		return auth;
+	}
+
+
+	/**
+	 * Check your API key usage by calling the apiTokenStatus
+	 * resource. This call does not count against your API usage.
+	 *
+	 * @return your current API usage information.
+	 * @throws KnickerException if there are any errors.
+	 */
+	public TokenStatus apiTokenStatus() throws KnickerException {
+		return doGet(API_TOKEN_STATUS.expand(accountEndpoint).build(), null, TOKEN_STATUS_MAPPER);
+	}
+
+
+	/*
+	 * Get the status of a specific API key, regardless of the key this client uses.
+	 */
+	TokenStatus apiTokenStatus(String key) throws KnickerException {
+		return call("GET", API_TOKEN_STATUS.expand(accountEndpoint).build(), null, null, key,
+				"Error getting a response from the server.", TOKEN_STATUS_MAPPER);
+	}
+
+
+	/**
+	 * Get information about the currently logged in user.
+	 * <p/>
+	 * A valid auth token is required. The auth token can be obtained by calling
+	 * authenticate.
+	 *
+	 * @param token the authentication token for the logged in user.
+	 * @return a user object.
+	 * @throws KnickerException if the token is null or if there are any errors.
+	 */
+	public User user(AuthenticationToken token) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+
+		String uri = USER.expand(accountEndpoint)
+				.param("auth_token", token.getToken())
+				.build();
+
+		return doGet(uri, null, USER_MAPPER);
+	}
+
+
+	/**
+	 * Fetch all of the authenticated user’s word lists.
+	 * <p/>
+	 * This method requires a valid authentication token, which can be obtained
+	 * by calling the authenticate method.
+	 *
+	 * @param token authentication token.
+	 * @return all of the user's word lists.
+	 * @throws KnickerException if the token is null, or if there are any errors.
+	 */
+	public List<WordList> wordLists(AuthenticationToken token) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+
+		String uri = USER_WORD_LISTS.expand(accountEndpoint)
+				.param("auth_token", token.getToken())
+				.build();
+
+		return doGet(uri, token, WORD_LISTS_MAPPER);
+	}
+
+
+	/**
+	 * Fetch the authenticated user’s word lists.
+	 * <p/>
+	 * This method requires a valid authentication token, which can be obtained
+	 * by calling the authenticate method.
+	 *
+	 * @param token authentication token.
+	 * @param skip  number of lists to skip.
+	 * @param limit maximum number of results to return.
+	 * @return list of the user's word lists.
+	 * @throws KnickerException if the token is null, or if there are any errors.
+	 */
+	public List<WordList> wordLists(AuthenticationToken token, int skip, int limit) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+
+		String uri = USER_WORD_LISTS.expand(accountEndpoint)
+				.param("auth_token", token.getToken())
+				.param("limit", limit)
+				.param("skip", skip)
+				.build();
+
+		return doGet(uri, null, WORD_LISTS_MAPPER);
+	}
+
+
+	/* ********************************************************************
+	 * Word API
+	 * ********************************************************************/
+
+	/**
+	 * Fetch the word you requested, along with its canonical Wordnik ID,
+	 * assuming it is found in the corpus.
+	 * <p/>
+	 * You can pass additional parameters to retrieve spelling suggestions.
+	 *
+	 * @param word               the word to look up.
+	 * @param useCanonical       If true will try to return the correct word root
+	 *                           ('cats' -> 'cat'). If false returns exactly what was requested.
+	 * @param includeSuggestions Return suggestions (for correct spelling, case variants, etc.)
+	 * @return results of looking up the word.
+	 * @throws KnickerException if the word is null, or if there are any errors.
+	 */
+	public Word lookup(String word, boolean useCanonical, boolean includeSuggestions) throws KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+
+		RequestTemplate.Builder uri = WORD.expand(wordEndpoint, word);
+		if (useCanonical) {
+			uri.param("useCanonical", true);
+		}
+		if (includeSuggestions) {
+			uri.param("useSuggestions", true);
+		}
+
+		// a word that is not found still has suggestions, which the negative cache cannot hold
+		String key = uri.build();
+		if (!includeSuggestions && negativeCache != null && negativeCache.isKnownMissing(key)) {
+			return notFoundWord();
+		}
+
+		Word result = cached(CachedCall.LOOKUP, key);
+		if (result == null) {
+			result = fetch(CachedCall.LOOKUP, key);
+			if (!includeSuggestions && (result.getWord() == null || result.getWord().isEmpty())) {
+				if (negativeCache != null) {
+					negativeCache.recordMiss(key);
+				}
+			} else {
+				cache(CachedCall.LOOKUP, key, result);
+			}
+		}
+		if (aliasTable != null) {
+			aliasTable.learn(word, result.getCanonicalForm());
+		}
+		return result;
+	}
+
+
+	/**
+	 * Retrieve example sentences for a word in Wordnik's corpus.
+	 *
+	 * @param word              the word to fetch examples for.
+	 * @param includeDuplicates show duplicate examples from different sources.
+	 * @param contentProvider   return results from a specific content provider.
+	 *                          If this parameter is null, it is ignored.
+	 * @param useCanonical      if true will try to return the correct word root
+	 *                          ('cats' -> 'cat'). If false returns exactly what was requested.
+	 * @param skip              results to skip. If this parameter is less than 1, it is ignored.
+	 * @param limit             maximum number of results to return. If this parameter is
+	 *                          less than 1, it is ignored.
+	 * @return search results with the list of examples populated.
+	 * @throws KnickerException if word is null, or if there are any errors.
+	 */
+	public SearchResults examples(String word, boolean includeDuplicates,
+										 String contentProvider, boolean useCanonical, int skip, int limit) throws
+			KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+
+		RequestTemplate.Builder uri = EXAMPLES.expand(wordEndpoint, word)
+				.param("includeDuplicates", includeDuplicates)
+				.param("contentProvider", contentProvider)
+				.param("useCanonical", useCanonical);
+		if (pageCache != null && limit > 0) {
+			PageCache.Window window = window(CachedCall.EXAMPLES, uri, Math.max(skip, 0), limit);
+			return new SearchResults.Builder()
+					.total(window.getTotal())
+					.examples(PagedResults.<Example>items(window))
+					.build();
+		}
+		if (skip > 0) {
+			uri.param("skip", skip);
+		}
+		if (limit > 0) {
+			uri.param("limit", limit);
+		}
+
+		String key = uri.build();
+		SearchResults cached = cached(CachedCall.EXAMPLES, key);
+		if (cached != null) {
+			return cached;
+		}
+
+		SearchResults result = fetch(CachedCall.EXAMPLES, key);
+		cache(CachedCall.EXAMPLES, key, result);
+		return result;
+	}
+
+
+	/**
+	 * Look up definitions for a word.
+	 * <p/>
+	 * Dictionaries will be tried in the order returned by the sourceDictionaries
+	 * iterator. If you want a specific order, use a Set implementation that
+	 * guarantees a specific order.
+	 *
+	 * NOTE: If you get errors when trying to look up definitions in more than one dictionary at the same time,
+	 *       either use the dictionary <code>SourceDictionary.all</code> or make multiple calls to single dictionaries
+	 *       and aggregate the results.
+	 *
+	 * @param word               word to return definitions for.
+	 * @param sourceDictionaries dictionaries to retrieve definitions from.
+	 * @return list of definitions for the word.
+	 * @throws KnickerException if the word is null or empty, or if there are any errors.
+	 */
+	public List<Definition> definitions(String word,
+											   Set<SourceDictionary> sourceDictionaries) throws
+			KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up definitions for an empty word.");
+		}
+
+		String uri = DEFINITIONS.expand(wordEndpoint, word)
+				.param("sourceDictionaries", sourceDictionaries)
+				.build();
+
+		return definitions(uri);
+	}
+
+
+	/**
+	 * Look up definitions for a word.
+	 * <p/>
+	 * Dictionaries will be tried in the order returned by the sourceDictionaries
+	 * iterator. If you want a specific order, use a Set implementation that
+	 * guarantees a specific order.
+	 *
+	 * @param word               word to return definitions for.
+	 * @param limit              maximum number of results to return.
+	 * @param partOfSpeech       list of part-of-speech types to retrieve.
+	 * @param includeRelated     return related words with definitions.
+	 * @param sourceDictionaries dictionaries to retrieve definitions from.
+	 * @param useCanonical       if true will try to return the correct word root
+	 *                           ('cats' -> 'cat'). If false returns exactly what was requested.
+	 * @param includeTags        return a closed set of XML tags in response.
+	 * @return list of definitions for the word.
+	 * @throws KnickerException if the word is null or empty, or if there was an error.
+	 */
+	public List<Definition> definitions(String word, int limit,
+											   Set<PartOfSpeech> partOfSpeech, boolean includeRelated,
+											   Set<SourceDictionary> sourceDictionaries,
+											   boolean useCanonical, boolean includeTags) throws KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up definitions for an empty word.");
+		}
+
+		RequestTemplate.Builder uri = DEFINITIONS.expand(wordEndpoint, useCanonical ? canonicalWord(word) : word);
+		if (limit > 0) {
+			uri.param("limit", limit);
+		}
+		if (useCanonical) {
+			uri.param("useCanonical", true);
+		}
+		uri.param("partOfSpeech", partOfSpeech);
+		uri.param("sourceDictionaries", sourceDictionaries);
+
+		return definitions(uri.build());
+	}
+
+
+	/*
+	 * The word lookup returns when the negative cache knows a word is
+	 * missing. It is parsed like any response, so it looks the same as the
+	 * answer it stands in for.
+	 */
+	private static Word notFoundWord() throws KnickerException {
+		Word word = notFoundWord;
+		if (word == null) {
+			word = DTOBuilder.buildWord(Util.getDocument(WORD_NOT_FOUND));
+			notFoundWord = word;
+		}
+		return word;
+	}
+
+
+	/*
+	 * Fetch definitions, answering from the result cache or the negative
+	 * cache when possible.
+	 */
+	private List<Definition> definitions(String uri) throws KnickerException {
+		List<Definition> cached = cachedList(CachedCall.DEFINITIONS, uri);
+		if (cached != null) {
+			return cached;
+		}
+		if (negativeCache != null && negativeCache.isKnownMissing(uri)) {
+			return Collections.<Definition>emptyList();
+		}
+
+		List<Definition> result = fetch(CachedCall.DEFINITIONS, uri);
+		if (negativeCache != null && result.isEmpty()) {
+			negativeCache.recordMiss(uri);
+		}
+		cache(CachedCall.DEFINITIONS, uri, result);
+		return result;
+	}
+
+
+	/**
+	 * See how often particular words occur in Wordnik corpus, ordered by year.
+	 *
+	 * @param word         the word to fetch frequency data for.
+	 * @param useCanonical if true, allow the API to select the canonical form of the word.
+	 * @param startYear    starting year. If < 1, the parameter is ignored.
+	 * @param endYear      ending year. If < 1, the parameter is ignored.
+	 * @return frequency summary.
+	 * @throws KnickerException if the word is null, or if any errors occur.
+	 * @see <a href="http://docs.wordnik.com/api/methods#freq">Wordnik documentation</a>
+	 */
+	public FrequencySummary frequency(String word, boolean useCanonical,
+											 int startYear, int endYear) throws KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+
+		RequestTemplate.Builder uri = FREQUENCY.expand(wordEndpoint, useCanonical ? canonicalWord(word) : word);
+		if (useCanonical) {
+			uri.param("useCanonical", true);
+		}
+		if (startYear > 0) {
+			uri.param("startYear", startYear);
+		}
+		if (endYear > 0) {
+			uri.param("endYear", endYear);
+		}
+
+		String key = uri.build();
+		FrequencySummary cached = cached(CachedCall.FREQUENCY, key);
+		if (cached != null) {
+			return cached;
+		}
+
+		FrequencySummary result = fetch(CachedCall.FREQUENCY, key);
+		cache(CachedCall.FREQUENCY, key, result);
+		return result;
+	}
+
+
+	/**
+	 * Return the top example for a word.
+	 *
+	 * @param word            the word to return the top example for.
+	 * @param contentProvider return results from a specific content provider.
+	 *                        If this parameter is null, it is ignored.
+	 * @param useCanonical    if true will try to return the correct word root
+	 *                        ('cats' -> 'cat'). If false, returns exactly what was requested.
+	 * @return top example for the word.
+	 * @throws KnickerException if word is null or if there are any errors.
+	 */
+	public Example topExample(String word, String contentProvider, boolean useCanonical) throws
+			KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+
+		String key = TOP_EXAMPLE.expand(wordEndpoint, word)
+				.param("useCanonical", useCanonical)
+				.param("contentProvider", contentProvider)
+				.build();
+		Example cached = cached(CachedCall.TOP_EXAMPLE, key);
+		if (cached != null) {
+			return cached;
+		}
+
+		Example result = fetch(CachedCall.TOP_EXAMPLE, key);
+		cache(CachedCall.TOP_EXAMPLE, key, result);
+		return result;
+	}
+
+
+	/**
+	 * Retrieve related words for a particular word.
+	 *
+	 * @param word             the word to fetch related words for.
+	 * @param useCanonical     if true, allow the API to select the canonical form of the word.
+	 * @param relationshipType specify which relationship types to return.
+	 * @param limitPerRelationshipType Limits the total results per type of relationship type
+	 * @return list of related words.
+	 * @throws KnickerException if the word is null, or if there are any errors.
+	 */
+	public List<Related> related(String word, boolean useCanonical,
+										Set<RelationshipType> relationshipType,
+										int limitPerRelationshipType) throws KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+
+		RequestTemplate.Builder uri = RELATED_WORDS.expand(wordEndpoint, word);
+		if (limitPerRelationshipType > 0) {
+			uri.param("limitPerRelationshipType", limitPerRelationshipType);
+		}
+		if (useCanonical) {
+			uri.param("useCanonical", true);
+		}
+		uri.param("relationshipTypes", relationshipType);
+
+		String key = uri.build();
+		List<Related> cached = cachedList(CachedCall.RELATED, key);
+		if (cached != null) {
+			return cached;
+		}
+
+		List<Related> result = fetch(CachedCall.RELATED, key);
+		cache(CachedCall.RELATED, key, result);
+		return result;
+	}
+
+
+	/**
+	 * Fetch interesting bi-gram phrases containing your word.
+	 *
+	 * @param word         the word to look up.
+	 * @param limit        Limit the number of results returned. If this parameter is
+	 *                     < 1, it will be ignored.
+	 * @param wlmi         minimum WLMI for the phrase. If this parameter is null, it
+	 *                     is ignored.
+	 * @param useCanonical If true will try to return the correct word root
+	 *                     ('cats' -> 'cat'). If false returns exactly what was requested.
+	 * @return list of bi-gram phrases containing your word.
+	 * @throws KnickerException if the word is null, or if there are any errors.
+	 * @see <a ref="http://docs.wordnik.com/api/methods#phrases">Wordnik documentation</a>
+	 */
+	public List<Phrase> phrases(String word, int limit, String wlmi, boolean useCanonical) throws KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+
+		RequestTemplate.Builder uri = PHRASES.expand(wordEndpoint, word);
+		if (limit > 0) {
+			uri.param("limit", limit);
+		}
+		if (wlmi != null && !wlmi.trim().isEmpty()) {
+			uri.param("wlmi", wlmi.trim());
+		}
+		if (useCanonical) {
+			uri.param("useCanonical", true);
+		}
+
+		String key = uri.build();
+		List<Phrase> cached = cachedList(CachedCall.PHRASES, key);
+		if (cached != null) {
+			return cached;
+		}
+
+		List<Phrase> result = fetch(CachedCall.PHRASES, key);
+		cache(CachedCall.PHRASES, key, result);
+		return result;
+	}
+
+
+	/**
+	 * Returns syllable information for a word.
+	 *
+	 * @param word             word to get syllables for.
+	 * @param useCanonical     if true will try to return a correct word root
+	 *                         ('cats' -> 'cat'). If false returns exactly what was requested.
+	 * @param sourceDictionary source dictionary to get data from. If this parameter
+	 *                         is null, it will be ignored.
+	 * @param limit            maximum number of results to return. If this parameter is less
+	 *                         than 1, it will be ignored.
+	 * @return list of syllables for the word.
+	 * @throws KnickerException if word is null, or if there are any errors.
+	 */
+	public List<Syllable> hyphenation(String word, boolean useCanonical,
+											 SourceDictionary sourceDictionary, int limit) throws
+			KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+
+		RequestTemplate.Builder uri = HYPHENATION.expand(wordEndpoint, word);
+		if (limit > 0) {
+			uri.param("limit", limit);
+		}
+		if (useCanonical) {
+			uri.param("useCanonical", true);
+		}
+		uri.param("sourceDictionary", sourceDictionary);
+
+		String key = uri.build();
+		List<Syllable> cached = cachedList(CachedCall.HYPHENATION, key);
+		if (cached != null) {
+			return cached;
+		}
+
+		List<Syllable> result = fetch(CachedCall.HYPHENATION, key);
+		cache(CachedCall.HYPHENATION, key, result);
+		return result;
+	}
+
+
+	/**
+	 * Returns text pronunciations for a given word.
+	 *
+	 * @param word             word to fetch pronunciation information for.
+	 * @param useCanonical     if true will try to return a correct word root
+	 *                         ('cats' -> 'cat'). If false returns exactly what was requested.
+	 * @param sourceDictionary source dictionary to use for pronunciation data.
+	 * @param typeFormat       text pronunciation type.
+	 * @param limit            maximum number of results to return.
+	 * @return list of pronunciation objects.
+	 * @throws KnickerException if word is null or if there are any errors.
+	 */
+	public List<Pronunciation> pronunciations(String word, boolean useCanonical,
+													 SourceDictionary sourceDictionary, TypeFormat typeFormat, int limit) throws
+			KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+
+		RequestTemplate.Builder uri = PRONUNCIATIONS.expand(wordEndpoint, useCanonical ? canonicalWord(word) : word);
+		if (limit > 0) {
+			uri.param("limit", limit);
+		}
+		if (useCanonical) {
+			uri.param("useCanonical", true);
+		}
+		uri.param("sourceDictionary", sourceDictionary);
+		uri.param("typeFormat", typeFormat);
+
+		String key = uri.build();
+		List<Pronunciation> cached = cachedList(CachedCall.PRONUNCIATIONS, key);
+		if (cached != null) {
+			return cached;
+		}
+
+		List<Pronunciation> result = fetch(CachedCall.PRONUNCIATIONS, key);
+		cache(CachedCall.PRONUNCIATIONS, key, result);
+		return result;
+	}
+
+
+	/**
+	 * Fetches audio metadata for a word.
+	 *
+	 * @param word         the word to fetch audio metadata for.
+	 * @param useCanonical if true will try to return a correct word root
+	 *                     ('cats' -> 'cat'). If false returns exactly what was requested.
+	 * @param limit        maximum number of results to return.
+	 * @return list of AudioFileMetadata objects for the word.
+	 * @throws KnickerException if word is null or if there are any errors.
+	 */
+	public List<AudioFileMetadata> audio(String word, boolean useCanonical, int limit) throws
+			KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+
+		RequestTemplate.Builder uri = AUDIO.expand(wordEndpoint, word);
+		if (limit > 0) {
+			uri.param("limit", limit);
+		}
+		if (useCanonical) {
+			uri.param("useCanonical", true);
+		}
+
+		return doGet(uri.build(), null, AUDIO_MAPPER);
+	}
+
+
+	/**
+	 * Get the audio data from Wordnik.
+	 * <p/>
+	 * <p>The fileUrl parameter in the audioFileMetadata object will expire.
+	 * If you want the audio data, you should call this method shorty getting
+	 * the audioFileMetadata object.</p>
+	 * <p/>
+	 * <p>If the Wordnik servers return anything other than an HTTP 200 in the
+	 * header, a KnickerException will be thrown indicating what the HTTP
+	 * response was, and showing all the headers.</p>
+	 *
+	 * @param audioFileMetadata audio file metadata object describing the audio
+	 *                          pronunciation you want to retrieve.
+	 * @return audio data.
+	 * @throws KnickerException if the audioFileMetadata is null, or if there
+	 *                          are any errors.
+	 */
+	public byte[] getAudioData(AudioFileMetadata audioFileMetadata) throws KnickerException {
+		if (audioFileMetadata == null) {
+			throw new KnickerException("Parameter audioFileMetadata cannot be null.");
+		}
+
+		TransportResponse response = send(new TransportRequest.Builder().url(audioFileMetadata.getFileUrl()),
+				"There was an error while getting audio data from URL " + audioFileMetadata.getFileUrl());
+		if (response.getStatusCode() != 200) {
+			throw new KnickerException("The server returned HTTP " + response.getStatusCode()
+					+ " for audio data from URL " + audioFileMetadata.getFileUrl()
+					+ ". Headers: " + response.getHeaders());
+		}
+
+		return response.getBody();
+	}
+
+
+	/* ********************************************************************
+	 * WordList API
+	 * ********************************************************************/
+
+	/**
+	 * Create a new list on behalf of the authenticated user.
+	 * <p/>
+	 * This method requires a valid authentication token, which can be obtained
+	 * by calling the authenticate method.
+	 *
+	 * @param token       authentication token.
+	 * @param listName    the name of the list to be created.
+	 * @param description a description of the list to be created.
+	 * @param type        the type of list to be created.
+	 * @return the newly created word list.
+	 * @throws KnickerException if any parameters are null, or if there are any errors.
+	 */
+	public WordList createList(AuthenticationToken token, String listName, String description, ListType type) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (listName == null || listName.isEmpty()) {
+			throw new KnickerException("List name required.");
+		}
+		if (description == null || description.isEmpty()) {
+			throw new KnickerException("Description required.");
+		}
+		if (type == null) {
+			throw new KnickerException("List type required.");
+		}
+
+		/* The POST data should look like this:
+	   *
+	   <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+		  <wordList>
+		  <description>test list</description>
+		  <name>test</name>
+		  <type>PUBLIC</type>
+	   </wordList>
+	   *
+	   */
+		StringBuilder data = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+		data.append("<wordList>\n");
+		data.append("<description>").append(description).append("</description>\n");
+		data.append("<name>").append(listName).append("</name>\n");
+		data.append("<type>").append(type.toString()).append("</type>\n");
+		data.append("</wordList>");
+
+		return doPost(wordListsEndpoint, data.toString(), token, WORD_LIST_MAPPER);
+	}
+
+
+	/**
+	 * Get a word list by permalink id.
+	 *
+	 * @param token     the authentication token.
+	 * @param permalink identifies the word list to retrieve.
+	 * @return word list for the id.
+	 * @throws KnickerException if any parameters are null, or if there are any errors.
+	 */
+	public WordList getWordList(AuthenticationToken token, String permalink) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (permalink == null || permalink.isEmpty()) {
+			throw new KnickerException("List permalink required.");
+		}
+
+		return doGet(WORD_LIST.expand(wordListEndpoint, permalink).build(), token, WORD_LIST_MAPPER);
+	}
+
+
+	/**
+	 * Add a word to a list.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink permalink id of the list to add the word to.
+	 * @param word      the word to add.
+	 * @throws KnickerException if any parameters are null, or if there are any errors.
+	 */
+	public void addWordToList(AuthenticationToken token, String permalink, String word)
+			throws KnickerException {
+		List<String> list = new ArrayList<String>();
+		list.add(word);
+		addWordsToList(token, permalink, list);
+	}
+
+
+	/**
+	 * Add words to the given list, on behalf of the authenticated user.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink the permalink id of the list to add the word to.
+	 * @param words     the words to add to the given list.
+	 * @throws KnickerException if any parameters are null, or if there are any errors.
+	 */
+	public void addWordsToList(AuthenticationToken token, String permalink, List<String> words) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (permalink == null || permalink.isEmpty()) {
+			throw new KnickerException("Parameter permalinkId required.");
+		}
+		if (words == null || words.isEmpty()) {
+			throw new KnickerException("Parameter words required.");
+		}
+
+		postWords(WORD_LIST_WORDS.expand(wordListEndpoint, permalink).build(), token, words);
+	}
+
+
+	/**
+	 * Add words to the given list, on behalf of the authenticated user, in
+	 * several requests.
+	 * <p/>
+	 * The words are read from the iterable and encoded only as requests are
+	 * sent, so very large additions do not need to be held in memory. Each
+	 * request body is at most <code>maxChunkBytes</code> long, unless a single
+	 * word needs more, and up to <code>concurrency</code> requests are sent at
+	 * a time on the client's executor. A request that fails does not stop the
+	 * others; check the results for the words that need to be sent again.
+	 *
+	 * @param token         authentication token.
+	 * @param permalink     the permalink id of the list to add the words to.
+	 * @param words         the words to add to the given list.
+	 * @param maxChunkBytes largest request body, in bytes.
+	 * @param concurrency   most requests in flight at a time.
+	 * @return the result of each request, in the order the words were read.
+	 * @throws KnickerException if any parameters are invalid, if a word cannot be
+	 *                          sent in XML, or if interrupted. Requests already
+	 *                          sent are not undone.
+	 * @see #DEFAULT_MAX_CHUNK_BYTES
+	 */
+	public List<ChunkResult> addWordsToList(AuthenticationToken token, String permalink, Iterable<String> words,
+											int maxChunkBytes, int concurrency) throws KnickerException {
+		checkChunkedParameters(token, permalink, words, maxChunkBytes, concurrency);
+		return postWords(WORD_LIST_WORDS.expand(wordListEndpoint, permalink).build(), token, words.iterator(),
+				maxChunkBytes, concurrency);
+	}
+
+
+	/**
+	 * Delete a word from a list.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink permalink id of the list to delete the word from.
+	 * @param word      the word to delete.
+	 * @throws KnickerException if any parameters are null, or if there are any errors.
+	 */
+	public void deleteWordFromList(AuthenticationToken token, String permalink, String word)
+			throws KnickerException {
+		List<String> list = new ArrayList<String>();
+		list.add(word);
+		deleteWordsFromList(token, permalink, list);
+	}
+
+
+	/**
+	 * Add words to the given list, on behalf of the authenticated user.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink the permalink id of the list to delete the words from.
+	 * @param words     the words to delete from the given list.
+	 * @throws KnickerException if any parameters are null, or if there are any errors.
+	 */
+	public void deleteWordsFromList(AuthenticationToken token, String permalink, List<String> words) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (permalink == null || permalink.isEmpty()) {
+			throw new KnickerException("Parameter permalinkId required.");
+		}
+		if (words == null || words.isEmpty()) {
+			throw new KnickerException("Parameter words required.");
+		}
+
+		postWords(DELETE_WORDS.expand(wordListEndpoint, permalink).build(), token, words);
+	}
+
+
+	/**
+	 * Delete words from the given list, on behalf of the authenticated user,
+	 * in several requests.
+	 * <p/>
+	 * This works like the chunked <code>addWordsToList</code>.
+	 *
+	 * @param token         authentication token.
+	 * @param permalink     the permalink id of the list to delete the words from.
+	 * @param words         the words to delete from the given list.
+	 * @param maxChunkBytes largest request body, in bytes.
+	 * @param concurrency   most requests in flight at a time.
+	 * @return the result of each request, in the order the words were read.
+	 * @throws KnickerException if any parameters are invalid, if a word cannot be
+	 *                          sent in XML, or if interrupted. Requests already
+	 *                          sent are not undone.
+	 * @see #addWordsToList(AuthenticationToken, String, Iterable, int, int)
+	 */
+	public List<ChunkResult> deleteWordsFromList(AuthenticationToken token, String permalink, Iterable<String> words,
+												 int maxChunkBytes, int concurrency) throws KnickerException {
+		checkChunkedParameters(token, permalink, words, maxChunkBytes, concurrency);
+		return postWords(DELETE_WORDS.expand(wordListEndpoint, permalink).build(), token, words.iterator(),
+				maxChunkBytes, concurrency);
+	}
+
+
+	private static void checkChunkedParameters(AuthenticationToken token, String permalink, Iterable<String> words,
+											   int maxChunkBytes, int concurrency) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (permalink == null || permalink.isEmpty()) {
+			throw new KnickerException("Parameter permalinkId required.");
+		}
+		if (words == null) {
+			throw new KnickerException("Parameter words required.");
+		}
+		if (maxChunkBytes < 1) {
+			throw new KnickerException("Parameter maxChunkBytes must be at least 1.");
+		}
+		if (concurrency < 1) {
+			throw new KnickerException("Parameter concurrency must be at least 1.");
+		}
+	}
+
+
+	/*
+	 * Send the words one chunk at a time, stopping at the first failure. All
+	 * of the words are checked before anything is sent, so a word that cannot
+	 * be sent in XML leaves the list unchanged; each chunk is then encoded
+	 * only when it is sent.
+	 */
+	private void postWords(String uri, AuthenticationToken token, List<String> words) throws KnickerException {
+		for (String word : words) {
+			StringValuesEncoder.check(word);
+		}
+		StringValuesEncoder encoder = new StringValuesEncoder(words.iterator(), DEFAULT_MAX_CHUNK_BYTES);
+		int sent = 0;
+		while (encoder.hasNext()) {
+			StringValuesEncoder.Chunk chunk = encoder.next();
+			try {
+				doPost(uri, chunk.body, token, null);
+			} catch (KnickerException e) {
+				if (sent == 0) {
+					throw e;
+				}
+				throw new KnickerException(e.getMessage() + " " + sent + " of " + words.size() +
+						" words had already been sent.", e);
+			}
+			sent += chunk.words.size();
+		}
+	}
+
+
+	/*
+	 * Encode and send the words, keeping up to concurrency chunks in flight.
+	 * The calling thread encodes the next chunk while earlier ones are sent,
+	 * and waits for a free slot before handing it to the executor. If the
+	 * executor refuses a chunk it is sent on the calling thread.
+	 */
+	private List<ChunkResult> postWords(final String uri, final AuthenticationToken token, Iterator<String> words,
+										int maxChunkBytes, int concurrency) throws KnickerException {
+		final KnickerClient client = withContext(getContext());
+		final Semaphore slots = new Semaphore(concurrency);
+		StringValuesEncoder encoder = new StringValuesEncoder(words, maxChunkBytes);
+		List<Future<ChunkResult>> futures = new ArrayList<Future<ChunkResult>>();
+		KnickerException failure = null;
+		try {
+			while (encoder.hasNext()) {
+				final StringValuesEncoder.Chunk chunk = encoder.next();
+				final int index = futures.size();
+				slots.acquire();
+				FutureTask<ChunkResult> task = new FutureTask<ChunkResult>(new Callable<ChunkResult>() {
+					@Override
+					public ChunkResult call() {
+						try {
+							return client.postChunk(uri, token, index, chunk);
+						} finally {
+							slots.release();
+						}
+					}
+				});
+				futures.add(task);
+				if (concurrency == 1) {
+					task.run();
+				} else {
+					try {
+						getExecutor().execute(task);
+					} catch (RejectedExecutionException e) {
+						task.run();
+					}
+				}
+			}
+		} catch (KnickerException e) {
+			failure = e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure = new KnickerException("Interrupted while sending words.", e);
+		}
+
+		List<ChunkResult> results = new ArrayList<ChunkResult>(futures.size());
+		int sent = 0;
+		for (Future<ChunkResult> future : futures) {
+			ChunkResult result;
+			try {
+				result = future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new KnickerException("Interrupted while waiting for words to be sent.", e);
+			} catch (ExecutionException e) {
+				throw new KnickerException("Error while sending words.", e.getCause());
+			}
+			results.add(result);
+			if (result.isSuccessful()) {
+				sent += result.getWordCount();
+			}
+		}
+		if (failure != null) {
+			throw new KnickerException(failure.getMessage() + " " + sent + " words in " + results.size() +
+					" requests had already been sent.", failure.getCause() == null ? failure : failure.getCause());
+		}
+		return results;
+	}
+
+
+	private ChunkResult postChunk(String uri, AuthenticationToken token, int index, StringValuesEncoder.Chunk chunk) {
+		try {
+			doPost(uri, chunk.body, token, null);
+			return new ChunkResult(index, chunk.words, chunk.body.length, null);
+		} catch (KnickerException e) {
+			return new ChunkResult(index, chunk.words, chunk.body.length, e);
+		}
+	}
+
+
+	/**
+	 * Update the word list metadata.
+	 *
+	 * @param token    authentication token.
+	 * @param wordList object representing the wordList to be updated.
+	 * @throws KnickerException if any parameters are null, or if there are any errors.
+	 */
+	public void updateWordList(AuthenticationToken token, WordList wordList) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (wordList == null) {
+			throw new KnickerException("Parameter wordList required.");
+		}
+
+		/*
+	   * The PUT command includes this XML document:
+	  <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+	  <wordList>
+		  <createdAt>2011-03-23T20:51:03.753Z</createdAt>
+		  <description>This is a test list created by the Knicker automated tests.</description>
+		  <id>29774</id>
+		  <name>TEST_LIST</name>
+		  <numberWordsInList>0</numberWordsInList>
+		  <permalink>test-list--2</permalink>
+		  <type>PUBLIC</type>
+		  <updatedAt>2011-03-23T20:51:03.753Z</updatedAt>
+		  <userId>1055256</userId>
+		  <username>jeremybrooks</username>
+	  </wordList>
+	   */
+		StringBuilder data = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+		data.append("<wordList>");
+		data.append("<createdAt>").append(wordList.getCreatedAt()).append("</createdAt>");
+		data.append("<description>").append(wordList.getDescription()).append("</description>");
+		data.append("<id>").append(wordList.getId()).append("</id>");
+		data.append("<name>").append(wordList.getName()).append("</name>");
+		data.append("<numberWordsInList>").append(wordList.getNumberWordsInList()).append("</numberWordsInList>");
+		data.append("<permalink>").append(wordList.getPermalink()).append("</permalink>");
+		data.append("<type>").append(wordList.getType().toString()).append("</type>");
+		data.append("<updatedAt>").append(wordList.getUpdatedAt()).append("</updatedAt>");
+		data.append("<userId>").append(wordList.getUserId()).append("</userId>");
+		data.append("<username>").append(wordList.getUsername()).append("</username>");
+		data.append("</wordList>");
+
+		doPut(WORD_LIST.expand(wordListEndpoint, wordList.getPermalink()).build(), data.toString(), token);
+	}
+
+
+	/**
+	 * Return all the words from the given list.
+	 * <p/>
+	 * This method requires a valid authentication token, which can be obtained
+	 * by calling the authenticate method.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink the permalink of the word list to get words from.
+	 * @param sortBy    field to sort by.
+	 * @param sortOrder direction to sort.
+	 * @param skip      results to skip.
+	 * @param limit     maximum number of results to return.
+	 * @return list of word list words.
+	 * @throws KnickerException if the token or permalinkId are null, or if there are any errors.
+	 */
+	public List<WordListWord> getWordsFromList(AuthenticationToken token,
+													  String permalink, SortBy sortBy, SortOrder sortOrder, int skip, int limit) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (permalink == null || permalink.isEmpty()) {
+			throw new KnickerException("Parameter permalink required.");
+		}
+
+		RequestTemplate.Builder uri = WORD_LIST_WORDS.expand(wordListEndpoint, permalink)
+				.param("sortBy", sortBy)
+				.param("sortOrder", sortOrder);
+		if (skip > 0) {
+			uri.param("skip", skip);
+		}
+		if (limit > 0) {
+			uri.param("limit", limit);
+		}
+
+		return doGet(uri.build(), token, WORD_LIST_WORDS_MAPPER);
+	}
+
+
+	/**
+	 * Delete the given word list.
+	 * <p/>
+	 * This method requires a valid authentication token, which can be obtained
+	 * by calling the authenticate method.
+	 *
+	 * @param token authentication token.
+	 * @param permalink    the permalinkId of the word list to delete.
+	 * @throws KnickerException if the token or id are null, or if there are any errors.
+	 */
+	public void deleteList(AuthenticationToken token, String permalink) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (permalink == null || permalink.isEmpty()) {
+			throw new KnickerException("Parameter id required.");
+		}
+
+		doDelete(WORD_LIST.expand(wordListEndpoint, permalink).build(), token);
+	}
+
+
+	/**
+	 * Compare a word list with the words it should contain, without changing it.
+	 * <p/>
+	 * This is a dry run of <code>syncWordList</code>: the list is read a page
+	 * at a time, and the returned diff shows the words a sync would add and
+	 * delete.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink the permalink of the word list.
+	 * @param desired   the words the list should contain.
+	 * @return the words to add and delete.
+	 * @throws KnickerException if any parameters are null, or if there are any errors.
+	 */
+	public WordListDiff diffWordList(AuthenticationToken token, String permalink, Set<String> desired)
+			throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (permalink == null || permalink.isEmpty()) {
+			throw new KnickerException("Parameter permalink required.");
+		}
+		if (desired == null) {
+			throw new KnickerException("Parameter desired required.");
+		}
+
+		// only the wanted words not seen yet, and the unwanted words, are kept
+		Set<String> missing = new HashSet<String>(desired);
+		if (missing.contains(null)) {
+			throw new KnickerException("Words cannot be null.");
+		}
+		SortedSet<String> toDelete = new TreeSet<String>();
+		int unchanged = 0;
+		for (int skip = 0; ; skip += SYNC_PAGE_SIZE) {
+			List<WordListWord> page = getWordsFromList(token, permalink, null, null, skip, SYNC_PAGE_SIZE);
+			for (WordListWord word : page) {
+				String w = word.getWord();
+				if (w == null) {
+					continue;
+				}
+				if (missing.remove(w)) {
+					unchanged++;
+				} else if (!desired.contains(w)) {
+					toDelete.add(w);
+				}
+			}
+			if (page.size() < SYNC_PAGE_SIZE) {
+				break;
+			}
+		}
+		return new WordListDiff(permalink, new TreeSet<String>(missing), toDelete, unchanged, null, null);
+	}
+
+
+	/**
+	 * Make a word list contain exactly the given words, using
+	 * <code>DEFAULT_SYNC_CONCURRENCY</code>.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink the permalink of the word list.
+	 * @param desired   the words the list should contain.
+	 * @return the changes made, and the result of each request.
+	 * @throws KnickerException if any parameters are null, or if there are any errors.
+	 * @see #syncWordList(AuthenticationToken, String, Set, int)
+	 */
+	public WordListDiff syncWordList(AuthenticationToken token, String permalink, Set<String> desired)
+			throws KnickerException {
+		return syncWordList(token, permalink, desired, DEFAULT_SYNC_CONCURRENCY);
+	}
+
+
+	/**
+	 * Make a word list contain exactly the given words.
+	 * <p/>
+	 * Only the difference is sent: words that are in the list but not wanted
+	 * are deleted, then wanted words that are missing are added, in requests
+	 * of up to <code>DEFAULT_MAX_CHUNK_BYTES</code> with up to
+	 * <code>concurrency</code> in flight. A failed request does not stop the
+	 * others; the returned diff has the result of each one, and syncing again
+	 * sends only what is still different.
+	 * <p/>
+	 * The list is read a page at a time, so changes made to it by someone
+	 * else during the sync may be missed.
+	 *
+	 * @param token       authentication token.
+	 * @param permalink   the permalink of the word list.
+	 * @param desired     the words the list should contain.
+	 * @param concurrency most requests in flight at a time.
+	 * @return the changes made, and the result of each request.
+	 * @throws KnickerException if any parameters are invalid, or if the list cannot be read.
+	 * @see #diffWordList(AuthenticationToken, String, Set)
+	 */
+	public WordListDiff syncWordList(AuthenticationToken token, String permalink, Set<String> desired,
+									 int concurrency) throws KnickerException {
+		if (concurrency < 1) {
+			throw new KnickerException("Parameter concurrency must be at least 1.");
+		}
+		WordListDiff diff = diffWordList(token, permalink, desired);
+		List<ChunkResult> deleteResults = Collections.emptyList();
+		List<ChunkResult> addResults = Collections.emptyList();
+		if (!diff.getToDelete().isEmpty()) {
+			deleteResults = postWords(DELETE_WORDS.expand(wordListEndpoint, permalink).build(), token,
+					diff.getToDelete().iterator(), DEFAULT_MAX_CHUNK_BYTES, concurrency);
+		}
+		if (!diff.getToAdd().isEmpty()) {
+			addResults = postWords(WORD_LIST_WORDS.expand(wordListEndpoint, permalink).build(), token,
+					diff.getToAdd().iterator(), DEFAULT_MAX_CHUNK_BYTES, concurrency);
+		}
+		return new WordListDiff(permalink, diff.getToAdd(), diff.getToDelete(), diff.getUnchangedCount(),
+				addResults, deleteResults);
+	}
+
+
+	/* ********************************************************************
+	 * Words API
+	 * ********************************************************************/
+
+	/**
+	 * Fetch a random word from the Wordnik corpus.
+	 *
+	 * @param hasDictionaryDef    if true, only return words with dictionary definitions.
+	 * @param includePartOfSpeech part of speech values to include. If this parameter
+	 *                            is null, it will be ignored.
+	 * @param excludePartOfSpeech part of speech values to exclude. If this parameter
+	 *                            is null, it will be ignored.
+	 * @param minCorpusCount      minimum corpus frequency for terms. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param maxCorpusCount      maximum corpus frequence for terms. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param minDictionaryCount  minimum dictionary count. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param maxDictionaryCount  maximum dictionary count. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param minLength           minimum word length. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param maxLength           maximum word length. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @return a random word.
+	 * @throws KnickerException if there are any errors, or if a word cannot be
+	 *                          found that matches the parameters.
+	 */
+	public Word randomWord(boolean hasDictionaryDef, Set<PartOfSpeech> includePartOfSpeech,
+								  Set<PartOfSpeech> excludePartOfSpeech, int minCorpusCount,
+								  int maxCorpusCount, int minDictionaryCount, int maxDictionaryCount,
+								  int minLength, int maxLength) throws KnickerException {
+
+
+		RequestTemplate.Builder uri = RANDOM_WORD.expand(wordsEndpoint)
+				.param("hasDictionaryDef", hasDictionaryDef);
+		uri.param("includePartOfSpeech", includePartOfSpeech);
+		uri.param("excludePartOfSpeech", excludePartOfSpeech);
+
+		if (minCorpusCount >= 0) {
+			uri.param("minCorpusCount", minCorpusCount);
+		}
+		if (maxCorpusCount > 0) {
+			uri.param("maxCorpusCount", maxCorpusCount);
+		} else {
+			uri.param("maxCorpusCount", -1);
+		}
+
+		if (minDictionaryCount > 0) {
+			uri.param("minDictionaryCount", minDictionaryCount);
+		}
+		if (maxDictionaryCount > 0) {
+			uri.param("maxDictionaryCount", maxDictionaryCount);
+		} else {
+			uri.param("maxDictionaryCount", -1);
+		}
+
+		if (minLength > 0) {
+			uri.param("minLength", minLength);
+		}
+		if (maxLength > 0) {
+			uri.param("maxLength", maxLength);
+		} else {
+			uri.param("maxLength", -1);
+		}
+
+		return doGet(uri.build(), null, KnickerClient.<Word>mapper(CachedCall.LOOKUP));
+	}
+
+
+	/**
+	 * Return a list of random words from Wordnik.
+	 *
+	 * @param hasDictionaryDef    if true, only return words with dictionary definitions.
+	 * @param includePartOfSpeech part of speech values to include. If this parameter
+	 *                            is null, it will be ignored.
+	 * @param excludePartOfSpeech part of speech values to exclude. If this parameter
+	 *                            is null, it will be ignored.
+	 * @param minCorpusCount      minimum corpus frequency for terms. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param maxCorpusCount      maximum corpus frequence for terms. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param minDictionaryCount  minimum dictionary count. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param maxDictionaryCount  maximum dictionary count. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param minLength           minimum word length. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param maxLength           maximum word length. If this parameter
+	 *                            is less than 1, it will be ignored.
+	 * @param sortBy              specify the sorting of the returned list.
+	 * @param sortDirection       specify the sort order of the returned list.
+	 * @param limit               maximum number of words to return.
+	 * @return a list of random words.
+	 * @throws KnickerException if there are any errors, or if a list cannot be
+	 *                          found that matches the parameters.
+	 */
+	public List<Word> randomWords(boolean hasDictionaryDef, Set<PartOfSpeech> includePartOfSpeech,
+										 Set<PartOfSpeech> excludePartOfSpeech, int minCorpusCount,
+										 int maxCorpusCount, int minDictionaryCount, int maxDictionaryCount,
+										 int minLength, int maxLength, SortBy sortBy,
+										 SortDirection sortDirection, int limit) throws KnickerException {
+
+		RequestTemplate.Builder uri = RANDOM_WORDS.expand(wordsEndpoint)
+				.param("hasDictionaryDef", hasDictionaryDef);
+		uri.param("includePartOfSpeech", includePartOfSpeech);
+		uri.param("excludePartOfSpeech", excludePartOfSpeech);
+
+		if (minCorpusCount > 0) {
+			uri.param("minCorpusCount", minCorpusCount);
+		}
+		if (maxCorpusCount > 0) {
+			uri.param("maxCorpusCount", maxCorpusCount);
+		}
+
+		if (minDictionaryCount > 0) {
+			uri.param("minDictionaryCount", minDictionaryCount);
+		}
+		if (maxDictionaryCount > 0) {
+			uri.param("maxDictionaryCount", maxDictionaryCount);
+		}
+
+		if (minLength > 0) {
+			uri.param("minLength", minLength);
+		}
+		if (maxLength > 0) {
+			uri.param("maxLength", maxLength);
+		}
+
+		uri.param("sortBy", sortBy);
+		uri.param("sortDirection", sortDirection);
+		if (limit > 0) {
+			uri.param("limit", limit);
+		}
+
+		return doGet(uri.build(), null, WORDS_MAPPER);
+	}
+
+
+	/**
+	 * Fetch Wordnik’s Word-of-the-Day, including definitions and example sentences.
+	 *
+	 * @return word of the day, with definitions and example sentences.
+	 * @throws KnickerException if there are any errors.
+	 */
+	public WordOfTheDay wordOfTheDay() throws KnickerException {
+		String key = WORD_OF_THE_DAY.expand(wordsEndpoint).build();
+		WordOfTheDay cached = cached(CachedCall.WORD_OF_THE_DAY, key);
+		if (cached != null) {
+			return cached;
+		}
+
+		WordOfTheDay result = fetch(CachedCall.WORD_OF_THE_DAY, key);
+		cache(CachedCall.WORD_OF_THE_DAY, key, result);
+		return result;
+	}
+
+
+	/**
+	 * Search for a word.
+	 *
+	 * @param query               the word to search for.
+	 * @param caseSensitive       search case sensitive.
+	 * @param includePartOfSpeech only include these parts of speech.
+	 * @param excludePartOfSpeech exclude these parts of speech.
+	 * @param minCorpusCount      minimum corpus frequency count for terms.
+	 * @param maxCorpusCount      maximum corpus frequency count for terms.
+	 * @param minDictionaryCount  minimum number of dictionary entries.
+	 * @param maxDictionaryCount  maximum number of dictionary entries.
+	 * @param minLength           minimum word length.
+	 * @param maxLength           maximum word length.
+	 * @param skip                results to skip.
+	 * @param limit               maximum number of results to return.
+	 * @return object representing the results of the search query.
+	 * @throws KnickerException if there are any errors.
+	 */
+	public SearchResults search(String query, boolean caseSensitive,
+									   Set<PartOfSpeech> includePartOfSpeech,
+									   Set<PartOfSpeech> excludePartOfSpeech,
+									   int minCorpusCount, int maxCorpusCount,
+									   int minDictionaryCount, int maxDictionaryCount,
+									   int minLength, int maxLength,
+									   int skip, int limit) throws KnickerException {
+
+		RequestTemplate.Builder uri = SEARCH.expand(wordsEndpoint, query)
+				.param("caseSensitive", caseSensitive);
+		uri.param("includePartOfSpeech", includePartOfSpeech);
+		uri.param("excludePartOfSpeech", excludePartOfSpeech);
+
+		if (minCorpusCount > 0) {
+			uri.param("minCorpusCount", minCorpusCount);
+		}
+		if (maxCorpusCount > 0) {
+			uri.param("maxCorpusCount", maxCorpusCount);
+		}
+
+		if (minDictionaryCount > 0) {
+			uri.param("minDictionaryCount", minDictionaryCount);
+		}
+		if (maxDictionaryCount > 0) {
+			uri.param("maxDictionaryCount", maxDictionaryCount);
+		}
+
+		if (minLength > 0) {
+			uri.param("minLength", minLength);
+		}
+		if (maxLength > 0) {
+			uri.param("maxLength", maxLength);
+		}
+		if (pageCache != null && limit > 0) {
+			PageCache.Window window = window(CachedCall.SEARCH, uri, Math.max(skip, 0), limit);
+			return new SearchResults.Builder()
+					.total(window.getTotal())
+					.searchResults(PagedResults.<SearchResult>items(window))
+					.build();
+		}
+		RequestTemplate.Builder base = isSplit(limit) ? uri.copy() : null;
+		if (skip > 0) {
+			uri.param("skip", skip);
+		}
+		if (limit > 0) {
+			uri.param("limit", limit);
+		}
+
+
+		String key = uri.build();
+		Loader<SearchResults> range = base == null ? null :
+				KnickerClient.<SearchResults>range(CachedCall.SEARCH, base, Math.max(skip, 0), limit);
+		SearchResults cached = cached(CachedCall.SEARCH, key, range);
+		if (cached != null) {
+			return cached;
+		}
+
+		SearchResults result = range == null ? this.<SearchResults>fetch(CachedCall.SEARCH, key) : range.load(this);
+		cache(CachedCall.SEARCH, key, result);
+		return result;
+	}
+
+
+	/**
+	 * Reverse dictionary search.
+	 *
+	 * @param query                     search term.
+	 * @param findSenseForWord          restricts words and finds closest sense. Not sent in request if null.
+	 * @param includeSourceDictionaries only include these source dictionaries. Not sent in request if null.
+	 * @param excludeSourceDictionaries excludes these source dictionaries. Not sent in request if null.
+	 * @param includePartOfSpeech       only include these parts of speech. Not sent in request if null.
+	 * @param excludePartOfSpeech       excludes these parts of speech. Not sent in request if null.
+	 * @param minCorpusCount            minimum corpus frequency for terms. Not sent in request if zero.
+	 * @param maxCorpusCount            maximum corpus frequency for terms. Not sent in request if zero.
+	 * @param minLength                 minimum word length. Not sent in request if zero.
+	 * @param maxLength                 maximum word length. Not sent in request if zero.
+	 * @param expandTerms               expand terms. Not sent in request if null.
+	 * @param includeTags               return a closed set of XML tags in response.
+	 * @param sortBy                    attribute to sort by. Not sent in request if null.
+	 * @param sortOrder                 sort direction. Not sent in request if null.
+	 * @param skip                      results to skip. Zero is used if less than zero.
+	 * @param limit                     maximum number of results to return. Default of 10 used if less than one.
+	 * @return object representing the reverse dictionary search results.
+	 * @throws KnickerException if query is null or empty, or if there are any other errors.
+	 */
+	public DefinitionSearchResults reverseDictionary(String query, String findSenseForWord, Set<SourceDictionary> includeSourceDictionaries,
+															Set<SourceDictionary> excludeSourceDictionaries, Set<PartOfSpeech> includePartOfSpeech, Set<PartOfSpeech> excludePartOfSpeech,
+															int minCorpusCount, int maxCorpusCount, int minLength, int maxLength, ExpandTerms expandTerms, boolean includeTags,
+															SortBy sortBy, SortOrder sortOrder, int skip, int limit) throws KnickerException {
+
+		if (query == null || query.isEmpty()) {
+			throw new KnickerException("Query cannot be null or empty.");
+		}
+
+		RequestTemplate.Builder uri = REVERSE_DICTIONARY.expand(wordsEndpoint)
+				.param("query", query)
+				.param("findSenseForWord", findSenseForWord)
+				.param("includeSourceDictionaries", includeSourceDictionaries)
+				.param("excludeSourceDictionaries", excludeSourceDictionaries);
+		uri.param("includePartOfSpeech", includePartOfSpeech);
+		uri.param("excludePartOfSpeech", excludePartOfSpeech);
+
+		if (minCorpusCount > 0) {
+			uri.param("minCorpusCount", minCorpusCount);
+		}
+
+		if (maxCorpusCount > 0) {
+			uri.param("maxCorpusCount", maxCorpusCount);
+		}
+
+		if (minLength > 0) {
+			uri.param("minLength", minLength);
+		}
+
+		if (maxLength > 0) {
+			uri.param("maxLength", maxLength);
+		}
+
+		uri.param("expandTerms", expandTerms);
+		uri.param("includeTags", includeTags);
+		uri.param("sortBy", sortBy);
+		uri.param("sortOrder", sortOrder);
+		if (pageCache != null) {
+			PageCache.Window window = window(CachedCall.REVERSE_DICTIONARY, uri, Math.max(skip, 0), limit < 1 ? 10 : limit);
+			return new DefinitionSearchResults.Builder()
+					.totalResults(window.getTotal())
+					.results(PagedResults.<DefinitionSearchResult>items(window))
+					.build();
+		}
+		RequestTemplate.Builder base = isSplit(limit) ? uri.copy() : null;
+		uri.param("skip", Math.max(skip, 0));
+		uri.param("limit", limit < 1 ? 10 : limit);
+
+		String key = uri.build();
+		Loader<DefinitionSearchResults> range = base == null ? null :
+				KnickerClient.<DefinitionSearchResults>range(CachedCall.REVERSE_DICTIONARY, base, Math.max(skip, 0), limit);
+		DefinitionSearchResults cached = cached(CachedCall.REVERSE_DICTIONARY, key, range);
+		if (cached != null) {
+			return cached;
+		}
+
+		DefinitionSearchResults result = range == null ?
+				this.<DefinitionSearchResults>fetch(CachedCall.REVERSE_DICTIONARY, key) : range.load(this);
+		cache(CachedCall.REVERSE_DICTIONARY, key, result);
+		return result;
+	}
+
+
+	/* ********************************************************************
+	 * Word profile
+	 * ********************************************************************/
+
+	/**
+	 * Fetch several facets of a word at once.
+	 * <p/>
+	 * Each requested facet is fetched by its own call, and the calls run in
+	 * parallel on this client's executor, so the profile takes about as long
+	 * as the slowest facet instead of the sum of all of them. A call the
+	 * executor refuses runs on the calling thread. The calls use the
+	 * same defaults as the short forms of the <code>WordApi</code> methods.
+	 * <p/>
+	 * A facet that fails does not fail the profile. Its value is null and its
+	 * exception is reported by <code>WordProfile.getErrors()</code>.
+	 *
+	 * @param word   the word to profile.
+	 * @param facets the facets to fetch. If null or empty, all facets are fetched.
+	 * @return the profile.
+	 * @throws KnickerException if the word is null or empty, if the context has
+	 *                          already been cancelled, or if the calling thread
+	 *                          is interrupted while waiting.
+	 */
+	public WordProfile profile(String word, Set<Facet> facets) throws KnickerException {
+		RequestContext parent = getContext();
+		return profile(word, facets, parent == null ? RequestContext.create() : parent.child());
+	}
+
+
+	/**
+	 * Fetch several facets of a word at once, sharing one deadline.
+	 * <p/>
+	 * When the deadline passes, the calls still in flight or still waiting
+	 * for an executor thread are abandoned and their facets are reported as
+	 * errors; facets that arrived in time are still returned.
+	 *
+	 * @param word    the word to profile.
+	 * @param facets  the facets to fetch. If null or empty, all facets are fetched.
+	 * @param timeout time budget for the whole profile.
+	 * @param unit    unit of the timeout.
+	 * @return the profile.
+	 * @throws KnickerException if the word is null or empty, if the context has
+	 *                          already been cancelled, or if the calling thread
+	 *                          is interrupted while waiting.
+	 * @see #profile(String, Set)
+	 */
+	public WordProfile profile(String word, Set<Facet> facets, long timeout, TimeUnit unit) throws KnickerException {
+		RequestContext parent = getContext();
+		return profile(word, facets,
+				parent == null ? RequestContext.withTimeout(timeout, unit) : parent.child(timeout, unit));
+	}
+
+
+	private WordProfile profile(final String word, Set<Facet> facets, RequestContext ctx) throws KnickerException {
+		if (word == null || word.trim().isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+		ctx.checkActive();
+		Set<Facet> wanted = (facets == null || facets.isEmpty()) ? EnumSet.allOf(Facet.class) : EnumSet.copyOf(facets);
+		final KnickerClient client = withContext(ctx);
+		Map<Facet, FutureTask<Object>> futures = new EnumMap<Facet, FutureTask<Object>>(Facet.class);
+		try {
+			for (final Facet facet : wanted) {
+				FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>() {
+					@Override
+					public Object call() throws KnickerException {
+						return client.fetchFacet(facet, word);
+					}
+				});
+				futures.put(facet, task);
+				try {
+					getExecutor().execute(task);
+				} catch (RejectedExecutionException e) {
+					task.run();
+				}
+			}
+
+			// a facet still queued on the executor at the deadline is reported
+			// as timed out rather than holding up the profile
+			WordProfile.Builder builder = new WordProfile.Builder().word(word);
+			for (Map.Entry<Facet, FutureTask<Object>> entry : futures.entrySet()) {
+				Facet facet = entry.getKey();
+				FutureTask<Object> task = entry.getValue();
+				try {
+					setFacet(builder, facet, ctx.hasDeadline() ?
+							task.get(ctx.getRemainingMillis(), TimeUnit.MILLISECONDS) : task.get());
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					builder.addError(facet, cause instanceof KnickerException ? (KnickerException) cause :
+							new KnickerException("Error fetching " + facet + " for word " + word + ".", cause));
+				} catch (TimeoutException e) {
+					task.cancel(false);
+					builder.addError(facet, ctx.newException(e));
+				}
+			}
+			return builder.build();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new KnickerException("Interrupted while fetching the profile for word " + word + ".", e);
+		} finally {
+			// releases the link to the parent context, and aborts anything
+			// still running if we are leaving early
+			ctx.cancel();
+		}
+	}
+
+
+	/*
+	 * Fetch one facet using the defaults of the short WordApi overloads.
+	 */
+	Object fetchFacet(Facet facet, String word) throws KnickerException {
+		switch (facet) {
+			case LOOKUP:
+				return lookup(word, false, false);
+			case DEFINITIONS:
+				return definitions(word, 0, null, false, null, false, false);
+			case EXAMPLES:
+				return examples(word, false, null, false, 0, 0);
+			case TOP_EXAMPLE:
+				return topExample(word, null, false);
+			case RELATED:
+				return related(word, false, null, 0);
+			case PRONUNCIATIONS:
+				return pronunciations(word, false, null, null, 0);
+			case HYPHENATION:
+				return hyphenation(word, false, null, 0);
+			case AUDIO:
+				return audio(word, false, 0);
+			case FREQUENCY:
+				return frequency(word, false, 0, 0);
+			default:
+				throw new KnickerException("Unknown facet " + facet + ".");
+		}
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private static void setFacet(WordProfile.Builder builder, Facet facet, Object value) {
+		switch (facet) {
+			case LOOKUP:
+				builder.lookup((Word) value);
+				break;
+			case DEFINITIONS:
+				builder.definitions((List<Definition>) value);
+				break;
+			case EXAMPLES:
+				builder.examples((SearchResults) value);
+				break;
+			case TOP_EXAMPLE:
+				builder.topExample((Example) value);
+				break;
+			case RELATED:
+				builder.related((List<Related>) value);
+				break;
+			case PRONUNCIATIONS:
+				builder.pronunciations((List<Pronunciation>) value);
+				break;
+			case HYPHENATION:
+				builder.hyphenation((List<Syllable>) value);
+				break;
+			case AUDIO:
+				builder.audio((List<AudioFileMetadata>) value);
+				break;
+			case FREQUENCY:
+				builder.frequency((FrequencySummary) value);
+				break;
+		}
+	}
+
+
+	/* ********************************************************************
+	 * Publishers for paged results
+	 * ********************************************************************/
+
+	/**
+	 * Publish the authenticated user's word lists, fetching pages as the
+	 * subscriber requests items.
+	 *
+	 * @param token    authentication token.
+	 * @param pageSize number of lists to fetch in each call.
+	 * @return publisher of word lists.
+	 * @throws KnickerException if the token is null.
+	 * @see #wordLists(AuthenticationToken, int, int)
+	 */
+	public Flow.Publisher<WordList> wordListsPublisher(final AuthenticationToken token, int pageSize) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		return new PagedPublisher<WordList>(getExecutor(), pageSize) {
+			@Override
+			protected List<WordList> fetchPage(RequestContext context, int skip, int limit) throws KnickerException {
+				return withContext(context).wordLists(token, skip, limit);
+			}
+		};
+	}
+
+
+	/**
+	 * Publish example sentences for a word, fetching pages as the subscriber
+	 * requests items.
+	 *
+	 * @param word              the word to fetch examples for.
+	 * @param includeDuplicates show duplicate examples from different sources.
+	 * @param contentProvider   return results from a specific content provider.
+	 *                          If this parameter is null, it is ignored.
+	 * @param useCanonical      if true will try to return the correct word root
+	 *                          ('cats' -> 'cat'). If false returns exactly what was requested.
+	 * @param pageSize          number of examples to fetch in each call.
+	 * @return publisher of examples.
+	 * @throws KnickerException if the word is null or empty.
+	 * @see #examples(String, boolean, String, boolean, int, int)
+	 */
+	public Flow.Publisher<Example> examplesPublisher(final String word, final boolean includeDuplicates,
+													 final String contentProvider, final boolean useCanonical,
+													 int pageSize) throws KnickerException {
+		if (word == null || word.isEmpty()) {
+			throw new KnickerException("Cannot look up an empty word.");
+		}
+		return new PagedPublisher<Example>(getExecutor(), pageSize) {
+			@Override
+			protected List<Example> fetchPage(RequestContext context, int skip, int limit) throws KnickerException {
+				return withContext(context).examples(word, includeDuplicates, contentProvider, useCanonical,
+						skip, limit).getExamples();
+			}
+		};
+	}
+
+
+	/**
+	 * Publish the words in a word list, fetching pages as the subscriber
+	 * requests items.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink the permalink of the word list to get words from.
+	 * @param sortBy    field to sort by.
+	 * @param sortOrder direction to sort.
+	 * @param pageSize  number of words to fetch in each call.
+	 * @return publisher of word list words.
+	 * @throws KnickerException if the token or permalink are null.
+	 * @see #getWordsFromList(AuthenticationToken, String, Knicker.SortBy, javax.swing.SortOrder, int, int)
+	 */
+	public Flow.Publisher<WordListWord> getWordsFromListPublisher(final AuthenticationToken token, final String permalink,
+																  final SortBy sortBy, final SortOrder sortOrder,
+																  int pageSize) throws KnickerException {
+		if (token == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (permalink == null || permalink.isEmpty()) {
+			throw new KnickerException("Parameter permalink required.");
+		}
+		return new PagedPublisher<WordListWord>(getExecutor(), pageSize) {
+			@Override
+			protected List<WordListWord> fetchPage(RequestContext context, int skip, int limit) throws KnickerException {
+				return withContext(context).getWordsFromList(token, permalink, sortBy, sortOrder, skip, limit);
+			}
+		};
+	}
+
+
+	/**
+	 * Publish search results, fetching pages as the subscriber requests items.
+	 *
+	 * @param query               the word to search for.
+	 * @param caseSensitive       search case sensitive.
+	 * @param includePartOfSpeech only include these parts of speech.
+	 * @param excludePartOfSpeech exclude these parts of speech.
+	 * @param minCorpusCount      minimum corpus frequency count for terms.
+	 * @param maxCorpusCount      maximum corpus frequency count for terms.
+	 * @param minDictionaryCount  minimum number of dictionary entries.
+	 * @param maxDictionaryCount  maximum number of dictionary entries.
+	 * @param minLength           minimum word length.
+	 * @param maxLength           maximum word length.
+	 * @param pageSize            number of results to fetch in each call.
+	 * @return publisher of search results.
+	 * @see #search(String, boolean, java.util.Set, java.util.Set, int, int, int, int, int, int, int, int)
+	 */
+	public Flow.Publisher<SearchResult> searchPublisher(final String query, final boolean caseSensitive,
+														final Set<PartOfSpeech> includePartOfSpeech,
+														final Set<PartOfSpeech> excludePartOfSpeech,
+														final int minCorpusCount, final int maxCorpusCount,
+														final int minDictionaryCount, final int maxDictionaryCount,
+														final int minLength, final int maxLength, int pageSize) {
+		return searchPublisher(query, caseSensitive, includePartOfSpeech, excludePartOfSpeech, minCorpusCount,
+				maxCorpusCount, minDictionaryCount, maxDictionaryCount, minLength, maxLength, pageSize, 1);
+	}
+
+
+	/**
+	 * Publish search results, fetching pages as the subscriber requests items,
+	 * up to <code>concurrency</code> pages at a time.
+	 *
+	 * @param query               the word to search for.
+	 * @param caseSensitive       search case sensitive.
+	 * @param includePartOfSpeech only include these parts of speech.
+	 * @param excludePartOfSpeech exclude these parts of speech.
+	 * @param minCorpusCount      minimum corpus frequency count for terms.
+	 * @param maxCorpusCount      maximum corpus frequency count for terms.
+	 * @param minDictionaryCount  minimum number of dictionary entries.
+	 * @param maxDictionaryCount  maximum number of dictionary entries.
+	 * @param minLength           minimum word length.
+	 * @param maxLength           maximum word length.
+	 * @param pageSize            number of results to fetch in each call.
+	 * @param concurrency         most pages fetched at a time.
+	 * @return publisher of search results.
+	 * @see #search(String, boolean, java.util.Set, java.util.Set, int, int, int, int, int, int, int, int)
+	 */
+	public Flow.Publisher<SearchResult> searchPublisher(final String query, final boolean caseSensitive,
+														final Set<PartOfSpeech> includePartOfSpeech,
+														final Set<PartOfSpeech> excludePartOfSpeech,
+														final int minCorpusCount, final int maxCorpusCount,
+														final int minDictionaryCount, final int maxDictionaryCount,
+														final int minLength, final int maxLength, int pageSize,
+														int concurrency) {
+		return new PagedPublisher<SearchResult>(getExecutor(), pageSize, concurrency) {
+			@Override
+			protected List<SearchResult> fetchPage(RequestContext context, int skip, int limit) throws KnickerException {
+				return withContext(context).search(query, caseSensitive, includePartOfSpeech, excludePartOfSpeech,
+						minCorpusCount, maxCorpusCount, minDictionaryCount, maxDictionaryCount, minLength, maxLength,
+						skip, limit).getSearchResults();
+			}
+		};
+	}
+
+
+	/**
+	 * Publish reverse dictionary results, fetching pages as the subscriber
+	 * requests items.
+	 *
+	 * @param query                     search term.
+	 * @param findSenseForWord          restricts words and finds closest sense. Not sent in request if null.
+	 * @param includeSourceDictionaries only include these source dictionaries. Not sent in request if null.
+	 * @param excludeSourceDictionaries excludes these source dictionaries. Not sent in request if null.
+	 * @param includePartOfSpeech       only include these parts of speech. Not sent in request if null.
+	 * @param excludePartOfSpeech       excludes these parts of speech. Not sent in request if null.
+	 * @param minCorpusCount            minimum corpus frequency for terms. Not sent in request if zero.
+	 * @param maxCorpusCount            maximum corpus frequency for terms. Not sent in request if zero.
+	 * @param minLength                 minimum word length. Not sent in request if zero.
+	 * @param maxLength                 maximum word length. Not sent in request if zero.
+	 * @param expandTerms               expand terms. Not sent in request if null.
+	 * @param includeTags               return a closed set of XML tags in response.
+	 * @param sortBy                    attribute to sort by. Not sent in request if null.
+	 * @param sortOrder                 sort direction. Not sent in request if null.
+	 * @param pageSize                  number of results to fetch in each call.
+	 * @return publisher of definition search results.
+	 * @throws KnickerException if query is null or empty.
+	 * @see #reverseDictionary(String, String, java.util.Set, java.util.Set, java.util.Set, java.util.Set, int, int, int, int, Knicker.ExpandTerms, boolean, Knicker.SortBy, javax.swing.SortOrder, int, int)
+	 */
+	public Flow.Publisher<DefinitionSearchResult> reverseDictionaryPublisher(final String query, final String findSenseForWord,
+																			 final Set<SourceDictionary> includeSourceDictionaries,
+																			 final Set<SourceDictionary> excludeSourceDictionaries,
+																			 final Set<PartOfSpeech> includePartOfSpeech,
+																			 final Set<PartOfSpeech> excludePartOfSpeech,
+																			 final int minCorpusCount, final int maxCorpusCount,
+																			 final int minLength, final int maxLength,
+																			 final ExpandTerms expandTerms, final boolean includeTags,
+																			 final SortBy sortBy, final SortOrder sortOrder,
+																			 int pageSize) throws KnickerException {
+		return reverseDictionaryPublisher(query, findSenseForWord, includeSourceDictionaries, excludeSourceDictionaries,
+				includePartOfSpeech, excludePartOfSpeech, minCorpusCount, maxCorpusCount, minLength, maxLength,
+				expandTerms, includeTags, sortBy, sortOrder, pageSize, 1);
+	}
+
+
+	/**
+	 * Publish reverse dictionary results, fetching pages as the subscriber
+	 * requests items, up to <code>concurrency</code> pages at a time.
+	 *
+	 * @param query                     search term.
+	 * @param findSenseForWord          restricts words and finds closest sense. Not sent in request if null.
+	 * @param includeSourceDictionaries only include these source dictionaries. Not sent in request if null.
+	 * @param excludeSourceDictionaries excludes these source dictionaries. Not sent in request if null.
+	 * @param includePartOfSpeech       only include these parts of speech. Not sent in request if null.
+	 * @param excludePartOfSpeech       excludes these parts of speech. Not sent in request if null.
+	 * @param minCorpusCount            minimum corpus frequency for terms. Not sent in request if zero.
+	 * @param maxCorpusCount            maximum corpus frequency for terms. Not sent in request if zero.
+	 * @param minLength                 minimum word length. Not sent in request if zero.
+	 * @param maxLength                 maximum word length. Not sent in request if zero.
+	 * @param expandTerms               expand terms. Not sent in request if null.
+	 * @param includeTags               return a closed set of XML tags in response.
+	 * @param sortBy                    attribute to sort by. Not sent in request if null.
+	 * @param sortOrder                 sort direction. Not sent in request if null.
+	 * @param pageSize                  number of results to fetch in each call.
+	 * @param concurrency               most pages fetched at a time.
+	 * @return publisher of definition search results.
+	 * @throws KnickerException if query is null or empty.
+	 * @see #reverseDictionary(String, String, java.util.Set, java.util.Set, java.util.Set, java.util.Set, int, int, int, int, Knicker.ExpandTerms, boolean, Knicker.SortBy, javax.swing.SortOrder, int, int)
+	 */
+	public Flow.Publisher<DefinitionSearchResult> reverseDictionaryPublisher(final String query, final String findSenseForWord,
+																			 final Set<SourceDictionary> includeSourceDictionaries,
+																			 final Set<SourceDictionary> excludeSourceDictionaries,
+																			 final Set<PartOfSpeech> includePartOfSpeech,
+																			 final Set<PartOfSpeech> excludePartOfSpeech,
+																			 final int minCorpusCount, final int maxCorpusCount,
+																			 final int minLength, final int maxLength,
+																			 final ExpandTerms expandTerms, final boolean includeTags,
+																			 final SortBy sortBy, final SortOrder sortOrder,
+																			 int pageSize, int concurrency) throws KnickerException {
+		if (query == null || query.isEmpty()) {
+			throw new KnickerException("Query cannot be null or empty.");
+		}
+		return new PagedPublisher<DefinitionSearchResult>(getExecutor(), pageSize, concurrency) {
+			@Override
+			protected List<DefinitionSearchResult> fetchPage(RequestContext context, int skip, int limit) throws KnickerException {
+				return withContext(context).reverseDictionary(query, findSenseForWord, includeSourceDictionaries,
+						excludeSourceDictionaries, includePartOfSpeech, excludePartOfSpeech, minCorpusCount,
+						maxCorpusCount, minLength, maxLength, expandTerms, includeTags, sortBy, sortOrder,
+						skip, limit).getResults();
+			}
+		};
+	}
+
+
+	/* ********************************************************************
+	 * HTTP
+	 * ********************************************************************/
+
+	/**
+	 * Call the URI using an HTTP GET request, mapping the xml response to a
+	 * result.
+	 * <p/>
+	 * If the token is not null, the request header 'auth_token' is set.
+	 *
+	 * @param uri    the URI to call.
+	 * @param token  the authentication token. May be null.
+	 * @param mapper builds the result from the response.
+	 * @return the result built from the server response.
+	 * @throws KnickerException if the uri is invalid, or if there are any errors.
+	 */
+	<T> T doGet(String uri, AuthenticationToken token, Mapper<T> mapper) throws KnickerException {
+		return call("GET", uri, null, token, null, "Error getting a response from the server.", mapper);
+	}
+
+
+	/**
+	 * Call the URI using an HTTP POST request, mapping the xml response to a
+	 * result.
+	 *
+	 * @param uri    the URI to call.
+	 * @param data   the data for the POST operation.
+	 * @param token  authentication token instance to use for the call.
+	 * @param mapper builds the result from the response. If null, the
+	 *               response body is ignored.
+	 * @return the result built from the server response, or null if there is
+	 *         no mapper.
+	 * @throws KnickerException if the uri is invalid, or if there are any errors.
+	 */
+	<T> T doPost(String uri, String data, AuthenticationToken token, Mapper<T> mapper) throws KnickerException {
+		return doPost(uri, data == null ? null : data.getBytes(UTF_8), token, mapper);
+	}
+
+
+	/**
+	 * Call the URI using an HTTP POST request with a body that is already
+	 * encoded as UTF-8, mapping the xml response to a result.
+	 *
+	 * @param uri    the URI to call.
+	 * @param data   the data for the POST operation.
+	 * @param token  authentication token instance to use for the call.
+	 * @param mapper builds the result from the response. If null, the
+	 *               response body is ignored.
+	 * @return the result built from the server response, or null if there is
+	 *         no mapper.
+	 * @throws KnickerException if the uri is invalid, or if there are any errors.
+	 */
+	<T> T doPost(String uri, byte[] data, AuthenticationToken token, Mapper<T> mapper) throws KnickerException {
+		return call("POST", uri, data, token, null, "Error while performing HTTP POST operation.", mapper);
+	}
+
+
+	/**
+	 * Perform an HTTP PUT request. The response body is ignored.
+	 *
+	 * @param uri   the URI to call.
+	 * @param data  the data for the PUT operation. May be null.
+	 * @param token authentication token.
+	 * @throws KnickerException if the uri is invalid, or if there are any errors.
+	 */
+	void doPut(String uri, String data, AuthenticationToken token) throws KnickerException {
+		call("PUT", uri, data == null ? null : data.getBytes(UTF_8), token, null,
+				"Error while performing HTTP PUT operation.", null);
+	}
+
+
+	/**
+	 * Perform an HTTP DELETE request.
+	 * <p/>
+	 * Note: The Wordnik API methods that require a DELETE operation do not
+	 * return data.
+	 *
+	 * @param uri   the URI to call.
+	 * @param token authentication token.
+	 * @throws KnickerException if the uri is invalid, or if there are any errors.
+	 */
+	void doDelete(String uri, AuthenticationToken token) throws KnickerException {
+		call("DELETE", uri, null, token, null, "Error while performing HTTP DELETE operation.", null);
+	}
+
+
+	/*
+	 * Send a request and map its response. The request is timed from here
+	 * until the result is built, and the timing is finished here whether the
+	 * call succeeds or fails, so nothing about it outlives the call. A null
+	 * mapper ignores the response body.
+	 */
+	private <T> T call(String method, String uri, byte[] data, AuthenticationToken token, String key,
+					   String errorMessage, Mapper<T> mapper) throws KnickerException {
+		Timed timed = startTiming(method, uri);
+		boolean failed = true;
+		Throwable error = null;
+		try {
+			TransportResponse response = exchange(method, uri, data, token, key, errorMessage, timed);
+			T result = null;
+			if (mapper != null) {
+				long start = System.nanoTime();
+				Document doc = Util.getDocument(response.getBody());
+				long mapStart = System.nanoTime();
+				result = mapper.map(doc);
+				if (timed != null) {
+					timed.timing.record(RequestTiming.Phase.PARSE, mapStart - start);
+					timed.timing.record(RequestTiming.Phase.MAP, System.nanoTime() - mapStart);
+				}
+			}
+			failed = false;
+			return result;
+		} catch (KnickerException e) {
+			// an error status is reported without a stack trace
+			error = timed != null && timed.response != null && !timed.response.isSuccessful() ? null : e;
+			throw e;
+		} catch (RuntimeException e) {
+			error = e;
+			throw e;
+		} finally {
+			finishTiming(timed, failed, error);
+		}
+	}
+
+
+	/*
+	 * Send a request through the interceptor chain and the transport and
+	 * return the response. Anything other than a 2xx response is reported as
+	 * a KnickerException.
+	 *
+	 * The API key is the given one if not null, else the configured key when
+	 * there is no key pool. With a key pool, the key is chosen for each
+	 * attempt at the end of the chain, so a retry after HTTP 429 goes out
+	 * with another key; see sendAttempt.
+	 *
+	 * Bodies are not logged here; the slow request log shows the start of
+	 * the bodies of requests that are slow or fail.
+	 */
+	private TransportResponse exchange(String method, String uri, byte[] data, AuthenticationToken token,
+									   String key, String errorMessage, Timed timed) throws KnickerException {
+		if (uri == null || uri.trim().isEmpty()) {
+			throw new KnickerException("Parameter uri cannot be null or empty.");
+		}
+		if (!uri.startsWith("http://") && !uri.startsWith("https://")) {
+			throw new KnickerException("Parameter uri must start with http:// or https://");
+		}
+
+		if (key == null && keyPool == null) {
+			key = resolveApiKey();
+		}
+
+		TransportRequest.Builder request;
+		try {
+			request = new TransportRequest.Builder()
+					.method(method)
+					.url(uri)
+					.timing(timed == null ? null : timed.timing)
+					.header("api_key", key);
+			if (token != null) {
+				request.header("auth_token", token.getToken());
+			}
+			if (!method.equals("GET")) {
+				request.header("Content-Type", "text/xml");
+			}
+			if (data != null) {
+				request.body(data);
+				if (timed != null) {
+					timed.requestBody = data;
+				}
+			}
+		} catch (Exception e) {
+			throw new KnickerException(errorMessage, e);
+		}
+
+		TransportRequest built = request.build();
+		TransportResponse response = new InterceptorChain(this, chain, built, token, errorMessage).proceed(built);
+
+		if (timed != null) {
+			timed.response = response;
+			timed.timing.setStatusCode(response.getStatusCode());
+		}
+		if (!response.isSuccessful()) {
+			throw new KnickerException(errorMessage + " The server returned HTTP " + response.getStatusCode() + ".");
+		}
+		return response;
+	}
+
+
+	/*
+	 * Send one attempt of an API request from the end of the interceptor
+	 * chain. A request without an api_key header gets the key the pool
+	 * chooses now, which goes back to the pool as soon as the attempt ends;
+	 * a request that names its key is only recorded, so the pool still
+	 * learns from it.
+	 */
+	TransportResponse sendAttempt(TransportRequest request, AuthenticationToken token, String errorMessage)
+			throws KnickerException {
+		TransportRequest.Builder builder = new TransportRequest.Builder(request);
+		if (keyPool == null) {
+			return send(builder, errorMessage);
+		}
+		String key = request.getHeaders().get("api_key");
+		boolean pooled = key == null;
+		if (pooled) {
+			key = keyPool.acquire();
+			builder.header("api_key", key);
+		}
+		TransportResponse response = null;
+		try {
+			response = send(builder, errorMessage);
+			return response;
+		} finally {
+			if (pooled) {
+				keyPool.release(key, response, token != null);
+			} else {
+				keyPool.record(key, response, token != null);
+			}
+		}
+	}
+
+
+	/*
+	 * Execute a request under the current RequestContext, if there is one. The
+	 * timeouts are sized to the time left before the deadline, and the
+	 * transport aborts the call if the context is cancelled while it is in flight.
+	 */
+	TransportResponse send(TransportRequest.Builder request, String errorMessage) throws KnickerException {
+		RequestContext ctx = getContext();
+		int connect = connectTimeout;
+		int read = readTimeout;
+		if (ctx != null) {
+			ctx.checkActive();
+			connect = ctx.budget(connectTimeout);
+			read = ctx.budget(readTimeout);
+			request.cancellationSignal(ctx);
+		}
+		request.connectTimeout(connect).readTimeout(read);
+
+		TransportRequest built = request.build();
+		RequestTiming timing = built.getTiming();
+		if (timing != null) {
+			if (timing.getAttempts() == 0) {
+				timing.record(RequestTiming.Phase.QUEUE, System.nanoTime() - timing.getStartNanos());
+			}
+			timing.attempt();
+		}
+		try {
+			return transport.execute(built);
+		} catch (Exception e) {
+			if (ctx != null && ctx.isCancelled()) {
+				throw ctx.newException(e);
+			}
+			throw new KnickerException(errorMessage, e);
+		}
+	}
+
+
+	/*
+	 * Start timing a request if the context collects timings, the request
+	 * is sampled for the timing listener, or there is a slow request log.
+	 */
+	private Timed startTiming(String method, String uri) {
+		RequestContext ctx = getContext();
+		boolean sampled = (ctx != null && ctx.isCollectingTimings())
+				|| (timingListener != null && timingSamplePeriod != 0
+				&& timingSequence.getAndIncrement() % timingSamplePeriod == 0);
+		if (!sampled && slowRequestLog == null) {
+			return null;
+		}
+		return new Timed(new RequestTiming(method, ConcurrencyLimiter.endpointOf(uri)), sampled, uri);
+	}
+
+
+	/*
+	 * Stop the clock on a request. The slow request log sees every timed
+	 * request; the context and the listener see the sampled ones.
+	 */
+	private void finishTiming(Timed timed, boolean failed, Throwable error) {
+		if (timed == null) {
+			return;
+		}
+		RequestTiming timing = timed.timing;
+		timing.finish(failed);
+		if (slowRequestLog != null) {
+			slowRequestLog.record(timing, timed.url, timed.requestBody,
+					timed.response == null ? null : timed.response.getBody(), error);
+		}
+		if (!timed.sampled) {
+			return;
+		}
+		RequestContext ctx = getContext();
+		if (ctx != null) {
+			ctx.addTiming(timing);
+		}
+		if (timingListener != null) {
+			try {
+				timingListener.requestTimed(timing);
+			} catch (RuntimeException e) {
+				KnickerLogger.getLogger().log("Timing listener failed.", e);
+			}
+		}
+	}
+
+
+	/*
+	 * The canonical form of the word if the alias table knows it, so that
+	 * inflected forms share one request and one cache entry.
+	 */
+	private String canonicalWord(String word) {
+		return aliasTable == null ? word.trim() : aliasTable.resolve(word);
+	}
+
+
+	/*
+	 * The cached result for the key, or null if there is none that can be
+	 * served. Results near expiry, and expired results still within the
+	 * call's stale limit, are served and fetched again in the background. A
+	 * cache that fails is treated as a miss.
+	 */
+	private <T> T cached(CachedCall call, String key) {
+		return cached(call, key, null);
+	}
+
+
+	/*
+	 * As above, for a result that is fetched again by the loader instead of
+	 * a single request for the key. A null loader makes the single request.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T cached(CachedCall call, String key, Loader<?> loader) {
+		if (cache == null) {
+			return null;
+		}
+		CacheEntry entry;
+		try {
+			entry = cache.get(key);
+		} catch (RuntimeException e) {
+			KnickerLogger.getLogger().log("Cache read failed for " + key + ".", e);
+			return null;
+		}
+		if (entry == null) {
+			return null;
+		}
+
+		long now = System.currentTimeMillis();
+		long expires = entry.getExpiresMillis();
+		if (now < expires) {
+			if (expires - now < (expires - entry.getCreatedMillis()) * refreshAhead) {
+				revalidate(call, key, loader);
+			}
+			return (T) entry.getValue();
+		}
+		if (now < entry.getStaleUntilMillis() && now - expires < getMaxStaleMillis(call)) {
+			revalidate(call, key, loader);
+			return (T) entry.getValue();
+		}
+		return null;
+	}
+
+
+	/*
+	 * Cache a result. The value must be immutable, except for lists, which
+	 * are copied. Empty results are left to the negative cache.
+	 */
+	private void cache(CachedCall call, String key, Object value) {
+		if (cache == null || value == null) {
+			return;
+		}
+		if (value instanceof List) {
+			if (((List<?>) value).isEmpty()) {
+				return;
+			}
+			value = Collections.unmodifiableList(new ArrayList<Object>((List<?>) value));
+		} else if (value instanceof Word) {
+			String word = ((Word) value).getWord();
+			if (word == null || word.isEmpty()) {
+				return;
+			}
+		}
+		try {
+			cache.put(key, CacheEntry.create(value, cacheTtlMillis, getMaxStaleMillis(call), TimeUnit.MILLISECONDS));
+		} catch (RuntimeException e) {
+			KnickerLogger.getLogger().log("Cache write failed for " + key + ".", e);
+		}
+	}
+
+
+	/*
+	 * A cached result list, or null if the cache does not have one. Lists are
+	 * stored unmodifiable, so the cached one is returned as it is.
+	 */
+	private <T> List<T> cachedList(CachedCall call, String key) {
+		return cached(call, key);
+	}
+
+
+	/*
+	 * Fetch a cached result again in the background, unless that is already
+	 * being done. The fetch runs under its own BULK context, so it is not cut
+	 * short by the caller's deadline and does not hold up interactive calls.
+	 */
+	private void revalidate(final CachedCall call, final String key, final Loader<?> loader) {
+		if (!revalidating.add(key)) {
+			return;
+		}
+		final KnickerClient client = withContext(RequestContext.create().withPriority(Priority.BULK));
+		try {
+			getExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						client.cache(call, key, loader == null ? client.fetch(call, key) : loader.load(client));
+					} catch (KnickerException e) {
+						KnickerLogger.getLogger().log("Could not refresh cached result " + key + ".", e);
+					} finally {
+						revalidating.remove(key);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			revalidating.remove(key);
+		}
+	}
+
+
+	/*
+	 * Fetch a cached call from the server, without consulting the cache.
+	 */
+	private <T> T fetch(CachedCall call, String uri) throws KnickerException {
+		return doGet(uri, null, KnickerClient.<T>mapper(call));
+	}
+
+
+	/*
+	 * A mapper that builds the result of a cached call.
+	 */
+	private static <T> Mapper<T> mapper(final CachedCall call) {
+		return new Mapper<T>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public T map(Document doc) throws KnickerException {
+				return (T) build(call, doc);
+			}
+		};
+	}
+
+
+	/*
+	 * Parse the response to a cached call.
+	 */
+	private static Object build(CachedCall call, Document doc) throws KnickerException {
+		switch (call) {
+			case LOOKUP:
+				return DTOBuilder.buildWord(doc);
+			case EXAMPLES:
+				return DTOBuilder.buildExamples(doc);
+			case TOP_EXAMPLE:
+				return DTOBuilder.buildTopExample(doc);
+			case DEFINITIONS:
+				return DTOBuilder.buildDefinitions(doc);
+			case FREQUENCY:
+				return DTOBuilder.buildFrequencySummary(doc);
+			case RELATED:
+				return DTOBuilder.buildRelated(doc);
+			case PHRASES:
+				return DTOBuilder.buildPhrase(doc);
+			case HYPHENATION:
+				return DTOBuilder.buildHyphenation(doc);
+			case PRONUNCIATIONS:
+				return DTOBuilder.buildPronunciation(doc);
+			case WORD_OF_THE_DAY:
+				return DTOBuilder.buildWordOfTheDay(doc);
+			case SEARCH:
+				return DTOBuilder.buildSearchResults(doc);
+			case REVERSE_DICTIONARY:
+				return DTOBuilder.buildDefinitionSearchResults(doc);
+			default:
+				throw new KnickerException("Unknown cached call " + call + ".");
+		}
+	}
+
+
+	/*
+	 * Serve a skip/limit window of a paged call from the page cache,
+	 * fetching only the ranges it does not hold. The uri has every parameter
+	 * but skip and limit. If the query is evicted or expires while the gaps
+	 * are fetched, the whole window is fetched in one request.
+	 */
+	private PageCache.Window window(CachedCall call, RequestTemplate.Builder uri, int skip, int limit)
+			throws KnickerException {
+		String query = uri.build();
+		for (PageCache.Range gap : pageCache.getMissing(query, skip, limit)) {
+			fetchPage(call, uri, query, gap.getSkip(), gap.getLimit());
+		}
+		PageCache.Window window = pageCache.get(query, skip, limit);
+		return window == null ? fetchPage(call, uri, query, skip, limit) : window;
+	}
+
+
+	private PageCache.Window fetchPage(CachedCall call, RequestTemplate.Builder uri, String query, int skip, int limit)
+			throws KnickerException {
+		PagedResults page = call != CachedCall.EXAMPLES && isSplit(limit) ?
+				fetchRange(call, uri, skip, limit) : fetchOne(call, uri, skip, limit);
+		pageCache.put(query, skip, limit, page.items, page.total);
+		return new PageCache.Window(page.items, page.total);
+	}
+
+
+	private PagedResults fetchOne(CachedCall call, RequestTemplate.Builder uri, int skip, int limit)
+			throws KnickerException {
+		String url = uri.copy().param("skip", skip).param("limit", limit).build();
+		return new PagedResults(call, fetch(call, url));
+	}
+
+
+	private boolean isSplit(int limit) {
+		return splitPageSize > 0 && limit > splitPageSize;
+	}
+
+
+	/*
+	 * Loads a search or reverseDictionary range with fetchRange.
+	 */
+	private static <T> Loader<T> range(final CachedCall call, final RequestTemplate.Builder uri, final int skip,
+									   final int limit) {
+		return new Loader<T>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public T load(KnickerClient client) throws KnickerException {
+				return (T) client.fetchRange(call, uri, skip, limit).result(call);
+			}
+		};
+	}
+
+
+	/*
+	 * Fetch a range of a search or reverseDictionary call as pages of
+	 * splitPageSize and merge them in order. The calling thread and up to
+	 * splitConcurrency - 1 tasks on the executor take pages in order until
+	 * all have been fetched, so the first page is never queued behind the
+	 * others and a busy executor cannot stall the call. A page that fails or
+	 * comes back short stops the hand-out, and the pages after it that have
+	 * not finished are cancelled, as are all unfinished pages when the call
+	 * fails or is interrupted. The pages must agree on the total, and only
+	 * the last pages may be short; otherwise the results changed between
+	 * requests and the merged list would have gaps or repeats.
+	 */
+	private PagedResults fetchRange(final CachedCall call, final RequestTemplate.Builder uri, int skip, int limit)
+			throws KnickerException {
+		final KnickerClient client = withContext(getContext());
+		final AtomicBoolean stopped = new AtomicBoolean();
+		final List<FutureTask<PagedResults>> pages = new ArrayList<FutureTask<PagedResults>>();
+		for (int offset = 0; offset < limit; offset += splitPageSize) {
+			final int pageSkip = skip + offset;
+			final int pageLimit = Math.min(splitPageSize, limit - offset);
+			pages.add(new FutureTask<PagedResults>(new Callable<PagedResults>() {
+				@Override
+				public PagedResults call() throws KnickerException {
+					boolean full = false;
+					try {
+						PagedResults page = client.fetchOne(call, uri, pageSkip, pageLimit);
+						full = page.items.size() >= pageLimit;
+						return page;
+					} finally {
+						if (!full) {
+							stopped.set(true);
+						}
+					}
+				}
+			}));
+		}
+		final AtomicInteger next = new AtomicInteger();
+		Runnable worker = new Runnable() {
+			@Override
+			public void run() {
+				int i;
+				while (!stopped.get() && (i = next.getAndIncrement()) < pages.size()) {
+					pages.get(i).run();
+				}
+			}
+		};
+		try {
+			for (int i = 1; i < Math.min(splitConcurrency, pages.size()); i++) {
+				getExecutor().execute(worker);
+			}
+		} catch (RejectedExecutionException e) {
+			// this thread fetches the rest
+		}
+		worker.run();
+
+		// pages are handed out in order, so every page before the one that
+		// stopped the hand-out has been taken and finishes
+		List<Object> items = new ArrayList<Object>(limit);
+		int total = -1;
+		try {
+			for (int i = 0; i < pages.size(); i++) {
+				int pageSkip = skip + i * splitPageSize;
+				int pageLimit = Math.min(splitPageSize, limit - i * splitPageSize);
+				PagedResults page;
+				try {
+					page = pages.get(i).get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new KnickerException("Interrupted while fetching results.", e);
+				} catch (ExecutionException e) {
+					throw new KnickerException("Could not fetch results " + pageSkip + " to " + (pageSkip + pageLimit) + ".",
+							e.getCause());
+				}
+				if (total != -1 && page.total != total) {
+					throw new KnickerException("The results changed while they were being fetched.");
+				}
+				total = page.total;
+				items.addAll(page.items);
+				if (page.items.size() < pageLimit) {
+					checkEnded(pages.subList(i + 1, pages.size()));
+					break;
+				}
+			}
+		} finally {
+			stopped.set(true);
+			for (FutureTask<PagedResults> page : pages) {
+				page.cancel(false);
+			}
+		}
+		return new PagedResults(items, total);
+	}
+
+
+	/*
+	 * Cancel the pages after a short page. Any of them that already finished
+	 * must be empty, or the results changed while they were being fetched.
+	 */
+	private static void checkEnded(List<FutureTask<PagedResults>> rest) throws KnickerException {
+		for (FutureTask<PagedResults> page : rest) {
+			if (page.cancel(false)) {
+				continue;
+			}
+			try {
+				if (!page.get().items.isEmpty()) {
+					throw new KnickerException("The results changed while they were being fetched.");
+				}
+			} catch (ExecutionException e) {
+				// the results ended before this page, so its failure does not matter
+			} catch (CancellationException e) {
+				// cancelled by another thread
+			} catch (InterruptedException e) {
+				// a finished page does not block
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
+	/*
+	 * The configured key, or the WORDNIK_API_KEY system property if none was configured.
+	 */
+	private String resolveApiKey() {
+		return apiKey == null ? System.getProperty("WORDNIK_API_KEY") : apiKey;
+	}
+
+
+	/*
+	 * Holds the executor, creating a pool of daemon threads on first use if none was configured.
+	 */
+	private static class ExecutorHolder {
+
+		private final ExecutorService configured;
+
+		private ExecutorService created;
+
+
+		ExecutorHolder(ExecutorService configured) {
+			this.configured = configured;
+		}
+
+
+		synchronized ExecutorService get() {
+			if (configured != null) {
+				return configured;
+			}
+			if (created == null) {
+				created = Executors.newCachedThreadPool(new DaemonThreadFactory("knicker-client"));
+			}
+			return created;
+		}
+
+
+		synchronized void shutdown() {
+			if (created != null) {
+				created.shutdown();
+				created = null;
+			}
+		}
+	}
+
+
+	/**
+	 * Creates named daemon threads, so Knicker's background work never keeps the JVM alive.
+	 */
+	static class DaemonThreadFactory implements ThreadFactory {
+
+		private final String prefix;
+
+		private final AtomicInteger count = new AtomicInteger();
+
+
+		DaemonThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, prefix + "-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+
+
+	/*
+	 * The results and total of one page of a paged call.
+	 */
+	private static class PagedResults {
+		private final List<?> items;
+		private final int total;
+
+
+		private PagedResults(List<?> items, int total) {
+			this.items = items;
+			this.total = total;
+		}
+
+
+		private PagedResults(CachedCall call, Object result) {
+			if (call == CachedCall.REVERSE_DICTIONARY) {
+				DefinitionSearchResults r = (DefinitionSearchResults) result;
+				this.items = r.getResults();
+				this.total = r.getTotalResults();
+			} else {
+				SearchResults r = (SearchResults) result;
+				this.items = call == CachedCall.EXAMPLES ? r.getExamples() : r.getSearchResults();
+				this.total = r.getTotal();
+			}
+		}
+
+
+		/*
+		 * The search or reverseDictionary result for these results.
+		 */
+		private Object result(CachedCall call) {
+			if (call == CachedCall.REVERSE_DICTIONARY) {
+				return new DefinitionSearchResults.Builder()
+						.totalResults(total)
+						.results(PagedResults.<DefinitionSearchResult>items(items))
+						.build();
+			}
+			return new SearchResults.Builder()
+					.total(total)
+					.searchResults(PagedResults.<SearchResult>items(items))
+					.build();
+		}
+
+
+		private static <T> List<T> items(PageCache.Window window) {
+			return items(window.getItems());
+		}
+
+
+		@SuppressWarnings("unchecked")
+		private static <T> List<T> items(List<?> items) {
+			return (List<T>) items;
+		}
+	}
+
+
+	/*
+	 * Builds the result of a call from the response document.
+	 */
+	interface Mapper<T> {
+		T map(Document doc) throws KnickerException;
+	}
+
+
+	/*
+	 * Fetches the result of a cached call that takes more than one request.
+	 */
+	interface Loader<T> {
+		T load(KnickerClient client) throws KnickerException;
+	}
+
+
+	/*
+	 * A timed request, and what the slow request log needs to describe it.
+	 */
+	private static class Timed {
+		private final RequestTiming timing;
+		/* True if the timing goes to the context and the listener. */
+		private final boolean sampled;
+		private final String url;
+		private byte[] requestBody;
+		private TransportResponse response;
+
+
+		private Timed(RequestTiming timing, boolean sampled, String url) {
+			this.timing = timing;
+			this.sampled = sampled;
+			this.url = url;
+		}
+	}
+
+
+	/**
+	 * Builds immutable <code>KnickerClient</code> instances.
+	 */
+	public static class Builder {
+
+		private String apiKey;
+		private String accountEndpoint = ACCOUNT_ENDPOINT;
+		private String wordEndpoint = WORD_ENDPOINT;
+		private String wordListEndpoint = WORD_LIST_ENDPOINT;
+		private String wordListsEndpoint = WORD_LISTS_ENDPOINT;
+		private String wordsEndpoint = WORDS_ENDPOINT;
+		private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+		private int readTimeout = DEFAULT_READ_TIMEOUT;
+		private Transport transport;
+		private ExecutorService executor;
+		private RequestContext context;
+		private NegativeCache negativeCache;
+		private PageCache pageCache;
+		private int splitPageSize;
+		private int splitConcurrency = 1;
+		private KnickerCache cache;
+		private long cacheTtlMillis = TimeUnit.MINUTES.toMillis(DEFAULT_CACHE_TTL_MINUTES);
+		private long defaultMaxStaleMillis;
+		private Map<CachedCall, Long> maxStaleMillis = new EnumMap<CachedCall, Long>(CachedCall.class);
+		private double refreshAhead;
+		private CanonicalAliasTable aliasTable;
+		private Throttle throttle;
+		private ApiKeyPool keyPool;
+		private ConcurrencyLimiter concurrencyLimiter;
+		private List<Interceptor> interceptors = new ArrayList<Interceptor>();
+		private TimingListener timingListener;
+		private double timingSampleRate = DEFAULT_TIMING_SAMPLE_RATE;
+		private SlowRequestLog slowRequestLog;
+
+
+		public Builder() {
+		}
+
+
+		/**
+		 * Create a builder initialized with the configuration of an existing client.
+		 * <p/>
+		 * The executor is only copied if it was configured explicitly.
+		 *
+		 * @param source the client to copy configuration from.
+		 */
+		public Builder(KnickerClient source) {
+			this.apiKey = source.apiKey;
+			this.accountEndpoint = source.accountEndpoint;
+			this.wordEndpoint = source.wordEndpoint;
+			this.wordListEndpoint = source.wordListEndpoint;
+			this.wordListsEndpoint = source.wordListsEndpoint;
+			this.wordsEndpoint = source.wordsEndpoint;
+			this.connectTimeout = source.connectTimeout;
+			this.readTimeout = source.readTimeout;
+			this.transport = source.transport;
+			this.executor = source.executorHolder.configured;
+			this.context = source.context;
+			this.negativeCache = source.negativeCache;
+			this.pageCache = source.pageCache;
+			this.splitPageSize = source.splitPageSize;
+			this.splitConcurrency = source.splitConcurrency;
+			this.cache = source.cache;
+			this.cacheTtlMillis = source.cacheTtlMillis;
+			this.defaultMaxStaleMillis = source.defaultMaxStaleMillis;
+			this.maxStaleMillis.putAll(source.maxStaleMillis);
+			this.refreshAhead = source.refreshAhead;
+			this.aliasTable = source.aliasTable;
+			this.throttle = source.throttle;
+			this.keyPool = source.keyPool;
+			this.concurrencyLimiter = source.concurrencyLimiter;
+			this.interceptors.addAll(source.interceptors);
+			this.timingListener = source.timingListener;
+			this.timingSampleRate = source.timingSampleRate;
+			this.slowRequestLog = source.slowRequestLog;
+		}
+
+
+		/**
+		 * @param apiKey the Wordnik API key. If null, the WORDNIK_API_KEY system
+		 *               property is read on every request.
+		 * @return this builder.
+		 */
+		public Builder apiKey(String apiKey) {
+			this.apiKey = apiKey;
+			return this;
+		}
+
+
+		/**
+		 * Point all endpoints at a different server, for example a local stand-in.
+		 * <p/>
+		 * The base URL replaces "http://api.wordnik.com/v4", so passing
+		 * "http://localhost:8080/v4" sends word requests to
+		 * "http://localhost:8080/v4/word.xml".
+		 *
+		 * @param baseUrl base URL, without a trailing slash.
+		 * @return this builder.
+		 */
+		public Builder baseUrl(String baseUrl) {
+			this.accountEndpoint = baseUrl + "/account.xml";
+			this.wordEndpoint = baseUrl + "/word.xml";
+			this.wordListEndpoint = baseUrl + "/wordList.xml";
+			this.wordListsEndpoint = baseUrl + "/wordLists.xml";
+			this.wordsEndpoint = baseUrl + "/words.xml";
+			return this;
+		}
+
+
+		public Builder accountEndpoint(String accountEndpoint) {
+			this.accountEndpoint = accountEndpoint;
+			return this;
+		}
+
+
+		public Builder wordEndpoint(String wordEndpoint) {
+			this.wordEndpoint = wordEndpoint;
+			return this;
+		}
+
+
+		public Builder wordListEndpoint(String wordListEndpoint) {
+			this.wordListEndpoint = wordListEndpoint;
+			return this;
+		}
+
+
+		public Builder wordListsEndpoint(String wordListsEndpoint) {
+			this.wordListsEndpoint = wordListsEndpoint;
+			return this;
+		}
+
+
+		public Builder wordsEndpoint(String wordsEndpoint) {
+			this.wordsEndpoint = wordsEndpoint;
+			return this;
+		}
+
+
+		/**
+		 * @param connectTimeout connect timeout in milliseconds.
+		 * @return this builder.
+		 */
+		public Builder connectTimeout(int connectTimeout) {
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+
+
+		/**
+		 * @param readTimeout read timeout in milliseconds.
+		 * @return this builder.
+		 */
+		public Builder readTimeout(int readTimeout) {
+			this.readTimeout = readTimeout;
+			return this;
+		}
+
+
+		/**
+		 * @param transport the transport to use. If null, <code>UrlConnectionTransport</code> is used.
+		 * @return this builder.
+		 */
+		public Builder transport(Transport transport) {
+			this.transport = transport;
+			return this;
+		}
+
+
+		/**
+		 * @param executor executor for background and concurrent work. If null,
+		 *                 the client creates its own pool of daemon threads when needed.
+		 * @return this builder.
+		 */
+		public Builder executor(ExecutorService executor) {
+			this.executor = executor;
+			return this;
+		}
+
+
+		/**
+		 * @param context context that every call made by the client runs under.
+		 *                If null, calls use the context bound to the calling thread.
+		 * @return this builder.
+		 * @see KnickerClient#withContext(RequestContext)
+		 */
+		public Builder context(RequestContext context) {
+			this.context = context;
+			return this;
+		}
+
+
+		/**
+		 * Remember lookups and definition requests that returned nothing, and
+		 * answer repeats of them without calling the server.
+		 *
+		 * @param negativeCache the cache to use. If null, which is the default,
+		 *                      every request goes to the server.
+		 * @return this builder.
+		 */
+		public Builder negativeCache(NegativeCache negativeCache) {
+			this.negativeCache = negativeCache;
+			return this;
+		}
+
+
+		/**
+		 * Cache the results of examples, search and reverseDictionary by
+		 * position, so that a skip/limit window overlapping earlier ones
+		 * only fetches the results not seen yet. These calls then use the
+		 * page cache instead of the response cache.
+		 *
+		 * @param pageCache the cache to use. If null, which is the default,
+		 *                  each window is a separate request.
+		 * @return this builder.
+		 */
+		public Builder pageCache(PageCache pageCache) {
+			this.pageCache = pageCache;
+			return this;
+		}
+
+
+		/**
+		 * Split search and reverseDictionary calls with a large limit into
+		 * requests of at most <code>pageSize</code> results, sent up to
+		 * <code>concurrency</code> at a time and merged in order. Each page
+		 * must report the same total; if the results change while the pages
+		 * are fetched, or a page fails, the call fails.
+		 *
+		 * @param pageSize    most results asked for in one request. Zero, the
+		 *                    default, sends every call as one request.
+		 * @param concurrency most requests in flight for one call.
+		 * @return this builder.
+		 */
+		public Builder splitLimit(int pageSize, int concurrency) {
+			if (pageSize < 0) {
+				throw new IllegalArgumentException("Page size cannot be negative.");
+			}
+			if (concurrency < 1) {
+				throw new IllegalArgumentException("Concurrency must be greater than zero.");
+			}
+			this.splitPageSize = pageSize;
+			this.splitConcurrency = concurrency;
+			return this;
+		}
+
+
+		/**
+		 * Cache the results of word, words and reverse dictionary requests. The
+		 * cache is consulted before every call that returns public word data;
+		 * account and word list calls, random words and audio are never cached.
+		 *
+		 * @param cache the cache to use. If null, which is the default,
+		 *              results are not cached.
+		 * @return this builder.
+		 * @see net.jeremybrooks.knicker.cache.InMemoryKnickerCache
+		 */
+		public Builder cache(KnickerCache cache) {
+			this.cache = cache;
+			return this;
+		}
+
+
+		/**
+		 * @param ttl  how long cached results stay fresh. The default is
+		 *             <code>DEFAULT_CACHE_TTL_MINUTES</code>.
+		 * @param unit unit of the time to live.
+		 * @return this builder.
+		 */
+		public Builder cacheTtl(long ttl, TimeUnit unit) {
+			this.cacheTtlMillis = unit.toMillis(ttl);
+			return this;
+		}
+
+
+		/**
+		 * Serve cached results for a while after they expire. A caller that
+		 * reads an expired result within this time gets it at once, and the
+		 * result is fetched again in the background; only one fetch per result
+		 * runs at a time. After this time, the caller waits for a fresh result.
+		 *
+		 * @param maxStale how long after expiry results may be served. The
+		 *                 default is zero, so expired results are never served.
+		 * @param unit     unit of the time.
+		 * @return this builder.
+		 */
+		public Builder maxStale(long maxStale, TimeUnit unit) {
+			this.defaultMaxStaleMillis = unit.toMillis(maxStale);
+			return this;
+		}
+
+
+		/**
+		 * Set how long one call's results may be served after they expire,
+		 * overriding <code>maxStale(long, TimeUnit)</code> for that call.
+		 *
+		 * @param call     the cached call.
+		 * @param maxStale how long after expiry results may be served.
+		 * @param unit     unit of the time.
+		 * @return this builder.
+		 */
+		public Builder maxStale(CachedCall call, long maxStale, TimeUnit unit) {
+			this.maxStaleMillis.put(call, unit.toMillis(maxStale));
+			return this;
+		}
+
+
+		/**
+		 * Refresh cached results that are read near the end of their time to
+		 * live, so that popular results are replaced before they expire. The
+		 * caller gets the cached result, and a fresh one is fetched in the
+		 * background.
+		 *
+		 * @param refreshAhead share of the time to live, from 0 to less than 1.
+		 *                     With 0.2 and a 60 minute time to live, results
+		 *                     read in their last 12 minutes are refreshed. The
+		 *                     default is zero, which turns this off.
+		 * @return this builder.
+		 */
+		public Builder refreshAhead(double refreshAhead) {
+			this.refreshAhead = refreshAhead;
+			return this;
+		}
+
+
+		/**
+		 * Learn canonical forms from lookup results, and use them for later
+		 * <code>useCanonical=true</code> requests for definitions, pronunciations
+		 * and frequency. With a result cache, "dogs", "Dogs" and "dog" then share
+		 * one entry once their canonical form is known.
+		 *
+		 * @param aliasTable the table to use. If null, which is the default,
+		 *                   words are sent as given.
+		 * @return this builder.
+		 */
+		public Builder aliasTable(CanonicalAliasTable aliasTable) {
+			this.aliasTable = aliasTable;
+			return this;
+		}
+
+
+		/**
+		 * Limit the rate of API calls. Each call waits for a permit from the
+		 * throttle before it is sent. Audio downloads are not API calls and are
+		 * not throttled.
+		 *
+		 * @param throttle the throttle to use. If null, which is the default,
+		 *                 calls are not throttled.
+		 * @return this builder.
+		 */
+		public Builder throttle(Throttle throttle) {
+			this.throttle = throttle;
+			return this;
+		}
+
+
+		/**
+		 * Spread calls over several API keys. When a pool is set, the API key
+		 * set with <code>apiKey</code> is not used.
+		 *
+		 * @param keyPool the pool to use. If null, which is the default, every
+		 *                call uses the same key.
+		 * @return this builder.
+		 * @see ApiKeyPool
+		 */
+		public Builder keyPool(ApiKeyPool keyPool) {
+			this.keyPool = keyPool;
+			return this;
+		}
+
+
+		/**
+		 * Limit the number of requests in flight to each endpoint, adapting the
+		 * limit to the server's latency and errors. Calls over the limit wait
+		 * for a slot. Audio downloads are not limited.
+		 *
+		 * @param concurrencyLimiter the limiter to use. If null, which is the
+		 *                           default, requests are not limited.
+		 * @return this builder.
+		 * @see ConcurrencyLimiter
+		 */
+		public Builder concurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+			this.concurrencyLimiter = concurrencyLimiter;
+			return this;
+		}
+
+
+		/**
+		 * Add an interceptor to the chain every API request runs through.
+		 * Interceptors run in the order they are added, the first one
+		 * outermost. Audio downloads do not go through the chain.
+		 * <p/>
+		 * The throttle and concurrency limiter run after the added
+		 * interceptors. To run them at another point in the chain, add them
+		 * here as well; they then run only where they were added.
+		 *
+		 * @param interceptor the interceptor to add.
+		 * @return this builder.
+		 * @throws IllegalArgumentException if interceptor is null.
+		 * @see Interceptor
+		 */
+		public Builder interceptor(Interceptor interceptor) {
+			if (interceptor == null) {
+				throw new IllegalArgumentException("Interceptor cannot be null.");
+			}
+			this.interceptors.add(interceptor);
+			return this;
+		}
+
+
+		/**
+		 * Send the phase timings of sampled requests to a listener, for
+		 * example a <code>TimingStats</code>. The listener is called on the
+		 * thread that made the request, once the result has been built.
+		 *
+		 * @param timingListener the listener. If null, which is the default,
+		 *                       requests are only timed under a context
+		 *                       created with <code>RequestContext.withTimings()</code>.
+		 * @return this builder.
+		 * @see RequestTiming
+		 */
+		public Builder timingListener(TimingListener timingListener) {
+			this.timingListener = timingListener;
+			return this;
+		}
+
+
+		/**
+		 * Set the fraction of requests timed for the timing listener. Timing
+		 * costs a few clock reads per request; lower the rate to reduce that
+		 * on busy clients. Requests under a context that collects timings
+		 * are always timed.
+		 *
+		 * @param timingSampleRate from 0, which times no requests, to 1, which
+		 *                         times every request. Default is 1.
+		 * @return this builder.
+		 */
+		public Builder timingSampleRate(double timingSampleRate) {
+			this.timingSampleRate = timingSampleRate;
+			return this;
+		}
+
+
+		/**
+		 * Log requests that are slow or fail, with their phase timings and
+		 * the start of their bodies. Request and response bodies are not
+		 * logged otherwise.
+		 *
+		 * @param slowRequestLog the log to use. If null, which is the default,
+		 *                       requests are not logged.
+		 * @return this builder.
+		 * @see SlowRequestLog
+		 */
+		public Builder slowRequestLog(SlowRequestLog slowRequestLog) {
+			this.slowRequestLog = slowRequestLog;
+			return this;
+		}
+
+
+		public KnickerClient build() {
+			if (connectTimeout < 0 || readTimeout < 0) {
+				throw new IllegalArgumentException("Timeouts cannot be negative.");
+			}
+			if (cacheTtlMillis <= 0) {
+				throw new IllegalArgumentException("Cache time to live must be greater than zero.");
+			}
+			if (defaultMaxStaleMillis < 0) {
+				throw new IllegalArgumentException("Maximum staleness cannot be negative.");
+			}
+			for (Long millis : maxStaleMillis.values()) {
+				if (millis < 0) {
+					throw new IllegalArgumentException("Maximum staleness cannot be negative.");
+				}
+			}
+			if (!(refreshAhead >= 0 && refreshAhead < 1)) {
+				throw new IllegalArgumentException("Refresh ahead must be at least 0 and less than 1.");
+			}
+			if (!(timingSampleRate >= 0 && timingSampleRate <= 1)) {
+				throw new IllegalArgumentException("Timing sample rate must be from 0 to 1.");
+			}
+			return new KnickerClient(this);
+		}
+	}
+}
@@ -0,0 +1,522 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.ListType;
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.dto.WordList;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+
+/**
+ * An append-only log of the word list changes a <code>WordListWriter</code>
+ * has accepted but the server has not yet confirmed.
+ * <p/>
+ * The file starts with a magic number and version, followed by records. Each
+ * record is its length, a CRC32 of its payload, and the payload: a kind, a
+ * sequence number, and for a change, the operation, token reference,
+ * permalink and word or list. A change is written and synced before the
+ * writer accepts it;
+ * a confirmation is written once the server has answered and is not synced,
+ * since losing one only means the change is sent again.
+ * <p/>
+ * The token itself is never written. A change records the SHA-256 hash of
+ * its token, and whoever replays the log supplies the tokens again. The file
+ * is readable and writable only by its owner, where the file system allows.
+ * <p/>
+ * Syncs are batched: a thread that finds a sync in progress waits for it, and
+ * the next sync covers every record written in the meantime.
+ * <p/>
+ * When the log is opened, the changes without a confirmation are read back
+ * for replay and the file is rewritten with only those. A record cut short
+ * by a crash, or with a bad checksum, ends the log. The file is rewritten
+ * again whenever confirmed records make up most of it.
+ *
+ * @author Jeremy Brooks
+ */
+class MutationLog {
+
+	static final int MAGIC = 0x4B574C47;
+
+	static final int VERSION = 1;
+
+	static final byte ADD = 1;
+	static final byte DELETE = 2;
+	static final byte UPDATE = 3;
+
+	private static final byte CHANGE = 1;
+	private static final byte CONFIRM = 2;
+
+	/* Longest record read back; anything longer is taken as corruption. */
+	private static final int MAX_RECORD = 1 << 20;
+
+	/* Records written before the log is worth compacting. */
+	private static final int COMPACT_MIN_RECORDS = 1024;
+
+	private final File file;
+
+	/* Held while syncing or compacting, always before this. */
+	private final Object syncLock = new Object();
+
+	/* Changes not yet confirmed, by sequence. Guarded by this. */
+	private final Map<Long, Entry> pending = new LinkedHashMap<Long, Entry>();
+
+	private final List<Entry> recovered;
+
+	/* Guarded by this. */
+	private RandomAccessFile raf;
+
+	private FileChannel channel;
+
+	private long lastSequence;
+
+	private int records;
+
+	private boolean closed;
+
+	/* Guarded by syncLock. */
+	private long syncedSequence;
+
+
+	private MutationLog(File file) {
+		this.file = file;
+		this.recovered = new ArrayList<Entry>();
+	}
+
+
+	/**
+	 * Open a log, creating it if it does not exist, and read back the changes
+	 * that were never confirmed.
+	 *
+	 * @param file the log file.
+	 * @return the open log.
+	 * @throws IOException if the file cannot be read or written, or is not a mutation log.
+	 */
+	static MutationLog open(File file) throws IOException {
+		MutationLog log = new MutationLog(file);
+		synchronized (log) {
+			log.read();
+			log.recovered.addAll(log.pending.values());
+			log.rewrite();
+		}
+		return log;
+	}
+
+
+	/**
+	 * @return the changes that were in the log when it was opened, in the
+	 *         order they were accepted.
+	 */
+	List<Entry> getRecovered() {
+		return recovered;
+	}
+
+
+	/**
+	 * Write a change. It is not durable until <code>sync</code> returns.
+	 *
+	 * @return the sequence number of the change.
+	 * @throws IOException if the log cannot be written.
+	 */
+	synchronized long append(byte op, AuthenticationToken token, String permalink, String word, WordList wordList)
+			throws IOException {
+		if (closed) {
+			throw new IOException("The mutation log has been closed.");
+		}
+		Entry entry = new Entry(++lastSequence, op, reference(token), permalink, word, wordList);
+		write(encode(entry), 1);
+		pending.put(entry.sequence, entry);
+		return entry.sequence;
+	}
+
+
+	/**
+	 * Wait until the change with the given sequence number is on disk.
+	 *
+	 * @throws IOException if the log cannot be synced.
+	 */
+	void sync(long sequence) throws IOException {
+		synchronized (syncLock) {
+			if (syncedSequence >= sequence) {
+				return;
+			}
+			FileChannel target;
+			long covered;
+			synchronized (this) {
+				if (closed) {
+					throw new IOException("The mutation log has been closed.");
+				}
+				target = channel;
+				covered = lastSequence;
+			}
+			target.force(false);
+			syncedSequence = covered;
+		}
+	}
+
+
+	/**
+	 * Record that the server has answered for some changes, so they are not
+	 * replayed. Compacts the file if it is mostly confirmed records.
+	 *
+	 * @throws IOException if the log cannot be written.
+	 */
+	void confirm(Collection<Long> sequences) throws IOException {
+		boolean compact;
+		synchronized (this) {
+			if (closed || sequences.isEmpty()) {
+				return;
+			}
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			int count = 0;
+			for (Long sequence : sequences) {
+				if (pending.remove(sequence) != null) {
+					out.write(frame(confirmation(sequence)));
+					count++;
+				}
+			}
+			if (count > 0) {
+				write(bytes.toByteArray(), count);
+			}
+			compact = records >= COMPACT_MIN_RECORDS && pending.size() * 4 < records;
+		}
+		if (compact) {
+			compact();
+		}
+	}
+
+
+	/**
+	 * Rewrite the file with only the changes not yet confirmed.
+	 *
+	 * @throws IOException if the log cannot be written.
+	 */
+	void compact() throws IOException {
+		synchronized (syncLock) {
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				raf.close();
+				rewrite();
+				syncedSequence = lastSequence;
+			}
+		}
+	}
+
+
+	/**
+	 * @return number of changes not yet confirmed.
+	 */
+	synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+
+	File getFile() {
+		return file;
+	}
+
+
+	void close() throws IOException {
+		synchronized (syncLock) {
+			synchronized (this) {
+				if (!closed) {
+					closed = true;
+					channel.force(false);
+					raf.close();
+				}
+			}
+		}
+	}
+
+
+	private void write(byte[] data, int count) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		records += count;
+	}
+
+
+	/*
+	 * Read the records in the file, or in the temporary file if a rewrite
+	 * was interrupted after the old file was removed.
+	 */
+	private void read() throws IOException {
+		File source = file;
+		if (!source.exists()) {
+			source = temp();
+			if (!source.exists()) {
+				return;
+			}
+		}
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source)));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException(source + " is not a mutation log.");
+			}
+			CRC32 crc = new CRC32();
+			while (true) {
+				int length = in.readInt();
+				if (length <= 0 || length > MAX_RECORD) {
+					break;
+				}
+				long checksum = in.readInt() & 0xFFFFFFFFL;
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+				crc.reset();
+				crc.update(payload);
+				if (crc.getValue() != checksum) {
+					break;
+				}
+				decode(payload);
+			}
+		} catch (EOFException e) {
+			// the log ends here, possibly with a record cut short by a crash
+		} finally {
+			in.close();
+		}
+	}
+
+
+	private void decode(byte[] payload) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		byte kind = in.readByte();
+		long sequence = in.readLong();
+		lastSequence = Math.max(lastSequence, sequence);
+		if (kind == CONFIRM) {
+			pending.remove(sequence);
+			return;
+		}
+		if (kind != CHANGE) {
+			throw new IOException("Unknown record kind " + kind + " in " + file + ".");
+		}
+		byte op = in.readByte();
+		String tokenReference = in.readUTF();
+		String permalink = in.readUTF();
+		String word = null;
+		WordList wordList = null;
+		if (op == UPDATE) {
+			String type = readString(in);
+			wordList = new WordList.Builder()
+					.createdAt(readString(in))
+					.description(readString(in))
+					.id(readString(in))
+					.name(readString(in))
+					.numberWordsInList(in.readInt())
+					.permalink(readString(in))
+					.type(type == null ? null : ListType.valueOf(type))
+					.updatedAt(readString(in))
+					.userId(readString(in))
+					.username(readString(in))
+					.build();
+		} else {
+			word = in.readUTF();
+		}
+		pending.put(sequence, new Entry(sequence, op, tokenReference, permalink, word, wordList));
+	}
+
+
+	/*
+	 * Write the pending changes to a temporary file, sync it, and move it
+	 * into place. Leaves the log open for appending.
+	 */
+	private void rewrite() throws IOException {
+		File temp = temp();
+		RandomAccessFile out = new RandomAccessFile(temp, "rw");
+		try {
+			ownerOnly(temp);
+			out.setLength(0);
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream data = new DataOutputStream(bytes);
+			data.writeInt(MAGIC);
+			data.writeInt(VERSION);
+			for (Entry entry : pending.values()) {
+				data.write(encode(entry));
+			}
+			out.write(bytes.toByteArray());
+			out.getFD().sync();
+		} finally {
+			out.close();
+		}
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Could not replace " + file + ".");
+		}
+		if (!temp.renameTo(file)) {
+			throw new IOException("Could not rename " + temp + " to " + file + ".");
+		}
+		raf = new RandomAccessFile(file, "rw");
+		channel = raf.getChannel();
+		channel.position(channel.size());
+		records = pending.size();
+	}
+
+
+	private File temp() {
+		return new File(file.getPath() + ".tmp");
+	}
+
+
+	/*
+	 * Take away every permission but the owner's, before anything is written.
+	 * The file is moved into place with these, so the log is never readable
+	 * by others. File systems without such permissions ignore this.
+	 */
+	private static void ownerOnly(File file) {
+		file.setReadable(false, false);
+		file.setReadable(true, true);
+		file.setWritable(false, false);
+		file.setWritable(true, true);
+		file.setExecutable(false, false);
+	}
+
+
+	/**
+	 * The reference a change records in place of its token.
+	 *
+	 * @param token authentication token.
+	 * @return hex SHA-256 hash of the token.
+	 */
+	static String reference(AuthenticationToken token) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getToken().getBytes("UTF-8"));
+			StringBuilder sb = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform provides SHA-256
+			throw new IllegalStateException(e);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+
+	private static byte[] encode(Entry entry) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(CHANGE);
+		out.writeLong(entry.sequence);
+		out.writeByte(entry.op);
+		out.writeUTF(entry.tokenReference);
+		out.writeUTF(entry.permalink);
+		if (entry.op == UPDATE) {
+			WordList list = entry.wordList;
+			writeString(out, list.getType() == null ? null : list.getType().name());
+			writeString(out, list.getCreatedAt());
+			writeString(out, list.getDescription());
+			writeString(out, list.getId());
+			writeString(out, list.getName());
+			out.writeInt(list.getNumberWordsInList());
+			writeString(out, list.getPermalink());
+			writeString(out, list.getUpdatedAt());
+			writeString(out, list.getUserId());
+			writeString(out, list.getUsername());
+		} else {
+			out.writeUTF(entry.word);
+		}
+		return frame(bytes.toByteArray());
+	}
+
+
+	private static byte[] confirmation(long sequence) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(9);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(CONFIRM);
+		out.writeLong(sequence);
+		return bytes.toByteArray();
+	}
+
+
+	/*
+	 * Prefix a payload with its length and checksum.
+	 */
+	private static byte[] frame(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer buffer = ByteBuffer.allocate(payload.length + 8);
+		buffer.putInt(payload.length);
+		buffer.putInt((int) crc.getValue());
+		buffer.put(payload);
+		return buffer.array();
+	}
+
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+
+	/*
+	 * A change to a word list, with the reference of the token it was made
+	 * with.
+	 */
+	static class Entry {
+		final long sequence;
+		final byte op;
+		final String tokenReference;
+		final String permalink;
+		final String word;
+		final WordList wordList;
+
+
+		Entry(long sequence, byte op, String tokenReference, String permalink, String word, WordList wordList) {
+			this.sequence = sequence;
+			this.op = op;
+			this.tokenReference = tokenReference;
+			this.permalink = permalink;
+			this.word = word;
+			this.wordList = wordList;
+		}
+	}
+}
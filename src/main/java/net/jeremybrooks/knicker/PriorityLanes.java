@@ -0,0 +1,130 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.Priority;
+
+
+/**
+ * Decides which priority goes next when callers of several priorities wait
+ * for the same resource.
+ * <p/>
+ * Priorities with waiting callers take turns by smooth weighted round robin,
+ * with weights 16, 4 and 1 for INTERACTIVE, NORMAL and BULK. While all three
+ * wait, 16 of every 21 turns go to interactive callers; a lone priority gets
+ * every turn.
+ * <p/>
+ * Not thread safe: the owner calls every method with its own lock held.
+ *
+ * @author Jeremy Brooks
+ */
+final class PriorityLanes {
+
+	private static final int[] WEIGHTS = {16, 4, 1};
+
+	private final int[] waiting = new int[WEIGHTS.length];
+
+	private final int[] credit = new int[WEIGHTS.length];
+
+	private int total;
+
+	/* Ordinal of the priority whose turn it is, or -1 if not chosen yet. */
+	private int next = -1;
+
+
+	void enter(Priority priority) {
+		waiting[priority.ordinal()]++;
+		total++;
+	}
+
+
+	void leave(Priority priority) {
+		int lane = priority.ordinal();
+		waiting[lane]--;
+		total--;
+		if (waiting[lane] == 0) {
+			credit[lane] = 0;
+			if (next == lane) {
+				next = -1;
+			}
+		}
+	}
+
+
+	/*
+	 * A caller of the priority has taken the resource; choose again next time.
+	 */
+	void taken(Priority priority) {
+		if (next == priority.ordinal()) {
+			next = -1;
+		}
+	}
+
+
+	/*
+	 * True if a waiting caller of the priority may take the resource now.
+	 */
+	boolean isTurn(Priority priority) {
+		if (next < 0 || waiting[next] == 0) {
+			next = pick();
+		}
+		return next == priority.ordinal();
+	}
+
+
+	boolean isEmpty() {
+		return total == 0;
+	}
+
+
+	int getWaiting() {
+		return total;
+	}
+
+
+	/*
+	 * Callers waiting with the priority or a higher one.
+	 */
+	int getWaitingAhead(Priority priority) {
+		int count = 0;
+		for (int lane = 0; lane <= priority.ordinal(); lane++) {
+			count += waiting[lane];
+		}
+		return count;
+	}
+
+
+	private int pick() {
+		int best = -1;
+		int sum = 0;
+		for (int lane = 0; lane < WEIGHTS.length; lane++) {
+			if (waiting[lane] > 0) {
+				credit[lane] += WEIGHTS[lane];
+				sum += WEIGHTS[lane];
+				if (best < 0 || credit[lane] > credit[best]) {
+					best = lane;
+				}
+			}
+		}
+		if (best >= 0) {
+			credit[best] -= sum;
+		}
+		return best;
+	}
+}
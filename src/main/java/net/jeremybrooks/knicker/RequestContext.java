@@ -0,0 +1,574 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.Priority;
+import net.jeremybrooks.knicker.transport.CancellationSignal;
+import net.jeremybrooks.knicker.transport.RequestTiming;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Carries a deadline and a cancellation flag across all of the API calls made
+ * for one operation.
+ * <p/>
+ * Every HTTP call made under a context sizes its connect and read timeouts to
+ * the time left before the deadline, and fails immediately once the deadline
+ * has passed or the context has been cancelled. Cancelling a context, or
+ * reaching its deadline, aborts any call that is in flight.
+ * <p/>
+ * A context can be given to a client:
+ * <code>
+ * RequestContext ctx = RequestContext.withTimeout(2, TimeUnit.SECONDS);
+ * KnickerClient c = client.withContext(ctx);
+ * Word w = c.lookup("zebra", false, false);
+ * List&lt;Definition&gt; defs = c.definitions(w.getWord(), null);
+ * </code>
+ * or bound to the current thread, which also covers the static API classes:
+ * <code>
+ * RequestContext previous = ctx.attach();
+ * try {
+ *     WordApi.lookup("zebra");
+ * } finally {
+ *     ctx.detach(previous);
+ * }
+ * </code>
+ * A context also carries the priority of its calls. When calls of different
+ * priorities wait for the same throttle or concurrency limiter, interactive
+ * calls go first and bulk calls are deferred:
+ * <code>
+ * KnickerClient crawler = client.withContext(RequestContext.create().withPriority(Priority.BULK));
+ * </code>
+ * For debugging, a context can also collect the phase timings of every call
+ * made under it, whether or not the client samples them:
+ * <code>
+ * RequestContext ctx = RequestContext.create().withTimings();
+ * client.withContext(ctx).definitions("zebra", null);
+ * for (RequestTiming t : ctx.getTimings()) { ... }
+ * </code>
+ * Contexts are thread safe. <code>cancel()</code> may be called from any thread.
+ * A context is meant to cover one operation; create a new one for each.
+ *
+ * @author Jeremy Brooks
+ */
+public class RequestContext implements CancellationSignal {
+
+	private static final int ACTIVE = 0;
+	private static final int CANCELLED = 1;
+	private static final int EXPIRED = 2;
+
+	private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<RequestContext>();
+
+	/* Children linked before the parent first looks for dropped ones. */
+	private static final int MIN_SWEEP = 64;
+
+	/* Cancelled expiry tasks between purges of the timer's queue. */
+	private static final int PURGE_INTERVAL = 256;
+
+	private static ScheduledThreadPoolExecutor timer;
+
+	private static final AtomicInteger cancelledExpiries = new AtomicInteger();
+
+	/* System.nanoTime() value of the deadline, if hasDeadline is true. */
+	private final long deadline;
+
+	private final boolean hasDeadline;
+
+	private final Priority priority;
+
+	/* Where calls record their timings, shared with child contexts; null if not collecting. */
+	private final List<RequestTiming> timings;
+
+	private final AtomicInteger state = new AtomicInteger(ACTIVE);
+
+	private final List<Runnable> listeners = new CopyOnWriteArrayList<Runnable>();
+
+	/* Fires the listeners when the deadline passes while a call is in flight. */
+	private ScheduledFuture<?> expiry;
+
+	/* The context this one was created from, and the listener that cancels this one from it. */
+	private volatile RequestContext parent;
+
+	private volatile Runnable parentLink;
+
+	/* Listener count at which dropped children are next swept from the listeners. */
+	private volatile int sweepAt = MIN_SWEEP;
+
+
+	private RequestContext(long deadline, boolean hasDeadline, Priority priority, List<RequestTiming> timings) {
+		this.deadline = deadline;
+		this.hasDeadline = hasDeadline;
+		this.priority = priority;
+		this.timings = timings;
+	}
+
+
+	/**
+	 * Create a context with no deadline. It can still be cancelled.
+	 *
+	 * @return new context.
+	 */
+	public static RequestContext create() {
+		return new RequestContext(0, false, Priority.NORMAL, null);
+	}
+
+
+	/**
+	 * Create a context whose deadline is the given time from now.
+	 *
+	 * @param timeout time budget for the whole operation.
+	 * @param unit    unit of the timeout.
+	 * @return new context.
+	 */
+	public static RequestContext withTimeout(long timeout, TimeUnit unit) {
+		return new RequestContext(System.nanoTime() + unit.toNanos(timeout), true, Priority.NORMAL, null);
+	}
+
+
+	/**
+	 * Get the context bound to the current thread.
+	 *
+	 * @return the bound context, or null if there is none.
+	 */
+	public static RequestContext current() {
+		return CURRENT.get();
+	}
+
+
+	/**
+	 * Create a child context for part of this operation.
+	 * <p/>
+	 * The child's deadline is the earlier of this context's deadline and the
+	 * given timeout, and its priority is this context's priority. Timings are
+	 * collected along with this context's, if it collects them. Cancelling
+	 * this context also cancels the child, but cancelling the child does not
+	 * affect this context.
+	 *
+	 * @param timeout time budget for the child.
+	 * @param unit    unit of the timeout.
+	 * @return new child context.
+	 */
+	public RequestContext child(long timeout, TimeUnit unit) {
+		long childDeadline = System.nanoTime() + unit.toNanos(timeout);
+		if (hasDeadline && deadline - childDeadline < 0) {
+			childDeadline = deadline;
+		}
+		RequestContext child = new RequestContext(childDeadline, true, priority, timings);
+		propagateTo(child);
+		return child;
+	}
+
+
+	/**
+	 * Create a child context with the same deadline and priority as this context.
+	 * <p/>
+	 * Cancelling the child does not affect this context.
+	 *
+	 * @return new child context.
+	 */
+	public RequestContext child() {
+		return withPriority(priority);
+	}
+
+
+	/**
+	 * Create a child context with the same deadline as this context and the
+	 * given priority.
+	 * <p/>
+	 * Cancelling the child does not affect this context.
+	 *
+	 * @param priority priority of the child's calls.
+	 * @return new child context.
+	 */
+	public RequestContext withPriority(Priority priority) {
+		if (priority == null) {
+			throw new IllegalArgumentException("Priority cannot be null.");
+		}
+		RequestContext child = new RequestContext(deadline, hasDeadline, priority, timings);
+		propagateTo(child);
+		return child;
+	}
+
+
+	/**
+	 * Create a child context with the same deadline and priority as this
+	 * context that collects the phase timings of every call made under it and
+	 * under its own children.
+	 * <p/>
+	 * Cancelling the child does not affect this context.
+	 *
+	 * @return new child context.
+	 * @see #getTimings()
+	 */
+	public RequestContext withTimings() {
+		RequestContext child = new RequestContext(deadline, hasDeadline, priority,
+				Collections.synchronizedList(new ArrayList<RequestTiming>()));
+		propagateTo(child);
+		return child;
+	}
+
+
+	/**
+	 * Get the timings of the calls that have finished under this context.
+	 *
+	 * @return copy of the collected timings, in the order the calls finished.
+	 *         Empty if the context was not created with <code>withTimings</code>.
+	 */
+	public List<RequestTiming> getTimings() {
+		if (timings == null) {
+			return new ArrayList<RequestTiming>();
+		}
+		synchronized (timings) {
+			return new ArrayList<RequestTiming>(timings);
+		}
+	}
+
+
+	/*
+	 * True if calls made under this context should always be timed.
+	 */
+	boolean isCollectingTimings() {
+		return timings != null;
+	}
+
+
+	void addTiming(RequestTiming timing) {
+		if (timings != null) {
+			timings.add(timing);
+		}
+	}
+
+
+	/**
+	 * @return priority of the calls made under this context. NORMAL unless set
+	 *         with <code>withPriority</code>.
+	 */
+	public Priority getPriority() {
+		return priority;
+	}
+
+
+	/**
+	 * Bind this context to the current thread.
+	 *
+	 * @return the context that was bound before, which should be passed to
+	 *         <code>detach</code>. May be null.
+	 */
+	public RequestContext attach() {
+		RequestContext previous = CURRENT.get();
+		CURRENT.set(this);
+		return previous;
+	}
+
+
+	/**
+	 * Unbind this context from the current thread, restoring the context that
+	 * was bound before <code>attach</code> was called.
+	 *
+	 * @param previous the value returned by <code>attach</code>.
+	 */
+	public void detach(RequestContext previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+
+
+	/**
+	 * Cancel the operation. Calls in flight are aborted, and later calls fail
+	 * without contacting the server.
+	 */
+	public void cancel() {
+		if (state.compareAndSet(ACTIVE, CANCELLED)) {
+			fire();
+		}
+	}
+
+
+	/**
+	 * @return true if the context has been cancelled or its deadline has passed.
+	 */
+	@Override
+	public boolean isCancelled() {
+		return state.get() != ACTIVE || isExpired();
+	}
+
+
+	/**
+	 * @return true if the deadline has passed.
+	 */
+	public boolean isExpired() {
+		if (state.get() == EXPIRED) {
+			return true;
+		}
+		if (hasDeadline && System.nanoTime() - deadline >= 0) {
+			expire();
+			return state.get() == EXPIRED;
+		}
+		return false;
+	}
+
+
+	/**
+	 * @return true if this context has a deadline.
+	 */
+	public boolean hasDeadline() {
+		return hasDeadline;
+	}
+
+
+	/**
+	 * Get the time left before the deadline.
+	 *
+	 * @return milliseconds left, zero if the deadline has passed, or
+	 *         <code>Long.MAX_VALUE</code> if there is no deadline.
+	 */
+	public long getRemainingMillis() {
+		if (!hasDeadline) {
+			return Long.MAX_VALUE;
+		}
+		long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+		return remaining < 0 ? 0 : remaining;
+	}
+
+
+	/**
+	 * Throw an exception if the operation should not continue.
+	 *
+	 * @throws KnickerException if the context has been cancelled or its deadline has passed.
+	 */
+	public void checkActive() throws KnickerException {
+		if (isCancelled()) {
+			throw newException(null);
+		}
+	}
+
+
+	/**
+	 * Run the listener when this context is cancelled or its deadline passes.
+	 * If that has already happened, the listener is run immediately.
+	 *
+	 * @param listener the listener.
+	 */
+	@Override
+	public void addCancelListener(Runnable listener) {
+		listeners.add(listener);
+		if (isCancelled()) {
+			if (listeners.remove(listener)) {
+				listener.run();
+			}
+			return;
+		}
+		scheduleExpiry();
+	}
+
+
+	@Override
+	public void removeCancelListener(Runnable listener) {
+		listeners.remove(listener);
+		if (listeners.isEmpty()) {
+			synchronized (this) {
+				if (expiry != null && listeners.isEmpty()) {
+					cancelExpiry(expiry);
+					expiry = null;
+				}
+			}
+		}
+	}
+
+
+	/*
+	 * Build the exception reported when a call is abandoned under this context.
+	 */
+	KnickerException newException(Throwable cause) {
+		String message = state.get() == CANCELLED ? "The request was cancelled." : "The request deadline was exceeded.";
+		return cause == null ? new KnickerException(message) : new KnickerException(message, cause);
+	}
+
+
+	/*
+	 * Size a timeout to the remaining budget. A configured value of zero means
+	 * no timeout, so it is replaced by the budget when there is a deadline.
+	 */
+	int budget(int configured) {
+		long remaining = getRemainingMillis();
+		if (remaining == Long.MAX_VALUE) {
+			return configured;
+		}
+		if (configured == 0 || configured > remaining) {
+			return (int) Math.max(1, Math.min(remaining, Integer.MAX_VALUE));
+		}
+		return configured;
+	}
+
+
+	/*
+	 * Cancel the child along with this context. The link holds the child
+	 * weakly, so a long-lived parent does not keep every child it ever made
+	 * reachable; links to children that have been dropped are swept out
+	 * whenever the listeners have doubled since the last sweep.
+	 */
+	private void propagateTo(RequestContext child) {
+		ChildLink link = new ChildLink(child);
+		child.parent = this;
+		child.parentLink = link;
+		listeners.add(link);
+		if (isCancelled() && listeners.remove(link)) {
+			child.cancel();
+		}
+		if (listeners.size() >= sweepAt) {
+			sweepDroppedChildren();
+		}
+	}
+
+
+	private void sweepDroppedChildren() {
+		Set<Runnable> dropped = Collections.newSetFromMap(new IdentityHashMap<Runnable, Boolean>());
+		for (Runnable listener : listeners) {
+			if (listener instanceof ChildLink && ((ChildLink) listener).isDropped()) {
+				dropped.add(listener);
+			}
+		}
+		if (!dropped.isEmpty()) {
+			listeners.removeAll(dropped);
+		}
+		sweepAt = Math.max(MIN_SWEEP, listeners.size() * 2);
+	}
+
+
+	/*
+	 * Number of listeners, including the links to children. For tests.
+	 */
+	int getListenerCount() {
+		return listeners.size();
+	}
+
+
+	private void expire() {
+		if (state.compareAndSet(ACTIVE, EXPIRED)) {
+			fire();
+		}
+	}
+
+
+	private void fire() {
+		RequestContext p = parent;
+		if (p != null) {
+			p.listeners.remove(parentLink);
+		}
+		synchronized (this) {
+			if (expiry != null) {
+				cancelExpiry(expiry);
+				expiry = null;
+			}
+		}
+		for (Runnable listener : listeners) {
+			if (listeners.remove(listener)) {
+				try {
+					listener.run();
+				} catch (RuntimeException e) {
+					// a failing listener must not stop the others
+				}
+			}
+		}
+	}
+
+
+	private synchronized void scheduleExpiry() {
+		if (!hasDeadline || expiry != null) {
+			return;
+		}
+		long delay = deadline - System.nanoTime();
+		expiry = timer().schedule(new Runnable() {
+			@Override
+			public void run() {
+				expire();
+			}
+		}, delay < 0 ? 0 : delay, TimeUnit.NANOSECONDS);
+	}
+
+
+	/*
+	 * Cancel an expiry task. A cancelled task stays in the timer's queue
+	 * until its delay ends, so the queue is purged every so often to keep
+	 * tasks for long deadlines from piling up.
+	 */
+	private static void cancelExpiry(ScheduledFuture<?> task) {
+		if (task.cancel(false) && cancelledExpiries.incrementAndGet() % PURGE_INTERVAL == 0) {
+			timer().purge();
+		}
+	}
+
+
+	/*
+	 * Number of tasks in the timer's queue, including cancelled ones. For tests.
+	 */
+	static int getScheduledExpiryCount() {
+		return timer().getQueue().size();
+	}
+
+
+	private static synchronized ScheduledThreadPoolExecutor timer() {
+		if (timer == null) {
+			timer = new ScheduledThreadPoolExecutor(1, new KnickerClient.DaemonThreadFactory("knicker-deadline"));
+		}
+		return timer;
+	}
+
+
+	/*
+	 * The listener that cancels a child with its parent.
+	 */
+	private static final class ChildLink implements Runnable {
+
+		private final WeakReference<RequestContext> child;
+
+
+		ChildLink(RequestContext child) {
+			this.child = new WeakReference<RequestContext>(child);
+		}
+
+
+		@Override
+		public void run() {
+			RequestContext c = child.get();
+			if (c != null) {
+				c.cancel();
+			}
+		}
+
+
+		boolean isDropped() {
+			return child.get() == null;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * A request URI for one API resource, parsed once and expanded per call.
+ * <p/>
+ * A template such as <code>/{word}/definitions</code> is split into its
+ * literal text and variables when it is compiled. Expanding it appends the
+ * endpoint, the literal text and the percent-encoded variable values to a
+ * builder sized for the result, and query parameters are then appended in
+ * the order they are given. Every value is encoded exactly once, so the
+ * result is sent as it is, without being parsed again.
+ * <p/>
+ * Parameter names are written as they are, so they must be URI safe.
+ * Templates are immutable and can be shared by any number of threads.
+ *
+ * @author Jeremy Brooks
+ */
+final class RequestTemplate {
+
+	/* Room left for variable values and query parameters. */
+	private static final int EXTRA_CAPACITY = 64;
+
+	/* Literal text around the variables; one more entry than there are variables. */
+	private final String[] literals;
+
+	private final int literalLength;
+
+	private final String pattern;
+
+
+	private RequestTemplate(String pattern, String[] literals) {
+		this.pattern = pattern;
+		this.literals = literals;
+		int length = 0;
+		for (String literal : literals) {
+			length += literal.length();
+		}
+		this.literalLength = length;
+	}
+
+
+	/**
+	 * Compile a template.
+	 *
+	 * @param pattern the path below the endpoint, with variables in braces.
+	 * @return the compiled template.
+	 * @throws IllegalArgumentException if a brace is not closed.
+	 */
+	static RequestTemplate compile(String pattern) {
+		List<String> literals = new ArrayList<String>();
+		int from = 0;
+		int open;
+		while ((open = pattern.indexOf('{', from)) >= 0) {
+			int close = pattern.indexOf('}', open);
+			if (close < 0) {
+				throw new IllegalArgumentException("Unclosed variable in template " + pattern);
+			}
+			literals.add(pattern.substring(from, open));
+			from = close + 1;
+		}
+		literals.add(pattern.substring(from));
+		return new RequestTemplate(pattern, literals.toArray(new String[literals.size()]));
+	}
+
+
+	/**
+	 * @return the number of variables in the template.
+	 */
+	int getVariableCount() {
+		return literals.length - 1;
+	}
+
+
+	/**
+	 * Start a URI from this template.
+	 *
+	 * @param endpoint the endpoint the template is relative to.
+	 * @param values   the variable values, in order. They are trimmed and encoded.
+	 * @return a builder to add query parameters to.
+	 * @throws IllegalArgumentException if the number of values is wrong.
+	 */
+	Builder expand(String endpoint, String... values) {
+		if (values.length != literals.length - 1) {
+			throw new IllegalArgumentException("Template " + pattern + " takes " + (literals.length - 1)
+					+ " values, not " + values.length + ".");
+		}
+		int capacity = endpoint.length() + literalLength + EXTRA_CAPACITY;
+		for (String value : values) {
+			capacity += value == null ? 4 : value.length();
+		}
+		StringBuilder uri = new StringBuilder(capacity);
+		uri.append(endpoint).append(literals[0]);
+		for (int i = 0; i < values.length; i++) {
+			Util.encode(String.valueOf(values[i]).trim(), false, uri);
+			uri.append(literals[i + 1]);
+		}
+		return new Builder(uri);
+	}
+
+
+	@Override
+	public String toString() {
+		return pattern;
+	}
+
+
+	/**
+	 * Adds query parameters to an expanded template.
+	 * <p/>
+	 * Null values, and empty collections, are left out.
+	 */
+	static final class Builder {
+
+		private final StringBuilder uri;
+
+		private boolean hasQuery;
+
+
+		private Builder(StringBuilder uri) {
+			this.uri = uri;
+		}
+
+
+		Builder param(String name, String value) {
+			if (value != null) {
+				name(name);
+				Util.encode(value, true, uri);
+			}
+			return this;
+		}
+
+
+		Builder param(String name, int value) {
+			name(name).append(value);
+			return this;
+		}
+
+
+		Builder param(String name, boolean value) {
+			name(name).append(value);
+			return this;
+		}
+
+
+		Builder param(String name, Enum<?> value) {
+			if (value != null) {
+				name(name).append(Util.wireName(value));
+			}
+			return this;
+		}
+
+
+		Builder param(String name, Collection<? extends Enum<?>> values) {
+			if (values != null && !values.isEmpty()) {
+				name(name).append(Util.wireNames(values));
+			}
+			return this;
+		}
+
+
+		/**
+		 * @return a new builder holding the parameters added so far.
+		 */
+		Builder copy() {
+			Builder copy = new Builder(new StringBuilder(uri));
+			copy.hasQuery = hasQuery;
+			return copy;
+		}
+
+
+		/**
+		 * @return the finished URI.
+		 */
+		String build() {
+			return uri.toString();
+		}
+
+
+		private StringBuilder name(String name) {
+			uri.append(hasQuery ? '&' : '?').append(name).append('=');
+			hasQuery = true;
+			return uri;
+		}
+	}
+}
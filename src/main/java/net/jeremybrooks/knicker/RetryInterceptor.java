@@ -0,0 +1,310 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.transport.TransportRequest;
+import net.jeremybrooks.knicker.transport.TransportResponse;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Retries requests that fail for reasons that are likely to pass.
+ * <p/>
+ * A request is tried again when no response could be read, or when the
+ * server answers HTTP 429, 502, 503 or 504. Only GET, PUT and DELETE
+ * requests are retried; POST requests are not, since sending them twice
+ * could add words to a list twice.
+ * <p/>
+ * Between attempts the interceptor backs off exponentially, with jitter, or
+ * for as long as the server's <code>Retry-After</code> header asks. It does
+ * not retry if the pause would not end before the request's deadline, or if
+ * the server asks for a pause longer than the maximum backoff; the last
+ * response or error is then returned as it is. Cancelling the request's
+ * context ends a pause at once.
+ * <p/>
+ * Put the retry interceptor before the throttle and concurrency limiter,
+ * which is where <code>KnickerClient.Builder.interceptor</code> adds it, so
+ * every attempt waits for its own permit and slot.
+ * <code>
+ * KnickerClient client = new KnickerClient.Builder()
+ *     .interceptor(new RetryInterceptor.Builder().maxAttempts(4).build())
+ *     .build();
+ * </code>
+ * Retry interceptors are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class RetryInterceptor implements Interceptor {
+
+	/* Default number of attempts, including the first. */
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	/* Default pause before the first retry, in milliseconds. */
+	public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 200;
+
+	/* Default longest pause between attempts, in milliseconds. */
+	public static final long DEFAULT_MAX_BACKOFF_MILLIS = 10000;
+
+	private static final Random random = new Random();
+
+	private final int maxAttempts;
+
+	private final long initialBackoffMillis;
+
+	private final long maxBackoffMillis;
+
+	private final AtomicLong retries = new AtomicLong();
+
+	private final AtomicLong exhausted = new AtomicLong();
+
+
+	private RetryInterceptor(Builder builder) {
+		this.maxAttempts = builder.maxAttempts;
+		this.initialBackoffMillis = builder.initialBackoffMillis;
+		this.maxBackoffMillis = builder.maxBackoffMillis;
+	}
+
+
+	@Override
+	public TransportResponse intercept(Chain chain) throws KnickerException {
+		TransportRequest request = chain.getRequest();
+		if (!isIdempotent(request.getMethod())) {
+			return chain.proceed(request);
+		}
+
+		RequestContext context = chain.getContext();
+		for (int attempt = 1; ; attempt++) {
+			TransportResponse response = null;
+			KnickerException failure = null;
+			try {
+				response = chain.proceed(request);
+				if (!isRetryable(response)) {
+					return response;
+				}
+			} catch (KnickerException e) {
+				if (!isRetryable(e, context)) {
+					throw e;
+				}
+				failure = e;
+			}
+
+			long pause = attempt < maxAttempts ? backoffMillis(attempt, response) : -1;
+			if (pause < 0 || (context != null && pause >= context.getRemainingMillis())) {
+				if (attempt > 1) {
+					exhausted.incrementAndGet();
+				}
+				if (failure != null) {
+					throw failure;
+				}
+				return response;
+			}
+			retries.incrementAndGet();
+			pause(context, pause);
+		}
+	}
+
+
+	/**
+	 * @return attempts allowed per request, including the first.
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+
+	/**
+	 * @return requests sent again.
+	 */
+	public long getRetryCount() {
+		return retries.get();
+	}
+
+
+	/**
+	 * @return requests that were retried but still failed.
+	 */
+	public long getExhaustedCount() {
+		return exhausted.get();
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ maxAttempts=").append(this.maxAttempts).append(" | ");
+		sb.append("initialBackoffMillis=").append(this.initialBackoffMillis).append(" | ");
+		sb.append("maxBackoffMillis=").append(this.maxBackoffMillis).append(" | ");
+		sb.append("retries=").append(this.getRetryCount()).append(" | ");
+		sb.append("exhausted=").append(this.getExhaustedCount()).append(" ]");
+
+		return sb.toString();
+	}
+
+
+	private static boolean isIdempotent(String method) {
+		return "GET".equals(method) || "PUT".equals(method) || "DELETE".equals(method);
+	}
+
+
+	private static boolean isRetryable(TransportResponse response) {
+		int status = response.getStatusCode();
+		return status == 429 || status == 502 || status == 503 || status == 504;
+	}
+
+
+	/*
+	 * Only failures to get a response are retried, not cancellation, a passed
+	 * deadline, or errors raised by other interceptors.
+	 */
+	private static boolean isRetryable(KnickerException e, RequestContext context) {
+		return e.getCause() instanceof IOException && (context == null || !context.isCancelled());
+	}
+
+
+	/*
+	 * The pause before the next attempt, or -1 if the server asked for a
+	 * pause longer than the maximum.
+	 */
+	long backoffMillis(int attempt, TransportResponse response) {
+		if (response != null) {
+			String retryAfter = response.getHeader(ApiKeyPool.RETRY_AFTER_HEADER);
+			if (retryAfter != null) {
+				try {
+					long millis = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+					return millis > maxBackoffMillis ? -1 : Math.max(0, millis);
+				} catch (NumberFormatException e) {
+					// an HTTP date; fall back to the backoff
+				}
+			}
+		}
+		long ceiling = initialBackoffMillis << Math.min(attempt - 1, 30);
+		if (ceiling <= 0 || ceiling > maxBackoffMillis) {
+			ceiling = maxBackoffMillis;
+		}
+		long jitter;
+		synchronized (random) {
+			jitter = (long) (random.nextDouble() * (ceiling / 2));
+		}
+		return ceiling - ceiling / 2 + jitter;
+	}
+
+
+	private static void pause(RequestContext context, long millis) throws KnickerException {
+		final Object lock = new Object();
+		Runnable wake = new Runnable() {
+			@Override
+			public void run() {
+				synchronized (lock) {
+					lock.notifyAll();
+				}
+			}
+		};
+		if (context != null) {
+			context.addCancelListener(wake);
+		}
+		try {
+			long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+			synchronized (lock) {
+				long left;
+				while ((left = end - System.nanoTime()) > 0) {
+					if (context != null) {
+						context.checkActive();
+					}
+					TimeUnit.NANOSECONDS.timedWait(lock, left);
+				}
+			}
+			if (context != null) {
+				context.checkActive();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new KnickerException("Interrupted while waiting to retry a request.", e);
+		} finally {
+			if (context != null) {
+				context.removeCancelListener(wake);
+			}
+		}
+	}
+
+
+	/**
+	 * Builds retry interceptors.
+	 */
+	public static class Builder {
+
+		private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+		private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+
+		private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+
+
+		/**
+		 * @param maxAttempts attempts allowed per request, including the
+		 *                    first. At least 1. The default is
+		 *                    <code>DEFAULT_MAX_ATTEMPTS</code>.
+		 * @return this builder.
+		 */
+		public Builder maxAttempts(int maxAttempts) {
+			this.maxAttempts = maxAttempts;
+			return this;
+		}
+
+
+		/**
+		 * @param initialBackoff pause before the first retry. Later pauses
+		 *                       double, up to the maximum. The default is
+		 *                       <code>DEFAULT_INITIAL_BACKOFF_MILLIS</code>.
+		 * @param unit           unit of the pause.
+		 * @return this builder.
+		 */
+		public Builder initialBackoff(long initialBackoff, TimeUnit unit) {
+			this.initialBackoffMillis = unit.toMillis(initialBackoff);
+			return this;
+		}
+
+
+		/**
+		 * @param maxBackoff longest pause between attempts. A server asking
+		 *                   for a longer pause is not retried. The default is
+		 *                   <code>DEFAULT_MAX_BACKOFF_MILLIS</code>.
+		 * @param unit       unit of the pause.
+		 * @return this builder.
+		 */
+		public Builder maxBackoff(long maxBackoff, TimeUnit unit) {
+			this.maxBackoffMillis = unit.toMillis(maxBackoff);
+			return this;
+		}
+
+
+		public RetryInterceptor build() {
+			if (maxAttempts < 1) {
+				throw new IllegalArgumentException("Maximum attempts must be at least 1.");
+			}
+			if (initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis) {
+				throw new IllegalArgumentException("Backoff must satisfy 0 <= initial <= max.");
+			}
+			return new RetryInterceptor(this);
+		}
+	}
+}
@@ -0,0 +1,390 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.logger.KnickerLogger;
+import net.jeremybrooks.knicker.transport.RequestTiming;
+import net.jeremybrooks.knicker.transport.RequestTiming.Phase;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Logs requests that are slow or that fail.
+ * <p/>
+ * A request that takes longer than the threshold, or that fails, is written
+ * to <code>KnickerLogger</code> with its URL, status, phase timings, and the
+ * start of its request and response bodies. The values of the
+ * <code>password</code>, <code>auth_token</code> and <code>api_key</code>
+ * query parameters are masked in the URL. Bodies are cut to a fixed number
+ * of characters, decoded into a buffer that each thread reuses. Entries are
+ * rate limited; entries over the limit are counted and the count is reported
+ * with the next entry that is written.
+ * <p/>
+ * Requests that are fast and succeed are only timed, and nothing is logged
+ * for them. To log every request while debugging, set the threshold to zero.
+ * <code>
+ * KnickerClient client = new KnickerClient.Builder()
+ *     .slowRequestLog(new SlowRequestLog.Builder().threshold(1, TimeUnit.SECONDS).build())
+ *     .build();
+ * </code>
+ * Slow request logs are thread safe, and one can be shared by several clients.
+ *
+ * @author Jeremy Brooks
+ * @see KnickerClient.Builder#slowRequestLog(SlowRequestLog)
+ */
+public class SlowRequestLog {
+
+	/* Default latency above which a request is logged, in milliseconds. */
+	public static final long DEFAULT_THRESHOLD_MILLIS = 2000;
+
+	/* Default number of body characters logged. */
+	public static final int DEFAULT_MAX_BODY_CHARS = 512;
+
+	/* Default number of entries written per minute. */
+	public static final int DEFAULT_MAX_ENTRIES_PER_MINUTE = 10;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	/* Query parameters whose values are never logged. */
+	private static final String[] SECRET_PARAMETERS = {"password", "auth_token", "api_key"};
+
+	private static final String MASK = "*****";
+
+	private final long thresholdNanos;
+
+	private final int maxBodyChars;
+
+	private final int maxEntriesPerMinute;
+
+	private final boolean logFailures;
+
+	/* Buffers for formatting entries, reused by each thread. */
+	private final ThreadLocal<Capture> captures = new ThreadLocal<Capture>() {
+		@Override
+		protected Capture initialValue() {
+			return new Capture(maxBodyChars);
+		}
+	};
+
+	/* Start of the current rate limit window, and entries written and suppressed in it. Guarded by this. */
+	private long windowStart;
+
+	private int windowCount;
+
+	private int windowSuppressed;
+
+	private final AtomicLong logged = new AtomicLong();
+
+	private final AtomicLong suppressed = new AtomicLong();
+
+
+	private SlowRequestLog(Builder builder) {
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(builder.thresholdMillis);
+		this.maxBodyChars = builder.maxBodyChars;
+		this.maxEntriesPerMinute = builder.maxEntriesPerMinute;
+		this.logFailures = builder.logFailures;
+		this.windowStart = System.nanoTime();
+	}
+
+
+	/*
+	 * Log the request if it is slow or failed and the rate limit allows.
+	 * The bodies and error may be null.
+	 */
+	void record(RequestTiming timing, String url, byte[] requestBody, byte[] responseBody, Throwable error) {
+		boolean failed = timing.isFailed();
+		if (!(failed && logFailures) && timing.getTotalNanos() <= thresholdNanos) {
+			return;
+		}
+		int skipped = admit();
+		if (skipped < 0) {
+			suppressed.incrementAndGet();
+			return;
+		}
+		logged.incrementAndGet();
+
+		Capture capture = captures.get();
+		StringBuilder sb = capture.text;
+		sb.setLength(0);
+		sb.append(failed ? "Failed request" : "Slow request").append(" (").append(timing.getTotalMillis()).append(" ms): ");
+		sb.append(timing.getMethod()).append(' ');
+		appendUrl(sb, url);
+		if (timing.getStatusCode() >= 0) {
+			sb.append(" HTTP ").append(timing.getStatusCode());
+		}
+		sb.append(", attempts=").append(timing.getAttempts());
+		for (Phase phase : Phase.values()) {
+			sb.append(", ").append(phase.name().toLowerCase()).append('=').append(timing.getMillis(phase)).append("ms");
+		}
+		if (skipped > 0) {
+			sb.append(" [").append(skipped).append(" entries suppressed]");
+		}
+		capture.append("Request body", requestBody);
+		capture.append("Response body", responseBody);
+
+		if (error == null) {
+			KnickerLogger.getLogger().log(sb.toString());
+		} else {
+			KnickerLogger.getLogger().log(sb.toString(), error);
+		}
+		if (sb.capacity() > maxBodyChars * 4 + 4096) {
+			capture.text = new StringBuilder(1024);
+		}
+	}
+
+
+	/*
+	 * Append the url with the values of secret query parameters masked.
+	 */
+	static void appendUrl(StringBuilder sb, String url) {
+		int query = url.indexOf('?');
+		if (query < 0) {
+			sb.append(url);
+			return;
+		}
+		sb.append(url, 0, query + 1);
+		int start = query + 1;
+		while (start < url.length()) {
+			int end = url.indexOf('&', start);
+			if (end < 0) {
+				end = url.length();
+			}
+			int equals = url.indexOf('=', start);
+			if (equals >= 0 && equals < end && isSecret(url, start, equals)) {
+				sb.append(url, start, equals + 1).append(MASK);
+			} else {
+				sb.append(url, start, end);
+			}
+			if (end < url.length()) {
+				sb.append('&');
+			}
+			start = end + 1;
+		}
+	}
+
+
+	private static boolean isSecret(String url, int start, int end) {
+		for (String name : SECRET_PARAMETERS) {
+			if (end - start == name.length() && url.regionMatches(true, start, name, 0, name.length())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/*
+	 * Take a slot in the current window. Returns the number of entries
+	 * suppressed since the last one written, or -1 if this entry is suppressed.
+	 */
+	private synchronized int admit() {
+		long now = System.nanoTime();
+		if (now - windowStart >= MINUTE_NANOS) {
+			windowStart = now;
+			windowCount = 0;
+		}
+		if (windowCount >= maxEntriesPerMinute) {
+			windowSuppressed++;
+			return -1;
+		}
+		windowCount++;
+		int skipped = windowSuppressed;
+		windowSuppressed = 0;
+		return skipped;
+	}
+
+
+	/**
+	 * @return latency above which requests are logged, in milliseconds.
+	 */
+	public long getThresholdMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+	}
+
+
+	/**
+	 * @return number of body characters logged.
+	 */
+	public int getMaxBodyChars() {
+		return maxBodyChars;
+	}
+
+
+	public int getMaxEntriesPerMinute() {
+		return maxEntriesPerMinute;
+	}
+
+
+	public boolean isLogFailures() {
+		return logFailures;
+	}
+
+
+	/**
+	 * @return number of entries written.
+	 */
+	public long getLoggedCount() {
+		return logged.get();
+	}
+
+
+	/**
+	 * @return number of entries dropped by the rate limit.
+	 */
+	public long getSuppressedCount() {
+		return suppressed.get();
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ thresholdMillis=").append(getThresholdMillis()).append(" | ");
+		sb.append("maxBodyChars=").append(this.maxBodyChars).append(" | ");
+		sb.append("maxEntriesPerMinute=").append(this.maxEntriesPerMinute).append(" | ");
+		sb.append("logFailures=").append(this.logFailures).append(" | ");
+		sb.append("logged=").append(this.logged).append(" | ");
+		sb.append("suppressed=").append(this.suppressed).append(" ]");
+
+		return sb.toString();
+	}
+
+
+	/*
+	 * A thread's buffers: the entry being built, and a bounded buffer that
+	 * body prefixes are decoded into.
+	 */
+	private static class Capture {
+		private final CharsetDecoder decoder = UTF8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		private final CharBuffer body;
+		private StringBuilder text = new StringBuilder(1024);
+
+
+		private Capture(int maxChars) {
+			this.body = CharBuffer.allocate(maxChars);
+		}
+
+
+		/*
+		 * Append the start of a body on a new line. At most four bytes are
+		 * read for each character kept, so a large body is never decoded whole.
+		 */
+		private void append(String label, byte[] data) {
+			if (data == null || data.length == 0 || body.capacity() == 0) {
+				return;
+			}
+			int read = (int) Math.min(data.length, body.capacity() * 4L);
+			body.clear();
+			decoder.reset();
+			ByteBuffer in = ByteBuffer.wrap(data, 0, read);
+			decoder.decode(in, body, read == data.length);
+			body.flip();
+			text.append('\n').append(label);
+			if (read < data.length || in.hasRemaining()) {
+				text.append(" (first ").append(body.remaining()).append(" characters of ").append(data.length).append(" bytes)");
+			}
+			text.append(": ").append(body);
+		}
+	}
+
+
+	/**
+	 * Builds <code>SlowRequestLog</code> instances.
+	 */
+	public static class Builder {
+
+		private long thresholdMillis = DEFAULT_THRESHOLD_MILLIS;
+
+		private int maxBodyChars = DEFAULT_MAX_BODY_CHARS;
+
+		private int maxEntriesPerMinute = DEFAULT_MAX_ENTRIES_PER_MINUTE;
+
+		private boolean logFailures = true;
+
+
+		/**
+		 * @param threshold requests that take longer than this are logged.
+		 *                  The default is <code>DEFAULT_THRESHOLD_MILLIS</code>.
+		 * @param unit      unit of the threshold.
+		 * @return this builder.
+		 */
+		public Builder threshold(long threshold, TimeUnit unit) {
+			this.thresholdMillis = unit.toMillis(threshold);
+			return this;
+		}
+
+
+		/**
+		 * @param maxBodyChars characters of each body to log; zero logs no
+		 *                     bodies. The default is <code>DEFAULT_MAX_BODY_CHARS</code>.
+		 * @return this builder.
+		 */
+		public Builder maxBodyChars(int maxBodyChars) {
+			this.maxBodyChars = maxBodyChars;
+			return this;
+		}
+
+
+		/**
+		 * @param maxEntriesPerMinute entries written per minute, at least 1. The
+		 *                            default is <code>DEFAULT_MAX_ENTRIES_PER_MINUTE</code>.
+		 * @return this builder.
+		 */
+		public Builder maxEntriesPerMinute(int maxEntriesPerMinute) {
+			this.maxEntriesPerMinute = maxEntriesPerMinute;
+			return this;
+		}
+
+
+		/**
+		 * @param logFailures true, the default, to log every failed request
+		 *                    whatever its latency.
+		 * @return this builder.
+		 */
+		public Builder logFailures(boolean logFailures) {
+			this.logFailures = logFailures;
+			return this;
+		}
+
+
+		public SlowRequestLog build() {
+			if (thresholdMillis < 0) {
+				throw new IllegalArgumentException("Threshold cannot be negative.");
+			}
+			if (maxBodyChars < 0) {
+				throw new IllegalArgumentException("Maximum body characters cannot be negative.");
+			}
+			if (maxEntriesPerMinute < 1) {
+				throw new IllegalArgumentException("Maximum entries per minute must be at least 1.");
+			}
+			return new SlowRequestLog(this);
+		}
+	}
+}
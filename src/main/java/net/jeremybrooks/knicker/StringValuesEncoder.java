@@ -0,0 +1,253 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * Encodes words as the <code>stringValues</code> documents used to add words
+ * to, and delete words from, a word list, split into bodies of bounded size.
+ * <p/>
+ * Each body looks like this:
+ * <code>
+ * &lt;?xml version="1.0" encoding="UTF-8" standalone="yes"?&gt;
+ * &lt;stringValues&gt;
+ * &lt;stringValue&gt;
+ * &lt;word&gt;hello&lt;/word&gt;
+ * &lt;/stringValue&gt;
+ * &lt;/stringValues&gt;
+ * </code>
+ * Words are read from the iterator only as bodies are taken, escaped for XML,
+ * and encoded straight to UTF-8 in a buffer that is reused for every body.
+ * A body is cut before the word that would take it over the size limit; a
+ * word too long for any body is sent in a body of its own.
+ * <p/>
+ * Instances are not thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+class StringValuesEncoder {
+
+	private static final byte[] HEADER = ascii("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n<stringValues>\n");
+	private static final byte[] FOOTER = ascii("</stringValues>\n");
+	private static final byte[] WORD_START = ascii("<stringValue>\n<word>");
+	private static final byte[] WORD_END = ascii("</word>\n</stringValue>\n");
+	private static final byte[] AMP = ascii("&amp;");
+	private static final byte[] LT = ascii("&lt;");
+	private static final byte[] GT = ascii("&gt;");
+
+	private final Iterator<String> words;
+
+	private final int maxBytes;
+
+	/* The body being built, reused for every body. */
+	private byte[] body = new byte[1024];
+
+	private int length;
+
+	/* A word that did not fit in the last body, already encoded. */
+	private byte[] carried = new byte[256];
+
+	private int carriedLength;
+
+	private String carriedWord;
+
+
+	/**
+	 * @param words    the words to encode.
+	 * @param maxBytes the most bytes in one body, unless a single word needs more.
+	 */
+	StringValuesEncoder(Iterator<String> words, int maxBytes) {
+		this.words = words;
+		this.maxBytes = maxBytes;
+	}
+
+
+	/**
+	 * @return true if there are words left to encode.
+	 */
+	boolean hasNext() {
+		return carriedWord != null || words.hasNext();
+	}
+
+
+	/**
+	 * Encode the next body.
+	 *
+	 * @return the next body and the words in it.
+	 * @throws KnickerException if a word is null or contains characters that cannot appear in XML.
+	 */
+	Chunk next() throws KnickerException {
+		length = 0;
+		append(HEADER, HEADER.length);
+		List<String> chunkWords = new ArrayList<String>();
+		while (true) {
+			if (carriedWord == null) {
+				if (!words.hasNext()) {
+					break;
+				}
+				String word = words.next();
+				encodeWord(word);
+				carriedWord = word;
+			}
+			if (!chunkWords.isEmpty() && length + carriedLength + FOOTER.length > maxBytes) {
+				break;
+			}
+			append(carried, carriedLength);
+			chunkWords.add(carriedWord);
+			carriedWord = null;
+		}
+		append(FOOTER, FOOTER.length);
+		return new Chunk(Arrays.copyOf(body, length), chunkWords);
+	}
+
+
+	/*
+	 * Encode one word, with its surrounding elements, into the carried buffer.
+	 */
+	private void encodeWord(String word) throws KnickerException {
+		if (word == null) {
+			throw new KnickerException("Words cannot be null.");
+		}
+		carriedLength = 0;
+		carry(WORD_START);
+		int n = word.length();
+		for (int i = 0; i < n; i++) {
+			char c = word.charAt(i);
+			if (c == '&') {
+				carry(AMP);
+			} else if (c == '<') {
+				carry(LT);
+			} else if (c == '>') {
+				carry(GT);
+			} else if (c < 0x80) {
+				if (c < 0x20 && c != '\t' && c != '\n' && c != '\r') {
+					throw invalid(word);
+				}
+				carry((byte) c);
+			} else if (c < 0x800) {
+				carry((byte) (0xC0 | (c >> 6)));
+				carry((byte) (0x80 | (c & 0x3F)));
+			} else if (Character.isHighSurrogate(c)) {
+				if (i + 1 == n || !Character.isLowSurrogate(word.charAt(i + 1))) {
+					throw invalid(word);
+				}
+				int cp = Character.toCodePoint(c, word.charAt(++i));
+				carry((byte) (0xF0 | (cp >> 18)));
+				carry((byte) (0x80 | ((cp >> 12) & 0x3F)));
+				carry((byte) (0x80 | ((cp >> 6) & 0x3F)));
+				carry((byte) (0x80 | (cp & 0x3F)));
+			} else if (Character.isLowSurrogate(c) || c == 0xFFFE || c == 0xFFFF) {
+				throw invalid(word);
+			} else {
+				carry((byte) (0xE0 | (c >> 12)));
+				carry((byte) (0x80 | ((c >> 6) & 0x3F)));
+				carry((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+		carry(WORD_END);
+	}
+
+
+	/**
+	 * Check that a word can be encoded, without encoding it.
+	 *
+	 * @param word the word to check.
+	 * @throws KnickerException if the word is null or contains characters that cannot appear in XML.
+	 */
+	static void check(String word) throws KnickerException {
+		if (word == null) {
+			throw new KnickerException("Words cannot be null.");
+		}
+		int n = word.length();
+		for (int i = 0; i < n; i++) {
+			char c = word.charAt(i);
+			if (c < 0x20) {
+				if (c != '\t' && c != '\n' && c != '\r') {
+					throw invalid(word);
+				}
+			} else if (Character.isHighSurrogate(c)) {
+				if (i + 1 == n || !Character.isLowSurrogate(word.charAt(++i))) {
+					throw invalid(word);
+				}
+			} else if (Character.isLowSurrogate(c) || c == 0xFFFE || c == 0xFFFF) {
+				throw invalid(word);
+			}
+		}
+	}
+
+
+	private static KnickerException invalid(String word) {
+		return new KnickerException("The word '" + word + "' contains characters that cannot be sent in XML.");
+	}
+
+
+	private void carry(byte b) {
+		if (carriedLength == carried.length) {
+			carried = Arrays.copyOf(carried, carried.length * 2);
+		}
+		carried[carriedLength++] = b;
+	}
+
+
+	private void carry(byte[] bytes) {
+		if (carriedLength + bytes.length > carried.length) {
+			carried = Arrays.copyOf(carried, Math.max(carried.length * 2, carriedLength + bytes.length));
+		}
+		System.arraycopy(bytes, 0, carried, carriedLength, bytes.length);
+		carriedLength += bytes.length;
+	}
+
+
+	private void append(byte[] bytes, int count) {
+		if (length + count > body.length) {
+			body = Arrays.copyOf(body, Math.max(body.length * 2, length + count));
+		}
+		System.arraycopy(bytes, 0, body, length, count);
+		length += count;
+	}
+
+
+	private static byte[] ascii(String s) {
+		byte[] bytes = new byte[s.length()];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) s.charAt(i);
+		}
+		return bytes;
+	}
+
+
+	/**
+	 * One encoded body and the words in it.
+	 */
+	static class Chunk {
+		final byte[] body;
+		final List<String> words;
+
+
+		Chunk(byte[] body, List<String> words) {
+			this.body = body;
+			this.words = words;
+		}
+	}
+}
@@ -0,0 +1,294 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.Priority;
+import net.jeremybrooks.knicker.transport.TransportResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Limits the rate of API calls to stay inside a Wordnik quota.
+ * <p/>
+ * This is a token bucket: permits accumulate at a fixed rate up to the burst
+ * size, and each call takes one. When the bucket is empty, callers wait their
+ * turn, and the priority of each caller's context decides whose turn comes
+ * next, so interactive calls overtake bulk work. Waiting respects the caller's <code>RequestContext</code>: a caller
+ * whose deadline would pass before its turn comes fails at once instead of
+ * waiting, and cancelling the context wakes a waiting caller.
+ * <p/>
+ * Give a throttle to <code>KnickerClient.Builder.throttle</code> to apply it
+ * to every call the client makes. One throttle can be shared by several
+ * clients that use the same API key. A throttle is an
+ * <code>Interceptor</code>, and can be placed in the chain like any other.
+ * <code>
+ * // 15,000 calls per hour, allowing bursts of 20
+ * Throttle quota = Throttle.perHour(15000, 20);
+ * </code>
+ * Throttles are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class Throttle implements Interceptor {
+
+	private final double permitsPerSecond;
+
+	private final int burst;
+
+	private final double nanosPerPermit;
+
+	/* Permits in the bucket. */
+	private double available;
+
+	/* Callers waiting for a permit, by priority. Guarded by this. */
+	private final PriorityLanes lanes = new PriorityLanes();
+
+	private long lastRefill;
+
+	private final AtomicLong acquired = new AtomicLong();
+
+	private final AtomicLong delayed = new AtomicLong();
+
+	private final AtomicLong waitedNanos = new AtomicLong();
+
+
+	/**
+	 * Create a throttle.
+	 *
+	 * @param permitsPerSecond steady rate of calls allowed.
+	 * @param burst            number of calls that may be made at once after the
+	 *                         throttle has been idle. The bucket starts full.
+	 */
+	public Throttle(double permitsPerSecond, int burst) {
+		if (permitsPerSecond <= 0 || Double.isNaN(permitsPerSecond) || Double.isInfinite(permitsPerSecond)) {
+			throw new IllegalArgumentException("Rate must be positive.");
+		}
+		if (burst < 1) {
+			throw new IllegalArgumentException("Burst must be at least 1.");
+		}
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst = burst;
+		this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+		this.available = burst;
+		this.lastRefill = System.nanoTime();
+	}
+
+
+	/**
+	 * Create a throttle for an hourly quota.
+	 *
+	 * @param callsPerHour calls allowed per hour.
+	 * @param burst        number of calls that may be made at once.
+	 * @return new throttle.
+	 */
+	public static Throttle perHour(int callsPerHour, int burst) {
+		return new Throttle(callsPerHour / 3600.0, burst);
+	}
+
+
+	/**
+	 * Wait for a permit.
+	 * <p/>
+	 * When callers of different priorities are waiting, the context's
+	 * priority decides who gets the next permit.
+	 *
+	 * @param context the caller's context, or null to wait without a deadline
+	 *                at NORMAL priority.
+	 * @throws KnickerException if the context is cancelled, if its deadline
+	 *                          would pass before a permit is available, or if
+	 *                          the thread is interrupted while waiting.
+	 */
+	public void acquire(final RequestContext context) throws KnickerException {
+		Priority priority = Priority.NORMAL;
+		if (context != null) {
+			context.checkActive();
+			priority = context.getPriority();
+		}
+
+		synchronized (this) {
+			refill();
+			if (available >= 1 && lanes.isEmpty()) {
+				available -= 1;
+				acquired.incrementAndGet();
+				return;
+			}
+			// the shortest possible wait, if no one else came first
+			long wait = (long) Math.ceil((1 - available + lanes.getWaitingAhead(priority)) * nanosPerPermit);
+			if (context != null && context.hasDeadline()
+					&& wait > TimeUnit.MILLISECONDS.toNanos(context.getRemainingMillis())) {
+				throw context.newException(null);
+			}
+			lanes.enter(priority);
+		}
+
+		delayed.incrementAndGet();
+		long start = System.nanoTime();
+		Runnable wake = new Runnable() {
+			@Override
+			public void run() {
+				synchronized (Throttle.this) {
+					Throttle.this.notifyAll();
+				}
+			}
+		};
+		if (context != null) {
+			context.addCancelListener(wake);
+		}
+		try {
+			synchronized (this) {
+				try {
+					while (true) {
+						refill();
+						if (available >= 1 && lanes.isTurn(priority)) {
+							available -= 1;
+							lanes.taken(priority);
+							acquired.incrementAndGet();
+							return;
+						}
+						long wait = available >= 1 ? (long) nanosPerPermit : (long) Math.ceil((1 - available) * nanosPerPermit);
+						if (context != null) {
+							context.checkActive();
+							if (context.hasDeadline()) {
+								long remaining = TimeUnit.MILLISECONDS.toNanos(context.getRemainingMillis());
+								if (remaining <= 0) {
+									throw context.newException(null);
+								}
+								wait = Math.min(wait, remaining);
+							}
+						}
+						TimeUnit.NANOSECONDS.timedWait(this, Math.max(wait, 1));
+					}
+				} finally {
+					lanes.leave(priority);
+					notifyAll();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new KnickerException("Interrupted while waiting for the throttle.", e);
+		} finally {
+			waitedNanos.addAndGet(System.nanoTime() - start);
+			if (context != null) {
+				context.removeCancelListener(wake);
+			}
+		}
+	}
+
+
+	/**
+	 * Wait for a permit under the request's context, then pass the request on.
+	 *
+	 * @param chain the request and the rest of the chain.
+	 * @return the response.
+	 * @throws KnickerException if the wait fails, or if the rest of the chain does.
+	 */
+	@Override
+	public TransportResponse intercept(Chain chain) throws KnickerException {
+		acquire(chain.getContext());
+		return chain.proceed(chain.getRequest());
+	}
+
+
+	/**
+	 * Take a permit if one is available now and no one is waiting.
+	 *
+	 * @return true if a permit was taken.
+	 */
+	public boolean tryAcquire() {
+		synchronized (this) {
+			refill();
+			if (available < 1 || !lanes.isEmpty()) {
+				return false;
+			}
+			available -= 1;
+		}
+		acquired.incrementAndGet();
+		return true;
+	}
+
+
+	/**
+	 * @return the steady rate, in permits per second.
+	 */
+	public double getPermitsPerSecond() {
+		return permitsPerSecond;
+	}
+
+
+	/**
+	 * @return the burst size.
+	 */
+	public int getBurst() {
+		return burst;
+	}
+
+
+	/**
+	 * @return number of permits handed out.
+	 */
+	public long getAcquiredCount() {
+		return acquired.get();
+	}
+
+
+	/**
+	 * @return number of permits that the caller had to wait for.
+	 */
+	public long getDelayedCount() {
+		return delayed.get();
+	}
+
+
+	/**
+	 * @return callers waiting for a permit now.
+	 */
+	public synchronized int getWaitingCount() {
+		return lanes.getWaiting();
+	}
+
+
+	/**
+	 * @return total time callers have spent waiting, in milliseconds.
+	 */
+	public long getWaitedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(waitedNanos.get());
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ permitsPerSecond=").append(this.permitsPerSecond).append(" | ");
+		sb.append("burst=").append(this.burst).append(" | ");
+		sb.append("acquired=").append(this.getAcquiredCount()).append(" | ");
+		sb.append("delayed=").append(this.getDelayedCount()).append(" | ");
+		sb.append("waitedMillis=").append(this.getWaitedMillis()).append(" ]");
+
+		return sb.toString();
+	}
+
+
+	private void refill() {
+		long now = System.nanoTime();
+		available = Math.min(burst, available + (now - lastRefill) / nanosPerPermit);
+		lastRefill = now;
+	}
+}
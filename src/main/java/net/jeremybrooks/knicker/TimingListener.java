@@ -0,0 +1,44 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.transport.RequestTiming;
+
+
+/**
+ * Receives the phase timings of requests made by a <code>KnickerClient</code>.
+ * <p/>
+ * The listener is called on the thread that made the request, once the
+ * request has finished or failed, so implementations should return quickly
+ * and must be safe to use from multiple threads. Exceptions thrown by the
+ * listener are logged and otherwise ignored.
+ *
+ * @author Jeremy Brooks
+ * @see KnickerClient.Builder#timingListener(TimingListener)
+ * @see TimingStats
+ */
+public interface TimingListener {
+
+	/**
+	 * Called when a timed request finishes.
+	 *
+	 * @param timing the finished timing.
+	 */
+	public void requestTimed(RequestTiming timing);
+}
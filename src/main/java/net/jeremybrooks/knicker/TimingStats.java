@@ -0,0 +1,246 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.transport.RequestTiming;
+import net.jeremybrooks.knicker.transport.RequestTiming.Phase;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * A <code>TimingListener</code> that aggregates request timings per endpoint.
+ * <p/>
+ * For each endpoint it keeps the number of requests and failures, and the
+ * mean and maximum time spent in each phase, so that slow requests can be
+ * traced to the network, the server, or the parsing of large responses:
+ * <code>
+ * TimingStats stats = new TimingStats();
+ * KnickerClient client = new KnickerClient.Builder().timingListener(stats).timingSampleRate(0.1).build();
+ * ...
+ * System.out.println(stats.getSummary("word/definitions"));
+ * </code>
+ * Instances are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class TimingStats implements TimingListener {
+
+	private final ConcurrentMap<String, Accumulator> endpoints = new ConcurrentHashMap<String, Accumulator>();
+
+
+	@Override
+	public void requestTimed(RequestTiming timing) {
+		String endpoint = timing.getEndpoint();
+		Accumulator accumulator = endpoints.get(endpoint);
+		if (accumulator == null) {
+			Accumulator created = new Accumulator();
+			accumulator = endpoints.putIfAbsent(endpoint, created);
+			if (accumulator == null) {
+				accumulator = created;
+			}
+		}
+		accumulator.add(timing);
+	}
+
+
+	/**
+	 * Get the aggregated timings of one endpoint.
+	 *
+	 * @param endpoint the endpoint, such as <code>word/definitions</code>.
+	 * @return summary of the endpoint's timings, or null if none have been recorded.
+	 */
+	public Summary getSummary(String endpoint) {
+		Accumulator accumulator = endpoints.get(endpoint);
+		return accumulator == null ? null : accumulator.summarize(endpoint);
+	}
+
+
+	/**
+	 * Get the aggregated timings of every endpoint.
+	 *
+	 * @return summaries, keyed and sorted by endpoint.
+	 */
+	public SortedMap<String, Summary> getSummaries() {
+		SortedMap<String, Summary> summaries = new TreeMap<String, Summary>();
+		for (Map.Entry<String, Accumulator> entry : endpoints.entrySet()) {
+			summaries.put(entry.getKey(), entry.getValue().summarize(entry.getKey()));
+		}
+		return summaries;
+	}
+
+
+	/**
+	 * Forget all recorded timings.
+	 */
+	public void reset() {
+		endpoints.clear();
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ endpoints=").append(getSummaries().values()).append(" ]");
+
+		return sb.toString();
+	}
+
+
+	/*
+	 * Running totals for one endpoint.
+	 */
+	private static class Accumulator {
+		private final long[] totalNanos = new long[Phase.values().length + 1];
+		private final long[] maxNanos = new long[Phase.values().length + 1];
+		private long count;
+		private long failures;
+
+
+		private synchronized void add(RequestTiming timing) {
+			count++;
+			if (timing.isFailed()) {
+				failures++;
+			}
+			for (Phase phase : Phase.values()) {
+				add(phase.ordinal(), timing.getNanos(phase));
+			}
+			add(totalNanos.length - 1, timing.getTotalNanos());
+		}
+
+
+		private void add(int slot, long nanos) {
+			totalNanos[slot] += nanos;
+			if (nanos > maxNanos[slot]) {
+				maxNanos[slot] = nanos;
+			}
+		}
+
+
+		private synchronized Summary summarize(String endpoint) {
+			return new Summary(endpoint, count, failures, totalNanos.clone(), maxNanos.clone());
+		}
+	}
+
+
+	/**
+	 * Aggregated timings of one endpoint at the time the summary was taken.
+	 */
+	public static class Summary {
+
+		private final String endpoint;
+
+		private final long count;
+
+		private final long failures;
+
+		/* Indexed by phase ordinal; the last slot holds the whole request. */
+		private final long[] totalNanos;
+
+		private final long[] maxNanos;
+
+
+		private Summary(String endpoint, long count, long failures, long[] totalNanos, long[] maxNanos) {
+			this.endpoint = endpoint;
+			this.count = count;
+			this.failures = failures;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+		}
+
+
+		public String getEndpoint() {
+			return endpoint;
+		}
+
+
+		/**
+		 * @return number of timed requests.
+		 */
+		public long getCount() {
+			return count;
+		}
+
+
+		/**
+		 * @return number of timed requests that failed.
+		 */
+		public long getFailures() {
+			return failures;
+		}
+
+
+		/**
+		 * @param phase the phase.
+		 * @return mean milliseconds spent in the phase per request.
+		 */
+		public double getMeanMillis(Phase phase) {
+			return mean(phase.ordinal());
+		}
+
+
+		/**
+		 * @param phase the phase.
+		 * @return the most milliseconds any one request spent in the phase.
+		 */
+		public double getMaxMillis(Phase phase) {
+			return maxNanos[phase.ordinal()] / 1000000d;
+		}
+
+
+		/**
+		 * @return mean milliseconds per request, from start to finish.
+		 */
+		public double getMeanTotalMillis() {
+			return mean(totalNanos.length - 1);
+		}
+
+
+		/**
+		 * @return the most milliseconds any one request took.
+		 */
+		public double getMaxTotalMillis() {
+			return maxNanos[maxNanos.length - 1] / 1000000d;
+		}
+
+
+		private double mean(int slot) {
+			return count == 0 ? 0 : totalNanos[slot] / 1000000d / count;
+		}
+
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(this.getClass().getName());
+			sb.append(": [ endpoint=").append(this.endpoint).append(" | ");
+			sb.append("count=").append(this.count).append(" | ");
+			sb.append("failures=").append(this.failures).append(" | ");
+			for (Phase phase : Phase.values()) {
+				sb.append(phase.name().toLowerCase()).append('=').append(getMeanMillis(phase)).append("ms | ");
+			}
+			sb.append("total=").append(getMeanTotalMillis()).append("ms ]");
+
+			return sb.toString();
+		}
+	}
+}
@@ -19,7 +19,6 @@
 package net.jeremybrooks.knicker;
 
 
-import net.jeremybrooks.knicker.dto.AuthenticationToken;
 import net.jeremybrooks.knicker.logger.KnickerLogger;
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
@@ -27,30 +26,21 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 import javax.xml.xpath.XPathFactory;
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
-import java.io.CharArrayWriter;
-import java.io.DataOutputStream;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
-import java.net.URLConnection;
-import java.net.URLEncoder;
-import java.util.Map;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
  * This class contains utility methods used by other Knicker classes.
  * <p/>
- * There are methods to do HTTP GET, POST, and DELETE requests, and methods to
- * work with xml document objects.
+ * There are methods to work with xml document objects and to build request
+ * URLs. HTTP requests are made by <code>KnickerClient</code>.
  *
  * @author Jeremy Brooks
  * @author Mark Colley (use CharArrayWriter to preserve special characters)
@@ -71,332 +61,67 @@ public class Util {
 	/* Instance of the x path factory. */
 	private static XPathFactory xPathFactory;
 
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
 
-	/**
-	 * Call the URI using an HTTP GET request, returning the response as an xml document
-	 * object.
-	 *
-	 * @param uri the URI to call.
-	 * @return server response as a Document instance, or null if the server
-	 *         did not return anything.
-	 * @throws KnickerException if the uri is invalid, or if there are any errors.
-	 */
-	static Document doGet(String uri) throws KnickerException {
-		return doGet(uri, null);
-	}
-
-
-	/**
-	 * Call the URI using an HTTP GET request, returning the response as an xml
-	 * Document instance.
-	 * <p/>
-	 * This method accepts an AuthenticationToken, and will set the request
-	 * header parameter 'auth_token' with the token. If the token is null,
-	 * the header parameter will not be set.
-	 *
-	 * @param uri   the URI to call.
-	 * @param token the authentication token.
-	 * @return server response as a Document instance, or null if the server
-	 *         did not return anything.
-	 * @throws KnickerException if the uri is invalid, or if there are any errors.
-	 */
-	static Document doGet(String uri, AuthenticationToken token) throws KnickerException {
-		if (uri == null || uri.trim().isEmpty()) {
-			throw new KnickerException("Parameter uri cannot be null or empty.");
-		}
-		if (!uri.startsWith("http://") && !uri.startsWith("https://")) {
-			throw new KnickerException("Parameter uri must start with http:// or https://");
-		}
-
-		KnickerLogger.getLogger().log("GET URL: '" + uri + "'");
-
-		CharArrayWriter writer;
-
-		// Send a GET request to the server
-		try {
-			URL url = parseUrl(uri);
-			URLConnection conn = url.openConnection();
-			conn.setConnectTimeout(getConnTimeout());
-			conn.setReadTimeout(getReadTimeout());
-
-			// api key
-			conn.addRequestProperty("api_key", System.getProperty("WORDNIK_API_KEY"));
-
-			// auth header
-			if (token != null) {
-				conn.addRequestProperty("auth_token", token.getToken());
-			}
+	/* ASCII characters copied as they are into a path segment. */
+	private static final boolean[] PATH_SAFE = safeChars("!$&'()*+,;=:@");
 
-			// Get the response
-			StreamSource streamSource = new StreamSource(conn.getInputStream());
+	/* ASCII characters copied as they are into a query parameter value. */
+	private static final boolean[] QUERY_SAFE = safeChars("!$'()*,;:@/?");
 
-			writer = new CharArrayWriter();
-			StreamResult streamResult = new StreamResult(writer);
+	/* Upper bound on the number of cached enum set names. */
+	private static final int MAX_WIRE_NAME_LISTS = 1024;
 
-			TransformerFactory factory = TransformerFactory.newInstance();
-			Transformer transformer = factory.newTransformer();
-			transformer.transform(streamSource, streamResult);
-			KnickerLogger.getLogger().log("----------RESPONSE START----------");
-			KnickerLogger.getLogger().log(writer.toString());
-			KnickerLogger.getLogger().log("----------RESPONSE END----------");
+	private static final ConcurrentMap<Enum<?>, String> WIRE_NAMES = new ConcurrentHashMap<Enum<?>, String>();
 
-		} catch (Exception e) {
-			throw new KnickerException("Error getting a response from the server.", e);
-		}
+	private static final ConcurrentMap<EnumSetKey, String> WIRE_NAME_LISTS =
+			new ConcurrentHashMap<EnumSetKey, String>();
 
-		return getDocument(writer.toString());
-	}
 
-
-	/**
-	 * Call the URI using an HTTP POST request, returning the response as an xml
-	 * Document instance.
-	 * <p/>
-	 * This method accepts an AuthenticationToken, and will set the request
-	 * header parameter 'auth_token' with the token. If the token is null,
-	 * the header parameter will not be set.
-	 *
-	 * @param uri   the URI to call.
-	 * @param data  the data for the POST operation.
-	 * @param token authentication token instance to use for the call.
-	 * @return server response as a Document instance, or null if the server
-	 *         did not return any data.
-	 * @throws KnickerException if the uri is invalid, or if there are any errors.
+	/*
+	 * Unreserved characters plus the given reserved ones.
 	 */
-	static Document doPost(String uri, String data, AuthenticationToken token) throws KnickerException {
-		if (uri == null || uri.trim().isEmpty()) {
-			throw new KnickerException("Parameter uri cannot be null or empty.");
-		}
-		if (!uri.startsWith("http://") && !uri.startsWith("https://")) {
-			throw new KnickerException("Parameter uri must start with http:// or https://");
-		}
-
-		DataOutputStream out = null;
-		BufferedReader in = null;
-		StringBuilder sb = new StringBuilder();
-
-		KnickerLogger.getLogger().log("POST URL: '" + uri + "'");
-
-		try {
-			// Send data
-			URL url = parseUrl(uri);
-			URLConnection conn = url.openConnection();
-			conn.setDoInput(true);
-			conn.setDoOutput(true);
-			conn.setUseCaches(false);
-			conn.setConnectTimeout(getConnTimeout());
-			conn.setReadTimeout(getReadTimeout());
-			((HttpURLConnection) conn).setRequestMethod("POST");
-
-			// api key
-			conn.addRequestProperty("api_key", System.getProperty("WORDNIK_API_KEY"));
-			KnickerLogger.getLogger().log("added header 'api_key', " + System.getProperty("WORDNIK_API_KEY"));
-			// auth header
-			if (token != null) {
-				conn.addRequestProperty("auth_token", token.getToken());
-				KnickerLogger.getLogger().log("added header 'auth_token', " + token.getToken());
-			}
-			conn.addRequestProperty("Content-Type", "text/xml");
-
-
-			out = new DataOutputStream(conn.getOutputStream());
-			KnickerLogger.getLogger().log("----------POST DATA START----------");
-			KnickerLogger.getLogger().log(data);
-			KnickerLogger.getLogger().log("----------POST DATA END----------");
-			out.writeBytes(data);
-			out.flush();
-
-			// Get the response
-			in = new BufferedReader(new InputStreamReader(conn.getInputStream(), "UTF-8"));
-			String line;
-			KnickerLogger.getLogger().log("----------RESPONSE START----------");
-			while ((line = in.readLine()) != null) {
-				sb.append(line);
-				KnickerLogger.getLogger().log(line);
-			}
-			KnickerLogger.getLogger().log("----------RESPONSE END----------");
-
-		} catch (Exception e) {
-			throw new KnickerException("Error while performing HTTP POST operation.", e);
-		} finally {
-			try {
-				if (out != null) {
-					out.close();
-				}
-			} catch (Exception e) {
-				// ignore
-			} finally {
-				try {
-					if (in != null) {
-						in.close();
-					}
-				} catch (Exception e) {
-					// ignore
-				}
-			}
+	private static boolean[] safeChars(String reserved) {
+		boolean[] safe = new boolean[128];
+		for (char c = 'a'; c <= 'z'; c++) {
+			safe[c] = true;
 		}
-
-		return getDocument(sb.toString());
-	}
-
-
-	/**
-	 * Perform an HTTP DELETE request.
-	 * <p/>
-	 * Note: The Wordnik API methods that require a DELETE operation do not
-	 * return data.
-	 *
-	 * @param uri   the URI to call.
-	 * @param token authentication token.
-	 * @throws KnickerException if the uri is invalid, or if there are any errors.
-	 */
-	static void doDelete(String uri, AuthenticationToken token) throws KnickerException {
-		if (uri == null || uri.trim().isEmpty()) {
-			throw new KnickerException("Parameter uri cannot be null or empty.");
+		for (char c = 'A'; c <= 'Z'; c++) {
+			safe[c] = true;
 		}
-		if (!uri.startsWith("http://") && !uri.startsWith("https://")) {
-			throw new KnickerException("Parameter uri must start with http:// or https://");
+		for (char c = '0'; c <= '9'; c++) {
+			safe[c] = true;
 		}
-
-		BufferedReader in = null;
-
-		KnickerLogger.getLogger().log("DELETE URL: '" + uri + "'");
-
-
-		try {
-			// Send data
-			URL url = parseUrl(uri);
-			URLConnection conn = url.openConnection();
-			conn.setDoInput(true);
-			conn.setDoOutput(true);
-			conn.setUseCaches(false);
-			conn.setConnectTimeout(getConnTimeout());
-			conn.setReadTimeout(getReadTimeout());
-			((HttpURLConnection) conn).setRequestMethod("DELETE");
-
-			// api key
-			conn.addRequestProperty("api_key", System.getProperty("WORDNIK_API_KEY"));
-			KnickerLogger.getLogger().log("added header 'api_key', " + System.getProperty("WORDNIK_API_KEY"));
-			// auth header
-			if (token != null) {
-				conn.addRequestProperty("auth_token", token.getToken());
-				KnickerLogger.getLogger().log("added header 'auth_token', " + token.getToken());
-			}
-			conn.addRequestProperty("Content-Type", "text/xml");
-
-			// Get the response
-			in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-
-		} catch (Exception e) {
-			throw new KnickerException("Error while performing HTTP DELETE operation.", e);
-		} finally {
-			try {
-				if (in != null) {
-					in.close();
-				}
-			} catch (Exception e) {
-				// ignore
-			}
-		}
-	}
-
-
-	static void doPut(String uri, String data, AuthenticationToken token) throws KnickerException {
-		if (uri == null || uri.trim().isEmpty()) {
-			throw new KnickerException("Parameter uri cannot be null or empty.");
-		}
-		if (!uri.startsWith("http://") && !uri.startsWith("https://")) {
-			throw new KnickerException("Parameter uri must start with http:// or https://");
-		}
-
-		DataOutputStream out = null;
-		BufferedReader in = null;
-
-		KnickerLogger.getLogger().log("PUT URL: '" + uri + "'");
-
-
-		try {
-			// Send data
-			URL url = parseUrl(uri);
-			URLConnection conn = url.openConnection();
-			conn.setDoInput(true);
-			conn.setDoOutput(true);
-			conn.setUseCaches(false);
-			conn.setConnectTimeout(getConnTimeout());
-			conn.setReadTimeout(getReadTimeout());
-			((HttpURLConnection) conn).setRequestMethod("PUT");
-
-			// api key
-			conn.addRequestProperty("api_key", System.getProperty("WORDNIK_API_KEY"));
-			KnickerLogger.getLogger().log("added header 'api_key', " + System.getProperty("WORDNIK_API_KEY"));
-			// auth header
-			if (token != null) {
-				conn.addRequestProperty("auth_token", token.getToken());
-				KnickerLogger.getLogger().log("added header 'auth_token', " + token.getToken());
-			}
-			conn.addRequestProperty("Content-Type", "text/xml");
-
-			out = new DataOutputStream(conn.getOutputStream());
-			KnickerLogger.getLogger().log("----------PUT DATA START----------");
-			if (data != null) {
-				KnickerLogger.getLogger().log(data);
-				out.writeBytes(data);
-				out.flush();
-			}
-			KnickerLogger.getLogger().log("----------PUT DATA END----------");
-
-			// Get the response
-			in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-
-		} catch (Exception e) {
-			throw new KnickerException("Error while performing HTTP PUT operation.", e);
-		} finally {
-			try {
-				if (out != null) {
-					out.close();
-				}
-			} catch (Exception e) {
-				// ignore
-			} finally {
-				try {
-					if (in != null) {
-						in.close();
-					}
-				} catch (Exception e) {
-					// ignore
-				}
-			}
+		safe['-'] = true;
+		safe['.'] = true;
+		safe['_'] = true;
+		safe['~'] = true;
+		for (int i = 0; i < reserved.length(); i++) {
+			safe[reserved.charAt(i)] = true;
 		}
+		return safe;
 	}
 
 
 	/**
-	 * Parse a string containing XML into a Document instance.
+	 * Parse a server response into a Document instance.
 	 * <p/>
-	 * If the xml passed in is null or empty, return null.
+	 * The bytes are handed straight to the parser, so the encoding declared in
+	 * the xml is honored. If the response is null or contains only whitespace,
+	 * return null.
 	 *
-	 * @param xml the xml to parse as a Document instance.
+	 * @param xml the response body to parse as a Document instance.
 	 * @return the document, or null.
 	 * @throws KnickerException if there are any errors.
 	 */
-	private static Document getDocument(String xml) throws KnickerException {
+	static Document getDocument(byte[] xml) throws KnickerException {
 		Document retDoc = null;
-		InputStream in = null;
 
-		if (xml != null && xml.trim().length() > 0) {
+		if (xml != null && !isBlank(xml)) {
 			try {
-				in = new ByteArrayInputStream(xml.getBytes("UTF-8"));
-				retDoc = documentBuilderFactory.newDocumentBuilder().parse(in);
+				retDoc = documentBuilderFactory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
 			} catch (Exception e) {
 				throw new KnickerException("Unable to create Document.", e);
-			} finally {
-				if (in != null) {
-					try {
-						in.close();
-					} catch (Exception e) {
-						// ignore
-					}
-				}
 			}
 		}
 
@@ -404,6 +129,19 @@ public class Util {
 	}
 
 
+	/*
+	 * True if the bytes are all ASCII whitespace.
+	 */
+	private static boolean isBlank(byte[] bytes) {
+		for (byte b : bytes) {
+			if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
 	/**
 	 * Get a value by xpath.
 	 * <p/>
@@ -594,32 +332,146 @@ public class Util {
 
 
 	/**
-	 * Build a parameter list from a map.
+	 * Percent-encode a value and append it to a URI being built.
 	 * <p/>
-	 * The parameter list is in standard uri notation, and URL encoded.
+	 * The value is encoded in a single pass as UTF-8. Unreserved characters are
+	 * copied as they are, and so are the few reserved characters that have no
+	 * special meaning where the value goes. Everything else, including '%',
+	 * is escaped, so the value is encoded exactly once.
 	 *
-	 * @param params the parameter map.
-	 * @return a string representing the parameters.
-	 * @throws KnickerException if there are any errors.
+	 * @param value the value to encode.
+	 * @param query true to encode for a query parameter, false for a path segment.
+	 * @param out   where to append the encoded value.
 	 */
-	static String buildParamList(Map<String, String> params) throws KnickerException {
+	static void encode(String value, boolean query, StringBuilder out) {
+		boolean[] safe = query ? QUERY_SAFE : PATH_SAFE;
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				if (safe[c]) {
+					out.append(c);
+				} else {
+					escape(c, out);
+				}
+			} else if (c < 0x800) {
+				escape(0xC0 | (c >> 6), out);
+				escape(0x80 | (c & 0x3F), out);
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(value.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, value.charAt(++i));
+				escape(0xF0 | (cp >> 18), out);
+				escape(0x80 | ((cp >> 12) & 0x3F), out);
+				escape(0x80 | ((cp >> 6) & 0x3F), out);
+				escape(0x80 | (cp & 0x3F), out);
+			} else if (Character.isSurrogate(c)) {
+				// an unpaired surrogate cannot be encoded; send what getBytes would
+				escape('?', out);
+			} else {
+				escape(0xE0 | (c >> 12), out);
+				escape(0x80 | ((c >> 6) & 0x3F), out);
+				escape(0x80 | (c & 0x3F), out);
+			}
+		}
+	}
+
+
+	private static void escape(int b, StringBuilder out) {
+		out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+	}
+
+
+	/**
+	 * Get the name the Wordnik API uses for an enum constant.
+	 * <p/>
+	 * Underscores in the constant name become dashes, so
+	 * <code>PartOfSpeech.noun_plural</code> is sent as "noun-plural". Names
+	 * are worked out once per constant.
+	 *
+	 * @param value the constant.
+	 * @return the API name of the constant.
+	 */
+	static String wireName(Enum<?> value) {
+		String name = WIRE_NAMES.get(value);
+		if (name == null) {
+			name = value.toString().trim().replace('_', '-');
+			WIRE_NAMES.put(value, name);
+		}
+		return name;
+	}
+
+
+	/**
+	 * Get the API names of some enum constants as a comma separated list.
+	 * <p/>
+	 * Constants are listed in iteration order. Lists for <code>EnumSet</code>
+	 * instances are worked out once per distinct set and reused.
+	 *
+	 * @param values the constants.
+	 * @return the API names, separated by commas.
+	 */
+	static String wireNames(Collection<? extends Enum<?>> values) {
+		EnumSetKey key = null;
+		if (values instanceof EnumSet && !values.isEmpty()) {
+			long bits = 0;
+			Class<?> type = null;
+			for (Enum<?> value : values) {
+				if (value.ordinal() >= 64) {
+					bits = -1;
+					break;
+				}
+				bits |= 1L << value.ordinal();
+				type = value.getDeclaringClass();
+			}
+			if (bits != -1) {
+				key = new EnumSetKey(type, bits);
+				String names = WIRE_NAME_LISTS.get(key);
+				if (names != null) {
+					return names;
+				}
+			}
+		}
+
 		StringBuilder sb = new StringBuilder();
-		for (String key : params.keySet()) {
-			try {
-				KnickerLogger.getLogger().log("Adding parameter key/value pair " + key + "=" + params.get(key));
-				sb.append(URLEncoder.encode(key, "UTF-8")).append('=').append(URLEncoder.encode(params.get(key), "UTF-8")).append('&');
-			} catch (Exception e) {
-				throw new KnickerException("Error encoding.", e);
+		for (Enum<?> value : values) {
+			if (sb.length() > 0) {
+				sb.append(',');
 			}
+			sb.append(wireName(value));
+		}
+		String names = sb.toString();
+		if (key != null && WIRE_NAME_LISTS.size() < MAX_WIRE_NAME_LISTS) {
+			WIRE_NAME_LISTS.put(key, names);
 		}
+		return names;
+	}
+
 
-		int index = sb.lastIndexOf("&");
-		if (index > 0) {
-			sb.deleteCharAt(sb.lastIndexOf("&"));
+	/*
+	 * Identifies an EnumSet by its element type and the ordinals it holds.
+	 */
+	private static final class EnumSetKey {
+		private final Class<?> type;
+		private final long bits;
+
+		EnumSetKey(Class<?> type, long bits) {
+			this.type = type;
+			this.bits = bits;
 		}
 
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof EnumSetKey)) {
+				return false;
+			}
+			EnumSetKey other = (EnumSetKey) o;
+			return type == other.type && bits == other.bits;
+		}
 
-		return sb.toString();
+		@Override
+		public int hashCode() {
+			return type.hashCode() * 31 + (int) (bits ^ (bits >>> 32));
+		}
 	}
 
 
@@ -697,32 +549,6 @@ public class Util {
 	}
 
 
-	protected static int getConnTimeout() {
-		int timeout = 10000;
-
-		try {
-			timeout = Integer.parseInt("KNICKER_CONN_TIMEOUT");
-		} catch (Exception e) {
-			// ignore; will return 10000
-		}
-
-		return timeout;
-	}
-
-
-	protected static int getReadTimeout() {
-		int timeout = 30000;
-
-		try {
-			timeout = Integer.parseInt("KNICKER_READ_TIMEOUT");
-		} catch (Exception e) {
-			// ignore; will return 30000
-		}
-
-		return timeout;
-	}
-
-
 	/**
 	 * Parse a string representing an absolute URL to a URL with correctly encoded special characters.
 	 *
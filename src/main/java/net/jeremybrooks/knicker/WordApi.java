@@ -30,16 +30,12 @@ import net.jeremybrooks.knicker.dto.Related;
 import net.jeremybrooks.knicker.dto.SearchResults;
 import net.jeremybrooks.knicker.dto.Syllable;
 import net.jeremybrooks.knicker.dto.Word;
-import net.jeremybrooks.knicker.logger.KnickerLogger;
-import org.w3c.dom.Document;
+import net.jeremybrooks.knicker.dto.WordProfile;
+import net.jeremybrooks.knicker.flow.Flow;
 
-import java.io.BufferedInputStream;
-import java.net.URL;
-import java.net.URLConnection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 // JAVA UTILITY
 // JAVA XML
@@ -59,6 +55,11 @@ import java.util.Set;
  * The methods are all public static. Most of the methods will return instances
  * of classes in the <code>net.jeremybrooks.knicker.dto</code> package.
  * <p/>
+ * These methods use the default client returned by
+ * <code>KnickerClient.getDefault()</code>. To use a different API key,
+ * endpoint, timeout or transport, create a <code>KnickerClient</code> and
+ * call the same methods on it.
+ * <p/>
  * If there are errors, a <code>KnickerException</code> will be thrown.
  *
  * @author Jeremy Brooks
@@ -94,22 +95,7 @@ public class WordApi extends Knicker {
 	 * @throws KnickerException if the word is null, or if there are any errors.
 	 */
 	public static Word lookup(String word, boolean useCanonical, boolean includeSuggestions) throws KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up an empty word.");
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim()).append('?');
-
-		if (useCanonical) {
-			uri.append("useCanonical=").append(Boolean.toString(useCanonical)).append("&");
-		}
-		if (includeSuggestions) {
-			uri.append("useSuggestions=").append(Boolean.toString(includeSuggestions));
-		}
-
-
-		return DTOBuilder.buildWord(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().lookup(word, useCanonical, includeSuggestions);
 	}
 
 
@@ -145,31 +131,7 @@ public class WordApi extends Knicker {
 	public static SearchResults examples(String word, boolean includeDuplicates,
 										 String contentProvider, boolean useCanonical, int skip, int limit) throws
 			KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-		params.put("includeDuplicates", Boolean.toString(includeDuplicates));
-		if (contentProvider != null) {
-			params.put("contentProvider", contentProvider);
-		}
-		params.put("useCanonical", Boolean.toString(useCanonical));
-		if (skip > 0) {
-			params.put("skip", Integer.toString(skip));
-		}
-		if (limit > 0) {
-			params.put("limit", Integer.toString(limit));
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/examples");
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		return DTOBuilder.buildExamples(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().examples(word, includeDuplicates, contentProvider, useCanonical, skip, limit);
 	}
 
 
@@ -212,31 +174,7 @@ public class WordApi extends Knicker {
 	public static List<Definition> definitions(String word,
 											   Set<SourceDictionary> sourceDictionaries) throws
 			KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up definitions for an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-		if (sourceDictionaries != null && sourceDictionaries.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (SourceDictionary sd : sourceDictionaries) {
-				sb.append(sd.toString().trim()).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("sourceDictionaries", sb.toString());
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/definitions");
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		return DTOBuilder.buildDefinitions(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().definitions(word, sourceDictionaries);
 	}
 
 
@@ -262,51 +200,7 @@ public class WordApi extends Knicker {
 											   Set<PartOfSpeech> partOfSpeech, boolean includeRelated,
 											   Set<SourceDictionary> sourceDictionaries,
 											   boolean useCanonical, boolean includeTags) throws KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up definitions for an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-		if (limit > 0) {
-			params.put("limit", Integer.toString(limit));
-		}
-		if (useCanonical) {
-			params.put("useCanonical", "true");
-		}
-
-		if (partOfSpeech != null && partOfSpeech.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (PartOfSpeech pos : partOfSpeech) {
-				sb.append(pos.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("partOfSpeech", sb.toString());
-		}
-
-		if (sourceDictionaries != null && sourceDictionaries.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (SourceDictionary sd : sourceDictionaries) {
-				sb.append(sd.toString().trim()).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("sourceDictionaries", sb.toString());
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/definitions");
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-
-		return DTOBuilder.buildDefinitions(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().definitions(word, limit, partOfSpeech, includeRelated, sourceDictionaries, useCanonical, includeTags);
 	}
 
 
@@ -355,31 +249,7 @@ public class WordApi extends Knicker {
 	 */
 	public static FrequencySummary frequency(String word, boolean useCanonical,
 											 int startYear, int endYear) throws KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-
-		if (useCanonical) {
-			params.put("useCanonical", "true");
-		}
-
-		if (startYear > 0) {
-			params.put("startYear", Integer.toString(startYear));
-		}
-		if (endYear > 0) {
-			params.put("endYear", Integer.toString(endYear));
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/frequency");
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		return DTOBuilder.buildFrequencySummary(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().frequency(word, useCanonical, startYear, endYear);
 	}
 
 
@@ -410,25 +280,7 @@ public class WordApi extends Knicker {
 	 */
 	public static Example topExample(String word, String contentProvider, boolean useCanonical) throws
 			KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-
-		params.put("useCanonical", Boolean.toString(useCanonical));
-		if (contentProvider != null) {
-			params.put("contentProvider", contentProvider);
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/topExample");
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		return DTOBuilder.buildTopExample(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().topExample(word, contentProvider, useCanonical);
 	}
 
 
@@ -461,38 +313,7 @@ public class WordApi extends Knicker {
 	public static List<Related> related(String word, boolean useCanonical,
 										Set<RelationshipType> relationshipType,
 										int limitPerRelationshipType) throws KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-		if (limitPerRelationshipType > 0) {
-			params.put("limitPerRelationshipType", Integer.toString(limitPerRelationshipType));
-		}
-		if (useCanonical) {
-			params.put("useCanonical", "true");
-		}
-		if (relationshipType != null && relationshipType.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (RelationshipType rt : relationshipType) {
-				sb.append(rt.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("relationshipTypes", sb.toString());
-		}
-
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/relatedWords");
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		return DTOBuilder.buildRelated(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().related(word, useCanonical, relationshipType, limitPerRelationshipType);
 	}
 
 
@@ -525,32 +346,7 @@ public class WordApi extends Knicker {
 	 * @see <a ref="http://docs.wordnik.com/api/methods#phrases">Wordnik documentation</a>
 	 */
 	public static List<Phrase> phrases(String word, int limit, String wlmi, boolean useCanonical) throws KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-		if (limit > 0) {
-			params.put("limit", Integer.toString(limit));
-		}
-		if (wlmi != null && !wlmi.trim().isEmpty()) {
-			params.put("wlmi", wlmi.trim());
-		}
-		if (useCanonical) {
-			params.put("useCanonical", "true");
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/phrases");
-
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		Document doc = Util.doGet(uri.toString());
-
-		return DTOBuilder.buildPhrase(doc);
+		return KnickerClient.getDefault().phrases(word, limit, wlmi, useCanonical);
 	}
 
 
@@ -585,32 +381,7 @@ public class WordApi extends Knicker {
 	public static List<Syllable> hyphenation(String word, boolean useCanonical,
 											 SourceDictionary sourceDictionary, int limit) throws
 			KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-		if (limit > 0) {
-			params.put("limit", Integer.toString(limit));
-		}
-		if (useCanonical) {
-			params.put("useCanonical", "true");
-		}
-		if (sourceDictionary != null) {
-			params.put("sourceDictionary", sourceDictionary.toString().trim().replaceAll("_", "-"));
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/hyphenation");
-
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		Document doc = Util.doGet(uri.toString());
-
-		return DTOBuilder.buildHyphenation(doc);
+		return KnickerClient.getDefault().hyphenation(word, useCanonical, sourceDictionary, limit);
 	}
 
 
@@ -644,35 +415,7 @@ public class WordApi extends Knicker {
 	public static List<Pronunciation> pronunciations(String word, boolean useCanonical,
 													 SourceDictionary sourceDictionary, TypeFormat typeFormat, int limit) throws
 			KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-		if (limit > 0) {
-			params.put("limit", Integer.toString(limit));
-		}
-		if (useCanonical) {
-			params.put("useCanonical", "true");
-		}
-		if (sourceDictionary != null) {
-			params.put("sourceDictionary", sourceDictionary.toString().trim().replaceAll("_", "-"));
-		}
-		if (typeFormat != null) {
-			params.put("typeFormat", typeFormat.toString().trim().replaceAll("_", "-"));
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/pronunciations");
-
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		Document doc = Util.doGet(uri.toString());
-
-		return DTOBuilder.buildPronunciation(doc);
+		return KnickerClient.getDefault().pronunciations(word, useCanonical, sourceDictionary, typeFormat, limit);
 	}
 
 
@@ -702,29 +445,7 @@ public class WordApi extends Knicker {
 	 */
 	public static List<AudioFileMetadata> audio(String word, boolean useCanonical, int limit) throws
 			KnickerException {
-		if (word == null || word.isEmpty()) {
-			throw new KnickerException("Cannot look up an empty word.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-		if (limit > 0) {
-			params.put("limit", Integer.toString(limit));
-		}
-		if (useCanonical) {
-			params.put("useCanonical", "true");
-		}
-
-		StringBuilder uri = new StringBuilder(WORD_ENDPOINT);
-		uri.append('/').append(word.trim());
-		uri.append("/audio");
-
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		Document doc = Util.doGet(uri.toString());
-
-		return DTOBuilder.buildAudio(doc);
+		return KnickerClient.getDefault().audio(word, useCanonical, limit);
 	}
 
 
@@ -746,47 +467,63 @@ public class WordApi extends Knicker {
 	 *                          are any errors.
 	 */
 	public static byte[] getAudioData(AudioFileMetadata audioFileMetadata) throws KnickerException {
-		if (audioFileMetadata == null) {
-			throw new KnickerException("Parameter audioFileMetadata cannot be null.");
-		}
+		return KnickerClient.getDefault().getAudioData(audioFileMetadata);
+	}
 
-		byte[] data = null;
-		int contentLength = 0;
-		BufferedInputStream in = null;
-		URL page = null;
-		URLConnection conn = null;
-
-		try {
-			page = new URL(audioFileMetadata.getFileUrl());
-			conn = page.openConnection();
-			contentLength = conn.getContentLength();
-			in = new BufferedInputStream(conn.getInputStream());
-			data = new byte[contentLength];
-			int bytesRead = 0;
-			int offset = 0;
-			while (offset < contentLength) {
-				bytesRead = in.read(data, offset, data.length - offset);
-				if (bytesRead == -1) {
-					break;
-				}
-				offset += bytesRead;
-			}
-
-		} catch (Exception e) {
-			throw new KnickerException("There was an error while getting audio data from URL "
-					+ audioFileMetadata.getFileUrl(), e);
-		} finally {
-			try {
-				if (in != null) {
-					in.close();
-				}
-			} catch (Exception e) {
-				// not critical, just log warning
-				KnickerLogger.getLogger().log("WARN: Error closing input stream.", e);
-			}
-		}
 
-		return data;
+	/**
+	 * Publish example sentences for a word, fetching pages as the subscriber
+	 * requests items.
+	 *
+	 * @param word              the word to fetch examples for.
+	 * @param includeDuplicates show duplicate examples from different sources.
+	 * @param contentProvider   return results from a specific content provider.
+	 *                          If this parameter is null, it is ignored.
+	 * @param useCanonical      if true will try to return the correct word root
+	 *                          ('cats' -> 'cat'). If false returns exactly what was requested.
+	 * @param pageSize          number of examples to fetch in each call.
+	 * @return publisher of examples.
+	 * @throws KnickerException if the word is null or empty.
+	 * @see #examples(String, boolean, String, boolean, int, int)
+	 */
+	public static Flow.Publisher<Example> examplesPublisher(String word, boolean includeDuplicates,
+				String contentProvider, boolean useCanonical, int pageSize) throws KnickerException {
+		return KnickerClient.getDefault().examplesPublisher(word, includeDuplicates, contentProvider, useCanonical, pageSize);
+	}
+
+
+	/**
+	 * Fetch several facets of a word at once.
+	 * <p/>
+	 * The requested facets are fetched in parallel. A facet that fails does not
+	 * fail the profile; its value is null and its exception is reported by
+	 * <code>WordProfile.getErrors()</code>.
+	 *
+	 * @param word   the word to profile.
+	 * @param facets the facets to fetch. If null or empty, all facets are fetched.
+	 * @return the profile.
+	 * @throws KnickerException if the word is null or empty, or if the calling
+	 *                          thread is interrupted while waiting.
+	 */
+	public static WordProfile profile(String word, Set<Facet> facets) throws KnickerException {
+		return KnickerClient.getDefault().profile(word, facets);
 	}
 
+
+	/**
+	 * Fetch several facets of a word at once, sharing one deadline. Facets
+	 * that do not arrive before the deadline are reported as errors.
+	 *
+	 * @param word    the word to profile.
+	 * @param facets  the facets to fetch. If null or empty, all facets are fetched.
+	 * @param timeout time budget for the whole profile.
+	 * @param unit    unit of the timeout.
+	 * @return the profile.
+	 * @throws KnickerException if the word is null or empty, or if the calling
+	 *                          thread is interrupted while waiting.
+	 * @see #profile(String, Set)
+	 */
+	public static WordProfile profile(String word, Set<Facet> facets, long timeout, TimeUnit unit) throws KnickerException {
+		return KnickerClient.getDefault().profile(word, facets, timeout, unit);
+	}
 }
@@ -22,12 +22,11 @@ package net.jeremybrooks.knicker;
 import net.jeremybrooks.knicker.dto.AuthenticationToken;
 import net.jeremybrooks.knicker.dto.WordList;
 import net.jeremybrooks.knicker.dto.WordListWord;
+import net.jeremybrooks.knicker.flow.Flow;
 
 import javax.swing.SortOrder;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -44,6 +43,11 @@ import java.util.Map;
  * The methods are all public static. Most of the methods will return instances
  * of classes in the <code>net.jeremybrooks.knicker.dto</code> package.
  * <p/>
+ * These methods use the default client returned by
+ * <code>KnickerClient.getDefault()</code>. To use a different API key,
+ * endpoint, timeout or transport, create a <code>KnickerClient</code> and
+ * call the same methods on it.
+ * <p/>
  * If there are errors, a <code>KnickerException</code> will be thrown.
  *
  * @author Jeremy Brooks
@@ -65,37 +69,7 @@ public class WordListApi extends Knicker {
      * @throws KnickerException if any parameters are null, or if there are any errors.
      */
     public static WordList createList(AuthenticationToken token, String listName, String description, ListType type) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
-        if (listName == null || listName.isEmpty()) {
-            throw new KnickerException("List name required.");
-        }
-        if (description == null || description.isEmpty()) {
-            throw new KnickerException("Description required.");
-        }
-        if (type == null) {
-            throw new KnickerException("List type required.");
-        }
-
-        /* The POST data should look like this:
-       *
-       <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
-          <wordList>
-          <description>test list</description>
-          <name>test</name>
-          <type>PUBLIC</type>
-       </wordList>
-       *
-       */
-        StringBuilder data = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
-        data.append("<wordList>\n");
-        data.append("<description>").append(description).append("</description>\n");
-        data.append("<name>").append(listName).append("</name>\n");
-        data.append("<type>").append(type.toString()).append("</type>\n");
-        data.append("</wordList>");
-
-        return DTOBuilder.buildWordList(Util.doPost(WORD_LISTS_ENDPOINT, data.toString(), token));
+        return KnickerClient.getDefault().createList(token, listName, description, type);
     }
 
 
@@ -108,17 +82,7 @@ public class WordListApi extends Knicker {
      * @throws KnickerException if any parameters are null, or if there are any errors.
      */
     public static WordList getWordList(AuthenticationToken token, String permalink) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
-        if (permalink == null || permalink.isEmpty()) {
-            throw new KnickerException("List permalink required.");
-        }
-
-        StringBuilder uri = new StringBuilder(WORD_LIST_ENDPOINT);
-        uri.append('/').append(permalink.trim());
-
-        return DTOBuilder.buildWordList(Util.doGet(uri.toString(), token));
+        return KnickerClient.getDefault().getWordList(token, permalink);
     }
 
 
@@ -132,9 +96,7 @@ public class WordListApi extends Knicker {
      */
     public static void addWordToList(AuthenticationToken token, String permalink, String word)
             throws KnickerException {
-        List<String> list = new ArrayList<String>();
-        list.add(word);
-        addWordsToList(token, permalink, list);
+        KnickerClient.getDefault().addWordToList(token, permalink, word);
     }
 
 
@@ -147,40 +109,7 @@ public class WordListApi extends Knicker {
      * @throws KnickerException if any parameters are null, or if there are any errors.
      */
     public static void addWordsToList(AuthenticationToken token, String permalink, List<String> words) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
-        if (permalink == null || permalink.isEmpty()) {
-            throw new KnickerException("Parameter permalinkId required.");
-        }
-        if (words == null || words.isEmpty()) {
-            throw new KnickerException("Parameter words required.");
-        }
-
-        /*
-      <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
-      <stringValues>
-          <stringValue>
-          <word>hello</word>
-          </stringValue>
-         <stringValue>
-          <word>hi</word>
-          </stringValue>
-      </stringValues>
-       */
-        StringBuilder data = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
-        data.append("<stringValues>\n");
-        for (String word : words) {
-            data.append("<stringValue>\n");
-            data.append("<word>").append(word).append("</word>\n");
-            data.append("</stringValue>\n");
-        }
-        data.append("</stringValues>\n");
-
-        StringBuilder uri = new StringBuilder(WORD_LIST_ENDPOINT);
-        uri.append("/").append(permalink).append("/words");
-
-        Util.doPost(uri.toString(), data.toString(), token);
+        KnickerClient.getDefault().addWordsToList(token, permalink, words);
     }
 
 
@@ -194,9 +123,7 @@ public class WordListApi extends Knicker {
      */
     public static void deleteWordFromList(AuthenticationToken token, String permalink, String word)
             throws KnickerException {
-        List<String> list = new ArrayList<String>();
-        list.add(word);
-        deleteWordsFromList(token, permalink, list);
+        KnickerClient.getDefault().deleteWordFromList(token, permalink, word);
     }
 
 
@@ -209,40 +136,7 @@ public class WordListApi extends Knicker {
      * @throws KnickerException if any parameters are null, or if there are any errors.
      */
     public static void deleteWordsFromList(AuthenticationToken token, String permalink, List<String> words) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
-        if (permalink == null || permalink.isEmpty()) {
-            throw new KnickerException("Parameter permalinkId required.");
-        }
-        if (words == null || words.isEmpty()) {
-            throw new KnickerException("Parameter words required.");
-        }
-
-        /*
-      <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
-      <stringValues>
-          <stringValue>
-          <word>hello</word>
-          </stringValue>
-         <stringValue>
-          <word>hi</word>
-          </stringValue>
-      </stringValues>
-       */
-        StringBuilder data = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
-        data.append("<stringValues>\n");
-        for (String word : words) {
-            data.append("<stringValue>\n");
-            data.append("<word>").append(word).append("</word>\n");
-            data.append("</stringValue>\n");
-        }
-        data.append("</stringValues>\n");
-
-        StringBuilder uri = new StringBuilder(WORD_LIST_ENDPOINT);
-        uri.append("/").append(permalink).append("/deleteWords");
-
-        Util.doPost(uri.toString(), data.toString(), token);
+        KnickerClient.getDefault().deleteWordsFromList(token, permalink, words);
     }
 
     /**
@@ -253,47 +147,7 @@ public class WordListApi extends Knicker {
      * @throws KnickerException if any parameters are null, or if there are any errors.
      */
     public static void updateWordList(AuthenticationToken token, WordList wordList) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
-        if (wordList == null) {
-            throw new KnickerException("Parameter wordList required.");
-        }
-
-        /*
-       * The PUT command includes this XML document:
-      <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
-      <wordList>
-          <createdAt>2011-03-23T20:51:03.753Z</createdAt>
-          <description>This is a test list created by the Knicker automated tests.</description>
-          <id>29774</id>
-          <name>TEST_LIST</name>
-          <numberWordsInList>0</numberWordsInList>
-          <permalink>test-list--2</permalink>
-          <type>PUBLIC</type>
-          <updatedAt>2011-03-23T20:51:03.753Z</updatedAt>
-          <userId>1055256</userId>
-          <username>jeremybrooks</username>
-      </wordList>
-       */
-        StringBuilder data = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
-        data.append("<wordList>");
-        data.append("<createdAt>").append(wordList.getCreatedAt()).append("</createdAt>");
-        data.append("<description>").append(wordList.getDescription()).append("</description>");
-        data.append("<id>").append(wordList.getId()).append("</id>");
-        data.append("<name>").append(wordList.getName()).append("</name>");
-        data.append("<numberWordsInList>").append(wordList.getNumberWordsInList()).append("</numberWordsInList>");
-        data.append("<permalink>").append(wordList.getPermalink()).append("</permalink>");
-        data.append("<type>").append(wordList.getType().toString()).append("</type>");
-        data.append("<updatedAt>").append(wordList.getUpdatedAt()).append("</updatedAt>");
-        data.append("<userId>").append(wordList.getUserId()).append("</userId>");
-        data.append("<username>").append(wordList.getUsername()).append("</username>");
-        data.append("</wordList>");
-
-        StringBuilder uri = new StringBuilder(WORD_LIST_ENDPOINT);
-        uri.append("/").append(wordList.getPermalink());
-
-        Util.doPut(uri.toString(), data.toString(), token);
+        KnickerClient.getDefault().updateWordList(token, wordList);
     }
 
 
@@ -332,35 +186,7 @@ public class WordListApi extends Knicker {
      */
     public static List<WordListWord> getWordsFromList(AuthenticationToken token,
                                                       String permalink, SortBy sortBy, SortOrder sortOrder, int skip, int limit) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
-        if (permalink == null || permalink.isEmpty()) {
-            throw new KnickerException("Parameter permalink required.");
-        }
-
-        Map<String, String> params = new HashMap<String, String>();
-        if (sortBy != null) {
-            params.put("sortBy", sortBy.toString());
-        }
-        if (sortOrder != null) {
-            params.put("sortOrder", sortOrder.toString());
-        }
-        if (skip > 0) {
-            params.put("skip", Integer.toString(skip));
-        }
-        if (limit > 0) {
-            params.put("limit", Integer.toString(limit));
-        }
-
-        StringBuilder uri = new StringBuilder(WORD_LIST_ENDPOINT);
-        uri.append('/').append(permalink.trim());
-        uri.append("/words");
-        if (params.size() > 0) {
-            uri.append('?').append(Util.buildParamList(params));
-        }
-
-        return DTOBuilder.buildWordListWords(Util.doGet(uri.toString(), token));
+        return KnickerClient.getDefault().getWordsFromList(token, permalink, sortBy, sortOrder, skip, limit);
     }
 
 
@@ -375,16 +201,58 @@ public class WordListApi extends Knicker {
      * @throws KnickerException if the token or id are null, or if there are any errors.
      */
     public static void deleteList(AuthenticationToken token, String permalink) throws KnickerException {
-        if (token == null) {
-            throw new KnickerException("Authentication token required.");
-        }
-        if (permalink == null || permalink.isEmpty()) {
-            throw new KnickerException("Parameter id required.");
-        }
+        KnickerClient.getDefault().deleteList(token, permalink);
+    }
+
+
+    /**
+     * Publish the words in a word list, fetching pages as the subscriber
+     * requests items.
+     *
+     * @param token     authentication token.
+     * @param permalink the permalink of the word list to get words from.
+     * @param sortBy    field to sort by.
+     * @param sortOrder direction to sort.
+     * @param pageSize  number of words to fetch in each call.
+     * @return publisher of word list words.
+     * @throws KnickerException if the token or permalink are null.
+     * @see #getWordsFromList(AuthenticationToken, String, Knicker.SortBy, javax.swing.SortOrder, int, int)
+     */
+    public static Flow.Publisher<WordListWord> getWordsFromListPublisher(AuthenticationToken token,
+                String permalink, SortBy sortBy, SortOrder sortOrder, int pageSize) throws KnickerException {
+        return KnickerClient.getDefault().getWordsFromListPublisher(token, permalink, sortBy, sortOrder, pageSize);
+    }
 
-        StringBuilder uri = new StringBuilder(WORD_LIST_ENDPOINT);
-        uri.append("/").append(permalink);
 
-        Util.doDelete(uri.toString(), token);
+    /**
+     * Compare a word list with the words it should contain, without changing it.
+     *
+     * @param token     authentication token.
+     * @param permalink the permalink of the word list.
+     * @param desired   the words the list should contain.
+     * @return the words a sync would add and delete.
+     * @throws KnickerException if any parameters are null, or if there are any errors.
+     * @see KnickerClient#diffWordList(AuthenticationToken, String, Set)
+     */
+    public static WordListDiff diff(AuthenticationToken token, String permalink, Set<String> desired)
+            throws KnickerException {
+        return KnickerClient.getDefault().diffWordList(token, permalink, desired);
+    }
+
+
+    /**
+     * Make a word list contain exactly the given words, sending only the
+     * words to add and delete.
+     *
+     * @param token     authentication token.
+     * @param permalink the permalink of the word list.
+     * @param desired   the words the list should contain.
+     * @return the changes made, and the result of each request.
+     * @throws KnickerException if any parameters are null, or if the list cannot be read.
+     * @see KnickerClient#syncWordList(AuthenticationToken, String, Set, int)
+     */
+    public static WordListDiff sync(AuthenticationToken token, String permalink, Set<String> desired)
+            throws KnickerException {
+        return KnickerClient.getDefault().syncWordList(token, permalink, desired);
     }
 }
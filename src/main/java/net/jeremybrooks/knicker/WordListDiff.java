@@ -0,0 +1,158 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+
+
+/**
+ * The difference between the words in a word list and the words it should
+ * contain.
+ * <p/>
+ * A diff returned by <code>diffWordList</code> is a report of what a sync
+ * would change. A diff returned by <code>syncWordList</code> also has the
+ * result of each request sent to apply it.
+ *
+ * @author Jeremy Brooks
+ * @see KnickerClient#syncWordList(net.jeremybrooks.knicker.dto.AuthenticationToken, String, java.util.Set, int)
+ */
+public class WordListDiff {
+
+	private final String permalink;
+
+	private final SortedSet<String> toAdd;
+
+	private final SortedSet<String> toDelete;
+
+	private final int unchangedCount;
+
+	private final List<ChunkResult> addResults;
+
+	private final List<ChunkResult> deleteResults;
+
+
+	WordListDiff(String permalink, SortedSet<String> toAdd, SortedSet<String> toDelete, int unchangedCount,
+				 List<ChunkResult> addResults, List<ChunkResult> deleteResults) {
+		this.permalink = permalink;
+		this.toAdd = Collections.unmodifiableSortedSet(toAdd);
+		this.toDelete = Collections.unmodifiableSortedSet(toDelete);
+		this.unchangedCount = unchangedCount;
+		this.addResults = addResults == null ? null : Collections.unmodifiableList(addResults);
+		this.deleteResults = deleteResults == null ? null : Collections.unmodifiableList(deleteResults);
+	}
+
+
+	public String getPermalink() {
+		return permalink;
+	}
+
+
+	/**
+	 * @return words that are wanted but not in the list, in sorted order.
+	 */
+	public SortedSet<String> getToAdd() {
+		return toAdd;
+	}
+
+
+	/**
+	 * @return words that are in the list but not wanted, in sorted order.
+	 */
+	public SortedSet<String> getToDelete() {
+		return toDelete;
+	}
+
+
+	/**
+	 * @return number of wanted words that are already in the list.
+	 */
+	public int getUnchangedCount() {
+		return unchangedCount;
+	}
+
+
+	/**
+	 * @return true if the list already contains exactly the wanted words.
+	 */
+	public boolean isEmpty() {
+		return toAdd.isEmpty() && toDelete.isEmpty();
+	}
+
+
+	/**
+	 * @return true if the changes were sent to the server.
+	 */
+	public boolean isApplied() {
+		return addResults != null;
+	}
+
+
+	/**
+	 * @return results of the requests that added words, or null if the diff
+	 *         was not applied.
+	 */
+	public List<ChunkResult> getAddResults() {
+		return addResults;
+	}
+
+
+	/**
+	 * @return results of the requests that deleted words, or null if the diff
+	 *         was not applied.
+	 */
+	public List<ChunkResult> getDeleteResults() {
+		return deleteResults;
+	}
+
+
+	/**
+	 * @return true if the diff was applied and every request succeeded.
+	 */
+	public boolean isSuccessful() {
+		if (!isApplied()) {
+			return false;
+		}
+		for (ChunkResult result : addResults) {
+			if (!result.isSuccessful()) {
+				return false;
+			}
+		}
+		for (ChunkResult result : deleteResults) {
+			if (!result.isSuccessful()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ permalink=").append(this.permalink).append(" | ");
+		sb.append("toAdd=").append(this.toAdd).append(" | ");
+		sb.append("toDelete=").append(this.toDelete).append(" | ");
+		sb.append("unchangedCount=").append(this.unchangedCount).append(" | ");
+		sb.append("applied=").append(this.isApplied()).append(" ]");
+
+		return sb.toString();
+	}
+}
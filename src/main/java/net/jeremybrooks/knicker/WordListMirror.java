@@ -0,0 +1,511 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.cache.DtoCodec;
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.dto.WordList;
+import net.jeremybrooks.knicker.dto.WordListWord;
+import net.jeremybrooks.knicker.logger.KnickerLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+
+/**
+ * A local copy of all of a user's word lists and their words.
+ * <p/>
+ * <code>refresh</code> reads all of the user's lists, a page at a time, with
+ * <code>wordLists</code> and downloads the words of only those lists whose
+ * <code>updatedAt</code> or <code>numberWordsInList</code> differ from the
+ * copy, several lists at a time. Lists that are gone from the account are
+ * dropped. Queries are answered from memory without calling the server:
+ * <code>
+ * WordListMirror mirror = new WordListMirror.Builder(client, token).file(new File("lists.mirror")).build();
+ * mirror.refresh();
+ * if (mirror.contains("my-list", "zebra")) ...
+ * </code>
+ * Given a file, the mirror is saved after each refresh that changed it, in
+ * the compact format of <code>DtoCodec</code>, and loaded when the next
+ * mirror is built, so a restart only downloads the lists that changed while
+ * it was down. A file that cannot be read is ignored, and the next refresh
+ * downloads everything.
+ * <p/>
+ * Mirrors are thread safe. Queries see the mirror as it was before or after
+ * a refresh, never part way through one.
+ *
+ * @author Jeremy Brooks
+ */
+public class WordListMirror {
+
+	/* Default number of lists downloaded at a time. */
+	public static final int DEFAULT_CONCURRENCY = 4;
+
+	/* Words fetched per request when downloading a list. */
+	private static final int PAGE_SIZE = 1000;
+
+	/* Lists fetched per request when reading the user's lists. */
+	private static final int LIST_PAGE_SIZE = 50;
+
+	private final KnickerClient client;
+
+	private final AuthenticationToken token;
+
+	private final int concurrency;
+
+	private final File file;
+
+	/* Replaced, never changed, by refresh. */
+	private volatile Map<String, MirroredList> lists;
+
+	private final Object refreshLock = new Object();
+
+	private volatile long lastRefreshMillis;
+
+	private volatile int lastDownloadCount;
+
+
+	private WordListMirror(Builder builder) {
+		this.client = builder.client;
+		this.token = builder.token;
+		this.concurrency = builder.concurrency;
+		this.file = builder.file;
+		this.lists = file == null ? Collections.<String, MirroredList>emptyMap() : load(file);
+	}
+
+
+	/**
+	 * Bring the mirror up to date with the server.
+	 * <p/>
+	 * If some lists cannot be downloaded, the others are still updated and
+	 * saved, the old copies of the failed lists are kept, and the first
+	 * error is thrown.
+	 *
+	 * @return number of lists whose words were downloaded.
+	 * @throws KnickerException if the lists cannot be read, if a list cannot
+	 *                          be downloaded, or if the file cannot be written.
+	 */
+	public int refresh() throws KnickerException {
+		synchronized (refreshLock) {
+			Map<String, MirroredList> current = lists;
+			Map<String, MirroredList> next = new LinkedHashMap<String, MirroredList>();
+			Queue<WordList> changed = new ConcurrentLinkedQueue<WordList>();
+			// a list left out of the pages would be dropped, so read them all
+			for (int skip = 0; ; skip += LIST_PAGE_SIZE) {
+				List<WordList> page = client.wordLists(token, skip, LIST_PAGE_SIZE);
+				for (WordList wordList : page) {
+					String permalink = wordList.getPermalink();
+					if (permalink == null || next.containsKey(permalink)) {
+						continue;
+					}
+					// keep the place, and the old copy if there is one
+					MirroredList copy = current.get(permalink);
+					next.put(permalink, copy);
+					if (copy == null || !copy.isCurrent(wordList)) {
+						changed.add(wordList);
+					}
+				}
+				if (page.size() < LIST_PAGE_SIZE) {
+					break;
+				}
+			}
+
+			int toDownload = changed.size();
+			KnickerException failure = null;
+			for (MirroredList downloaded : download(changed)) {
+				if (downloaded.failure == null) {
+					next.put(downloaded.wordList.getPermalink(), downloaded);
+				} else if (failure == null) {
+					failure = downloaded.failure;
+				}
+			}
+			// a list that failed and had no old copy is left out
+			next.values().removeAll(Collections.singleton(null));
+
+			boolean modified = toDownload > 0 || !next.keySet().equals(current.keySet());
+			lists = Collections.unmodifiableMap(next);
+			lastRefreshMillis = System.currentTimeMillis();
+			lastDownloadCount = toDownload;
+			if (modified && file != null) {
+				save(next);
+			}
+			if (failure != null) {
+				throw failure;
+			}
+			return toDownload;
+		}
+	}
+
+
+	/*
+	 * Download the lists, up to concurrency at a time, on the client's
+	 * executor. Failures are returned, not thrown.
+	 */
+	private List<MirroredList> download(final Queue<WordList> changed) throws KnickerException {
+		final List<MirroredList> downloaded = Collections.synchronizedList(new ArrayList<MirroredList>());
+		Callable<Void> worker = new Callable<Void>() {
+			@Override
+			public Void call() {
+				WordList wordList;
+				while ((wordList = changed.poll()) != null) {
+					downloaded.add(fetch(wordList));
+				}
+				return null;
+			}
+		};
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		int workers = Math.min(concurrency, changed.size());
+		for (int i = 0; i < workers; i++) {
+			FutureTask<Void> task = new FutureTask<Void>(worker);
+			futures.add(task);
+			if (i == workers - 1) {
+				// the calling thread does its share
+				task.run();
+			} else {
+				try {
+					client.getExecutor().execute(task);
+				} catch (RejectedExecutionException e) {
+					task.run();
+				}
+			}
+		}
+		for (Future<Void> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new KnickerException("Interrupted while downloading word lists.", e);
+			} catch (ExecutionException e) {
+				throw new KnickerException("Error while downloading word lists.", e.getCause());
+			}
+		}
+		return downloaded;
+	}
+
+
+	private MirroredList fetch(WordList wordList) {
+		List<WordListWord> words = new ArrayList<WordListWord>();
+		try {
+			for (int skip = 0; ; skip += PAGE_SIZE) {
+				List<WordListWord> page = client.getWordsFromList(token, wordList.getPermalink(), null, null,
+						skip, PAGE_SIZE);
+				words.addAll(page);
+				if (page.size() < PAGE_SIZE) {
+					break;
+				}
+			}
+		} catch (KnickerException e) {
+			return new MirroredList(wordList, null, e);
+		}
+		return new MirroredList(wordList, words, null);
+	}
+
+
+	/**
+	 * @param permalink the permalink of a list.
+	 * @param word      a word.
+	 * @return true if the mirrored list contains the word.
+	 */
+	public boolean contains(String permalink, String word) {
+		MirroredList copy = lists.get(permalink);
+		return copy != null && copy.index.containsKey(word);
+	}
+
+
+	/**
+	 * @param permalink the permalink of a list.
+	 * @return the mirrored words of the list, in the order the server listed
+	 *         them, or null if the list is not mirrored. The list cannot be modified.
+	 */
+	public List<WordListWord> getWords(String permalink) {
+		MirroredList copy = lists.get(permalink);
+		return copy == null ? null : copy.words;
+	}
+
+
+	/**
+	 * @param permalink the permalink of a list.
+	 * @param word      a word.
+	 * @return the list's entry for the word, or null if it is not in the mirrored list.
+	 */
+	public WordListWord getWord(String permalink, String word) {
+		MirroredList copy = lists.get(permalink);
+		return copy == null ? null : copy.index.get(word);
+	}
+
+
+	/**
+	 * @param permalink the permalink of a list.
+	 * @return the list's details as of the last refresh, or null if it is not mirrored.
+	 */
+	public WordList getWordList(String permalink) {
+		MirroredList copy = lists.get(permalink);
+		return copy == null ? null : copy.wordList;
+	}
+
+
+	/**
+	 * @return details of all mirrored lists, in the order the server listed them.
+	 */
+	public List<WordList> getWordLists() {
+		List<WordList> wordLists = new ArrayList<WordList>();
+		for (MirroredList copy : lists.values()) {
+			wordLists.add(copy.wordList);
+		}
+		return wordLists;
+	}
+
+
+	/**
+	 * @param word a word.
+	 * @return permalinks of the mirrored lists that contain the word.
+	 */
+	public List<String> getListsContaining(String word) {
+		List<String> permalinks = new ArrayList<String>();
+		for (MirroredList copy : lists.values()) {
+			if (copy.index.containsKey(word)) {
+				permalinks.add(copy.wordList.getPermalink());
+			}
+		}
+		return permalinks;
+	}
+
+
+	/**
+	 * @return time of the last refresh, in milliseconds since the epoch, or 0 if there has been none.
+	 */
+	public long getLastRefreshMillis() {
+		return lastRefreshMillis;
+	}
+
+
+	/**
+	 * @return number of lists the last refresh downloaded, including any that failed.
+	 */
+	public int getLastDownloadCount() {
+		return lastDownloadCount;
+	}
+
+
+	public File getFile() {
+		return file;
+	}
+
+
+	private static Map<String, MirroredList> load(File file) {
+		if (!file.exists()) {
+			return Collections.emptyMap();
+		}
+		Map<String, MirroredList> loaded = new LinkedHashMap<String, MirroredList>();
+		try {
+			InputStream in = new FileInputStream(file);
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try {
+				byte[] buffer = new byte[8192];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					bytes.write(buffer, 0, read);
+				}
+			} finally {
+				in.close();
+			}
+			for (Object item : (List<?>) DtoCodec.decode(bytes.toByteArray())) {
+				List<?> pair = (List<?>) item;
+				WordList wordList = (WordList) pair.get(0);
+				List<WordListWord> words = new ArrayList<WordListWord>();
+				for (Object word : (List<?>) pair.get(1)) {
+					words.add((WordListWord) word);
+				}
+				loaded.put(wordList.getPermalink(), new MirroredList(wordList, words, null));
+			}
+		} catch (Exception e) {
+			// the mirror is rebuilt by the next refresh
+			KnickerLogger.getLogger().log("Could not read word list mirror " + file + ".", e);
+			return Collections.emptyMap();
+		}
+		return Collections.unmodifiableMap(loaded);
+	}
+
+
+	/*
+	 * Write the mirror to a new file and rename it over the old one, so a
+	 * crash leaves either the old mirror or the new one.
+	 */
+	private void save(Map<String, MirroredList> mirrored) throws KnickerException {
+		List<Object> items = new ArrayList<Object>();
+		for (MirroredList copy : mirrored.values()) {
+			List<Object> pair = new ArrayList<Object>();
+			pair.add(copy.wordList);
+			pair.add(copy.words);
+			items.add(pair);
+		}
+		File temp = new File(file.getPath() + ".tmp");
+		try {
+			FileOutputStream out = new FileOutputStream(temp);
+			try {
+				out.write(DtoCodec.encode(items));
+				out.getFD().sync();
+			} finally {
+				out.close();
+			}
+			if (file.exists() && !file.delete()) {
+				throw new IOException("Could not delete " + file + ".");
+			}
+			if (!temp.renameTo(file)) {
+				throw new IOException("Could not rename " + temp + " to " + file + ".");
+			}
+		} catch (IOException e) {
+			throw new KnickerException("Could not save word list mirror " + file + ".", e);
+		}
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ lists=").append(this.lists.size()).append(" | ");
+		sb.append("file=").append(this.file).append(" | ");
+		sb.append("lastRefreshMillis=").append(this.lastRefreshMillis).append(" ]");
+
+		return sb.toString();
+	}
+
+
+	/*
+	 * The copy of one list. The words are indexed by word for lookups.
+	 */
+	private static class MirroredList {
+		final WordList wordList;
+		final List<WordListWord> words;
+		final Map<String, WordListWord> index;
+		final KnickerException failure;
+
+
+		MirroredList(WordList wordList, List<WordListWord> words, KnickerException failure) {
+			this.wordList = wordList;
+			this.failure = failure;
+			if (words == null) {
+				this.words = null;
+				this.index = null;
+			} else {
+				this.words = Collections.unmodifiableList(words);
+				this.index = new HashMap<String, WordListWord>(words.size() * 4 / 3 + 1);
+				for (WordListWord word : words) {
+					if (word.getWord() != null) {
+						index.put(word.getWord(), word);
+					}
+				}
+			}
+		}
+
+
+		/*
+		 * The copy is current if the list has not been updated and has the
+		 * same number of words. Without an update time, only the count is
+		 * compared.
+		 */
+		boolean isCurrent(WordList remote) {
+			return remote.getNumberWordsInList() == wordList.getNumberWordsInList()
+					&& equal(remote.getUpdatedAt(), wordList.getUpdatedAt());
+		}
+
+
+		private static boolean equal(String a, String b) {
+			return a == null ? b == null : a.equals(b);
+		}
+	}
+
+
+	public static class Builder {
+
+		private final KnickerClient client;
+
+		private final AuthenticationToken token;
+
+		private int concurrency = DEFAULT_CONCURRENCY;
+
+		private File file;
+
+
+		/**
+		 * @param client the client used to read the lists.
+		 * @param token  authentication token of the user whose lists are mirrored.
+		 */
+		public Builder(KnickerClient client, AuthenticationToken token) {
+			this.client = client;
+			this.token = token;
+		}
+
+
+		/**
+		 * @param concurrency number of lists downloaded at a time. The default
+		 *                    is <code>DEFAULT_CONCURRENCY</code>.
+		 * @return this builder.
+		 */
+		public Builder concurrency(int concurrency) {
+			this.concurrency = concurrency;
+			return this;
+		}
+
+
+		/**
+		 * @param file file the mirror is saved in and loaded from. If null,
+		 *             which is the default, the mirror is only held in memory.
+		 * @return this builder.
+		 */
+		public Builder file(File file) {
+			this.file = file;
+			return this;
+		}
+
+
+		/**
+		 * @return the new mirror, holding the lists saved in the file, if any.
+		 */
+		public WordListMirror build() {
+			if (client == null) {
+				throw new IllegalArgumentException("Client cannot be null.");
+			}
+			if (token == null) {
+				throw new IllegalArgumentException("Authentication token cannot be null.");
+			}
+			if (concurrency < 1) {
+				throw new IllegalArgumentException("Concurrency must be at least 1.");
+			}
+			return new WordListMirror(this);
+		}
+	}
+}
@@ -0,0 +1,826 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.dto.WordList;
+import net.jeremybrooks.knicker.logger.KnickerLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Buffers word list changes and sends them in batches.
+ * <p/>
+ * <code>addWord</code>, <code>deleteWord</code> and <code>updateList</code>
+ * return at once. The changes to each list are held for a short window, or
+ * until the size cap is reached, and then sent as one
+ * <code>addWordsToList</code>, one <code>deleteWordsFromList</code> and one
+ * <code>updateWordList</code> request:
+ * <code>
+ * WordListWriter writer = new WordListWriter.Builder(client).window(500, TimeUnit.MILLISECONDS).build();
+ * Future&lt;Void&gt; added = writer.addWord(token, "my-list", "zebra");
+ * ...
+ * writer.close();
+ * </code>
+ * Changes to the same word in the same window are combined. An add followed
+ * by a delete cancels out, and neither is sent, so a word that was already on
+ * the list before the add stays on it. A delete followed by an add sends only
+ * the add. Repeating a change sends it once. Only the last update to a list's
+ * details is sent.
+ * <p/>
+ * Each change returns a future that completes when the batch holding it has
+ * been sent, or when the change was cancelled out. It fails with the
+ * <code>KnickerException</code> of the batch if the request failed; failed
+ * batches are not retried. The futures cannot be cancelled.
+ * <p/>
+ * <code>flush</code> sends all buffered changes at once. <code>close</code>
+ * flushes and stops the writer. Unless disabled in the builder, the writer is
+ * also flushed when the JVM shuts down.
+ * <p/>
+ * Given a log file, the writer records each change on disk before accepting
+ * it, so changes survive a crash. A new writer opened on the same file sends
+ * the changes the server never answered. Changes are removed from the log
+ * once the server has answered them, whether it accepted them or not;
+ * changes whose request got no answer at all, such as on a network failure,
+ * stay in the log and are sent again the next time it is opened.
+ * <p/>
+ * The log does not hold tokens, only a hash of each one, so the tokens of
+ * the changes to send again are given to the builder. Changes made with a
+ * token that is not given stay in the log.
+ * <code>
+ * WordListWriter writer = new WordListWriter.Builder(client)
+ *         .log(new File("lists.wal"))
+ *         .replayTokens(token)
+ *         .build();
+ * </code>
+ * Only one writer may use a log file at a time.
+ * <p/>
+ * Writers are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class WordListWriter {
+
+	/* Default time changes are buffered, in milliseconds. */
+	public static final long DEFAULT_WINDOW_MILLIS = 1000;
+
+	/* Default number of changes to one list that are sent at once. */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+	private static final Runnable NOTHING = new Runnable() {
+		@Override
+		public void run() {
+		}
+	};
+
+	private final KnickerClient client;
+
+	private final long windowMillis;
+
+	private final int maxBatchSize;
+
+	private final MutationLog log;
+
+	private final int recoveredCount;
+
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	private final ConcurrentMap<String, ListBuffer> lists = new ConcurrentHashMap<String, ListBuffer>();
+
+	private final Thread shutdownHook;
+
+	private volatile boolean closed;
+
+	private final AtomicLong changes = new AtomicLong();
+
+	private final AtomicLong cancelledOut = new AtomicLong();
+
+	private final AtomicLong batches = new AtomicLong();
+
+	private final AtomicLong failedBatches = new AtomicLong();
+
+
+	private WordListWriter(Builder builder) throws KnickerException {
+		this.client = builder.client.withContext(RequestContext.create());
+		this.windowMillis = builder.windowMillis;
+		this.maxBatchSize = builder.maxBatchSize;
+		this.scheduler = new ScheduledThreadPoolExecutor(1, new KnickerClient.DaemonThreadFactory("knicker-list-writer"));
+		if (builder.logFile == null) {
+			this.log = null;
+			this.recoveredCount = 0;
+		} else {
+			try {
+				this.log = MutationLog.open(builder.logFile);
+			} catch (IOException e) {
+				scheduler.shutdownNow();
+				throw new KnickerException("Could not open mutation log " + builder.logFile + ".", e);
+			}
+			Map<String, AuthenticationToken> tokens = new HashMap<String, AuthenticationToken>();
+			for (AuthenticationToken token : builder.replayTokens) {
+				tokens.put(MutationLog.reference(token), token);
+			}
+			int replayed = 0;
+			int kept = 0;
+			for (MutationLog.Entry entry : log.getRecovered()) {
+				AuthenticationToken token = tokens.get(entry.tokenReference);
+				if (token == null) {
+					// never confirmed, so it stays in the log for a writer given its token
+					kept++;
+					continue;
+				}
+				ListBuffer buffer = buffer(token, entry.permalink);
+				int size;
+				synchronized (buffer) {
+					size = buffer.put(token, entry.op, entry.word, entry.wordList, new Completion(entry.sequence));
+				}
+				if (size == 1) {
+					schedule(buffer, windowMillis);
+				}
+				replayed++;
+			}
+			this.recoveredCount = replayed;
+			if (replayed > 0) {
+				KnickerLogger.getLogger().log("Replaying " + replayed + " word list changes from " + builder.logFile + ".");
+			}
+			if (kept > 0) {
+				KnickerLogger.getLogger().log("Keeping " + kept + " word list changes in " + builder.logFile
+						+ " whose tokens were not given.");
+			}
+		}
+		if (builder.flushOnExit) {
+			this.shutdownHook = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					flushAll();
+				}
+			}, "knicker-list-writer-exit");
+			Runtime.getRuntime().addShutdownHook(shutdownHook);
+		} else {
+			this.shutdownHook = null;
+		}
+	}
+
+
+	/**
+	 * Buffer the addition of a word to a list.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink permalink id of the list.
+	 * @param word      the word to add.
+	 * @return future that completes when the change has been sent or cancelled out.
+	 * @throws KnickerException      if any parameters are null or empty, or if
+	 *                               the change could not be written to the log.
+	 * @throws IllegalStateException if the writer has been closed.
+	 */
+	public Future<Void> addWord(AuthenticationToken token, String permalink, String word) throws KnickerException {
+		checkWord(word);
+		return enqueue(token, permalink, MutationLog.ADD, word.trim(), null);
+	}
+
+
+	/**
+	 * Buffer the deletion of a word from a list.
+	 *
+	 * @param token     authentication token.
+	 * @param permalink permalink id of the list.
+	 * @param word      the word to delete.
+	 * @return future that completes when the change has been sent or cancelled out.
+	 * @throws KnickerException      if any parameters are null or empty, or if
+	 *                               the change could not be written to the log.
+	 * @throws IllegalStateException if the writer has been closed.
+	 */
+	public Future<Void> deleteWord(AuthenticationToken token, String permalink, String word) throws KnickerException {
+		checkWord(word);
+		return enqueue(token, permalink, MutationLog.DELETE, word.trim(), null);
+	}
+
+
+	/**
+	 * Buffer an update to a list's details. The update is sent after the
+	 * buffered word changes to the same list.
+	 *
+	 * @param token    authentication token.
+	 * @param wordList the new details; its permalink identifies the list.
+	 * @return future that completes when the update has been sent or replaced by a later one.
+	 * @throws KnickerException      if any parameters are null, or if the
+	 *                               update could not be written to the log.
+	 * @throws IllegalStateException if the writer has been closed.
+	 */
+	public Future<Void> updateList(AuthenticationToken token, WordList wordList) throws KnickerException {
+		if (wordList == null) {
+			throw new KnickerException("Parameter wordList required.");
+		}
+		return enqueue(token, wordList.getPermalink(), MutationLog.UPDATE, null, wordList);
+	}
+
+
+	/**
+	 * Send every buffered change now, and wait until they have been sent.
+	 * Failures are reported through the futures of the changes.
+	 */
+	public void flush() {
+		flushAll();
+	}
+
+
+	/**
+	 * Flush the buffered changes and stop the writer, closing its log.
+	 * Changes made after this is called are rejected. Calling this more than
+	 * once has no effect.
+	 */
+	public void close() {
+		closed = true;
+		flushAll();
+		scheduler.shutdownNow();
+		try {
+			scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// flush again once nothing else can be sending
+		flushAll();
+		if (log != null) {
+			try {
+				log.close();
+			} catch (IOException e) {
+				KnickerLogger.getLogger().log("Could not close mutation log " + log.getFile() + ".", e);
+			}
+		}
+		if (shutdownHook != null) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException e) {
+				// the JVM is already shutting down and the hook is running
+			}
+		}
+	}
+
+
+	/**
+	 * @return number of changes buffered and not yet sent.
+	 */
+	public int getPendingCount() {
+		int count = 0;
+		for (ListBuffer buffer : lists.values()) {
+			count += buffer.size();
+		}
+		return count;
+	}
+
+
+	/**
+	 * @return number of changes accepted.
+	 */
+	public long getChangeCount() {
+		return changes.get();
+	}
+
+
+	/**
+	 * @return number of changes that were combined with a later change and not sent.
+	 */
+	public long getCancelledOutCount() {
+		return cancelledOut.get();
+	}
+
+
+	/**
+	 * @return number of requests sent.
+	 */
+	public long getBatchCount() {
+		return batches.get();
+	}
+
+
+	/**
+	 * @return number of requests that failed.
+	 */
+	public long getFailedBatchCount() {
+		return failedBatches.get();
+	}
+
+
+	/**
+	 * @return number of changes read back from the log and sent again when
+	 *         the writer was created.
+	 */
+	public int getRecoveredCount() {
+		return recoveredCount;
+	}
+
+
+	/**
+	 * @return the log file, or null if changes are not logged.
+	 */
+	public File getLogFile() {
+		return log == null ? null : log.getFile();
+	}
+
+
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+
+
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(this.getClass().getName());
+		sb.append(": [ windowMillis=").append(this.windowMillis).append(" | ");
+		sb.append("maxBatchSize=").append(this.maxBatchSize).append(" | ");
+		sb.append("logFile=").append(getLogFile()).append(" | ");
+		sb.append("pending=").append(getPendingCount()).append(" | ");
+		sb.append("changes=").append(this.changes).append(" | ");
+		sb.append("cancelledOut=").append(this.cancelledOut).append(" | ");
+		sb.append("batches=").append(this.batches).append(" | ");
+		sb.append("failedBatches=").append(this.failedBatches).append(" | ");
+		sb.append("closed=").append(this.closed).append(" ]");
+
+		return sb.toString();
+	}
+
+
+	private static void checkWord(String word) throws KnickerException {
+		if (word == null || word.trim().isEmpty()) {
+			throw new KnickerException("Parameter word required.");
+		}
+	}
+
+
+	/*
+	 * Log a change, if there is a log, and buffer it. The change is logged
+	 * and buffered under the list's lock so the log holds each list's
+	 * changes in the order they were buffered, and is on disk before this
+	 * returns. The closed flag is checked again under the lock: close sets
+	 * it before flushing, so a change either lands in time for that flush
+	 * or is rejected.
+	 */
+	private Future<Void> enqueue(AuthenticationToken token, String permalink, byte op, String word, WordList wordList)
+			throws KnickerException {
+		if (token == null || token.getToken() == null) {
+			throw new KnickerException("Authentication token required.");
+		}
+		if (permalink == null || permalink.isEmpty()) {
+			throw new KnickerException("Parameter permalinkId required.");
+		}
+		if (closed) {
+			throw new IllegalStateException("The writer has been closed.");
+		}
+
+		ListBuffer buffer = buffer(token, permalink);
+		Completion completion;
+		int size;
+		synchronized (buffer) {
+			if (closed) {
+				throw new IllegalStateException("The writer has been closed.");
+			}
+			long sequence = 0;
+			if (log != null) {
+				try {
+					sequence = log.append(op, token, permalink, word, wordList);
+				} catch (IOException e) {
+					throw new KnickerException("Could not write to mutation log " + log.getFile() + ".", e);
+				}
+			}
+			completion = new Completion(sequence);
+			size = buffer.put(token, op, word, wordList, completion);
+		}
+		changes.incrementAndGet();
+		if (log != null) {
+			try {
+				log.sync(completion.sequence);
+			} catch (IOException e) {
+				throw new KnickerException("Could not sync mutation log " + log.getFile()
+						+ "; the change may still be sent.", e);
+			}
+		}
+		if (size == 1) {
+			schedule(buffer, windowMillis);
+		} else if (size >= maxBatchSize) {
+			schedule(buffer, 0);
+		}
+		return completion;
+	}
+
+
+	private ListBuffer buffer(AuthenticationToken token, String permalink) {
+		String key = token.getToken() + '\n' + permalink;
+		ListBuffer buffer = lists.get(key);
+		if (buffer == null) {
+			ListBuffer created = new ListBuffer(permalink);
+			buffer = lists.putIfAbsent(key, created);
+			if (buffer == null) {
+				buffer = created;
+			}
+		}
+		return buffer;
+	}
+
+
+	private void schedule(final ListBuffer buffer, long delayMillis) {
+		try {
+			scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					buffer.flush();
+				}
+			}, delayMillis, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			// closing; close() flushes the buffer
+		}
+	}
+
+
+	private void flushAll() {
+		for (ListBuffer buffer : lists.values()) {
+			buffer.flush();
+		}
+	}
+
+
+	/*
+	 * Complete the futures of changes the server has answered, or that need
+	 * not be sent, and remove them from the log. A null error means success.
+	 */
+	private void settle(List<Completion> completions, Throwable error) {
+		List<Long> sequences = new ArrayList<Long>(completions.size());
+		for (Completion completion : completions) {
+			if (error == null) {
+				completion.succeed();
+			} else {
+				completion.fail(error);
+			}
+			if (completion.sequence != 0) {
+				sequences.add(completion.sequence);
+			}
+		}
+		if (log != null && !sequences.isEmpty()) {
+			try {
+				log.confirm(sequences);
+			} catch (IOException e) {
+				// the changes will be sent again when the log is next opened
+				KnickerLogger.getLogger().log("Could not write to mutation log " + log.getFile() + ".", e);
+			}
+		}
+	}
+
+
+	/*
+	 * Send one request for a list, completing the futures of its changes.
+	 */
+	private void send(AuthenticationToken token, String permalink, byte op, List<String> words, WordList wordList,
+					  List<Completion> completions) {
+		if (completions.isEmpty()) {
+			return;
+		}
+		batches.incrementAndGet();
+		try {
+			if (op == MutationLog.ADD) {
+				client.addWordsToList(token, permalink, words);
+			} else if (op == MutationLog.DELETE) {
+				client.deleteWordsFromList(token, permalink, words);
+			} else {
+				client.updateWordList(token, wordList);
+			}
+			settle(completions, null);
+		} catch (KnickerException e) {
+			failedBatches.incrementAndGet();
+			KnickerLogger.getLogger().log("Could not " + describe(op, words) + " in list " + permalink + ".", e);
+			if (log != null && e.getCause() instanceof IOException) {
+				// no answer from the server: keep the changes in the log to send again
+				for (Completion completion : completions) {
+					completion.fail(e);
+				}
+			} else {
+				settle(completions, e);
+			}
+		} catch (RuntimeException e) {
+			failedBatches.incrementAndGet();
+			settle(completions, e);
+		}
+	}
+
+
+	private static String describe(byte op, List<String> words) {
+		if (op == MutationLog.UPDATE) {
+			return "update details";
+		}
+		return (op == MutationLog.ADD ? "add " : "delete ") + words.size() + " words";
+	}
+
+
+	/*
+	 * The buffered changes to one list: one per word, in the order the words
+	 * were first changed, and the latest update to the list's details.
+	 */
+	private class ListBuffer {
+		private final String permalink;
+
+		/* Guarded by this. */
+		private Map<String, Change> words = new LinkedHashMap<String, Change>();
+
+		private Change update;
+
+		private AuthenticationToken token;
+
+		/* Held while a batch is sent, so batches to one list go out in order. */
+		private final Object sending = new Object();
+
+
+		private ListBuffer(String permalink) {
+			this.permalink = permalink;
+		}
+
+
+		/*
+		 * Combine a change with any buffered change to the same word or list,
+		 * and return the number of changes now buffered. Must be called
+		 * holding this buffer's lock.
+		 */
+		private int put(AuthenticationToken token, byte op, String word, WordList wordList, Completion completion) {
+			this.token = token;
+			if (op == MutationLog.UPDATE) {
+				if (update == null) {
+					update = new Change(op);
+				} else {
+					cancelledOut.addAndGet(update.completions.size());
+				}
+				update.wordList = wordList;
+				update.completions.add(completion);
+				return size();
+			}
+
+			Change change = words.get(word);
+			if (change == null) {
+				change = new Change(op);
+				words.put(word, change);
+			} else if (change.op == MutationLog.ADD && op == MutationLog.DELETE) {
+				// add then delete: neither is sent
+				words.remove(word);
+				List<Completion> settled = new ArrayList<Completion>(change.completions);
+				settled.add(completion);
+				cancelledOut.addAndGet(settled.size());
+				settle(settled, null);
+				return size();
+			} else if (change.op != op) {
+				cancelledOut.addAndGet(change.completions.size());
+				change.op = op;
+			}
+			change.completions.add(completion);
+			return size();
+		}
+
+
+		private synchronized int size() {
+			return words.size() + (update == null ? 0 : 1);
+		}
+
+
+		/*
+		 * Send everything buffered for this list: adds, then deletes, then
+		 * the update.
+		 */
+		private void flush() {
+			synchronized (sending) {
+				Map<String, Change> batch;
+				Change batchUpdate;
+				AuthenticationToken batchToken;
+				synchronized (this) {
+					if (words.isEmpty() && update == null) {
+						return;
+					}
+					batch = words;
+					batchUpdate = update;
+					batchToken = token;
+					words = new LinkedHashMap<String, Change>();
+					update = null;
+				}
+				for (byte op : new byte[]{MutationLog.ADD, MutationLog.DELETE}) {
+					List<String> chunk = new ArrayList<String>();
+					List<Completion> completions = new ArrayList<Completion>();
+					for (Map.Entry<String, Change> entry : batch.entrySet()) {
+						if (entry.getValue().op == op) {
+							chunk.add(entry.getKey());
+							completions.addAll(entry.getValue().completions);
+							if (chunk.size() == maxBatchSize) {
+								send(batchToken, permalink, op, chunk, null, completions);
+								chunk = new ArrayList<String>();
+								completions = new ArrayList<Completion>();
+							}
+						}
+					}
+					send(batchToken, permalink, op, chunk, null, completions);
+				}
+				if (batchUpdate != null) {
+					send(batchToken, permalink, MutationLog.UPDATE, Collections.<String>emptyList(),
+							batchUpdate.wordList, batchUpdate.completions);
+				}
+			}
+		}
+	}
+
+
+	/*
+	 * The net change to one word or list, and the futures of the calls that made it.
+	 */
+	private static class Change {
+		private byte op;
+		private WordList wordList;
+		private final List<Completion> completions = new ArrayList<Completion>(1);
+
+
+		private Change(byte op) {
+			this.op = op;
+		}
+	}
+
+
+	/*
+	 * A future completed by the writer, with the log sequence number of its
+	 * change, or zero if there is no log. It cannot be cancelled.
+	 */
+	private static class Completion extends FutureTask<Void> {
+		private final long sequence;
+
+
+		private Completion(long sequence) {
+			super(NOTHING, null);
+			this.sequence = sequence;
+		}
+
+
+		private void succeed() {
+			set(null);
+		}
+
+
+		private void fail(Throwable t) {
+			setException(t);
+		}
+
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return false;
+		}
+	}
+
+
+	/**
+	 * Builds <code>WordListWriter</code> instances.
+	 */
+	public static class Builder {
+
+		private final KnickerClient client;
+
+		private long windowMillis = DEFAULT_WINDOW_MILLIS;
+
+		private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+		private boolean flushOnExit = true;
+
+		private File logFile;
+
+		private final List<AuthenticationToken> replayTokens = new ArrayList<AuthenticationToken>();
+
+
+		/**
+		 * @param client the client that sends the changes.
+		 */
+		public Builder(KnickerClient client) {
+			this.client = client;
+		}
+
+
+		/**
+		 * @param window how long the first change to a list is buffered
+		 *               before its batch is sent. The default is
+		 *               <code>DEFAULT_WINDOW_MILLIS</code>.
+		 * @param unit   unit of the window.
+		 * @return this builder.
+		 */
+		public Builder window(long window, TimeUnit unit) {
+			this.windowMillis = unit.toMillis(window);
+			return this;
+		}
+
+
+		/**
+		 * @param maxBatchSize number of buffered changes to one list that
+		 *                     sends the batch before the window ends, and
+		 *                     the most words sent in one request. The default
+		 *                     is <code>DEFAULT_MAX_BATCH_SIZE</code>.
+		 * @return this builder.
+		 */
+		public Builder maxBatchSize(int maxBatchSize) {
+			this.maxBatchSize = maxBatchSize;
+			return this;
+		}
+
+
+		/**
+		 * @param flushOnExit true, the default, to send buffered changes when
+		 *                    the JVM shuts down.
+		 * @return this builder.
+		 */
+		public Builder flushOnExit(boolean flushOnExit) {
+			this.flushOnExit = flushOnExit;
+			return this;
+		}
+
+
+		/**
+		 * The log holds the words and list details of each change and the
+		 * SHA-256 hash of its token, never the token itself. It is created
+		 * readable and writable only by its owner, where the file system
+		 * allows; it is kept after the writer closes.
+		 *
+		 * @param logFile file to record changes in before they are accepted.
+		 *                If it holds changes from an earlier writer, those
+		 *                made with a token given to <code>replayTokens</code>
+		 *                are sent again. If null, which is the default,
+		 *                changes are only held in memory.
+		 * @return this builder.
+		 */
+		public Builder log(File logFile) {
+			this.logFile = logFile;
+			return this;
+		}
+
+
+		/**
+		 * @param tokens tokens to send the changes left in the log by an
+		 *               earlier writer with. Changes made with any other
+		 *               token stay in the log.
+		 * @return this builder.
+		 */
+		public Builder replayTokens(AuthenticationToken... tokens) {
+			for (AuthenticationToken token : tokens) {
+				if (token == null || token.getToken() == null) {
+					throw new IllegalArgumentException("Replay tokens cannot be null.");
+				}
+				replayTokens.add(token);
+			}
+			return this;
+		}
+
+
+		/**
+		 * @return the new writer.
+		 * @throws KnickerException if the log file cannot be opened.
+		 */
+		public WordListWriter build() throws KnickerException {
+			if (client == null) {
+				throw new IllegalArgumentException("Client cannot be null.");
+			}
+			if (windowMillis < 0) {
+				throw new IllegalArgumentException("Window cannot be negative.");
+			}
+			if (maxBatchSize < 1) {
+				throw new IllegalArgumentException("Maximum batch size must be at least 1.");
+			}
+			return new WordListWriter(this);
+		}
+	}
+}
@@ -19,15 +19,16 @@
 package net.jeremybrooks.knicker;
 
 
+import net.jeremybrooks.knicker.dto.DefinitionSearchResult;
 import net.jeremybrooks.knicker.dto.DefinitionSearchResults;
+import net.jeremybrooks.knicker.dto.SearchResult;
 import net.jeremybrooks.knicker.dto.SearchResults;
 import net.jeremybrooks.knicker.dto.Word;
 import net.jeremybrooks.knicker.dto.WordOfTheDay;
+import net.jeremybrooks.knicker.flow.Flow;
 
 import javax.swing.SortOrder;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 
@@ -43,6 +44,11 @@ import java.util.Set;
  * The methods are all public static. Most of the methods will return instances
  * of classes in the <code>net.jeremybrooks.knicker.dto</code> package.
  * <p/>
+ * These methods use the default client returned by
+ * <code>KnickerClient.getDefault()</code>. To use a different API key,
+ * endpoint, timeout or transport, create a <code>KnickerClient</code> and
+ * call the same methods on it.
+ * <p/>
  * If there are errors, a <code>KnickerException</code> will be thrown.
  *
  * @author Jeremy Brooks
@@ -93,76 +99,7 @@ public class WordsApi extends Knicker {
 								  Set<PartOfSpeech> excludePartOfSpeech, int minCorpusCount,
 								  int maxCorpusCount, int minDictionaryCount, int maxDictionaryCount,
 								  int minLength, int maxLength) throws KnickerException {
-
-
-		Map<String, String> params = new HashMap<String, String>();
-
-		if (hasDictionaryDef) {
-			params.put("hasDictionaryDef", "true");
-		} else {
-			params.put("hasDictionaryDef", "false");
-		}
-
-
-		if (includePartOfSpeech != null && includePartOfSpeech.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (PartOfSpeech sd : includePartOfSpeech) {
-				sb.append(sd.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("includePartOfSpeech", sb.toString());
-		}
-
-		if (excludePartOfSpeech != null && excludePartOfSpeech.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (PartOfSpeech sd : excludePartOfSpeech) {
-				sb.append(sd.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("excludePartOfSpeech", sb.toString());
-		}
-
-		if (minCorpusCount >= 0) {
-			params.put("minCorpusCount", Integer.toString(minCorpusCount));
-		}
-		if (maxCorpusCount > 0) {
-			params.put("maxCorpusCount", Integer.toString(maxCorpusCount));
-		} else {
-			params.put("maxCorpusCount", "-1");
-		}
-
-		if (minDictionaryCount > 0) {
-			params.put("minDictionaryCount", Integer.toString(minDictionaryCount));
-		}
-		if (maxDictionaryCount > 0) {
-			params.put("maxDictionaryCount", Integer.toString(maxDictionaryCount));
-		} else {
-			params.put("maxDictionaryCount", "-1");
-		}
-
-		if (minLength > 0) {
-			params.put("minLength", Integer.toString(minLength));
-		}
-		if (maxLength > 0) {
-			params.put("maxLength", Integer.toString(maxLength));
-		} else {
-			params.put("maxLength", "-1");
-		}
-
-
-		StringBuilder uri = new StringBuilder(WORDS_ENDPOINT);
-		uri.append("/randomWord");
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		return DTOBuilder.buildWord(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().randomWord(hasDictionaryDef, includePartOfSpeech, excludePartOfSpeech, minCorpusCount, maxCorpusCount, minDictionaryCount, maxDictionaryCount, minLength, maxLength);
 	}
 
 
@@ -213,80 +150,7 @@ public class WordsApi extends Knicker {
 										 int maxCorpusCount, int minDictionaryCount, int maxDictionaryCount,
 										 int minLength, int maxLength, SortBy sortBy,
 										 SortDirection sortDirection, int limit) throws KnickerException {
-
-		Map<String, String> params = new HashMap<String, String>();
-
-		if (hasDictionaryDef) {
-			params.put("hasDictionaryDef", "true");
-		} else {
-			params.put("hasDictionaryDef", "false");
-		}
-
-		if (includePartOfSpeech != null && includePartOfSpeech.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (PartOfSpeech sd : includePartOfSpeech) {
-				sb.append(sd.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("includePartOfSpeech", sb.toString());
-		}
-
-		if (excludePartOfSpeech != null && excludePartOfSpeech.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (PartOfSpeech sd : excludePartOfSpeech) {
-				sb.append(sd.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("excludePartOfSpeech", sb.toString());
-		}
-
-		if (minCorpusCount > 0) {
-			params.put("minCorpusCount", Integer.toString(minCorpusCount));
-		}
-		if (maxCorpusCount > 0) {
-			params.put("maxCorpusCount", Integer.toString(maxCorpusCount));
-		}
-
-		if (minDictionaryCount > 0) {
-			params.put("minDictionaryCount", Integer.toString(minDictionaryCount));
-		}
-		if (maxDictionaryCount > 0) {
-			params.put("maxDictionaryCount", Integer.toString(maxDictionaryCount));
-		}
-
-		if (minLength > 0) {
-			params.put("minLength", Integer.toString(minLength));
-		}
-		if (maxLength > 0) {
-			params.put("maxLength", Integer.toString(maxLength));
-		}
-
-		if (sortBy != null) {
-			params.put("sortBy", sortBy.toString());
-		}
-
-		if (sortDirection != null) {
-			params.put("sortDirection", sortDirection.toString());
-		}
-
-		if (limit > 0) {
-			params.put("limit", Integer.toString(limit));
-		}
-
-
-		StringBuilder uri = new StringBuilder(WORDS_ENDPOINT);
-		uri.append("/randomWords");
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		return DTOBuilder.buildWords(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().randomWords(hasDictionaryDef, includePartOfSpeech, excludePartOfSpeech, minCorpusCount, maxCorpusCount, minDictionaryCount, maxDictionaryCount, minLength, maxLength, sortBy, sortDirection, limit);
 	}
 
 
@@ -297,7 +161,7 @@ public class WordsApi extends Knicker {
 	 * @throws KnickerException if there are any errors.
 	 */
 	public static WordOfTheDay wordOfTheDay() throws KnickerException {
-		return DTOBuilder.buildWordOfTheDay(Util.doGet(WORDS_ENDPOINT + "/wordOfTheDay"));
+		return KnickerClient.getDefault().wordOfTheDay();
 	}
 
 
@@ -341,74 +205,7 @@ public class WordsApi extends Knicker {
 									   int minDictionaryCount, int maxDictionaryCount,
 									   int minLength, int maxLength,
 									   int skip, int limit) throws KnickerException {
-
-		Map<String, String> params = new HashMap<String, String>();
-
-		if (caseSensitive) {
-			params.put("caseSensitive", "true");
-		} else {
-			params.put("caseSensitive", "false");
-		}
-
-		if (includePartOfSpeech != null && includePartOfSpeech.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (PartOfSpeech sd : includePartOfSpeech) {
-				sb.append(sd.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("includePartOfSpeech", sb.toString());
-		}
-
-		if (excludePartOfSpeech != null && excludePartOfSpeech.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (PartOfSpeech sd : excludePartOfSpeech) {
-				sb.append(sd.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("excludePartOfSpeech", sb.toString());
-		}
-
-		if (minCorpusCount > 0) {
-			params.put("minCorpusCount", Integer.toString(minCorpusCount));
-		}
-		if (maxCorpusCount > 0) {
-			params.put("maxCorpusCount", Integer.toString(maxCorpusCount));
-		}
-
-		if (minDictionaryCount > 0) {
-			params.put("minDictionaryCount", Integer.toString(minDictionaryCount));
-		}
-		if (maxDictionaryCount > 0) {
-			params.put("maxDictionaryCount", Integer.toString(maxDictionaryCount));
-		}
-
-		if (minLength > 0) {
-			params.put("minLength", Integer.toString(minLength));
-		}
-		if (maxLength > 0) {
-			params.put("maxLength", Integer.toString(maxLength));
-		}
-		if (skip > 0) {
-			params.put("skip", Integer.toString(skip));
-		}
-		if (limit > 0) {
-			params.put("limit", Integer.toString(limit));
-		}
-
-
-		StringBuilder uri = new StringBuilder(WORDS_ENDPOINT);
-		uri.append("/search/").append(query);
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
-
-		return DTOBuilder.buildSearchResults(Util.doGet(uri.toString()));
+		return KnickerClient.getDefault().search(query, caseSensitive, includePartOfSpeech, excludePartOfSpeech, minCorpusCount, maxCorpusCount, minDictionaryCount, maxDictionaryCount, minLength, maxLength, skip, limit);
 	}
 
 
@@ -454,114 +251,64 @@ public class WordsApi extends Knicker {
 															Set<SourceDictionary> excludeSourceDictionaries, Set<PartOfSpeech> includePartOfSpeech, Set<PartOfSpeech> excludePartOfSpeech,
 															int minCorpusCount, int maxCorpusCount, int minLength, int maxLength, ExpandTerms expandTerms, boolean includeTags,
 															SortBy sortBy, SortOrder sortOrder, int skip, int limit) throws KnickerException {
+		return KnickerClient.getDefault().reverseDictionary(query, findSenseForWord, includeSourceDictionaries, excludeSourceDictionaries, includePartOfSpeech, excludePartOfSpeech, minCorpusCount, maxCorpusCount, minLength, maxLength, expandTerms, includeTags, sortBy, sortOrder, skip, limit);
+	}
 
-		if (query == null || query.isEmpty()) {
-			throw new KnickerException("Query cannot be null or empty.");
-		}
-
-		Map<String, String> params = new HashMap<String, String>();
-
-		params.put("query", query);
-
-		if (findSenseForWord != null) {
-			params.put("findSenseForWord", findSenseForWord);
-		}
-
-		if (includeSourceDictionaries != null && includeSourceDictionaries.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (SourceDictionary sourceDictionary : includeSourceDictionaries) {
-				sb.append(sourceDictionary).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-			params.put("includeSourceDictionaries", sb.toString());
-		}
-
-		if (excludeSourceDictionaries != null && excludeSourceDictionaries.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (SourceDictionary sourceDictionary : excludeSourceDictionaries) {
-				sb.append(sourceDictionary).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-			params.put("excludeSourceDictionaries", sb.toString());
-		}
-
-
-		if (includePartOfSpeech != null && includePartOfSpeech.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (PartOfSpeech sd : includePartOfSpeech) {
-				sb.append(sd.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("includePartOfSpeech", sb.toString());
-		}
-
-		if (excludePartOfSpeech != null && excludePartOfSpeech.size() > 0) {
-			StringBuilder sb = new StringBuilder();
-			for (PartOfSpeech sd : excludePartOfSpeech) {
-				sb.append(sd.toString().trim().replaceAll("_", "-")).append(',');
-			}
-			if (sb.length() > 0) {
-				sb.deleteCharAt(sb.length() - 1);
-			}
-
-			params.put("excludePartOfSpeech", sb.toString());
-		}
-
-		if (minCorpusCount > 0) {
-			params.put("minCorpusCount", Integer.toString(minCorpusCount));
-		}
-
-		if (maxCorpusCount > 0) {
-			params.put("maxCorpusCount", Integer.toString(maxCorpusCount));
-		}
-
-		if (minLength > 0) {
-			params.put("minLength", Integer.toString(minLength));
-		}
-
-		if (maxLength > 0) {
-			params.put("maxLength", Integer.toString(maxLength));
-		}
-
-		if (expandTerms != null) {
-			params.put("expandTerms", expandTerms.toString());
-		}
-
-		params.put("includeTags", Boolean.toString(includeTags));
-
-		if (sortBy != null) {
-			params.put("sortBy", sortBy.toString());
-		}
-
-		if (sortOrder != null) {
-			params.put("sortOrder", sortOrder.toString());
-		}
-
-		if (skip < 0) {
-			params.put("skip", "0");
-		} else {
-			params.put("skip", Integer.toString(skip));
-		}
 
-		if (limit < 1) {
-			params.put("limit", "10");
-		} else {
-			params.put("limit", Integer.toString(limit));
-		}
+	/**
+	 * Publish search results, fetching pages as the subscriber requests items.
+	 *
+	 * @param query               the word to search for.
+	 * @param caseSensitive       search case sensitive.
+	 * @param includePartOfSpeech only include these parts of speech.
+	 * @param excludePartOfSpeech exclude these parts of speech.
+	 * @param minCorpusCount      minimum corpus frequency count for terms.
+	 * @param maxCorpusCount      maximum corpus frequency count for terms.
+	 * @param minDictionaryCount  minimum number of dictionary entries.
+	 * @param maxDictionaryCount  maximum number of dictionary entries.
+	 * @param minLength           minimum word length.
+	 * @param maxLength           maximum word length.
+	 * @param pageSize            number of results to fetch in each call.
+	 * @return publisher of search results.
+	 * @see #search(String, boolean, java.util.Set, java.util.Set, int, int, int, int, int, int, int, int)
+	 */
+	public static Flow.Publisher<SearchResult> searchPublisher(String query, boolean caseSensitive,
+				Set<PartOfSpeech> includePartOfSpeech, Set<PartOfSpeech> excludePartOfSpeech,
+				int minCorpusCount, int maxCorpusCount, int minDictionaryCount, int maxDictionaryCount,
+				int minLength, int maxLength, int pageSize) {
+		return KnickerClient.getDefault().searchPublisher(query, caseSensitive, includePartOfSpeech, excludePartOfSpeech, minCorpusCount, maxCorpusCount, minDictionaryCount, maxDictionaryCount, minLength, maxLength, pageSize);
+	}
 
-		StringBuilder uri = new StringBuilder(WORDS_ENDPOINT);
-		uri.append("/reverseDictionary");
-		if (params.size() > 0) {
-			uri.append('?').append(Util.buildParamList(params));
-		}
 
-		return DTOBuilder.buildDefinitionSearchResults(Util.doGet(uri.toString()));
+	/**
+	 * Publish reverse dictionary results, fetching pages as the subscriber
+	 * requests items.
+	 *
+	 * @param query                     search term.
+	 * @param findSenseForWord          restricts words and finds closest sense. Not sent in request if null.
+	 * @param includeSourceDictionaries only include these source dictionaries. Not sent in request if null.
+	 * @param excludeSourceDictionaries excludes these source dictionaries. Not sent in request if null.
+	 * @param includePartOfSpeech       only include these parts of speech. Not sent in request if null.
+	 * @param excludePartOfSpeech       excludes these parts of speech. Not sent in request if null.
+	 * @param minCorpusCount            minimum corpus frequency for terms. Not sent in request if zero.
+	 * @param maxCorpusCount            maximum corpus frequency for terms. Not sent in request if zero.
+	 * @param minLength                 minimum word length. Not sent in request if zero.
+	 * @param maxLength                 maximum word length. Not sent in request if zero.
+	 * @param expandTerms               expand terms. Not sent in request if null.
+	 * @param includeTags               return a closed set of XML tags in response.
+	 * @param sortBy                    attribute to sort by. Not sent in request if null.
+	 * @param sortOrder                 sort direction. Not sent in request if null.
+	 * @param pageSize                  number of results to fetch in each call.
+	 * @return publisher of definition search results.
+	 * @throws KnickerException if query is null or empty.
+	 * @see #reverseDictionary(String, String, java.util.Set, java.util.Set, java.util.Set, java.util.Set, int, int, int, int, Knicker.ExpandTerms, boolean, Knicker.SortBy, javax.swing.SortOrder, int, int)
+	 */
+	public static Flow.Publisher<DefinitionSearchResult> reverseDictionaryPublisher(String query,
+				String findSenseForWord, Set<SourceDictionary> includeSourceDictionaries,
+				Set<SourceDictionary> excludeSourceDictionaries, Set<PartOfSpeech> includePartOfSpeech,
+				Set<PartOfSpeech> excludePartOfSpeech, int minCorpusCount, int maxCorpusCount, int minLength,
+				int maxLength, ExpandTerms expandTerms, boolean includeTags, SortBy sortBy,
+				SortOrder sortOrder, int pageSize) throws KnickerException {
+		return KnickerClient.getDefault().reverseDictionaryPublisher(query, findSenseForWord, includeSourceDictionaries, excludeSourceDictionaries, includePartOfSpeech, excludePartOfSpeech, minCorpusCount, maxCorpusCount, minLength, maxLength, expandTerms, includeTags, sortBy, sortOrder, pageSize);
 	}
 }
@@ -0,0 +1,180 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import net.jeremybrooks.knicker.logger.KnickerLogger;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Base class for caches that store bytes, such as a cache server shared by
+ * several JVMs.
+ * <p/>
+ * Subclasses move bytes to and from the store; this class encodes entries,
+ * with their times, using <code>DtoCodec</code>. Entries that cannot be
+ * decoded, for example because another version of Knicker wrote them, are
+ * treated as absent. Failures of the store are logged and treated as
+ * misses, so an outage of a shared cache slows the client down but does not
+ * break it.
+ * <p/>
+ * Subclasses must be thread safe. Keys are request URLs, which can be long;
+ * a subclass for a store with a key length limit should hash them.
+ *
+ * @author Jeremy Brooks
+ */
+public abstract class BinaryKnickerCache implements KnickerCache {
+
+    /**
+     * @param key the key.
+     * @return the bytes stored for the key, or null if there are none.
+     * @throws Exception if the store cannot be read.
+     */
+    protected abstract byte[] read(String key) throws Exception;
+
+
+    /**
+     * Read several keys. The default reads them one at a time; override it if
+     * the store can read several keys in one round trip.
+     *
+     * @param keys the keys.
+     * @return the bytes found, by key. Keys with no bytes are left out.
+     * @throws Exception if the store cannot be read.
+     */
+    protected Map<String, byte[]> readAll(Collection<String> keys) throws Exception {
+        Map<String, byte[]> found = new HashMap<String, byte[]>();
+        for (String key : keys) {
+            byte[] bytes = read(key);
+            if (bytes != null) {
+                found.put(key, bytes);
+            }
+        }
+        return found;
+    }
+
+
+    /**
+     * @param key        the key.
+     * @param value      the bytes to store.
+     * @param ttlMillis  how long the store should keep the bytes. Always greater than zero.
+     * @throws Exception if the store cannot be written.
+     */
+    protected abstract void write(String key, byte[] value, long ttlMillis) throws Exception;
+
+
+    /**
+     * @param key the key to remove.
+     * @throws Exception if the store cannot be written.
+     */
+    protected abstract void delete(String key) throws Exception;
+
+
+    /**
+     * Remove every key this cache has written.
+     *
+     * @throws Exception if the store cannot be written.
+     */
+    protected abstract void deleteAll() throws Exception;
+
+
+    @Override
+    public CacheEntry get(String key) {
+        try {
+            return decode(key, read(key));
+        } catch (Exception e) {
+            KnickerLogger.getLogger().log("Cache read failed for " + key + ".", e);
+            return null;
+        }
+    }
+
+
+    @Override
+    public Map<String, CacheEntry> getAll(Collection<String> keys) {
+        Map<String, CacheEntry> found = new HashMap<String, CacheEntry>();
+        try {
+            for (Map.Entry<String, byte[]> entry : readAll(keys).entrySet()) {
+                CacheEntry decoded = decode(entry.getKey(), entry.getValue());
+                if (decoded != null) {
+                    found.put(entry.getKey(), decoded);
+                }
+            }
+        } catch (Exception e) {
+            KnickerLogger.getLogger().log("Cache read failed for " + keys.size() + " keys.", e);
+        }
+        return found;
+    }
+
+
+    /**
+     * Store an entry until its stale limit. Entries already past it are not written.
+     *
+     * @param key   the request key.
+     * @param entry the entry.
+     */
+    @Override
+    public void put(String key, CacheEntry entry) {
+        if (key == null || entry == null) {
+            return;
+        }
+        long ttl = entry.getRetainMillis();
+        if (ttl <= 0) {
+            return;
+        }
+        try {
+            write(key, DtoCodec.encodeEntry(entry), ttl);
+        } catch (Exception e) {
+            KnickerLogger.getLogger().log("Cache write failed for " + key + ".", e);
+        }
+    }
+
+
+    @Override
+    public void invalidate(String key) {
+        try {
+            delete(key);
+        } catch (Exception e) {
+            KnickerLogger.getLogger().log("Cache delete failed for " + key + ".", e);
+        }
+    }
+
+
+    @Override
+    public void clear() {
+        try {
+            deleteAll();
+        } catch (Exception e) {
+            KnickerLogger.getLogger().log("Cache clear failed.", e);
+        }
+    }
+
+
+    private static CacheEntry decode(String key, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return DtoCodec.decodeEntry(bytes);
+        } catch (IllegalArgumentException e) {
+            KnickerLogger.getLogger().log("Ignoring unreadable cache entry for " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
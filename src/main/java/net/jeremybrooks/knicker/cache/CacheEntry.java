@@ -0,0 +1,184 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A cached value and when it was stored and expires.
+ * <p/>
+ * After it expires, an entry may still be served for a while as stale data
+ * while a fresh copy is fetched, until its stale limit passes. Caches should
+ * keep entries until then, space permitting.
+ * <p/>
+ * Times are wall clock milliseconds, so entries written by one JVM can be
+ * judged by another that reads them from a shared cache.
+ * <p/>
+ * Instances are immutable and safe to share between threads.
+ *
+ * @author Jeremy Brooks
+ */
+public final class CacheEntry {
+
+    private final Object value;
+
+    private final long createdMillis;
+
+    private final long expiresMillis;
+
+    private final long staleUntilMillis;
+
+
+    /**
+     * Create an entry that cannot be served once it expires.
+     *
+     * @param value         the cached value. Should be immutable.
+     * @param createdMillis when the value was fetched, in epoch milliseconds.
+     * @param expiresMillis when the value stops being fresh, in epoch milliseconds.
+     */
+    public CacheEntry(Object value, long createdMillis, long expiresMillis) {
+        this(value, createdMillis, expiresMillis, expiresMillis);
+    }
+
+
+    /**
+     * @param value            the cached value. Should be immutable.
+     * @param createdMillis    when the value was fetched, in epoch milliseconds.
+     * @param expiresMillis    when the value stops being fresh, in epoch milliseconds.
+     * @param staleUntilMillis when the value can no longer be served stale, in
+     *                         epoch milliseconds. Not before the expiry time.
+     */
+    public CacheEntry(Object value, long createdMillis, long expiresMillis, long staleUntilMillis) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cached values cannot be null.");
+        }
+        if (staleUntilMillis < expiresMillis) {
+            throw new IllegalArgumentException("Stale limit cannot be before expiry.");
+        }
+        this.value = value;
+        this.createdMillis = createdMillis;
+        this.expiresMillis = expiresMillis;
+        this.staleUntilMillis = staleUntilMillis;
+    }
+
+
+    /**
+     * Create an entry for a value fetched now.
+     *
+     * @param value the value.
+     * @param ttl   how long the value stays fresh.
+     * @param unit  unit of the time to live.
+     * @return new entry.
+     */
+    public static CacheEntry create(Object value, long ttl, TimeUnit unit) {
+        long now = System.currentTimeMillis();
+        return new CacheEntry(value, now, now + unit.toMillis(ttl));
+    }
+
+
+    /**
+     * Create an entry for a value fetched now that may be served stale after it expires.
+     *
+     * @param value    the value.
+     * @param ttl      how long the value stays fresh.
+     * @param maxStale how long after expiry the value may still be served stale.
+     * @param unit     unit of the times.
+     * @return new entry.
+     */
+    public static CacheEntry create(Object value, long ttl, long maxStale, TimeUnit unit) {
+        long now = System.currentTimeMillis();
+        long expires = now + unit.toMillis(ttl);
+        return new CacheEntry(value, now, expires, expires + unit.toMillis(maxStale));
+    }
+
+
+    public Object getValue() {
+        return value;
+    }
+
+
+    /**
+     * @return when the value was fetched, in epoch milliseconds.
+     */
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+
+    /**
+     * @return when the value stops being fresh, in epoch milliseconds.
+     */
+    public long getExpiresMillis() {
+        return expiresMillis;
+    }
+
+
+    /**
+     * @return when the value can no longer be served stale, in epoch milliseconds.
+     */
+    public long getStaleUntilMillis() {
+        return staleUntilMillis;
+    }
+
+
+    /**
+     * @return time left before the entry expires, in milliseconds, or zero if it has expired.
+     */
+    public long getRemainingMillis() {
+        return Math.max(0, expiresMillis - System.currentTimeMillis());
+    }
+
+
+    /**
+     * @return true if the entry has expired.
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresMillis;
+    }
+
+
+    /**
+     * @return time left before the entry's stale limit passes, in milliseconds,
+     *         or zero if it has. Caches can drop the entry after this.
+     */
+    public long getRetainMillis() {
+        return Math.max(0, staleUntilMillis - System.currentTimeMillis());
+    }
+
+
+    /**
+     * @return true if the entry is past its stale limit and cannot be served at all.
+     */
+    public boolean isPastStaleLimit() {
+        return System.currentTimeMillis() >= staleUntilMillis;
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ createdMillis=").append(this.createdMillis).append(" | ");
+        sb.append("expiresMillis=").append(this.expiresMillis).append(" | ");
+        sb.append("staleUntilMillis=").append(this.staleUntilMillis).append(" | ");
+        sb.append("value=").append(this.value).append(" ]");
+
+        return sb.toString();
+    }
+}
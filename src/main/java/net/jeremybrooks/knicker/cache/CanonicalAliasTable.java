@@ -0,0 +1,160 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maps the surface forms of words to their canonical forms, as reported by Wordnik.
+ * <p/>
+ * Looking up "dogs" with <code>useCanonical=true</code> returns "dog" as the
+ * canonical form. Once that is known, later <code>useCanonical=true</code>
+ * requests for "dogs" can be made for "dog" instead, so that every inflected
+ * form shares one cache entry and one copy of the results.
+ * <p/>
+ * The table holds a bounded number of aliases and forgets the least
+ * recently used first. Instances are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class CanonicalAliasTable {
+
+    /* Default number of aliases to remember. */
+    public static final int DEFAULT_MAX_ENTRIES = 50000;
+
+    private final Map<String, String> aliases;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+
+    public CanonicalAliasTable() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+
+    /**
+     * @param maxEntries maximum number of aliases to remember.
+     */
+    public CanonicalAliasTable(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be greater than zero.");
+        }
+        this.aliases = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+
+    /**
+     * Record that a word's canonical form is known.
+     * <p/>
+     * Nothing is recorded if the canonical form is null, empty, or the same as the word.
+     *
+     * @param word      the word as it was requested.
+     * @param canonical the canonical form returned by Wordnik.
+     */
+    public void learn(String word, String canonical) {
+        if (word == null || canonical == null) {
+            return;
+        }
+        String alias = word.trim();
+        String target = canonical.trim();
+        if (alias.isEmpty() || target.isEmpty() || alias.equals(target)) {
+            return;
+        }
+        synchronized (aliases) {
+            aliases.put(alias, target);
+        }
+    }
+
+
+    /**
+     * Get the canonical form of a word.
+     *
+     * @param word the word.
+     * @return the canonical form if one has been learned, otherwise the trimmed word.
+     */
+    public String resolve(String word) {
+        String alias = word.trim();
+        String canonical;
+        synchronized (aliases) {
+            canonical = aliases.get(alias);
+        }
+        if (canonical == null) {
+            misses.incrementAndGet();
+            return alias;
+        }
+        hits.incrementAndGet();
+        return canonical;
+    }
+
+
+    /**
+     * Forget all aliases. Metrics are kept.
+     */
+    public void clear() {
+        synchronized (aliases) {
+            aliases.clear();
+        }
+    }
+
+
+    /**
+     * @return number of aliases held.
+     */
+    public int getSize() {
+        synchronized (aliases) {
+            return aliases.size();
+        }
+    }
+
+
+    /**
+     * @return number of words that were resolved to a different canonical form.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+
+    /**
+     * @return number of words that had no known alias.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ size=").append(getSize()).append(" | ");
+        sb.append("hits=").append(getHitCount()).append(" | ");
+        sb.append("misses=").append(getMissCount()).append(" ]");
+
+        return sb.toString();
+    }
+}
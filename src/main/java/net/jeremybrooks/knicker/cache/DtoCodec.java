@@ -0,0 +1,687 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import net.jeremybrooks.knicker.Knicker;
+import net.jeremybrooks.knicker.dto.ContentProvider;
+import net.jeremybrooks.knicker.dto.Definition;
+import net.jeremybrooks.knicker.dto.DefinitionSearchResult;
+import net.jeremybrooks.knicker.dto.DefinitionSearchResults;
+import net.jeremybrooks.knicker.dto.Example;
+import net.jeremybrooks.knicker.dto.FrequencySummary;
+import net.jeremybrooks.knicker.dto.Phrase;
+import net.jeremybrooks.knicker.dto.Pronunciation;
+import net.jeremybrooks.knicker.dto.Provider;
+import net.jeremybrooks.knicker.dto.Related;
+import net.jeremybrooks.knicker.dto.SearchResult;
+import net.jeremybrooks.knicker.dto.SearchResults;
+import net.jeremybrooks.knicker.dto.Syllable;
+import net.jeremybrooks.knicker.dto.Word;
+import net.jeremybrooks.knicker.dto.WordList;
+import net.jeremybrooks.knicker.dto.WordListWord;
+import net.jeremybrooks.knicker.dto.WordOfTheDay;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Encodes cached results as compact bytes, for caches that store bytes.
+ * <p/>
+ * Each DTO is written as a one byte type tag followed by its fields in a
+ * fixed order, with no field names or class names. Integers are written as
+ * variable length numbers and strings as UTF-8, so a typical list of
+ * definitions takes a fraction of the space of Java serialization. Lists are
+ * decoded as unmodifiable lists.
+ * <p/>
+ * Only the types the client caches, and the word lists kept by
+ * <code>WordListMirror</code>, can be encoded. Bytes from another
+ * version of the format are rejected rather than misread.
+ *
+ * @author Jeremy Brooks
+ */
+public final class DtoCodec {
+
+    /* Format version, written first. Change it whenever the layout of any type changes. */
+    static final int VERSION = 2;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int NULL = 0;
+    private static final int LIST = 1;
+    private static final int STRING = 2;
+    private static final int WORD = 3;
+    private static final int DEFINITION = 4;
+    private static final int EXAMPLE = 5;
+    private static final int SEARCH_RESULTS = 6;
+    private static final int SEARCH_RESULT = 7;
+    private static final int RELATED = 8;
+    private static final int PHRASE = 9;
+    private static final int SYLLABLE = 10;
+    private static final int PRONUNCIATION = 11;
+    private static final int FREQUENCY_SUMMARY = 12;
+    private static final int WORD_OF_THE_DAY = 13;
+    private static final int DEFINITION_SEARCH_RESULTS = 14;
+    private static final int DEFINITION_SEARCH_RESULT = 15;
+    private static final int PROVIDER = 16;
+    private static final int CONTENT_PROVIDER = 17;
+    private static final int WORD_LIST = 18;
+    private static final int WORD_LIST_WORD = 19;
+
+
+    private DtoCodec() {
+    }
+
+
+    /**
+     * @param value a cached value.
+     * @return the value as bytes.
+     * @throws IllegalArgumentException if the value, or anything in it, is of a type that cannot be encoded.
+     */
+    public static byte[] encode(Object value) {
+        Output out = new Output();
+        out.writeVarint(VERSION);
+        writeValue(out, value);
+        return out.toByteArray();
+    }
+
+
+    /**
+     * @param bytes bytes from <code>encode</code>.
+     * @return the value.
+     * @throws IllegalArgumentException if the bytes are not a value in this version of the format.
+     */
+    public static Object decode(byte[] bytes) {
+        Input in = new Input(bytes);
+        checkVersion(in);
+        Object value = readValue(in);
+        in.checkEnd();
+        return value;
+    }
+
+
+    /**
+     * @param entry a cache entry.
+     * @return the entry, including its times, as bytes.
+     * @throws IllegalArgumentException if the value cannot be encoded.
+     */
+    public static byte[] encodeEntry(CacheEntry entry) {
+        Output out = new Output();
+        out.writeVarint(VERSION);
+        out.writeVarlong(entry.getCreatedMillis());
+        out.writeVarlong(entry.getExpiresMillis());
+        out.writeVarlong(entry.getStaleUntilMillis() - entry.getExpiresMillis());
+        writeValue(out, entry.getValue());
+        return out.toByteArray();
+    }
+
+
+    /**
+     * @param bytes bytes from <code>encodeEntry</code>.
+     * @return the entry.
+     * @throws IllegalArgumentException if the bytes are not an entry in this version of the format.
+     */
+    public static CacheEntry decodeEntry(byte[] bytes) {
+        Input in = new Input(bytes);
+        checkVersion(in);
+        long created = in.readVarlong();
+        long expires = in.readVarlong();
+        long stale = in.readVarlong();
+        Object value = readValue(in);
+        in.checkEnd();
+        if (value == null) {
+            throw new IllegalArgumentException("Cache entry has no value.");
+        }
+        if (stale < 0) {
+            throw new IllegalArgumentException("Cache entry has a negative stale window.");
+        }
+        return new CacheEntry(value, created, expires, expires + stale);
+    }
+
+
+    private static void checkVersion(Input in) {
+        int version = in.readVarint();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported cache format version " + version + ".");
+        }
+    }
+
+
+    private static void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.write(LIST);
+            out.writeVarint(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof String) {
+            out.write(STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Word) {
+            Word w = (Word) value;
+            out.write(WORD);
+            out.writeString(w.getWord());
+            out.writeString(w.getCanonicalForm());
+            out.writeString(w.getOriginalWord());
+            writeValue(out, w.getSuggestions());
+        } else if (value instanceof Definition) {
+            Definition d = (Definition) value;
+            out.write(DEFINITION);
+            out.writeZigzag(d.getSequence());
+            out.writeString(d.getText());
+            out.writeString(d.getWord());
+            out.writeString(d.getPartOfSpeech());
+            out.writeString(d.getSourceDictionary());
+            out.writeString(d.getScore());
+            out.writeString(d.getAttributionText());
+        } else if (value instanceof Example) {
+            Example e = (Example) value;
+            out.write(EXAMPLE);
+            out.writeString(e.getText());
+            out.writeString(e.getExampleId());
+            out.writeString(e.getDocumentId());
+            writeValue(out, e.getProvider());
+            out.writeString(e.getRating());
+            out.writeString(e.getTitle());
+            out.writeString(e.getUrl());
+            out.writeString(e.getWord());
+            out.writeString(e.getYear());
+        } else if (value instanceof SearchResults) {
+            SearchResults s = (SearchResults) value;
+            out.write(SEARCH_RESULTS);
+            out.writeZigzag(s.getTotal());
+            writeValue(out, s.getSearchResults());
+            writeValue(out, s.getExamples());
+        } else if (value instanceof SearchResult) {
+            SearchResult s = (SearchResult) value;
+            out.write(SEARCH_RESULT);
+            out.writeZigzag(s.getCount());
+            out.writeString(s.getLexicality());
+            out.writeString(s.getWord());
+        } else if (value instanceof Related) {
+            Related r = (Related) value;
+            out.write(RELATED);
+            out.writeString(r.getRelType());
+            writeValue(out, r.getWords());
+        } else if (value instanceof Phrase) {
+            Phrase p = (Phrase) value;
+            out.write(PHRASE);
+            out.writeZigzag(p.getCount());
+            out.writeString(p.getMi());
+            out.writeString(p.getWlmi());
+            out.writeString(p.getGram1());
+            out.writeString(p.getGram2());
+        } else if (value instanceof Syllable) {
+            Syllable s = (Syllable) value;
+            out.write(SYLLABLE);
+            out.writeString(s.getType());
+            out.writeZigzag(s.getSeq());
+            out.writeString(s.getText());
+        } else if (value instanceof Pronunciation) {
+            Pronunciation p = (Pronunciation) value;
+            out.write(PRONUNCIATION);
+            out.writeString(p.getId());
+            out.writeString(p.getRaw());
+            out.writeString(p.getRawType());
+        } else if (value instanceof FrequencySummary) {
+            FrequencySummary f = (FrequencySummary) value;
+            out.write(FREQUENCY_SUMMARY);
+            out.writeString(f.getWord());
+            out.writeZigzag(f.getTotalCount());
+            out.writeZigzag(f.getUnknownYearCount());
+            out.writeVarint(f.getFrequencies().size());
+            for (FrequencySummary.Frequency frequency : f.getFrequencies()) {
+                out.writeZigzag(frequency.getCount());
+                out.writeString(frequency.getYear());
+            }
+        } else if (value instanceof WordOfTheDay) {
+            WordOfTheDay w = (WordOfTheDay) value;
+            out.write(WORD_OF_THE_DAY);
+            out.writeString(w.getId());
+            out.writeString(w.getWord());
+            out.writeString(w.getPublishDate());
+            out.writeString(w.getNote());
+            writeValue(out, w.getContentProvider());
+            writeValue(out, w.getDefinitions());
+            writeValue(out, w.getExamples());
+        } else if (value instanceof DefinitionSearchResults) {
+            DefinitionSearchResults d = (DefinitionSearchResults) value;
+            out.write(DEFINITION_SEARCH_RESULTS);
+            out.writeZigzag(d.getTotalResults());
+            writeValue(out, d.getResults());
+        } else if (value instanceof DefinitionSearchResult) {
+            DefinitionSearchResult d = (DefinitionSearchResult) value;
+            out.write(DEFINITION_SEARCH_RESULT);
+            out.writeZigzag(d.getSequence());
+            out.writeString(d.getWord());
+            out.writeString(d.getText());
+            out.writeString(d.getPartOfSpeech());
+            out.writeString(d.getSourceDictionary());
+            out.writeString(d.getAttributionText());
+            out.writeString(d.getTextProns());
+            out.writeString(d.getExampleUses());
+            out.writeString(d.getLabels());
+            out.writeString(d.getCitations());
+            out.writeLong(Double.doubleToLongBits(d.getScore()));
+            writeValue(out, d.getRelatedWords());
+        } else if (value instanceof Provider) {
+            Provider p = (Provider) value;
+            out.write(PROVIDER);
+            out.writeString(p.getId());
+            out.writeString(p.getName());
+        } else if (value instanceof ContentProvider) {
+            ContentProvider c = (ContentProvider) value;
+            out.write(CONTENT_PROVIDER);
+            out.writeString(c.getId());
+            out.writeString(c.getName());
+        } else if (value instanceof WordList) {
+            WordList w = (WordList) value;
+            out.write(WORD_LIST);
+            out.writeString(w.getId());
+            out.writeString(w.getPermalink());
+            out.writeString(w.getName());
+            out.writeString(w.getDescription());
+            out.writeString(w.getType() == null ? null : w.getType().name());
+            out.writeZigzag(w.getNumberWordsInList());
+            out.writeString(w.getCreatedAt());
+            out.writeString(w.getUpdatedAt());
+            out.writeString(w.getUserId());
+            out.writeString(w.getUsername());
+        } else if (value instanceof WordListWord) {
+            WordListWord w = (WordListWord) value;
+            out.write(WORD_LIST_WORD);
+            out.writeString(w.getWord());
+            out.writeString(w.getCreatedAt());
+            out.writeZigzag(w.getNumberCommentsOnWord());
+            out.writeZigzag(w.getNumberLists());
+            out.writeString(w.getUserId());
+            out.writeString(w.getUsername());
+        } else {
+            throw new IllegalArgumentException("Cannot encode " + value.getClass().getName() + ".");
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static Object readValue(Input in) {
+        int tag = in.read();
+        switch (tag) {
+            case NULL:
+                return null;
+            case LIST: {
+                int size = in.readVarint();
+                Object[] items = new Object[Math.min(size, in.remaining())];
+                if (size > items.length) {
+                    throw new IllegalArgumentException("List size " + size + " exceeds the data.");
+                }
+                for (int i = 0; i < size; i++) {
+                    items[i] = readValue(in);
+                }
+                return Collections.unmodifiableList(new ArrayList<Object>(Arrays.asList(items)));
+            }
+            case STRING:
+                return in.readString();
+            case WORD:
+                return new Word.Builder()
+                        .word(in.readString())
+                        .canonicalForm(in.readString())
+                        .originalWord(in.readString())
+                        .suggestions(readList(in, String.class))
+                        .build();
+            case DEFINITION:
+                return new Definition.Builder()
+                        .sequence(in.readZigzag())
+                        .text(in.readString())
+                        .word(in.readString())
+                        .partOfSpeech(in.readString())
+                        .sourceDictionary(in.readString())
+                        .score(in.readString())
+                        .attributionText(in.readString())
+                        .build();
+            case EXAMPLE:
+                return new Example.Builder()
+                        .text(in.readString())
+                        .exampleId(in.readString())
+                        .documentId(in.readString())
+                        .provider(read(in, Provider.class))
+                        .rating(in.readString())
+                        .title(in.readString())
+                        .url(in.readString())
+                        .word(in.readString())
+                        .year(in.readString())
+                        .build();
+            case SEARCH_RESULTS:
+                return new SearchResults.Builder()
+                        .total(in.readZigzag())
+                        .searchResults(readList(in, SearchResult.class))
+                        .examples(readList(in, Example.class))
+                        .build();
+            case SEARCH_RESULT:
+                return new SearchResult.Builder()
+                        .count(in.readZigzag())
+                        .lexicality(in.readString())
+                        .word(in.readString())
+                        .build();
+            case RELATED:
+                return new Related.Builder()
+                        .relationshipType(in.readString())
+                        .words(readList(in, String.class))
+                        .build();
+            case PHRASE:
+                return new Phrase.Builder()
+                        .count(in.readZigzag())
+                        .mi(in.readString())
+                        .wlmi(in.readString())
+                        .gram1(in.readString())
+                        .gram2(in.readString())
+                        .build();
+            case SYLLABLE:
+                return new Syllable.Builder()
+                        .type(in.readString())
+                        .seq(in.readZigzag())
+                        .text(in.readString())
+                        .build();
+            case PRONUNCIATION:
+                return new Pronunciation.Builder()
+                        .id(in.readString())
+                        .raw(in.readString())
+                        .rawType(in.readString())
+                        .build();
+            case FREQUENCY_SUMMARY: {
+                FrequencySummary.Builder f = new FrequencySummary.Builder()
+                        .word(in.readString())
+                        .totalCount(in.readZigzag())
+                        .unknownYearCount(in.readZigzag());
+                int size = in.readVarint();
+                for (int i = 0; i < size; i++) {
+                    f.addFrequency(in.readZigzag(), in.readString());
+                }
+                return f.build();
+            }
+            case WORD_OF_THE_DAY:
+                return new WordOfTheDay.Builder()
+                        .id(in.readString())
+                        .word(in.readString())
+                        .publishDate(in.readString())
+                        .note(in.readString())
+                        .contentProvider(read(in, ContentProvider.class))
+                        .definitions(readList(in, Definition.class))
+                        .examples(readList(in, Example.class))
+                        .build();
+            case DEFINITION_SEARCH_RESULTS:
+                return new DefinitionSearchResults.Builder()
+                        .totalResults(in.readZigzag())
+                        .results(readList(in, DefinitionSearchResult.class))
+                        .build();
+            case DEFINITION_SEARCH_RESULT:
+                return new DefinitionSearchResult.Builder()
+                        .sequence(in.readZigzag())
+                        .word(in.readString())
+                        .text(in.readString())
+                        .partOfSpeech(in.readString())
+                        .sourceDictionary(in.readString())
+                        .attributionText(in.readString())
+                        .textProns(in.readString())
+                        .exampleUses(in.readString())
+                        .labels(in.readString())
+                        .citations(in.readString())
+                        .score(Double.longBitsToDouble(in.readLong()))
+                        .relatedWords(readList(in, Related.class))
+                        .build();
+            case PROVIDER:
+                return new Provider.Builder()
+                        .id(in.readString())
+                        .name(in.readString())
+                        .build();
+            case CONTENT_PROVIDER:
+                return new ContentProvider.Builder()
+                        .id(in.readString())
+                        .name(in.readString())
+                        .build();
+            case WORD_LIST:
+                return new WordList.Builder()
+                        .id(in.readString())
+                        .permalink(in.readString())
+                        .name(in.readString())
+                        .description(in.readString())
+                        .type(readListType(in))
+                        .numberWordsInList(in.readZigzag())
+                        .createdAt(in.readString())
+                        .updatedAt(in.readString())
+                        .userId(in.readString())
+                        .username(in.readString())
+                        .build();
+            case WORD_LIST_WORD:
+                return new WordListWord.Builder()
+                        .word(in.readString())
+                        .createdAt(in.readString())
+                        .numberCommentsOnWord(in.readZigzag())
+                        .numberLists(in.readZigzag())
+                        .userId(in.readString())
+                        .username(in.readString())
+                        .build();
+            default:
+                throw new IllegalArgumentException("Unknown type tag " + tag + ".");
+        }
+    }
+
+
+    private static Knicker.ListType readListType(Input in) {
+        String name = in.readString();
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Knicker.ListType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown list type " + name + ".");
+        }
+    }
+
+
+    private static <T> T read(Input in, Class<T> type) {
+        Object value = readValue(in);
+        if (value != null && !type.isInstance(value)) {
+            throw new IllegalArgumentException("Expected " + type.getName() + " but found " +
+                    value.getClass().getName() + ".");
+        }
+        return type.cast(value);
+    }
+
+
+    /*
+     * Read a list whose items must all be of the given type. A null list is
+     * read as an empty one, since DTO builders do not accept null lists.
+     */
+    private static <T> List<T> readList(Input in, Class<T> type) {
+        Object value = readValue(in);
+        if (value == null) {
+            return new ArrayList<T>();
+        }
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Expected a list but found " + value.getClass().getName() + ".");
+        }
+        List<T> list = new ArrayList<T>();
+        for (Object item : (List<?>) value) {
+            if (item != null && !type.isInstance(item)) {
+                throw new IllegalArgumentException("Expected " + type.getName() + " but found " +
+                        item.getClass().getName() + ".");
+            }
+            list.add(type.cast(item));
+        }
+        return list;
+    }
+
+
+    private static final class Output {
+
+        private byte[] buffer = new byte[256];
+
+        private int size;
+
+
+        void write(int b) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[size++] = (byte) b;
+        }
+
+
+        void writeVarint(int value) {
+            writeVarlong(value & 0xffffffffL);
+        }
+
+
+        void writeZigzag(int value) {
+            writeVarint((value << 1) ^ (value >> 31));
+        }
+
+
+        void writeVarlong(long value) {
+            while ((value & ~0x7fL) != 0) {
+                write((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+
+        /*
+         * Length plus one, then UTF-8 bytes; a length of zero means null.
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarint(bytes.length + 1);
+            for (byte b : bytes) {
+                write(b);
+            }
+        }
+
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+
+    private static final class Input {
+
+        private final byte[] buffer;
+
+        private int position;
+
+
+        Input(byte[] buffer) {
+            if (buffer == null) {
+                throw new IllegalArgumentException("No data to decode.");
+            }
+            this.buffer = buffer;
+        }
+
+
+        int read() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("Unexpected end of data.");
+            }
+            return buffer[position++] & 0xff;
+        }
+
+
+        int remaining() {
+            return buffer.length - position;
+        }
+
+
+        int readVarint() {
+            long value = readVarlong();
+            if (value > 0xffffffffL) {
+                throw new IllegalArgumentException("Number out of range.");
+            }
+            return (int) value;
+        }
+
+
+        int readZigzag() {
+            int value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+
+        long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed number.");
+        }
+
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | read();
+            }
+            return value;
+        }
+
+
+        String readString() {
+            int length = readVarint();
+            if (length == 0) {
+                return null;
+            }
+            length--;
+            if (length > remaining()) {
+                throw new IllegalArgumentException("String length " + length + " exceeds the data.");
+            }
+            String value = new String(buffer, position, length, UTF_8);
+            position += length;
+            return value;
+        }
+
+
+        void checkEnd() {
+            if (position != buffer.length) {
+                throw new IllegalArgumentException((buffer.length - position) + " bytes left over.");
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of API results held in this JVM.
+ * <p/>
+ * The least recently used entries are evicted first, and entries past their
+ * stale limit are removed when they are read. Values are held by reference, with no copying
+ * or serialization. Instances are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class InMemoryKnickerCache implements KnickerCache {
+
+    /* Default number of results to hold. */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final Map<String, CacheEntry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+
+    public InMemoryKnickerCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+
+    /**
+     * @param maxEntries maximum number of results to hold.
+     */
+    public InMemoryKnickerCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be greater than zero.");
+        }
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+
+    @Override
+    public CacheEntry get(String key) {
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = live(key);
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return entry;
+    }
+
+
+    @Override
+    public Map<String, CacheEntry> getAll(Collection<String> keys) {
+        Map<String, CacheEntry> found = new HashMap<String, CacheEntry>();
+        synchronized (entries) {
+            for (String key : keys) {
+                CacheEntry entry = live(key);
+                if (entry != null) {
+                    found.put(key, entry);
+                }
+            }
+        }
+        hits.addAndGet(found.size());
+        misses.addAndGet(keys.size() - found.size());
+        return found;
+    }
+
+
+    @Override
+    public void put(String key, CacheEntry entry) {
+        if (key == null || entry == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+
+    @Override
+    public void invalidate(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+
+    @Override
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+
+    /**
+     * @return number of entries held, including any that are past their stale limit but not been removed yet.
+     */
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ size=").append(getSize()).append(" | ");
+        sb.append("hits=").append(getHitCount()).append(" | ");
+        sb.append("misses=").append(getMissCount()).append(" ]");
+
+        return sb.toString();
+    }
+
+
+    /*
+     * The entry for the key, removing it if it is past its stale limit. Called with the lock held.
+     */
+    private CacheEntry live(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null && entry.isPastStaleLimit()) {
+            entries.remove(key);
+            entry = null;
+        }
+        return entry;
+    }
+}
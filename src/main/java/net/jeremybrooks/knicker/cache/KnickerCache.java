@@ -0,0 +1,85 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+
+/**
+ * A cache of API results that the client consults before every cacheable call.
+ * <p/>
+ * Keys are request URLs; they do not include the API key. Values are the
+ * immutable DTOs, or unmodifiable lists of them, that the API methods return.
+ * <p/>
+ * Implementations must be thread safe. They may drop any entry at any time,
+ * and may return an expired entry; the client checks expiry itself. Entries
+ * should be kept until their stale limit, so that the client can serve them
+ * stale while it fetches a fresh copy.
+ * Implementations backed by a remote store should not throw when the store
+ * is unavailable, but should behave as if the entry were absent. The client
+ * treats a runtime exception from the cache as a miss.
+ * <p/>
+ * <code>InMemoryKnickerCache</code> keeps entries in this JVM.
+ * <code>BinaryKnickerCache</code> is the starting point for a cache shared
+ * between JVMs. The test suite's <code>KnickerCacheContractTest</code> checks
+ * an implementation against this contract.
+ *
+ * @author Jeremy Brooks
+ */
+public interface KnickerCache {
+
+    /**
+     * @param key the request key.
+     * @return the entry, or null if there is none.
+     */
+    CacheEntry get(String key);
+
+
+    /**
+     * Get several entries at once. Remote implementations should fetch them in
+     * one round trip.
+     *
+     * @param keys the request keys.
+     * @return the entries that were found, by key. Keys with no entry are left out.
+     */
+    Map<String, CacheEntry> getAll(Collection<String> keys);
+
+
+    /**
+     * Store an entry, replacing any entry for the key. The entry should be
+     * kept at least until it expires, space permitting.
+     *
+     * @param key   the request key.
+     * @param entry the entry.
+     */
+    void put(String key, CacheEntry entry);
+
+
+    /**
+     * @param key the request key to remove.
+     */
+    void invalidate(String key);
+
+
+    /**
+     * Remove every entry.
+     */
+    void clear();
+}
@@ -0,0 +1,359 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers requests that recently came back empty, so they can be answered
+ * without another round trip.
+ * <p/>
+ * Misspelled words are the common case: looking up the same nonexistent word
+ * again returns the same empty result. Keys are the request URLs, so
+ * different parameters are remembered separately.
+ * <p/>
+ * Two structures are used. A Bloom filter answers "never seen" for almost
+ * every key that did have results, without taking a lock. An exact set of
+ * recent misses, bounded in size and ordered by age, confirms the filter's
+ * positive answers. A key is reported as missing only when the exact set
+ * confirms it, so a Bloom false positive costs a map lookup but never
+ * hides a real result. Bloom positives that the exact set rejects are
+ * counted as false positives.
+ * <p/>
+ * Entries expire after the time to live. The Bloom filter is time bounded
+ * by two generations, each covering one time to live. When the current
+ * generation is older than the time to live, a new empty filter replaces the
+ * older one. Readers always see a complete filter, and nothing is cleared
+ * in place.
+ * <p/>
+ * Instances are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class NegativeCache {
+
+    /* Default number of misses to remember. */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    /* Default Bloom filter false-positive probability. */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    /* Default time to live, in minutes. */
+    public static final long DEFAULT_TTL_MINUTES = 10;
+
+    private final int maxEntries;
+
+    private final double falsePositiveRate;
+
+    private final long ttlNanos;
+
+    private final Map<String, Long> recentMisses;
+
+    private volatile Generations generations;
+
+    private final AtomicLong lookups = new AtomicLong();
+
+    private final AtomicLong shortCircuits = new AtomicLong();
+
+    private final AtomicLong bloomPositives = new AtomicLong();
+
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private final AtomicLong rotations = new AtomicLong();
+
+
+    /**
+     * Create a negative cache with the default size, false-positive rate and time to live.
+     */
+    public NegativeCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_FALSE_POSITIVE_RATE, DEFAULT_TTL_MINUTES, TimeUnit.MINUTES);
+    }
+
+
+    /**
+     * Create a negative cache.
+     *
+     * @param maxEntries        maximum number of misses to remember. The oldest are forgotten first.
+     * @param falsePositiveRate target false-positive probability of the Bloom filter.
+     * @param ttl               how long a miss is remembered.
+     * @param unit              unit of the time to live.
+     */
+    public NegativeCache(int maxEntries, double falsePositiveRate, long ttl, TimeUnit unit) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be greater than zero.");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1.");
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl must be greater than zero.");
+        }
+        this.maxEntries = maxEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.recentMisses = new LinkedHashMap<String, Long>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > NegativeCache.this.maxEntries;
+            }
+        };
+        this.generations = new Generations(newFilter(), newFilter(), System.nanoTime());
+    }
+
+
+    /**
+     * Check whether a request is known to return nothing.
+     *
+     * @param key the request key.
+     * @return true if the key was recorded as a miss within the time to live.
+     */
+    public boolean isKnownMissing(String key) {
+        lookups.incrementAndGet();
+        Generations g = currentGenerations();
+        if (!g.current.mightContain(key) && !g.previous.mightContain(key)) {
+            return false;
+        }
+        bloomPositives.incrementAndGet();
+
+        boolean missing;
+        long now = System.nanoTime();
+        synchronized (recentMisses) {
+            Long expires = recentMisses.get(key);
+            missing = expires != null && now - expires < 0;
+            if (expires != null && !missing) {
+                recentMisses.remove(key);
+            }
+        }
+        if (missing) {
+            shortCircuits.incrementAndGet();
+        } else {
+            falsePositives.incrementAndGet();
+        }
+        return missing;
+    }
+
+
+    /**
+     * Record that a request returned nothing.
+     *
+     * @param key the request key.
+     */
+    public void recordMiss(String key) {
+        long expires = System.nanoTime() + ttlNanos;
+        synchronized (recentMisses) {
+            // re-insert so the entry moves to the young end
+            recentMisses.remove(key);
+            recentMisses.put(key, expires);
+        }
+        currentGenerations().current.put(key);
+    }
+
+
+    /**
+     * Forget a recorded miss, for example because the request now returns results.
+     *
+     * @param key the request key.
+     */
+    public void invalidate(String key) {
+        synchronized (recentMisses) {
+            recentMisses.remove(key);
+        }
+    }
+
+
+    /**
+     * Forget all recorded misses. Metrics are kept.
+     */
+    public void clear() {
+        synchronized (recentMisses) {
+            recentMisses.clear();
+        }
+        generations = new Generations(newFilter(), newFilter(), System.nanoTime());
+    }
+
+
+    /**
+     * @return number of calls to <code>isKnownMissing</code>.
+     */
+    public long getLookupCount() {
+        return lookups.get();
+    }
+
+
+    /**
+     * @return number of lookups answered as missing, each one a saved round trip.
+     */
+    public long getShortCircuitCount() {
+        return shortCircuits.get();
+    }
+
+
+    /**
+     * @return number of lookups the Bloom filter could not rule out.
+     */
+    public long getBloomPositiveCount() {
+        return bloomPositives.get();
+    }
+
+
+    /**
+     * A false positive is a key the Bloom filter reported as possibly missing
+     * that the exact set did not confirm. This includes misses that expired or
+     * were evicted from the exact set.
+     *
+     * @return number of Bloom filter false positives.
+     */
+    public long getFalsePositiveCount() {
+        return falsePositives.get();
+    }
+
+
+    /**
+     * @return observed fraction of all lookups that were Bloom filter false positives.
+     */
+    public double getFalsePositiveRate() {
+        long n = lookups.get();
+        return n == 0 ? 0 : (double) falsePositives.get() / n;
+    }
+
+
+    /**
+     * @return estimated false-positive probability of the current filter, from its fill ratio.
+     */
+    public double getExpectedFalsePositiveRate() {
+        Generations g = currentGenerations();
+        double a = g.current.getExpectedFalsePositiveRate();
+        double b = g.previous.getExpectedFalsePositiveRate();
+        return 1 - (1 - a) * (1 - b);
+    }
+
+
+    /**
+     * @return number of misses held in the exact set, including any that have expired but not been removed yet.
+     */
+    public int getSize() {
+        synchronized (recentMisses) {
+            return recentMisses.size();
+        }
+    }
+
+
+    /**
+     * @return number of insertions into the two live Bloom filter generations.
+     */
+    public int getBloomInsertions() {
+        Generations g = currentGenerations();
+        return g.current.getInsertions() + g.previous.getInsertions();
+    }
+
+
+    /**
+     * @return memory used by the Bloom filters, in bytes.
+     */
+    public long getBloomSizeBytes() {
+        Generations g = currentGenerations();
+        return (g.current.getBitCount() + (long) g.previous.getBitCount()) / 8;
+    }
+
+
+    /**
+     * @return number of times the Bloom filter generations have been rotated.
+     */
+    public long getRotationCount() {
+        return rotations.get();
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ size=").append(getSize()).append(" | ");
+        sb.append("lookups=").append(getLookupCount()).append(" | ");
+        sb.append("shortCircuits=").append(getShortCircuitCount()).append(" | ");
+        sb.append("falsePositives=").append(getFalsePositiveCount()).append(" | ");
+        sb.append("bloomInsertions=").append(getBloomInsertions()).append(" | ");
+        sb.append("bloomSizeBytes=").append(getBloomSizeBytes()).append(" ]");
+
+        return sb.toString();
+    }
+
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(maxEntries, falsePositiveRate);
+    }
+
+
+    /*
+     * Return the live generations, rotating first if the current one has
+     * covered a full time to live. Expired entries are also purged from the
+     * exact set at rotation time.
+     */
+    private Generations currentGenerations() {
+        Generations g = generations;
+        long now = System.nanoTime();
+        if (now - g.started < ttlNanos) {
+            return g;
+        }
+        synchronized (this) {
+            g = generations;
+            if (now - g.started >= ttlNanos) {
+                g = new Generations(newFilter(), g.current, now);
+                generations = g;
+                rotations.incrementAndGet();
+                purgeExpired(now);
+            }
+        }
+        return g;
+    }
+
+
+    private void purgeExpired(long now) {
+        synchronized (recentMisses) {
+            // every entry has the same time to live, so insertion order is expiry order
+            Iterator<Long> it = recentMisses.values().iterator();
+            while (it.hasNext() && now - it.next() >= 0) {
+                it.remove();
+            }
+        }
+    }
+
+
+    /*
+     * An immutable pair of filters, swapped as a unit so readers never see a half-rotated state.
+     */
+    private static class Generations {
+
+        final BloomFilter current;
+
+        final BloomFilter previous;
+
+        final long started;
+
+
+        Generations(BloomFilter current, BloomFilter previous, long started) {
+            this.current = current;
+            this.previous = previous;
+            this.started = started;
+        }
+    }
+}
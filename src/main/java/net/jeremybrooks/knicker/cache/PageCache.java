@@ -0,0 +1,413 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the results of paged queries as ranges of positions, so that a
+ * window of results can be served from the parts of earlier windows.
+ * <p/>
+ * A query is the request URL without its skip and limit. Each query holds
+ * the results fetched so far as contiguous ranges; ranges that touch or
+ * overlap are merged, with newer results replacing older ones. After asking
+ * for skip=0, limit=50, a request for skip=20, limit=10 is served from the
+ * cache, and a request for skip=40, limit=20 needs only positions 50 to 59.
+ * A page shorter than its limit marks the end of the results, so windows
+ * past the end are served without a request.
+ * <p/>
+ * Use <code>get</code> to serve a window, <code>getMissing</code> to find
+ * the ranges that have to be fetched, and <code>put</code> to store them.
+ * <p/>
+ * Each query expires one time to live after its first results were stored,
+ * so results of different ages are never mixed for longer than that. The
+ * least recently used queries are dropped when there are too many.
+ * <p/>
+ * Instances are thread safe.
+ *
+ * @author Jeremy Brooks
+ */
+public class PageCache {
+
+    /* Default number of queries to remember. */
+    public static final int DEFAULT_MAX_QUERIES = 1000;
+
+    /* Default time to live, in minutes. */
+    public static final long DEFAULT_TTL_MINUTES = 10;
+
+    private final int maxQueries;
+
+    private final long ttlNanos;
+
+    private final Map<String, Query> queries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong fetchedItems = new AtomicLong();
+
+
+    /**
+     * Create a page cache with the default size and time to live.
+     */
+    public PageCache() {
+        this(DEFAULT_MAX_QUERIES, DEFAULT_TTL_MINUTES, TimeUnit.MINUTES);
+    }
+
+
+    /**
+     * Create a page cache.
+     *
+     * @param maxQueries maximum number of queries to remember. The least recently used are forgotten first.
+     * @param ttl        how long the results of a query are kept.
+     * @param unit       unit of the time to live.
+     */
+    public PageCache(int maxQueries, long ttl, TimeUnit unit) {
+        if (maxQueries < 1) {
+            throw new IllegalArgumentException("maxQueries must be greater than zero.");
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl must be greater than zero.");
+        }
+        this.maxQueries = maxQueries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.queries = new LinkedHashMap<String, Query>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+                return size() > PageCache.this.maxQueries;
+            }
+        };
+    }
+
+
+    /**
+     * Serve a window of results, if the cache holds all of it.
+     *
+     * @param query the query.
+     * @param skip  position of the first result.
+     * @param limit number of results.
+     * @return the window, or null if any part of it has to be fetched.
+     */
+    public synchronized Window get(String query, int skip, int limit) {
+        Query q = current(query);
+        List<Object> items = q == null ? null : q.get(skip, limit);
+        return items == null ? null : new Window(items, q.total);
+    }
+
+
+    /**
+     * Find the parts of a window the cache does not hold. Each call counts
+     * as a hit if there are none, and as a miss otherwise.
+     *
+     * @param query the query.
+     * @param skip  position of the first result.
+     * @param limit number of results.
+     * @return the ranges to fetch, in order. Empty if the cache holds the whole window.
+     */
+    public synchronized List<Range> getMissing(String query, int skip, int limit) {
+        Query q = current(query);
+        List<Range> missing = q == null ? Collections.singletonList(new Range(skip, limit)) : q.missing(skip, limit);
+        (missing.isEmpty() ? hits : misses).incrementAndGet();
+        return missing;
+    }
+
+
+    /**
+     * Store a page of results.
+     *
+     * @param query the query.
+     * @param skip  position of the first result.
+     * @param limit number of results that were asked for. If fewer were
+     *              returned, the results end after the last one.
+     * @param items the results, in order.
+     * @param total the total number of results reported with the page.
+     */
+    public synchronized void put(String query, int skip, int limit, List<?> items, int total) {
+        Query q = current(query);
+        if (q == null) {
+            q = new Query(System.nanoTime() + ttlNanos);
+            queries.put(query, q);
+        }
+        q.put(skip, limit, items.toArray(), total);
+        fetchedItems.addAndGet(items.size());
+    }
+
+
+    /**
+     * Forget the results of a query.
+     *
+     * @param query the query.
+     */
+    public synchronized void invalidate(String query) {
+        queries.remove(query);
+    }
+
+
+    /**
+     * Forget all results. Metrics are kept.
+     */
+    public synchronized void clear() {
+        queries.clear();
+    }
+
+
+    /**
+     * @return number of windows that needed nothing fetched.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+
+    /**
+     * @return number of windows that needed some results fetched.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+
+    /**
+     * @return number of results stored, which is the number fetched from the server.
+     */
+    public long getFetchedItemCount() {
+        return fetchedItems.get();
+    }
+
+
+    /**
+     * @return number of queries held, including any that have expired but not been removed yet.
+     */
+    public synchronized int getSize() {
+        return queries.size();
+    }
+
+
+    /*
+     * The query, or null if it is not held or has expired.
+     */
+    private Query current(String query) {
+        Query q = queries.get(query);
+        if (q != null && System.nanoTime() - q.expiresNanos >= 0) {
+            queries.remove(query);
+            return null;
+        }
+        return q;
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ queries=").append(this.getSize()).append(" | ");
+        sb.append("hits=").append(this.getHitCount()).append(" | ");
+        sb.append("misses=").append(this.getMissCount()).append(" | ");
+        sb.append("fetchedItems=").append(this.getFetchedItemCount()).append(" ]");
+
+        return sb.toString();
+    }
+
+
+    /**
+     * A window of results served from the cache.
+     */
+    public static final class Window {
+
+        private final List<Object> items;
+
+        private final int total;
+
+
+        /**
+         * @param items the results in the window.
+         * @param total the total reported with them.
+         */
+        public Window(List<?> items, int total) {
+            this.items = Collections.unmodifiableList(new ArrayList<Object>(items));
+            this.total = total;
+        }
+
+
+        /**
+         * @return the results in the window. Fewer than the limit if the results end inside it.
+         */
+        public List<Object> getItems() {
+            return items;
+        }
+
+
+        /**
+         * @return the total reported with the most recent page of the query.
+         */
+        public int getTotal() {
+            return total;
+        }
+    }
+
+
+    /**
+     * A range of positions to fetch.
+     */
+    public static final class Range {
+
+        private final int skip;
+
+        private final int limit;
+
+
+        Range(int skip, int limit) {
+            this.skip = skip;
+            this.limit = limit;
+        }
+
+
+        public int getSkip() {
+            return skip;
+        }
+
+
+        public int getLimit() {
+            return limit;
+        }
+
+
+        @Override
+        public String toString() {
+            return "[" + skip + ", " + (skip + limit) + ")";
+        }
+    }
+
+
+    /*
+     * The ranges held for one query, keyed by their first position. Ranges
+     * never touch or overlap.
+     */
+    private static final class Query {
+
+        private final long expiresNanos;
+
+        private final TreeMap<Integer, Object[]> ranges = new TreeMap<Integer, Object[]>();
+
+        /* Position after the last result, or -1 if not known. */
+        private int end = -1;
+
+        private int total;
+
+
+        Query(long expiresNanos) {
+            this.expiresNanos = expiresNanos;
+        }
+
+
+        /*
+         * The end of the window, cut at the end of the results if known.
+         */
+        private int stop(int skip, int limit) {
+            long stop = (long) skip + limit;
+            if (end >= 0 && end < stop) {
+                stop = end;
+            }
+            return (int) Math.min(stop, Integer.MAX_VALUE);
+        }
+
+
+        List<Object> get(int skip, int limit) {
+            int stop = stop(skip, limit);
+            List<Object> items = new ArrayList<Object>(Math.max(stop - skip, 0));
+            int pos = skip;
+            while (pos < stop) {
+                Map.Entry<Integer, Object[]> range = ranges.floorEntry(pos);
+                if (range == null || range.getKey() + range.getValue().length <= pos) {
+                    return null;
+                }
+                Object[] values = range.getValue();
+                int to = Math.min(values.length, stop - range.getKey());
+                items.addAll(Arrays.asList(values).subList(pos - range.getKey(), to));
+                pos = range.getKey() + to;
+            }
+            return items;
+        }
+
+
+        List<Range> missing(int skip, int limit) {
+            int stop = stop(skip, limit);
+            List<Range> gaps = new ArrayList<Range>();
+            int pos = skip;
+            while (pos < stop) {
+                Map.Entry<Integer, Object[]> range = ranges.floorEntry(pos);
+                if (range != null && range.getKey() + range.getValue().length > pos) {
+                    pos = range.getKey() + range.getValue().length;
+                    continue;
+                }
+                Integer next = ranges.higherKey(pos);
+                int gapEnd = next == null ? stop : Math.min(next, stop);
+                gaps.add(new Range(pos, gapEnd - pos));
+                pos = gapEnd;
+            }
+            return gaps;
+        }
+
+
+        void put(int skip, int limit, Object[] items, int total) {
+            this.total = total;
+            if (items.length < limit) {
+                end = skip + items.length;
+                // anything stored past the end is out of date
+                while (!ranges.isEmpty() && ranges.lastKey() >= end) {
+                    ranges.remove(ranges.lastKey());
+                }
+                Map.Entry<Integer, Object[]> last = ranges.lastEntry();
+                if (last != null && last.getKey() + last.getValue().length > end) {
+                    ranges.put(last.getKey(), Arrays.copyOf(last.getValue(), end - last.getKey()));
+                }
+            }
+            if (items.length == 0) {
+                return;
+            }
+
+            // merge with every range that touches or overlaps the new one
+            int start = skip;
+            int stop = skip + items.length;
+            Map.Entry<Integer, Object[]> before = ranges.floorEntry(skip);
+            if (before != null && before.getKey() + before.getValue().length >= skip) {
+                start = before.getKey();
+            }
+            Map.Entry<Integer, Object[]> after = ranges.floorEntry(stop);
+            if (after != null) {
+                stop = Math.max(stop, after.getKey() + after.getValue().length);
+            }
+            Object[] merged = new Object[stop - start];
+            for (Map.Entry<Integer, Object[]> range : ranges.subMap(start, true, skip + items.length, true).entrySet()) {
+                System.arraycopy(range.getValue(), 0, merged, range.getKey() - start, range.getValue().length);
+            }
+            System.arraycopy(items, 0, merged, skip - start, items.length);
+            ranges.subMap(start, true, skip + items.length, true).clear();
+            ranges.put(start, merged);
+        }
+    }
+}
@@ -20,82 +20,70 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 
+
 /**
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>AudioFileMetadata.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks (jeremyb@whirljack.net)
  */
 public class AudioFileMetadata implements Serializable {
 
-	private static final long serialVersionUID = -1828373273102446538L;
-	private int commentCount;
-    private String createdAt;
-    private String createdBy;
-    private String fileUrl;
-    private String id;
-    private String word;
+    private static final long serialVersionUID = -1828373273102446538L;
 
+    private final int commentCount;
 
-    /**
-     * @return the commentCount
-     */
-    public int getCommentCount() {
-	return commentCount;
-    }
+    private final String createdAt;
 
+    private final String createdBy;
 
-    /**
-     * @param commentCount the commentCount to set
-     */
-    public void setCommentCount(int commentCount) {
-	this.commentCount = commentCount;
-    }
+    private final String fileUrl;
 
+    private final String id;
 
-    /**
-     * @return the createdAt
-     */
-    public String getCreatedAt() {
-	return createdAt;
-    }
+    private final String word;
 
 
-    /**
-     * @param createdAt the createdAt to set
-     */
-    public void setCreatedAt(String createdAt) {
-	this.createdAt = createdAt;
+    private AudioFileMetadata(Builder builder) {
+        this.commentCount = builder.commentCount;
+        this.createdAt = builder.createdAt;
+        this.createdBy = builder.createdBy;
+        this.fileUrl = builder.fileUrl;
+        this.id = builder.id;
+        this.word = builder.word;
     }
 
 
     /**
-     * @return the createdBy
+     * @return the commentCount
      */
-    public String getCreatedBy() {
-	return createdBy;
+    public int getCommentCount() {
+        return commentCount;
     }
 
 
     /**
-     * @param createdBy the createdBy to set
+     * @return the createdAt
      */
-    public void setCreatedBy(String createdBy) {
-	this.createdBy = createdBy;
+    public String getCreatedAt() {
+        return createdAt;
     }
 
 
     /**
-     * @return the fileUrl
+     * @return the createdBy
      */
-    public String getFileUrl() {
-	return fileUrl;
+    public String getCreatedBy() {
+        return createdBy;
     }
 
 
     /**
-     * @param fileUrl the fileUrl to set
+     * @return the fileUrl
      */
-    public void setFileUrl(String fileUrl) {
-	this.fileUrl = fileUrl;
+    public String getFileUrl() {
+        return fileUrl;
     }
 
 
@@ -103,15 +91,7 @@ public class AudioFileMetadata implements Serializable {
      * @return the id
      */
     public String getId() {
-	return id;
-    }
-
-
-    /**
-     * @param id the id to set
-     */
-    public void setId(String id) {
-	this.id = id;
+        return id;
     }
 
 
@@ -119,29 +99,127 @@ public class AudioFileMetadata implements Serializable {
      * @return the word
      */
     public String getWord() {
-	return word;
+        return word;
     }
 
 
-    /**
-     * @param word the word to set
-     */
-    public void setWord(String word) {
-	this.word = word;
-    }
-
-    
     @Override
     public String toString() {
-	StringBuilder sb = new StringBuilder(this.getClass().getName());
+    StringBuilder sb = new StringBuilder(this.getClass().getName());
 
-	sb.append(": [ ").append("commentCount=").append(this.commentCount).append(" | ");
-	sb.append("createdAt=").append(this.createdAt).append(" | ");
-	sb.append("createdBy=").append(this.createdBy).append(" | ");
-	sb.append("fileUrl=").append(this.fileUrl).append(" | ");
-	sb.append("id=").append(this.id).append(" | ");
-	sb.append("word=").append(this.word).append(" ]");
+    sb.append(": [ ").append("commentCount=").append(this.commentCount).append(" | ");
+    sb.append("createdAt=").append(this.createdAt).append(" | ");
+    sb.append("createdBy=").append(this.createdBy).append(" | ");
+    sb.append("fileUrl=").append(this.fileUrl).append(" | ");
+    sb.append("id=").append(this.id).append(" | ");
+    sb.append("word=").append(this.word).append(" ]");
 
-	return sb.toString();
+    return sb.toString();
+    }
+
+
+    /**
+     * Builds immutable <code>AudioFileMetadata</code> instances.
+     */
+    public static class Builder {
+
+        private int commentCount;
+
+        private String createdAt;
+
+        private String createdBy;
+
+        private String fileUrl;
+
+        private String id;
+
+        private String word;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(AudioFileMetadata source) {
+            this.commentCount = source.commentCount;
+            this.createdAt = source.createdAt;
+            this.createdBy = source.createdBy;
+            this.fileUrl = source.fileUrl;
+            this.id = source.id;
+            this.word = source.word;
+        }
+
+
+        /**
+         * @param commentCount the commentCount to set
+         * @return this builder.
+         */
+        public Builder commentCount(int commentCount) {
+            this.commentCount = commentCount;
+            return this;
+        }
+
+
+        /**
+         * @param createdAt the createdAt to set
+         * @return this builder.
+         */
+        public Builder createdAt(String createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+
+
+        /**
+         * @param createdBy the createdBy to set
+         * @return this builder.
+         */
+        public Builder createdBy(String createdBy) {
+            this.createdBy = createdBy;
+            return this;
+        }
+
+
+        /**
+         * @param fileUrl the fileUrl to set
+         * @return this builder.
+         */
+        public Builder fileUrl(String fileUrl) {
+            this.fileUrl = fileUrl;
+            return this;
+        }
+
+
+        /**
+         * @param id the id to set
+         * @return this builder.
+         */
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+
+        /**
+         * @param word the word to set
+         * @return this builder.
+         */
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>AudioFileMetadata</code>.
+         */
+        public AudioFileMetadata build() {
+            return new AudioFileMetadata(this);
+        }
     }
 }
@@ -20,31 +20,35 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 
+
 /**
  * Represents data returned by a call to the Wordnik authenticate API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>AuthenticationToken.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class AuthenticationToken implements Serializable {
 
-	private static final long serialVersionUID = -1394179631959846065L;
-	private String token;
-    private String userId;
+    private static final long serialVersionUID = -1394179631959846065L;
 
+    private final String token;
 
-    /**
-     * @return the token
-     */
-    public String getToken() {
-        return token;
+    private final String userId;
+
+
+    private AuthenticationToken(Builder builder) {
+        this.token = builder.token;
+        this.userId = builder.userId;
     }
 
 
     /**
-     * @param token the token to set
+     * @return the token
      */
-    public void setToken(String token) {
-        this.token = token;
+    public String getToken() {
+        return token;
     }
 
 
@@ -56,14 +60,6 @@ public class AuthenticationToken implements Serializable {
     }
 
 
-    /**
-     * @param userId the userId to set
-     */
-    public void setUserId(String userId) {
-        this.userId = userId;
-    }
-
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -73,4 +69,58 @@ public class AuthenticationToken implements Serializable {
 
         return sb.toString();
     }
+
+
+    /**
+     * Builds immutable <code>AuthenticationToken</code> instances.
+     */
+    public static class Builder {
+
+        private String token;
+
+        private String userId;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(AuthenticationToken source) {
+            this.token = source.token;
+            this.userId = source.userId;
+        }
+
+
+        /**
+         * @param token the token to set
+         * @return this builder.
+         */
+        public Builder token(String token) {
+            this.token = token;
+            return this;
+        }
+
+
+        /**
+         * @param userId the userId to set
+         * @return this builder.
+         */
+        public Builder userId(String userId) {
+            this.userId = userId;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>AuthenticationToken</code>.
+         */
+        public AuthenticationToken build() {
+            return new AuthenticationToken(this);
+        }
+    }
 }
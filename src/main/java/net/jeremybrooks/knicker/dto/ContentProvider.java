@@ -20,34 +20,38 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 
+
 /**
  * Represents ContentProvider data returned from Wordnik.
  * <p/>
  * It appears that ContentProvider and Provider are identical. Some data structures
  * returned from Wordnik use ContentProvider, and some use Provider.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>ContentProvider.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class ContentProvider implements Serializable {
 
-	private static final long serialVersionUID = -4035932080288979869L;
-	private String id;
-    private String name;
+    private static final long serialVersionUID = -4035932080288979869L;
 
+    private final String id;
 
-    /**
-     * @return the id
-     */
-    public String getId() {
-        return id;
+    private final String name;
+
+
+    private ContentProvider(Builder builder) {
+        this.id = builder.id;
+        this.name = builder.name;
     }
 
 
     /**
-     * @param id the id to set
+     * @return the id
      */
-    public void setId(String id) {
-        this.id = id;
+    public String getId() {
+        return id;
     }
 
 
@@ -59,14 +63,6 @@ public class ContentProvider implements Serializable {
     }
 
 
-    /**
-     * @param name the name to set
-     */
-    public void setName(String name) {
-        this.name = name;
-    }
-
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -78,4 +74,57 @@ public class ContentProvider implements Serializable {
         return sb.toString();
     }
 
+
+    /**
+     * Builds immutable <code>ContentProvider</code> instances.
+     */
+    public static class Builder {
+
+        private String id;
+
+        private String name;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(ContentProvider source) {
+            this.id = source.id;
+            this.name = source.name;
+        }
+
+
+        /**
+         * @param id the id to set
+         * @return this builder.
+         */
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+
+        /**
+         * @param name the name to set
+         * @return this builder.
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>ContentProvider</code>.
+         */
+        public ContentProvider build() {
+            return new ContentProvider(this);
+        }
+    }
 }
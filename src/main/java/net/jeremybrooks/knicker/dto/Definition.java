@@ -23,28 +23,40 @@ import java.io.Serializable;
 
 /**
  * Represents data returned by a call to the Wordnik definitions API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>Definition.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks (jeremyb@whirljack.net)
  * @author Boris Goldowski (patch for attribution text support)
  */
 public class Definition implements Serializable {
 
-	private static final long serialVersionUID = -2518164900481852360L;
-	private int sequence;
+    private static final long serialVersionUID = -2518164900481852360L;
 
-    private String text;
+    private final int sequence;
 
-    private String word;
+    private final String text;
 
-    private String partOfSpeech;
+    private final String word;
 
-    private String sourceDictionary;
+    private final String partOfSpeech;
 
-    private String score;
+    private final String sourceDictionary;
 
-    private String attributionText;
+    private final String score;
 
-    public Definition() {
+    private final String attributionText;
+
+
+    private Definition(Builder builder) {
+        this.sequence = builder.sequence;
+        this.text = builder.text;
+        this.word = builder.word;
+        this.partOfSpeech = builder.partOfSpeech;
+        this.sourceDictionary = builder.sourceDictionary;
+        this.score = builder.score;
+        this.attributionText = builder.attributionText;
     }
 
 
@@ -56,14 +68,6 @@ public class Definition implements Serializable {
     }
 
 
-    /**
-     * @param sequence the sequence to set
-     */
-    public void setSequence(int sequence) {
-        this.sequence = sequence;
-    }
-
-
     /**
      * @return the text
      */
@@ -72,14 +76,6 @@ public class Definition implements Serializable {
     }
 
 
-    /**
-     * @param text the text to set
-     */
-    public void setText(String text) {
-        this.text = text;
-    }
-
-
     /**
      * @return the word
      */
@@ -88,30 +84,6 @@ public class Definition implements Serializable {
     }
 
 
-    /**
-     * @param word the word to set
-     */
-    public void setWord(String word) {
-        this.word = word;
-    }
-
-
-//    /**
-//     * @return the labels
-//     */
-//    public List<Label> getLabels() {
-//	return labels;
-//    }
-//
-//
-//    /**
-//     * @return the notes
-//     */
-//    public List<Note> getNotes() {
-//	return notes;
-//    }
-
-
     /**
      * @return the partOfSpeech
      */
@@ -121,46 +93,28 @@ public class Definition implements Serializable {
 
 
     /**
-     * @param partOfSpeech the partOfSpeech to set
+     * @return the sourceDictionary
      */
-    public void setPartOfSpeech(String partOfSpeech) {
-        this.partOfSpeech = partOfSpeech;
+    public String getSourceDictionary() {
+        return sourceDictionary;
     }
 
 
-//    /**
-//     * @return the seqString
-//     */
-//    public String getSeqString() {
-//	return seqString;
-//    }
-//
-//
-//    /**
-//     * @param seqString the seqString to set
-//     */
-//    public void setSeqString(String seqString) {
-//	this.seqString = seqString;
-//    }
-
-
     /**
-     * Get the attribution text for this definition.
-     *
-     * @return attribution text.
+     * @return the score
      */
-    public String getAttributionText() {
-        return this.attributionText;
+    public String getScore() {
+        return score;
     }
 
 
     /**
-     * Set the attribution text for this definition.
+     * Get the attribution text for this definition.
      *
-     * @param attributionText the attribution text for this definition.
+     * @return attribution text.
      */
-    public void setAttributionText(String attributionText) {
-        this.attributionText = attributionText;
+    public String getAttributionText() {
+        return attributionText;
     }
 
 
@@ -183,34 +137,120 @@ public class Definition implements Serializable {
 
 
     /**
-     * @return the sourceDictionary
-     */
-    public String getSourceDictionary() {
-        return sourceDictionary;
-    }
-
-
-    /**
-     * @param sourceDictionary the sourceDictionary to set
+     * Builds immutable <code>Definition</code> instances.
      */
-    public void setSourceDictionary(String sourceDictionary) {
-        this.sourceDictionary = sourceDictionary;
-    }
+    public static class Builder {
 
+        private int sequence;
+
+        private String text;
 
-    /**
-     * @return the score
-     */
-    public String getScore() {
-        return score;
-    }
+        private String word;
 
+        private String partOfSpeech;
 
-    /**
-     * @param score the score to set
-     */
-    public void setScore(String score) {
-        this.score = score;
+        private String sourceDictionary;
+
+        private String score;
+
+        private String attributionText;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(Definition source) {
+            this.sequence = source.sequence;
+            this.text = source.text;
+            this.word = source.word;
+            this.partOfSpeech = source.partOfSpeech;
+            this.sourceDictionary = source.sourceDictionary;
+            this.score = source.score;
+            this.attributionText = source.attributionText;
+        }
+
+
+        /**
+         * @param sequence the sequence to set
+         * @return this builder.
+         */
+        public Builder sequence(int sequence) {
+            this.sequence = sequence;
+            return this;
+        }
+
+
+        /**
+         * @param text the text to set
+         * @return this builder.
+         */
+        public Builder text(String text) {
+            this.text = text;
+            return this;
+        }
+
+
+        /**
+         * @param word the word to set
+         * @return this builder.
+         */
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        /**
+         * @param partOfSpeech the partOfSpeech to set
+         * @return this builder.
+         */
+        public Builder partOfSpeech(String partOfSpeech) {
+            this.partOfSpeech = partOfSpeech;
+            return this;
+        }
+
+
+        /**
+         * @param sourceDictionary the sourceDictionary to set
+         * @return this builder.
+         */
+        public Builder sourceDictionary(String sourceDictionary) {
+            this.sourceDictionary = sourceDictionary;
+            return this;
+        }
+
+
+        /**
+         * @param score the score to set
+         * @return this builder.
+         */
+        public Builder score(String score) {
+            this.score = score;
+            return this;
+        }
+
+
+        /**
+         * @param attributionText the attributionText to set
+         * @return this builder.
+         */
+        public Builder attributionText(String attributionText) {
+            this.attributionText = attributionText;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>Definition</code>.
+         */
+        public Definition build() {
+            return new Definition(this);
+        }
     }
-
 }
@@ -19,145 +19,377 @@
 package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+
 /**
+ * Instances are immutable and safe to share between threads. Use
+ * <code>DefinitionSearchResult.Builder</code> to create new instances.
+ *
  * @author Jeremy Brooks
  */
 public class DefinitionSearchResult implements Serializable {
-	private static final long serialVersionUID = -7267749811481338545L;
-	private int sequence;
-	private String textProns;
-	private String sourceDictionary;
-	private String exampleUses;
-	private List<Related> relatedWords;
-	private String labels;
-	private String citations;
-	private String word;
-	private String attributionText;
-	private String text;
-	private String partOfSpeech;
-	private double score = 4.333;
-
-
-	public static long getSerialVersionUID() {
-		return serialVersionUID;
-	}
-
-	public int getSequence() {
-		return sequence;
-	}
-
-	public void setSequence(int sequence) {
-		this.sequence = sequence;
-	}
-
-	public String getTextProns() {
-		return textProns;
-	}
-
-	public void setTextProns(String textProns) {
-		this.textProns = textProns;
-	}
-
-	public String getSourceDictionary() {
-		return sourceDictionary;
-	}
-
-	public void setSourceDictionary(String sourceDictionary) {
-		this.sourceDictionary = sourceDictionary;
-	}
-
-	public String getExampleUses() {
-		return exampleUses;
-	}
-
-	public void setExampleUses(String exampleUses) {
-		this.exampleUses = exampleUses;
-	}
-
-	public List<Related> getRelatedWords() {
-		return relatedWords;
-	}
-
-	public void setRelatedWords(List<Related> relatedWords) {
-		this.relatedWords = relatedWords;
-	}
-
-	public String getLabels() {
-		return labels;
-	}
-
-	public void setLabels(String labels) {
-		this.labels = labels;
-	}
-
-	public String getCitations() {
-		return citations;
-	}
-
-	public void setCitations(String citations) {
-		this.citations = citations;
-	}
-
-	public String getWord() {
-		return word;
-	}
-
-	public void setWord(String word) {
-		this.word = word;
-	}
-
-	public String getAttributionText() {
-		return attributionText;
-	}
-
-	public void setAttributionText(String attributionText) {
-		this.attributionText = attributionText;
-	}
-
-	public String getText() {
-		return text;
-	}
-
-	public void setText(String text) {
-		this.text = text;
-	}
-
-	public String getPartOfSpeech() {
-		return partOfSpeech;
-	}
-
-	public void setPartOfSpeech(String partOfSpeech) {
-		this.partOfSpeech = partOfSpeech;
-	}
-
-	public double getScore() {
-		return score;
-	}
-
-	public void setScore(double score) {
-		this.score = score;
-	}
-
-
-	@Override
-	public String toString() {
-		final StringBuilder sb = new StringBuilder();
-		sb.append("net.jeremybrooks.knicker.dto.DefinitionSearchResult");
-		sb.append("{sequence=").append(sequence);
-		sb.append(" | textProns='").append(textProns).append('\'');
-		sb.append(" | sourceDictionary='").append(sourceDictionary).append('\'');
-		sb.append(" | exampleUses='").append(exampleUses).append('\'');
-		sb.append(" | relatedWords=").append(relatedWords);
-		sb.append(" | labels='").append(labels).append('\'');
-		sb.append(" | citations='").append(citations).append('\'');
-		sb.append(" | word='").append(word).append('\'');
-		sb.append(" | attributionText='").append(attributionText).append('\'');
-		sb.append(" | text='").append(text).append('\'');
-		sb.append(" | partOfSpeech='").append(partOfSpeech).append('\'');
-		sb.append(" | score=").append(score);
-		sb.append('}');
-		return sb.toString();
-	}
+
+    private static final long serialVersionUID = -7267749811481338545L;
+
+    private final int sequence;
+
+    private final String textProns;
+
+    private final String sourceDictionary;
+
+    private final String exampleUses;
+
+    private final List<Related> relatedWords;
+
+    private final String labels;
+
+    private final String citations;
+
+    private final String word;
+
+    private final String attributionText;
+
+    private final String text;
+
+    private final String partOfSpeech;
+
+    private final double score;
+
+
+    private DefinitionSearchResult(Builder builder) {
+        this.sequence = builder.sequence;
+        this.textProns = builder.textProns;
+        this.sourceDictionary = builder.sourceDictionary;
+        this.exampleUses = builder.exampleUses;
+        this.relatedWords = Collections.unmodifiableList(new ArrayList<Related>(builder.relatedWords));
+        this.labels = builder.labels;
+        this.citations = builder.citations;
+        this.word = builder.word;
+        this.attributionText = builder.attributionText;
+        this.text = builder.text;
+        this.partOfSpeech = builder.partOfSpeech;
+        this.score = builder.score;
+    }
+
+
+    public static long getSerialVersionUID() {
+        return serialVersionUID;
+    }
+
+
+    /**
+     * @return the sequence
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+
+    /**
+     * @return the textProns
+     */
+    public String getTextProns() {
+        return textProns;
+    }
+
+
+    /**
+     * @return the sourceDictionary
+     */
+    public String getSourceDictionary() {
+        return sourceDictionary;
+    }
+
+
+    /**
+     * @return the exampleUses
+     */
+    public String getExampleUses() {
+        return exampleUses;
+    }
+
+
+    /**
+     * @return the relatedWords; the returned list cannot be modified
+     */
+    public List<Related> getRelatedWords() {
+        return relatedWords;
+    }
+
+
+    /**
+     * @return the labels
+     */
+    public String getLabels() {
+        return labels;
+    }
+
+
+    /**
+     * @return the citations
+     */
+    public String getCitations() {
+        return citations;
+    }
+
+
+    /**
+     * @return the word
+     */
+    public String getWord() {
+        return word;
+    }
+
+
+    /**
+     * @return the attributionText
+     */
+    public String getAttributionText() {
+        return attributionText;
+    }
+
+
+    /**
+     * @return the text
+     */
+    public String getText() {
+        return text;
+    }
+
+
+    /**
+     * @return the partOfSpeech
+     */
+    public String getPartOfSpeech() {
+        return partOfSpeech;
+    }
+
+
+    /**
+     * @return the score
+     */
+    public double getScore() {
+        return score;
+    }
+
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("net.jeremybrooks.knicker.dto.DefinitionSearchResult");
+        sb.append("{sequence=").append(sequence);
+        sb.append(" | textProns='").append(textProns).append('\'');
+        sb.append(" | sourceDictionary='").append(sourceDictionary).append('\'');
+        sb.append(" | exampleUses='").append(exampleUses).append('\'');
+        sb.append(" | relatedWords=").append(relatedWords);
+        sb.append(" | labels='").append(labels).append('\'');
+        sb.append(" | citations='").append(citations).append('\'');
+        sb.append(" | word='").append(word).append('\'');
+        sb.append(" | attributionText='").append(attributionText).append('\'');
+        sb.append(" | text='").append(text).append('\'');
+        sb.append(" | partOfSpeech='").append(partOfSpeech).append('\'');
+        sb.append(" | score=").append(score);
+        sb.append('}');
+        return sb.toString();
+    }
+
+
+    /**
+     * Builds immutable <code>DefinitionSearchResult</code> instances.
+     */
+    public static class Builder {
+
+        private int sequence;
+
+        private String textProns;
+
+        private String sourceDictionary;
+
+        private String exampleUses;
+
+        private List<Related> relatedWords = new ArrayList<Related>();
+
+        private String labels;
+
+        private String citations;
+
+        private String word;
+
+        private String attributionText;
+
+        private String text;
+
+        private String partOfSpeech;
+
+        private double score = 4.333;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(DefinitionSearchResult source) {
+            this.sequence = source.sequence;
+            this.textProns = source.textProns;
+            this.sourceDictionary = source.sourceDictionary;
+            this.exampleUses = source.exampleUses;
+            this.relatedWords.addAll(source.relatedWords);
+            this.labels = source.labels;
+            this.citations = source.citations;
+            this.word = source.word;
+            this.attributionText = source.attributionText;
+            this.text = source.text;
+            this.partOfSpeech = source.partOfSpeech;
+            this.score = source.score;
+        }
+
+
+        /**
+         * @param sequence the sequence to set
+         * @return this builder.
+         */
+        public Builder sequence(int sequence) {
+            this.sequence = sequence;
+            return this;
+        }
+
+
+        /**
+         * @param textProns the textProns to set
+         * @return this builder.
+         */
+        public Builder textProns(String textProns) {
+            this.textProns = textProns;
+            return this;
+        }
+
+
+        /**
+         * @param sourceDictionary the sourceDictionary to set
+         * @return this builder.
+         */
+        public Builder sourceDictionary(String sourceDictionary) {
+            this.sourceDictionary = sourceDictionary;
+            return this;
+        }
+
+
+        /**
+         * @param exampleUses the exampleUses to set
+         * @return this builder.
+         */
+        public Builder exampleUses(String exampleUses) {
+            this.exampleUses = exampleUses;
+            return this;
+        }
+
+
+        /**
+         * @param relatedWords replaces the relatedWords; null clears them
+         * @return this builder.
+         */
+        public Builder relatedWords(List<Related> relatedWords) {
+            this.relatedWords.clear();
+            if (relatedWords != null) {
+                this.relatedWords.addAll(relatedWords);
+            }
+            return this;
+        }
+
+
+        /**
+         * @param related the related to add
+         * @return this builder.
+         */
+        public Builder addRelatedWord(Related related) {
+            this.relatedWords.add(related);
+            return this;
+        }
+
+
+        /**
+         * @param labels the labels to set
+         * @return this builder.
+         */
+        public Builder labels(String labels) {
+            this.labels = labels;
+            return this;
+        }
+
+
+        /**
+         * @param citations the citations to set
+         * @return this builder.
+         */
+        public Builder citations(String citations) {
+            this.citations = citations;
+            return this;
+        }
+
+
+        /**
+         * @param word the word to set
+         * @return this builder.
+         */
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        /**
+         * @param attributionText the attributionText to set
+         * @return this builder.
+         */
+        public Builder attributionText(String attributionText) {
+            this.attributionText = attributionText;
+            return this;
+        }
+
+
+        /**
+         * @param text the text to set
+         * @return this builder.
+         */
+        public Builder text(String text) {
+            this.text = text;
+            return this;
+        }
+
+
+        /**
+         * @param partOfSpeech the partOfSpeech to set
+         * @return this builder.
+         */
+        public Builder partOfSpeech(String partOfSpeech) {
+            this.partOfSpeech = partOfSpeech;
+            return this;
+        }
+
+
+        /**
+         * @param score the score to set
+         * @return this builder.
+         */
+        public Builder score(double score) {
+            this.score = score;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>DefinitionSearchResult</code>.
+         */
+        public DefinitionSearchResult build() {
+            return new DefinitionSearchResult(this);
+        }
+    }
 }
@@ -19,41 +19,122 @@
 package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+
 /**
+ * Instances are immutable and safe to share between threads. Use
+ * <code>DefinitionSearchResults.Builder</code> to create new instances.
+ *
  * @author Jeremy Brooks
  */
 public class DefinitionSearchResults implements Serializable {
-	private static final long serialVersionUID = -8102740880719365267L;
-	private int totalResults;
-	private List<DefinitionSearchResult> results;
 
+    private static final long serialVersionUID = -8102740880719365267L;
+
+    private final int totalResults;
+
+    private final List<DefinitionSearchResult> results;
+
+
+    private DefinitionSearchResults(Builder builder) {
+        this.totalResults = builder.totalResults;
+        this.results = Collections.unmodifiableList(new ArrayList<DefinitionSearchResult>(builder.results));
+    }
+
+
+    /**
+     * @return the totalResults
+     */
+    public int getTotalResults() {
+        return totalResults;
+    }
+
+
+    /**
+     * @return the results; the returned list cannot be modified
+     */
+    public List<DefinitionSearchResult> getResults() {
+        return results;
+    }
+
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("net.jeremybrooks.knicker.dto.DefinitionSearchResults");
+        sb.append("{totalResults=").append(totalResults);
+        sb.append(" | results=").append(results);
+        sb.append('}');
+        return sb.toString();
+    }
+
+
+    /**
+     * Builds immutable <code>DefinitionSearchResults</code> instances.
+     */
+    public static class Builder {
+
+        private int totalResults;
+
+        private List<DefinitionSearchResult> results = new ArrayList<DefinitionSearchResult>();
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(DefinitionSearchResults source) {
+            this.totalResults = source.totalResults;
+            this.results.addAll(source.results);
+        }
+
+
+        /**
+         * @param totalResults the totalResults to set
+         * @return this builder.
+         */
+        public Builder totalResults(int totalResults) {
+            this.totalResults = totalResults;
+            return this;
+        }
 
-	public int getTotalResults() {
-		return totalResults;
-	}
 
-	public void setTotalResults(int totalResults) {
-		this.totalResults = totalResults;
-	}
+        /**
+         * @param results replaces the results; null clears them
+         * @return this builder.
+         */
+        public Builder results(List<DefinitionSearchResult> results) {
+            this.results.clear();
+            if (results != null) {
+                this.results.addAll(results);
+            }
+            return this;
+        }
 
-	public List<DefinitionSearchResult> getResults() {
-		return results;
-	}
 
-	public void setResults(List<DefinitionSearchResult> results) {
-		this.results = results;
-	}
+        /**
+         * @param result the result to add
+         * @return this builder.
+         */
+        public Builder addResult(DefinitionSearchResult result) {
+            this.results.add(result);
+            return this;
+        }
 
 
-	@Override
-	public String toString() {
-		final StringBuilder sb = new StringBuilder();
-		sb.append("net.jeremybrooks.knicker.dto.DefinitionSearchResults");
-		sb.append("{totalResults=").append(totalResults);
-		sb.append(" | results=").append(results);
-		sb.append('}');
-		return sb.toString();
-	}
+        /**
+         * @return a new immutable <code>DefinitionSearchResults</code>.
+         */
+        public DefinitionSearchResults build() {
+            return new DefinitionSearchResults(this);
+        }
+    }
 }
@@ -23,130 +23,101 @@ import java.io.Serializable;
 
 /**
  * Represents data returned by a call to the Wordnik examples API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>Example.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class Example implements Serializable {
 
-	private static final long serialVersionUID = -6063353481846670987L;
-	private String text;
-    private String exampleId;
-    private String documentId;
-    private Provider provider;
-    private String rating;
-    private String title;
-    private String url;
-    private String word;
-    private String year;
+    private static final long serialVersionUID = -6063353481846670987L;
 
-    /**
-     * @return the documentId
-     */
-    public String getDocumentId() {
-        return documentId;
-    }
+    private final String text;
 
+    private final String exampleId;
 
-    /**
-     * @param documentId the documentId to set
-     */
-    public void setDocumentId(String documentId) {
-        this.documentId = documentId;
-    }
+    private final String documentId;
 
+    private final Provider provider;
 
-    /**
-     * @return the exampleId
-     */
-    public String getExampleId() {
-        return exampleId;
-    }
+    private final String rating;
 
+    private final String title;
 
-    /**
-     * @param exampleId the exampleId to set
-     */
-    public void setExampleId(String exampleId) {
-        this.exampleId = exampleId;
-    }
-
-    /**
-     * @return the rating
-     */
-    public String getRating() {
-        return rating;
-    }
+    private final String url;
 
+    private final String word;
 
-    /**
-     * @param rating the rating to set
-     */
-    public void setRating(String rating) {
-        this.rating = rating;
-    }
+    private final String year;
 
 
-    /**
-     * @return the title
-     */
-    public String getTitle() {
-        return title;
+    private Example(Builder builder) {
+        this.text = builder.text;
+        this.exampleId = builder.exampleId;
+        this.documentId = builder.documentId;
+        this.provider = builder.provider;
+        this.rating = builder.rating;
+        this.title = builder.title;
+        this.url = builder.url;
+        this.word = builder.word;
+        this.year = builder.year;
     }
 
 
     /**
-     * @param title the title to set
+     * @return the text
      */
-    public void setTitle(String title) {
-        this.title = title;
+    public String getText() {
+        return text;
     }
 
 
     /**
-     * @return the url
+     * @return the exampleId
      */
-    public String getUrl() {
-        return url;
+    public String getExampleId() {
+        return exampleId;
     }
 
 
     /**
-     * @param url the url to set
+     * @return the documentId
      */
-    public void setUrl(String url) {
-        this.url = url;
+    public String getDocumentId() {
+        return documentId;
     }
 
 
     /**
-     * @return the text
+     * @return the provider
      */
-    public String getText() {
-        return text;
+    public Provider getProvider() {
+        return provider;
     }
 
 
     /**
-     * @param text the text to set
+     * @return the rating
      */
-    public void setText(String text) {
-        this.text = text;
+    public String getRating() {
+        return rating;
     }
 
 
     /**
-     * @return the year
+     * @return the title
      */
-    public String getYear() {
-        return year;
+    public String getTitle() {
+        return title;
     }
 
 
     /**
-     * @param year the year to set
+     * @return the url
      */
-    public void setYear(String year) {
-        this.year = year;
+    public String getUrl() {
+        return url;
     }
 
 
@@ -159,26 +130,10 @@ public class Example implements Serializable {
 
 
     /**
-     * @param word the word to set
-     */
-    public void setWord(String word) {
-        this.word = word;
-    }
-
-
-    /**
-     * @return the provider
-     */
-    public Provider getProvider() {
-        return provider;
-    }
-
-
-    /**
-     * @param provider the provider to set
+     * @return the year
      */
-    public void setProvider(Provider provider) {
-        this.provider = provider;
+    public String getYear() {
+        return year;
     }
 
 
@@ -209,4 +164,149 @@ public class Example implements Serializable {
         sb.append(" ]");
         return sb.toString();
     }
+
+
+    /**
+     * Builds immutable <code>Example</code> instances.
+     */
+    public static class Builder {
+
+        private String text;
+
+        private String exampleId;
+
+        private String documentId;
+
+        private Provider provider;
+
+        private String rating;
+
+        private String title;
+
+        private String url;
+
+        private String word;
+
+        private String year;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(Example source) {
+            this.text = source.text;
+            this.exampleId = source.exampleId;
+            this.documentId = source.documentId;
+            this.provider = source.provider;
+            this.rating = source.rating;
+            this.title = source.title;
+            this.url = source.url;
+            this.word = source.word;
+            this.year = source.year;
+        }
+
+
+        /**
+         * @param text the text to set
+         * @return this builder.
+         */
+        public Builder text(String text) {
+            this.text = text;
+            return this;
+        }
+
+
+        /**
+         * @param exampleId the exampleId to set
+         * @return this builder.
+         */
+        public Builder exampleId(String exampleId) {
+            this.exampleId = exampleId;
+            return this;
+        }
+
+
+        /**
+         * @param documentId the documentId to set
+         * @return this builder.
+         */
+        public Builder documentId(String documentId) {
+            this.documentId = documentId;
+            return this;
+        }
+
+
+        /**
+         * @param provider the provider to set
+         * @return this builder.
+         */
+        public Builder provider(Provider provider) {
+            this.provider = provider;
+            return this;
+        }
+
+
+        /**
+         * @param rating the rating to set
+         * @return this builder.
+         */
+        public Builder rating(String rating) {
+            this.rating = rating;
+            return this;
+        }
+
+
+        /**
+         * @param title the title to set
+         * @return this builder.
+         */
+        public Builder title(String title) {
+            this.title = title;
+            return this;
+        }
+
+
+        /**
+         * @param url the url to set
+         * @return this builder.
+         */
+        public Builder url(String url) {
+            this.url = url;
+            return this;
+        }
+
+
+        /**
+         * @param word the word to set
+         * @return this builder.
+         */
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        /**
+         * @param year the year to set
+         * @return this builder.
+         */
+        public Builder year(String year) {
+            this.year = year;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>Example</code>.
+         */
+        public Example build() {
+            return new Example(this);
+        }
+    }
 }
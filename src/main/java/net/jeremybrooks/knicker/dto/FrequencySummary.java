@@ -18,36 +18,43 @@
 */
 package net.jeremybrooks.knicker.dto;
 
-
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
 /**
  * Represents data returned by a call to the Wordnik frequency API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>FrequencySummary.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class FrequencySummary implements Serializable {
 
-	private static final long serialVersionUID = 2263001296867261312L;
-	private List<Frequency> frequencies;
+    private static final long serialVersionUID = 2263001296867261312L;
+
+    private final List<Frequency> frequencies;
 
-    private String word;
+    private final String word;
 
-    private int totalCount;
+    private final int totalCount;
 
-    private int unknownYearCount;
+    private final int unknownYearCount;
 
 
-    public FrequencySummary() {
-        this.frequencies = new ArrayList<Frequency>();
+    private FrequencySummary(Builder builder) {
+        this.frequencies = Collections.unmodifiableList(new ArrayList<Frequency>(builder.frequencies));
+        this.word = builder.word;
+        this.totalCount = builder.totalCount;
+        this.unknownYearCount = builder.unknownYearCount;
     }
 
 
     /**
-     * @return the frequencies
+     * @return the frequencies; the returned list cannot be modified
      */
     public List<Frequency> getFrequencies() {
         return frequencies;
@@ -62,14 +69,6 @@ public class FrequencySummary implements Serializable {
     }
 
 
-    /**
-     * @param word the word to set
-     */
-    public void setWord(String word) {
-        this.word = word;
-    }
-
-
     /**
      * @return the totalCount
      */
@@ -78,14 +77,6 @@ public class FrequencySummary implements Serializable {
     }
 
 
-    /**
-     * @param totalCount the totalCount to set
-     */
-    public void setTotalCount(int totalCount) {
-        this.totalCount = totalCount;
-    }
-
-
     /**
      * @return the unknownYearCount
      */
@@ -94,22 +85,6 @@ public class FrequencySummary implements Serializable {
     }
 
 
-    /**
-     * @param unknownYearCount the unknownYearCount to set
-     */
-    public void setUnknownYearCount(int unknownYearCount) {
-        this.unknownYearCount = unknownYearCount;
-    }
-
-
-    public void addFrequency(int count, String year) {
-        Frequency frequency = new Frequency();
-        frequency.setCount(count);
-        frequency.setYear(year);
-        this.frequencies.add(frequency);
-    }
-
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -133,11 +108,19 @@ public class FrequencySummary implements Serializable {
     /**
      * Represents a frequency element.
      */
-    public class Frequency {
+    public static class Frequency implements Serializable {
+
+        private static final long serialVersionUID = 2263001296867261313L;
 
-        private int count;
+        private final int count;
 
-        private String year;
+        private final String year;
+
+
+        public Frequency(int count, String year) {
+            this.count = count;
+            this.year = year;
+        }
 
 
         /**
@@ -149,37 +132,114 @@ public class FrequencySummary implements Serializable {
 
 
         /**
-         * @param count the count to set
+         * @return the year
          */
-        public void setCount(int count) {
-            this.count = count;
+        public String getYear() {
+            return year;
+        }
+
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(this.getClass().getName());
+            sb.append(": [ count=").append(this.count).append(" | ");
+            sb.append("year=").append(this.year).append(" ]");
+
+            return sb.toString();
+        }
+    }
+
+
+    /**
+     * Builds immutable <code>FrequencySummary</code> instances.
+     */
+    public static class Builder {
+
+        private List<Frequency> frequencies = new ArrayList<Frequency>();
+
+        private String word;
+
+        private int totalCount;
+
+        private int unknownYearCount;
+
+
+        public Builder() {
         }
 
 
         /**
-         * @return the year
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
          */
-        public String getYear() {
-            return year;
+        public Builder(FrequencySummary source) {
+            this.frequencies.addAll(source.frequencies);
+            this.word = source.word;
+            this.totalCount = source.totalCount;
+            this.unknownYearCount = source.unknownYearCount;
         }
 
 
         /**
-         * @param year the year to set
+         * @param frequencies replaces the frequencies; null clears them
+         * @return this builder.
          */
-        public void setYear(String year) {
-            this.year = year;
+        public Builder frequencies(List<Frequency> frequencies) {
+            this.frequencies.clear();
+            if (frequencies != null) {
+                this.frequencies.addAll(frequencies);
+            }
+            return this;
         }
 
 
-        @Override
-        public String toString() {
-            StringBuilder sb = new StringBuilder(this.getClass().getName());
-            sb.append(": [ count=").append(this.count).append(" | ");
-            sb.append("year=").append(this.year).append(" ]");
+        /**
+         * @param count the count for the year
+         * @param year  the year
+         * @return this builder.
+         */
+        public Builder addFrequency(int count, String year) {
+            this.frequencies.add(new Frequency(count, year));
+            return this;
+        }
 
-            return sb.toString();
+
+        /**
+         * @param word the word to set
+         * @return this builder.
+         */
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        /**
+         * @param totalCount the totalCount to set
+         * @return this builder.
+         */
+        public Builder totalCount(int totalCount) {
+            this.totalCount = totalCount;
+            return this;
+        }
+
+
+        /**
+         * @param unknownYearCount the unknownYearCount to set
+         * @return this builder.
+         */
+        public Builder unknownYearCount(int unknownYearCount) {
+            this.unknownYearCount = unknownYearCount;
+            return this;
         }
 
+
+        /**
+         * @return a new immutable <code>FrequencySummary</code>.
+         */
+        public FrequencySummary build() {
+            return new FrequencySummary(this);
+        }
     }
 }
@@ -20,66 +20,60 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 
+
 /**
  * Represents data returned by a call to the Wordnik phrases API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>Phrase.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class Phrase implements Serializable {
 
-	private static final long serialVersionUID = -7945579472747777719L;
-	private int count;
-    private String mi;
-    private String wlmi;
-    private String gram1;
-    private String gram2;
+    private static final long serialVersionUID = -7945579472747777719L;
 
+    private final int count;
 
-    /**
-     * @return the count
-     */
-    public int getCount() {
-	return count;
-    }
+    private final String mi;
 
+    private final String wlmi;
 
-    /**
-     * @param count the count to set
-     */
-    public void setCount(int count) {
-	this.count = count;
-    }
+    private final String gram1;
 
+    private final String gram2;
 
-    /**
-     * @return the mi
-     */
-    public String getMi() {
-	return mi;
+
+    private Phrase(Builder builder) {
+        this.count = builder.count;
+        this.mi = builder.mi;
+        this.wlmi = builder.wlmi;
+        this.gram1 = builder.gram1;
+        this.gram2 = builder.gram2;
     }
 
 
     /**
-     * @param mi the mi to set
+     * @return the count
      */
-    public void setMi(String mi) {
-	this.mi = mi;
+    public int getCount() {
+        return count;
     }
 
 
     /**
-     * @return the wlmi
+     * @return the mi
      */
-    public String getWlmi() {
-	return wlmi;
+    public String getMi() {
+        return mi;
     }
 
 
     /**
-     * @param wlmi the wlmi to set
+     * @return the wlmi
      */
-    public void setWlmi(String wlmi) {
-	this.wlmi = wlmi;
+    public String getWlmi() {
+        return wlmi;
     }
 
 
@@ -87,45 +81,120 @@ public class Phrase implements Serializable {
      * @return the gram1
      */
     public String getGram1() {
-	return gram1;
+        return gram1;
     }
 
 
     /**
-     * @param gram1 the gram1 to set
+     * @return the gram2
      */
-    public void setGram1(String gram1) {
-	this.gram1 = gram1;
+    public String getGram2() {
+        return gram2;
     }
 
 
-    /**
-     * @return the gram2
-     */
-    public String getGram2() {
-	return gram2;
+    @Override
+    public String toString() {
+    StringBuilder sb = new StringBuilder(Word.class.getName());
+    sb.append(": [ count=").append(this.count).append(" | ");
+    sb.append("mi=").append(this.mi).append(" | ");
+    sb.append("wlmi=").append(this.wlmi).append(" | ");
+    sb.append("gram1=").append(this.gram1).append(" | ");
+    sb.append("gram2=").append(this.gram2).append(" ]");
+
+    return sb.toString();
     }
 
 
     /**
-     * @param gram2 the gram2 to set
+     * Builds immutable <code>Phrase</code> instances.
      */
-    public void setGram2(String gram2) {
-	this.gram2 = gram2;
-    }
+    public static class Builder {
 
+        private int count;
 
-    @Override
-    public String toString() {
-	StringBuilder sb = new StringBuilder(Word.class.getName());
-	sb.append(": [ count=").append(this.count).append(" | ");
-	sb.append("mi=").append(this.mi).append(" | ");
-	sb.append("wlmi=").append(this.wlmi).append(" | ");
-	sb.append("gram1=").append(this.gram1).append(" | ");
-	sb.append("gram2=").append(this.gram2).append(" ]");
-
-	return sb.toString();
-    }
+        private String mi;
+
+        private String wlmi;
+
+        private String gram1;
+
+        private String gram2;
+
+
+        public Builder() {
+        }
 
 
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(Phrase source) {
+            this.count = source.count;
+            this.mi = source.mi;
+            this.wlmi = source.wlmi;
+            this.gram1 = source.gram1;
+            this.gram2 = source.gram2;
+        }
+
+
+        /**
+         * @param count the count to set
+         * @return this builder.
+         */
+        public Builder count(int count) {
+            this.count = count;
+            return this;
+        }
+
+
+        /**
+         * @param mi the mi to set
+         * @return this builder.
+         */
+        public Builder mi(String mi) {
+            this.mi = mi;
+            return this;
+        }
+
+
+        /**
+         * @param wlmi the wlmi to set
+         * @return this builder.
+         */
+        public Builder wlmi(String wlmi) {
+            this.wlmi = wlmi;
+            return this;
+        }
+
+
+        /**
+         * @param gram1 the gram1 to set
+         * @return this builder.
+         */
+        public Builder gram1(String gram1) {
+            this.gram1 = gram1;
+            return this;
+        }
+
+
+        /**
+         * @param gram2 the gram2 to set
+         * @return this builder.
+         */
+        public Builder gram2(String gram2) {
+            this.gram2 = gram2;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>Phrase</code>.
+         */
+        public Phrase build() {
+            return new Phrase(this);
+        }
+    }
 }
@@ -20,32 +20,38 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 
+
 /**
  * Represents data returned by a call to the Wordnik pronunciations API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>Pronunciation.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class Pronunciation implements Serializable {
 
-	private static final long serialVersionUID = -6987796220378505558L;
-	private String id;
-    private String raw;
-    private String rawType;
+    private static final long serialVersionUID = -6987796220378505558L;
 
+    private final String id;
 
-    /**
-     * @return the id
-     */
-    public String getId() {
-        return id;
+    private final String raw;
+
+    private final String rawType;
+
+
+    private Pronunciation(Builder builder) {
+        this.id = builder.id;
+        this.raw = builder.raw;
+        this.rawType = builder.rawType;
     }
 
 
     /**
-     * @param id the id to set
+     * @return the id
      */
-    public void setId(String id) {
-        this.id = id;
+    public String getId() {
+        return id;
     }
 
 
@@ -57,14 +63,6 @@ public class Pronunciation implements Serializable {
     }
 
 
-    /**
-     * @param raw the raw to set
-     */
-    public void setRaw(String raw) {
-        this.raw = raw;
-    }
-
-
     /**
      * @return the rawType
      */
@@ -73,14 +71,6 @@ public class Pronunciation implements Serializable {
     }
 
 
-    /**
-     * @param rawType the rawType to set
-     */
-    public void setRawType(String rawType) {
-        this.rawType = rawType;
-    }
-
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -91,4 +81,71 @@ public class Pronunciation implements Serializable {
 
         return sb.toString();
     }
+
+
+    /**
+     * Builds immutable <code>Pronunciation</code> instances.
+     */
+    public static class Builder {
+
+        private String id;
+
+        private String raw;
+
+        private String rawType;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(Pronunciation source) {
+            this.id = source.id;
+            this.raw = source.raw;
+            this.rawType = source.rawType;
+        }
+
+
+        /**
+         * @param id the id to set
+         * @return this builder.
+         */
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+
+        /**
+         * @param raw the raw to set
+         * @return this builder.
+         */
+        public Builder raw(String raw) {
+            this.raw = raw;
+            return this;
+        }
+
+
+        /**
+         * @param rawType the rawType to set
+         * @return this builder.
+         */
+        public Builder rawType(String rawType) {
+            this.rawType = rawType;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>Pronunciation</code>.
+         */
+        public Pronunciation build() {
+            return new Pronunciation(this);
+        }
+    }
 }
@@ -23,30 +23,32 @@ import java.io.Serializable;
 
 /**
  * Represents a provider element in data returned from Wordnik.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>Provider.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class Provider implements Serializable {
 
-	private static final long serialVersionUID = -2556740121367475009L;
-	private String id;
+    private static final long serialVersionUID = -2556740121367475009L;
 
-    private String name;
+    private final String id;
 
+    private final String name;
 
-    /**
-     * @return the id
-     */
-    public String getId() {
-        return id;
+
+    private Provider(Builder builder) {
+        this.id = builder.id;
+        this.name = builder.name;
     }
 
 
     /**
-     * @param id the id to set
+     * @return the id
      */
-    public void setId(String id) {
-        this.id = id;
+    public String getId() {
+        return id;
     }
 
 
@@ -58,14 +60,6 @@ public class Provider implements Serializable {
     }
 
 
-    /**
-     * @param name the name to set
-     */
-    public void setName(String name) {
-        this.name = name;
-    }
-
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -75,4 +69,57 @@ public class Provider implements Serializable {
         return sb.toString();
     }
 
+
+    /**
+     * Builds immutable <code>Provider</code> instances.
+     */
+    public static class Builder {
+
+        private String id;
+
+        private String name;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(Provider source) {
+            this.id = source.id;
+            this.name = source.name;
+        }
+
+
+        /**
+         * @param id the id to set
+         * @return this builder.
+         */
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+
+        /**
+         * @param name the name to set
+         * @return this builder.
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>Provider</code>.
+         */
+        public Provider build() {
+            return new Provider(this);
+        }
+    }
 }
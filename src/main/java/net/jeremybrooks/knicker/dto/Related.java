@@ -18,27 +18,32 @@
 */
 package net.jeremybrooks.knicker.dto;
 
-
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
 /**
  * Represents data returned by a call to the Wordnik related API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>Related.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class Related implements Serializable {
 
-	private static final long serialVersionUID = -6573884162214865856L;
-	private String relationshipType;
+    private static final long serialVersionUID = -6573884162214865856L;
+
+    private final String relationshipType;
 
-    private List<String> words;
+    private final List<String> words;
 
 
-    public Related() {
-        this.words = new ArrayList<String>();
+    private Related(Builder builder) {
+        this.relationshipType = builder.relationshipType;
+        this.words = Collections.unmodifiableList(new ArrayList<String>(builder.words));
     }
 
 
@@ -51,26 +56,13 @@ public class Related implements Serializable {
 
 
     /**
-     * @param relationshipType the relationshipType to set
-     */
-    public void setRelationshipType(String relationshipType) {
-        this.relationshipType = relationshipType;
-    }
-
-
-    /**
-     * @return the list of words
+     * @return the words; the returned list cannot be modified
      */
     public List<String> getWords() {
         return words;
     }
 
 
-    public void addWord(String word) {
-        this.words.add(word);
-    }
-
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -88,4 +80,70 @@ public class Related implements Serializable {
         return sb.toString();
     }
 
+
+    /**
+     * Builds immutable <code>Related</code> instances.
+     */
+    public static class Builder {
+
+        private String relationshipType;
+
+        private List<String> words = new ArrayList<String>();
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(Related source) {
+            this.relationshipType = source.relationshipType;
+            this.words.addAll(source.words);
+        }
+
+
+        /**
+         * @param relationshipType the relationshipType to set
+         * @return this builder.
+         */
+        public Builder relationshipType(String relationshipType) {
+            this.relationshipType = relationshipType;
+            return this;
+        }
+
+
+        /**
+         * @param words replaces the words; null clears them
+         * @return this builder.
+         */
+        public Builder words(List<String> words) {
+            this.words.clear();
+            if (words != null) {
+                this.words.addAll(words);
+            }
+            return this;
+        }
+
+
+        /**
+         * @param word the word to add
+         * @return this builder.
+         */
+        public Builder addWord(String word) {
+            this.words.add(word);
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>Related</code>.
+         */
+        public Related build() {
+            return new Related(this);
+        }
+    }
 }
@@ -23,123 +23,27 @@ import java.io.Serializable;
 
 /**
  * Represents data returned by a call to the Wordnik search API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>SearchResult.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class SearchResult implements Serializable {
 
-	private static final long serialVersionUID = -6718508932509586642L;
-	private int count;
-    private String lexicality;
-    private String word;
+    private static final long serialVersionUID = -6718508932509586642L;
 
-//    private int matches;
-//
-//    private int more;
-//
-//    private List<Match> matchList;
-//
-//    private int searchTermCount;
-//
-//    private String searchTermWordstring;
+    private final int count;
 
+    private final String lexicality;
 
-    public SearchResult() {
-//	this.matchList = new ArrayList<Match>();
-    }
-
-
-//    /**
-//     * @return the matches
-//     */
-//    public int getMatches() {
-//	return matches;
-//    }
-//
-//
-//    /**
-//     * @param matches the matches to set
-//     */
-//    public void setMatches(int matches) {
-//	this.matches = matches;
-//    }
-//
-//
-//    /**
-//     * @return the more
-//     */
-//    public int getMore() {
-//	return more;
-//    }
-//
-//
-//    /**
-//     * @param more the more to set
-//     */
-//    public void setMore(int more) {
-//	this.more = more;
-//    }
-//
-//
-//    /**
-//     * @return the matchList
-//     */
-//    public List<Match> getMatchList() {
-//	return matchList;
-//    }
-//
-//
-//    public void addMatch(int count, String wordstring) {
-//	Match match = new Match();
-//	match.setCount(count);
-//	match.setWordstring(wordstring);
-//	this.matchList.add(match);
-//    }
-//
-//
-//    /**
-//     * @return the searchTermCount
-//     */
-//    public int getSearchTermCount() {
-//	return searchTermCount;
-//    }
-//
-//
-//    /**
-//     * @param searchTermCount the searchTermCount to set
-//     */
-//    public void setSearchTermCount(int searchTermCount) {
-//	this.searchTermCount = searchTermCount;
-//    }
-//
-//
-//    /**
-//     * @return the searchTermWordstring
-//     */
-//    public String getSearchTermWordstring() {
-//	return searchTermWordstring;
-//    }
-//
-//
-//    /**
-//     * @param searchTermWordstring the searchTermWordstring to set
-//     */
-//    public void setSearchTermWordstring(String searchTermWordstring) {
-//	this.searchTermWordstring = searchTermWordstring;
-//    }
-
-
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder(this.getClass().getName());
-        sb.append(": [ ");
-        sb.append("count=").append(this.count).append(" | ");
-        sb.append("lexicality=").append(this.lexicality).append(" | ");
-        sb.append("word=").append(this.word);
+    private final String word;
 
-        sb.append(" ]");
 
-        return sb.toString();
+    private SearchResult(Builder builder) {
+        this.count = builder.count;
+        this.lexicality = builder.lexicality;
+        this.word = builder.word;
     }
 
 
@@ -151,14 +55,6 @@ public class SearchResult implements Serializable {
     }
 
 
-    /**
-     * @param count the count to set
-     */
-    public void setCount(int count) {
-        this.count = count;
-    }
-
-
     /**
      * @return the lexicality
      */
@@ -167,14 +63,6 @@ public class SearchResult implements Serializable {
     }
 
 
-    /**
-     * @param lexicality the lexicality to set
-     */
-    public void setLexicality(String lexicality) {
-        this.lexicality = lexicality;
-    }
-
-
     /**
      * @return the word
      */
@@ -183,11 +71,83 @@ public class SearchResult implements Serializable {
     }
 
 
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ ");
+        sb.append("count=").append(this.count).append(" | ");
+        sb.append("lexicality=").append(this.lexicality).append(" | ");
+        sb.append("word=").append(this.word);
+
+        sb.append(" ]");
+
+        return sb.toString();
+    }
+
+
     /**
-     * @param word the word to set
+     * Builds immutable <code>SearchResult</code> instances.
      */
-    public void setWord(String word) {
-        this.word = word;
-    }
+    public static class Builder {
+
+        private int count;
+
+        private String lexicality;
 
+        private String word;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(SearchResult source) {
+            this.count = source.count;
+            this.lexicality = source.lexicality;
+            this.word = source.word;
+        }
+
+
+        /**
+         * @param count the count to set
+         * @return this builder.
+         */
+        public Builder count(int count) {
+            this.count = count;
+            return this;
+        }
+
+
+        /**
+         * @param lexicality the lexicality to set
+         * @return this builder.
+         */
+        public Builder lexicality(String lexicality) {
+            this.lexicality = lexicality;
+            return this;
+        }
+
+
+        /**
+         * @param word the word to set
+         * @return this builder.
+         */
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>SearchResult</code>.
+         */
+        public SearchResult build() {
+            return new SearchResult(this);
+        }
+    }
 }
@@ -18,27 +18,59 @@
 */
 package net.jeremybrooks.knicker.dto;
 
-
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
 /**
  * Represents data returned by a call to the Wordnik search API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>SearchResults.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class SearchResults implements Serializable {
 
-	private static final long serialVersionUID = 7715395616547902974L;
-	private int total;
-    private List<SearchResult> searchResults;
-    private List<Example> examples;
+    private static final long serialVersionUID = 7715395616547902974L;
+
+    private final int total;
+
+    private final List<SearchResult> searchResults;
+
+    private final List<Example> examples;
+
+
+    private SearchResults(Builder builder) {
+        this.total = builder.total;
+        this.searchResults = Collections.unmodifiableList(new ArrayList<SearchResult>(builder.searchResults));
+        this.examples = Collections.unmodifiableList(new ArrayList<Example>(builder.examples));
+    }
+
+
+    /**
+     * @return the total
+     */
+    public int getTotal() {
+        return total;
+    }
+
+
+    /**
+     * @return the searchResults; the returned list cannot be modified
+     */
+    public List<SearchResult> getSearchResults() {
+        return searchResults;
+    }
 
-    public SearchResults() {
-        this.searchResults = new ArrayList<SearchResult>();
-        this.examples = new ArrayList<Example>();
+
+    /**
+     * @return the examples; the returned list cannot be modified
+     */
+    public List<Example> getExamples() {
+        return examples;
     }
 
 
@@ -63,48 +95,94 @@ public class SearchResults implements Serializable {
 
 
     /**
-     * @return the total
+     * Builds immutable <code>SearchResults</code> instances.
      */
-    public int getTotal() {
-        return total;
-    }
+    public static class Builder {
 
+        private int total;
 
-    /**
-     * @param total the total to set
-     */
-    public void setTotal(int total) {
-        this.total = total;
-    }
+        private List<SearchResult> searchResults = new ArrayList<SearchResult>();
 
+        private List<Example> examples = new ArrayList<Example>();
 
-    /**
-     * @return the results
-     */
-    public List<SearchResult> getSearchResults() {
-        return searchResults;
-    }
 
+        public Builder() {
+        }
 
-    /**
-     * @param searchResult the results to set
-     */
-    public void addSearchResult(SearchResult searchResult) {
-        this.searchResults.add(searchResult);
-    }
 
-    /**
-     * @return the examples
-     */
-    public List<Example> getExamples() {
-        return examples;
-    }
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(SearchResults source) {
+            this.total = source.total;
+            this.searchResults.addAll(source.searchResults);
+            this.examples.addAll(source.examples);
+        }
 
 
-    /**
-     * @param example the example to add to the list of examples.
-     */
-    public void addExample(Example example) {
-        this.examples.add(example);
+        /**
+         * @param total the total to set
+         * @return this builder.
+         */
+        public Builder total(int total) {
+            this.total = total;
+            return this;
+        }
+
+
+        /**
+         * @param searchResults replaces the searchResults; null clears them
+         * @return this builder.
+         */
+        public Builder searchResults(List<SearchResult> searchResults) {
+            this.searchResults.clear();
+            if (searchResults != null) {
+                this.searchResults.addAll(searchResults);
+            }
+            return this;
+        }
+
+
+        /**
+         * @param searchResult the searchResult to add
+         * @return this builder.
+         */
+        public Builder addSearchResult(SearchResult searchResult) {
+            this.searchResults.add(searchResult);
+            return this;
+        }
+
+
+        /**
+         * @param examples replaces the examples; null clears them
+         * @return this builder.
+         */
+        public Builder examples(List<Example> examples) {
+            this.examples.clear();
+            if (examples != null) {
+                this.examples.addAll(examples);
+            }
+            return this;
+        }
+
+
+        /**
+         * @param example the example to add
+         * @return this builder.
+         */
+        public Builder addExample(Example example) {
+            this.examples.add(example);
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>SearchResults</code>.
+         */
+        public SearchResults build() {
+            return new SearchResults(this);
+        }
     }
 }
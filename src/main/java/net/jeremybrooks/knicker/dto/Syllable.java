@@ -20,33 +20,38 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 
+
 /**
  * Represents a syllable element returned from the Wordnik API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>Syllable.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class Syllable implements Serializable {
 
+    private static final long serialVersionUID = 3323101537377996783L;
 
-	private static final long serialVersionUID = 3323101537377996783L;
-	private String type;
-    private int seq;
-    private String text;
+    private final String type;
 
+    private final int seq;
 
-    /**
-     * @return the type
-     */
-    public String getType() {
-        return type;
+    private final String text;
+
+
+    private Syllable(Builder builder) {
+        this.type = builder.type;
+        this.seq = builder.seq;
+        this.text = builder.text;
     }
 
 
     /**
-     * @param type the type to set
+     * @return the type
      */
-    public void setType(String type) {
-        this.type = type;
+    public String getType() {
+        return type;
     }
 
 
@@ -58,14 +63,6 @@ public class Syllable implements Serializable {
     }
 
 
-    /**
-     * @param seq the seq to set
-     */
-    public void setSeq(int seq) {
-        this.seq = seq;
-    }
-
-
     /**
      * @return the text
      */
@@ -74,13 +71,6 @@ public class Syllable implements Serializable {
     }
 
 
-    /**
-     * @param text the text to set
-     */
-    public void setText(String text) {
-        this.text = text;
-    }
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -91,4 +81,71 @@ public class Syllable implements Serializable {
 
         return sb.toString();
     }
+
+
+    /**
+     * Builds immutable <code>Syllable</code> instances.
+     */
+    public static class Builder {
+
+        private String type;
+
+        private int seq;
+
+        private String text;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(Syllable source) {
+            this.type = source.type;
+            this.seq = source.seq;
+            this.text = source.text;
+        }
+
+
+        /**
+         * @param type the type to set
+         * @return this builder.
+         */
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+
+
+        /**
+         * @param seq the seq to set
+         * @return this builder.
+         */
+        public Builder seq(int seq) {
+            this.seq = seq;
+            return this;
+        }
+
+
+        /**
+         * @param text the text to set
+         * @return this builder.
+         */
+        public Builder text(String text) {
+            this.text = text;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>Syllable</code>.
+         */
+        public Syllable build() {
+            return new Syllable(this);
+        }
+    }
 }
@@ -20,35 +20,47 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 
+
 /**
  * Represents data returned by a call to the Wordnik token status API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>TokenStatus.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class TokenStatus implements Serializable {
 
-	private static final long serialVersionUID = -663296789006258800L;
-	private long expiresInMillis;
-    private int remainingCalls;
-    private long resetsInMillis;
-    private String token;
-    private int totalRequests;
-    private boolean valid;
+    private static final long serialVersionUID = -663296789006258800L;
 
+    private final long expiresInMillis;
 
-    /**
-     * @return the expiresInMillis
-     */
-    public long getExpiresInMillis() {
-        return expiresInMillis;
+    private final int remainingCalls;
+
+    private final long resetsInMillis;
+
+    private final String token;
+
+    private final int totalRequests;
+
+    private final boolean valid;
+
+
+    private TokenStatus(Builder builder) {
+        this.expiresInMillis = builder.expiresInMillis;
+        this.remainingCalls = builder.remainingCalls;
+        this.resetsInMillis = builder.resetsInMillis;
+        this.token = builder.token;
+        this.totalRequests = builder.totalRequests;
+        this.valid = builder.valid;
     }
 
 
     /**
-     * @param expiresInMillis the expiresInMillis to set
+     * @return the expiresInMillis
      */
-    public void setExpiresInMillis(long expiresInMillis) {
-        this.expiresInMillis = expiresInMillis;
+    public long getExpiresInMillis() {
+        return expiresInMillis;
     }
 
 
@@ -60,14 +72,6 @@ public class TokenStatus implements Serializable {
     }
 
 
-    /**
-     * @param remainingCalls the remainingCalls to set
-     */
-    public void setRemainingCalls(int remainingCalls) {
-        this.remainingCalls = remainingCalls;
-    }
-
-
     /**
      * @return the resetsInMillis
      */
@@ -76,14 +80,6 @@ public class TokenStatus implements Serializable {
     }
 
 
-    /**
-     * @param resetsInMillis the resetsInMillis to set
-     */
-    public void setResetsInMillis(long resetsInMillis) {
-        this.resetsInMillis = resetsInMillis;
-    }
-
-
     /**
      * @return the token
      */
@@ -92,14 +88,6 @@ public class TokenStatus implements Serializable {
     }
 
 
-    /**
-     * @param token the token to set
-     */
-    public void setToken(String token) {
-        this.token = token;
-    }
-
-
     /**
      * @return the totalRequests
      */
@@ -108,14 +96,6 @@ public class TokenStatus implements Serializable {
     }
 
 
-    /**
-     * @param totalRequests the totalRequests to set
-     */
-    public void setTotalRequests(int totalRequests) {
-        this.totalRequests = totalRequests;
-    }
-
-
     /**
      * @return the valid
      */
@@ -124,14 +104,6 @@ public class TokenStatus implements Serializable {
     }
 
 
-    /**
-     * @param valid the valid to set
-     */
-    public void setValid(boolean valid) {
-        this.valid = valid;
-    }
-
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -147,4 +119,110 @@ public class TokenStatus implements Serializable {
 
         return sb.toString();
     }
+
+
+    /**
+     * Builds immutable <code>TokenStatus</code> instances.
+     */
+    public static class Builder {
+
+        private long expiresInMillis;
+
+        private int remainingCalls;
+
+        private long resetsInMillis;
+
+        private String token;
+
+        private int totalRequests;
+
+        private boolean valid;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(TokenStatus source) {
+            this.expiresInMillis = source.expiresInMillis;
+            this.remainingCalls = source.remainingCalls;
+            this.resetsInMillis = source.resetsInMillis;
+            this.token = source.token;
+            this.totalRequests = source.totalRequests;
+            this.valid = source.valid;
+        }
+
+
+        /**
+         * @param expiresInMillis the expiresInMillis to set
+         * @return this builder.
+         */
+        public Builder expiresInMillis(long expiresInMillis) {
+            this.expiresInMillis = expiresInMillis;
+            return this;
+        }
+
+
+        /**
+         * @param remainingCalls the remainingCalls to set
+         * @return this builder.
+         */
+        public Builder remainingCalls(int remainingCalls) {
+            this.remainingCalls = remainingCalls;
+            return this;
+        }
+
+
+        /**
+         * @param resetsInMillis the resetsInMillis to set
+         * @return this builder.
+         */
+        public Builder resetsInMillis(long resetsInMillis) {
+            this.resetsInMillis = resetsInMillis;
+            return this;
+        }
+
+
+        /**
+         * @param token the token to set
+         * @return this builder.
+         */
+        public Builder token(String token) {
+            this.token = token;
+            return this;
+        }
+
+
+        /**
+         * @param totalRequests the totalRequests to set
+         * @return this builder.
+         */
+        public Builder totalRequests(int totalRequests) {
+            this.totalRequests = totalRequests;
+            return this;
+        }
+
+
+        /**
+         * @param valid the valid to set
+         * @return this builder.
+         */
+        public Builder valid(boolean valid) {
+            this.valid = valid;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>TokenStatus</code>.
+         */
+        public TokenStatus build() {
+            return new TokenStatus(this);
+        }
+    }
 }
@@ -20,31 +20,34 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 
+
 /**
  * Represents data returned by a call to the Wordnik user API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>User.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  * @see <a ref="http://docs.wordnik.com/docs">Wordnik documentation</a>
  */
 public class User implements Serializable {
 
-	private static final long serialVersionUID = -6102214221572219229L;
-	private String email;
-    private String id;
-    private String status;
-    private String userName;
+    private static final long serialVersionUID = -6102214221572219229L;
 
+    private final String email;
 
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder(this.getClass().getName());
+    private final String id;
 
-        sb.append(": [ ").append("email=").append(this.email).append(" | ");
-        sb.append("id=").append(this.id).append(" | ");
-        sb.append("status=").append(this.status).append(" | ");
-        sb.append("userName=").append(this.userName).append(" ]");
+    private final String status;
 
-        return sb.toString();
+    private final String userName;
+
+
+    private User(Builder builder) {
+        this.email = builder.email;
+        this.id = builder.id;
+        this.status = builder.status;
+        this.userName = builder.userName;
     }
 
 
@@ -56,14 +59,6 @@ public class User implements Serializable {
     }
 
 
-    /**
-     * @param email the email to set
-     */
-    public void setEmail(String email) {
-        this.email = email;
-    }
-
-
     /**
      * @return the id
      */
@@ -72,14 +67,6 @@ public class User implements Serializable {
     }
 
 
-    /**
-     * @param id the id to set
-     */
-    public void setId(String id) {
-        this.id = id;
-    }
-
-
     /**
      * @return the status
      */
@@ -88,14 +75,6 @@ public class User implements Serializable {
     }
 
 
-    /**
-     * @param status the status to set
-     */
-    public void setStatus(String status) {
-        this.status = status;
-    }
-
-
     /**
      * @return the userName
      */
@@ -104,10 +83,95 @@ public class User implements Serializable {
     }
 
 
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+
+        sb.append(": [ ").append("email=").append(this.email).append(" | ");
+        sb.append("id=").append(this.id).append(" | ");
+        sb.append("status=").append(this.status).append(" | ");
+        sb.append("userName=").append(this.userName).append(" ]");
+
+        return sb.toString();
+    }
+
+
     /**
-     * @param userName the userName to set
+     * Builds immutable <code>User</code> instances.
      */
-    public void setUserName(String userName) {
-        this.userName = userName;
+    public static class Builder {
+
+        private String email;
+
+        private String id;
+
+        private String status;
+
+        private String userName;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(User source) {
+            this.email = source.email;
+            this.id = source.id;
+            this.status = source.status;
+            this.userName = source.userName;
+        }
+
+
+        /**
+         * @param email the email to set
+         * @return this builder.
+         */
+        public Builder email(String email) {
+            this.email = email;
+            return this;
+        }
+
+
+        /**
+         * @param id the id to set
+         * @return this builder.
+         */
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+
+        /**
+         * @param status the status to set
+         * @return this builder.
+         */
+        public Builder status(String status) {
+            this.status = status;
+            return this;
+        }
+
+
+        /**
+         * @param userName the userName to set
+         * @return this builder.
+         */
+        public Builder userName(String userName) {
+            this.userName = userName;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>User</code>.
+         */
+        public User build() {
+            return new User(this);
+        }
     }
 }
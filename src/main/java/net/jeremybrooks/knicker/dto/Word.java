@@ -20,27 +20,36 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
 /**
  * Represents word data returned by a call to the Wordnik lookup API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>Word.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class Word implements Serializable {
 
-	private static final long serialVersionUID = -368699002993567147L;
-	private String word;
+    private static final long serialVersionUID = -368699002993567147L;
 
-    private String canonicalForm;
+    private final String word;
 
-    private List<String> suggestions;
+    private final String canonicalForm;
 
-    private String originalWord;
+    private final List<String> suggestions;
 
-    public Word() {
-        this.suggestions = new ArrayList<String>();
+    private final String originalWord;
+
+
+    private Word(Builder builder) {
+        this.word = builder.word;
+        this.canonicalForm = builder.canonicalForm;
+        this.suggestions = Collections.unmodifiableList(new ArrayList<String>(builder.suggestions));
+        this.originalWord = builder.originalWord;
     }
 
 
@@ -53,39 +62,26 @@ public class Word implements Serializable {
 
 
     /**
-     * @param word the word to set
+     * @return the canonicalForm
      */
-    public void setWord(String word) {
-        this.word = word;
+    public String getCanonicalForm() {
+        return canonicalForm;
     }
 
 
     /**
-     * @return the suggestions
+     * @return the suggestions; the returned list cannot be modified
      */
     public List<String> getSuggestions() {
         return suggestions;
     }
 
 
-    public void addSuggestion(String suggestion) {
-        this.suggestions.add(suggestion);
-    }
-
-
     /**
-     * @return the canonicalForm
-     */
-    public String getCanonicalForm() {
-        return canonicalForm;
-    }
-
-
-    /**
-     * @param canonicalForm the canonicalForm to set
+     * @return the originalWord
      */
-    public void setCanonicalForm(String canonicalForm) {
-        this.canonicalForm = canonicalForm;
+    public String getOriginalWord() {
+        return originalWord;
     }
 
 
@@ -110,18 +106,94 @@ public class Word implements Serializable {
 
 
     /**
-     * @return the originalWord
+     * Builds immutable <code>Word</code> instances.
      */
-    public String getOriginalWord() {
-        return originalWord;
-    }
+    public static class Builder {
 
+        private String word;
 
-    /**
-     * @param originalWord the originalWord to set
-     */
-    public void setOriginalWord(String originalWord) {
-        this.originalWord = originalWord;
-    }
+        private String canonicalForm;
+
+        private List<String> suggestions = new ArrayList<String>();
 
+        private String originalWord;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(Word source) {
+            this.word = source.word;
+            this.canonicalForm = source.canonicalForm;
+            this.suggestions.addAll(source.suggestions);
+            this.originalWord = source.originalWord;
+        }
+
+
+        /**
+         * @param word the word to set
+         * @return this builder.
+         */
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        /**
+         * @param canonicalForm the canonicalForm to set
+         * @return this builder.
+         */
+        public Builder canonicalForm(String canonicalForm) {
+            this.canonicalForm = canonicalForm;
+            return this;
+        }
+
+
+        /**
+         * @param suggestions replaces the suggestions; null clears them
+         * @return this builder.
+         */
+        public Builder suggestions(List<String> suggestions) {
+            this.suggestions.clear();
+            if (suggestions != null) {
+                this.suggestions.addAll(suggestions);
+            }
+            return this;
+        }
+
+
+        /**
+         * @param suggestion the suggestion to add
+         * @return this builder.
+         */
+        public Builder addSuggestion(String suggestion) {
+            this.suggestions.add(suggestion);
+            return this;
+        }
+
+
+        /**
+         * @param originalWord the originalWord to set
+         * @return this builder.
+         */
+        public Builder originalWord(String originalWord) {
+            this.originalWord = originalWord;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>Word</code>.
+         */
+        public Word build() {
+            return new Word(this);
+        }
+    }
 }
@@ -22,39 +22,59 @@ import net.jeremybrooks.knicker.Knicker;
 
 import java.io.Serializable;
 
+
 /**
  * Represents data returned by a call to the Wordnik getLists API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>WordList.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class WordList implements Serializable {
 
-	private static final long serialVersionUID = -2426868885366575325L;
-	private String createdAt;
-    private String description;
-    private String id;
-    private String name;
-    private int numberWordsInList;
-    private String permalink;
-    private Knicker.ListType type;
-    private String updatedAt;
-    private String userId;
-    private String username;
+    private static final long serialVersionUID = -2426868885366575325L;
 
+    private final String createdAt;
 
-    /**
-     * @return the createdAt
-     */
-    public String getCreatedAt() {
-        return createdAt;
+    private final String description;
+
+    private final String id;
+
+    private final String name;
+
+    private final int numberWordsInList;
+
+    private final String permalink;
+
+    private final Knicker.ListType type;
+
+    private final String updatedAt;
+
+    private final String userId;
+
+    private final String username;
+
+
+    private WordList(Builder builder) {
+        this.createdAt = builder.createdAt;
+        this.description = builder.description;
+        this.id = builder.id;
+        this.name = builder.name;
+        this.numberWordsInList = builder.numberWordsInList;
+        this.permalink = builder.permalink;
+        this.type = builder.type;
+        this.updatedAt = builder.updatedAt;
+        this.userId = builder.userId;
+        this.username = builder.username;
     }
 
 
     /**
-     * @param createdAt the createdAt to set
+     * @return the createdAt
      */
-    public void setCreatedAt(String createdAt) {
-        this.createdAt = createdAt;
+    public String getCreatedAt() {
+        return createdAt;
     }
 
 
@@ -66,14 +86,6 @@ public class WordList implements Serializable {
     }
 
 
-    /**
-     * @param description the description to set
-     */
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
-
     /**
      * @return the id
      */
@@ -82,14 +94,6 @@ public class WordList implements Serializable {
     }
 
 
-    /**
-     * @param id the id to set
-     */
-    public void setId(String id) {
-        this.id = id;
-    }
-
-
     /**
      * @return the name
      */
@@ -98,14 +102,6 @@ public class WordList implements Serializable {
     }
 
 
-    /**
-     * @param name the name to set
-     */
-    public void setName(String name) {
-        this.name = name;
-    }
-
-
     /**
      * @return the numberWordsInList
      */
@@ -115,29 +111,13 @@ public class WordList implements Serializable {
 
 
     /**
-     * @param numberWordsInList the numberWordsInList to set
-     */
-    public void setNumberWordsInList(int numberWordsInList) {
-        this.numberWordsInList = numberWordsInList;
-    }
-
-
-    /**
-     * @return the permalinkId
+     * @return the permalink
      */
     public String getPermalink() {
         return permalink;
     }
 
 
-    /**
-     * @param permalink the permalinkId to set
-     */
-    public void setPermalink(String permalink) {
-        this.permalink = permalink;
-    }
-
-
     /**
      * @return the type
      */
@@ -146,14 +126,6 @@ public class WordList implements Serializable {
     }
 
 
-    /**
-     * @param type the type to set
-     */
-    public void setType(Knicker.ListType type) {
-        this.type = type;
-    }
-
-
     /**
      * @return the updatedAt
      */
@@ -162,14 +134,6 @@ public class WordList implements Serializable {
     }
 
 
-    /**
-     * @param updatedAt the updatedAt to set
-     */
-    public void setUpdatedAt(String updatedAt) {
-        this.updatedAt = updatedAt;
-    }
-
-
     /**
      * @return the userId
      */
@@ -179,29 +143,13 @@ public class WordList implements Serializable {
 
 
     /**
-     * @param userId the userId to set
-     */
-    public void setUserId(String userId) {
-        this.userId = userId;
-    }
-
-
-    /**
-     * @return the userName
+     * @return the username
      */
     public String getUsername() {
         return username;
     }
 
 
-    /**
-     * @param username the userName to set
-     */
-    public void setUsername(String username) {
-        this.username = username;
-    }
-
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -221,4 +169,162 @@ public class WordList implements Serializable {
 
         return sb.toString();
     }
+
+
+    /**
+     * Builds immutable <code>WordList</code> instances.
+     */
+    public static class Builder {
+
+        private String createdAt;
+
+        private String description;
+
+        private String id;
+
+        private String name;
+
+        private int numberWordsInList;
+
+        private String permalink;
+
+        private Knicker.ListType type;
+
+        private String updatedAt;
+
+        private String userId;
+
+        private String username;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(WordList source) {
+            this.createdAt = source.createdAt;
+            this.description = source.description;
+            this.id = source.id;
+            this.name = source.name;
+            this.numberWordsInList = source.numberWordsInList;
+            this.permalink = source.permalink;
+            this.type = source.type;
+            this.updatedAt = source.updatedAt;
+            this.userId = source.userId;
+            this.username = source.username;
+        }
+
+
+        /**
+         * @param createdAt the createdAt to set
+         * @return this builder.
+         */
+        public Builder createdAt(String createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+
+
+        /**
+         * @param description the description to set
+         * @return this builder.
+         */
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+
+        /**
+         * @param id the id to set
+         * @return this builder.
+         */
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+
+        /**
+         * @param name the name to set
+         * @return this builder.
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+
+        /**
+         * @param numberWordsInList the numberWordsInList to set
+         * @return this builder.
+         */
+        public Builder numberWordsInList(int numberWordsInList) {
+            this.numberWordsInList = numberWordsInList;
+            return this;
+        }
+
+
+        /**
+         * @param permalink the permalink to set
+         * @return this builder.
+         */
+        public Builder permalink(String permalink) {
+            this.permalink = permalink;
+            return this;
+        }
+
+
+        /**
+         * @param type the type to set
+         * @return this builder.
+         */
+        public Builder type(Knicker.ListType type) {
+            this.type = type;
+            return this;
+        }
+
+
+        /**
+         * @param updatedAt the updatedAt to set
+         * @return this builder.
+         */
+        public Builder updatedAt(String updatedAt) {
+            this.updatedAt = updatedAt;
+            return this;
+        }
+
+
+        /**
+         * @param userId the userId to set
+         * @return this builder.
+         */
+        public Builder userId(String userId) {
+            this.userId = userId;
+            return this;
+        }
+
+
+        /**
+         * @param username the username to set
+         * @return this builder.
+         */
+        public Builder username(String username) {
+            this.username = username;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>WordList</code>.
+         */
+        public WordList build() {
+            return new WordList(this);
+        }
+    }
 }
@@ -20,36 +20,47 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 
+
 /**
  * Represents words inside a word list.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>WordListWord.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class WordListWord implements Serializable {
 
+    private static final long serialVersionUID = 3856038318262568598L;
 
-	private static final long serialVersionUID = 3856038318262568598L;
-	private String createdAt;
-    private int numberCommentsOnWord;
-    private int numberLists;
-    private String userId;
-    private String username;
-    private String word;
+    private final String createdAt;
 
+    private final int numberCommentsOnWord;
 
-    /**
-     * @return the createdAt
-     */
-    public String getCreatedAt() {
-        return createdAt;
+    private final int numberLists;
+
+    private final String userId;
+
+    private final String username;
+
+    private final String word;
+
+
+    private WordListWord(Builder builder) {
+        this.createdAt = builder.createdAt;
+        this.numberCommentsOnWord = builder.numberCommentsOnWord;
+        this.numberLists = builder.numberLists;
+        this.userId = builder.userId;
+        this.username = builder.username;
+        this.word = builder.word;
     }
 
 
     /**
-     * @param createdAt the createdAt to set
+     * @return the createdAt
      */
-    public void setCreatedAt(String createdAt) {
-        this.createdAt = createdAt;
+    public String getCreatedAt() {
+        return createdAt;
     }
 
 
@@ -61,14 +72,6 @@ public class WordListWord implements Serializable {
     }
 
 
-    /**
-     * @param numberCommentsOnWord the numberCommentsOnWord to set
-     */
-    public void setNumberCommentsOnWord(int numberCommentsOnWord) {
-        this.numberCommentsOnWord = numberCommentsOnWord;
-    }
-
-
     /**
      * @return the numberLists
      */
@@ -77,14 +80,6 @@ public class WordListWord implements Serializable {
     }
 
 
-    /**
-     * @param numberLists the numberLists to set
-     */
-    public void setNumberLists(int numberLists) {
-        this.numberLists = numberLists;
-    }
-
-
     /**
      * @return the userId
      */
@@ -93,14 +88,6 @@ public class WordListWord implements Serializable {
     }
 
 
-    /**
-     * @param userId the userId to set
-     */
-    public void setUserId(String userId) {
-        this.userId = userId;
-    }
-
-
     /**
      * @return the username
      */
@@ -109,14 +96,6 @@ public class WordListWord implements Serializable {
     }
 
 
-    /**
-     * @param username the username to set
-     */
-    public void setUsername(String username) {
-        this.username = username;
-    }
-
-
     /**
      * @return the word
      */
@@ -125,13 +104,6 @@ public class WordListWord implements Serializable {
     }
 
 
-    /**
-     * @param word the word to set
-     */
-    public void setWord(String word) {
-        this.word = word;
-    }
-
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(this.getClass().getName());
@@ -146,4 +118,110 @@ public class WordListWord implements Serializable {
 
         return sb.toString();
     }
+
+
+    /**
+     * Builds immutable <code>WordListWord</code> instances.
+     */
+    public static class Builder {
+
+        private String createdAt;
+
+        private int numberCommentsOnWord;
+
+        private int numberLists;
+
+        private String userId;
+
+        private String username;
+
+        private String word;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(WordListWord source) {
+            this.createdAt = source.createdAt;
+            this.numberCommentsOnWord = source.numberCommentsOnWord;
+            this.numberLists = source.numberLists;
+            this.userId = source.userId;
+            this.username = source.username;
+            this.word = source.word;
+        }
+
+
+        /**
+         * @param createdAt the createdAt to set
+         * @return this builder.
+         */
+        public Builder createdAt(String createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+
+
+        /**
+         * @param numberCommentsOnWord the numberCommentsOnWord to set
+         * @return this builder.
+         */
+        public Builder numberCommentsOnWord(int numberCommentsOnWord) {
+            this.numberCommentsOnWord = numberCommentsOnWord;
+            return this;
+        }
+
+
+        /**
+         * @param numberLists the numberLists to set
+         * @return this builder.
+         */
+        public Builder numberLists(int numberLists) {
+            this.numberLists = numberLists;
+            return this;
+        }
+
+
+        /**
+         * @param userId the userId to set
+         * @return this builder.
+         */
+        public Builder userId(String userId) {
+            this.userId = userId;
+            return this;
+        }
+
+
+        /**
+         * @param username the username to set
+         * @return this builder.
+         */
+        public Builder username(String username) {
+            this.username = username;
+            return this;
+        }
+
+
+        /**
+         * @param word the word to set
+         * @return this builder.
+         */
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>WordListWord</code>.
+         */
+        public WordListWord build() {
+            return new WordListWord(this);
+        }
+    }
 }
@@ -20,29 +20,101 @@ package net.jeremybrooks.knicker.dto;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
 /**
  * Represents data returned by a call to the Wordnik word-of-the-day API.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>WordOfTheDay.Builder</code> to create new instances.
  *
  * @author Jeremy Brooks
  */
 public class WordOfTheDay implements Serializable {
 
-	private static final long serialVersionUID = 7162018037337508463L;
-	private ContentProvider contentProvider;
-    private List<Definition> definitions;
-    private List<Example> examples;
-    private String id;
-    private String note;
-    private String publishDate;
-    private String word;
+    private static final long serialVersionUID = 7162018037337508463L;
 
+    private final ContentProvider contentProvider;
 
-    public WordOfTheDay() {
-        definitions = new ArrayList<Definition>();
-        examples = new ArrayList<Example>();
+    private final List<Definition> definitions;
+
+    private final List<Example> examples;
+
+    private final String id;
+
+    private final String note;
+
+    private final String publishDate;
+
+    private final String word;
+
+
+    private WordOfTheDay(Builder builder) {
+        this.contentProvider = builder.contentProvider;
+        this.definitions = Collections.unmodifiableList(new ArrayList<Definition>(builder.definitions));
+        this.examples = Collections.unmodifiableList(new ArrayList<Example>(builder.examples));
+        this.id = builder.id;
+        this.note = builder.note;
+        this.publishDate = builder.publishDate;
+        this.word = builder.word;
+    }
+
+
+    /**
+     * @return the contentProvider
+     */
+    public ContentProvider getContentProvider() {
+        return contentProvider;
+    }
+
+
+    /**
+     * @return the definitions; the returned list cannot be modified
+     */
+    public List<Definition> getDefinitions() {
+        return definitions;
+    }
+
+
+    /**
+     * @return the examples; the returned list cannot be modified
+     */
+    public List<Example> getExamples() {
+        return examples;
+    }
+
+
+    /**
+     * @return the id
+     */
+    public String getId() {
+        return id;
+    }
+
+
+    /**
+     * @return the note
+     */
+    public String getNote() {
+        return note;
+    }
+
+
+    /**
+     * @return the publishDate
+     */
+    public String getPublishDate() {
+        return publishDate;
+    }
+
+
+    /**
+     * @return the word
+     */
+    public String getWord() {
+        return word;
     }
 
 
@@ -80,113 +152,146 @@ public class WordOfTheDay implements Serializable {
 
 
     /**
-     * @return the publishDate
+     * Builds immutable <code>WordOfTheDay</code> instances.
      */
-    public String getPublishDate() {
-        return publishDate;
-    }
+    public static class Builder {
 
+        private ContentProvider contentProvider;
 
-    /**
-     * @param publishDate the publishDate to set
-     */
-    public void setPublishDate(String publishDate) {
-        this.publishDate = publishDate;
-    }
+        private List<Definition> definitions = new ArrayList<Definition>();
 
+        private List<Example> examples = new ArrayList<Example>();
 
-    /**
-     * @return the id
-     */
-    public String getId() {
-        return id;
-    }
+        private String id;
 
+        private String note;
 
-    /**
-     * @param id the id to set
-     */
-    public void setId(String id) {
-        this.id = id;
-    }
+        private String publishDate;
 
+        private String word;
 
-    /**
-     * @return the word
-     */
-    public String getWord() {
-        return word;
-    }
 
+        public Builder() {
+        }
 
-    /**
-     * @param word the word to set
-     */
-    public void setWord(String word) {
-        this.word = word;
-    }
 
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(WordOfTheDay source) {
+            this.contentProvider = source.contentProvider;
+            this.definitions.addAll(source.definitions);
+            this.examples.addAll(source.examples);
+            this.id = source.id;
+            this.note = source.note;
+            this.publishDate = source.publishDate;
+            this.word = source.word;
+        }
 
-    /**
-     * @return the contentProvider
-     */
-    public ContentProvider getContentProvider() {
-        return contentProvider;
-    }
 
+        /**
+         * @param contentProvider the contentProvider to set
+         * @return this builder.
+         */
+        public Builder contentProvider(ContentProvider contentProvider) {
+            this.contentProvider = contentProvider;
+            return this;
+        }
 
-    /**
-     * @param contentProvider the contentProvider to set
-     */
-    public void setContentProvider(ContentProvider contentProvider) {
-        this.contentProvider = contentProvider;
-    }
 
+        /**
+         * @param definitions replaces the definitions; null clears them
+         * @return this builder.
+         */
+        public Builder definitions(List<Definition> definitions) {
+            this.definitions.clear();
+            if (definitions != null) {
+                this.definitions.addAll(definitions);
+            }
+            return this;
+        }
 
-    /**
-     * @return the definitions
-     */
-    public List<Definition> getDefinitions() {
-        return definitions;
-    }
 
+        /**
+         * @param definition the definition to add
+         * @return this builder.
+         */
+        public Builder addDefinition(Definition definition) {
+            this.definitions.add(definition);
+            return this;
+        }
 
-    /**
-     * @param definition the definition to add
-     */
-    public void addDefinition(Definition definition) {
-        this.definitions.add(definition);
-    }
 
+        /**
+         * @param examples replaces the examples; null clears them
+         * @return this builder.
+         */
+        public Builder examples(List<Example> examples) {
+            this.examples.clear();
+            if (examples != null) {
+                this.examples.addAll(examples);
+            }
+            return this;
+        }
 
-    /**
-     * @return the examples
-     */
-    public List<Example> getExamples() {
-        return examples;
-    }
+
+        /**
+         * @param example the example to add
+         * @return this builder.
+         */
+        public Builder addExample(Example example) {
+            this.examples.add(example);
+            return this;
+        }
 
 
-    /**
-     * @param example the example to add
-     */
-    public void addExample(Example example) {
-        this.examples.add(example);
-    }
+        /**
+         * @param id the id to set
+         * @return this builder.
+         */
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
 
 
-    /**
-     * @return the note
-     */
-    public String getNote() {
-        return note;
-    }
+        /**
+         * @param note the note to set
+         * @return this builder.
+         */
+        public Builder note(String note) {
+            this.note = note;
+            return this;
+        }
 
 
-    /**
-     * @param note the note to set
-     */
-    public void setNote(String note) {
-        this.note = note;
+        /**
+         * @param publishDate the publishDate to set
+         * @return this builder.
+         */
+        public Builder publishDate(String publishDate) {
+            this.publishDate = publishDate;
+            return this;
+        }
+
+
+        /**
+         * @param word the word to set
+         * @return this builder.
+         */
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>WordOfTheDay</code>.
+         */
+        public WordOfTheDay build() {
+            return new WordOfTheDay(this);
+        }
     }
 }
@@ -0,0 +1,323 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.dto;
+
+import net.jeremybrooks.knicker.Knicker.Facet;
+import net.jeremybrooks.knicker.KnickerException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Everything requested about a word, fetched in one call to <code>profile</code>.
+ * <p/>
+ * Facets that were not requested, or that failed, are null. The errors map
+ * tells which facets failed and why, so a page can show what did arrive.
+ * <p/>
+ * Instances are immutable and safe to share between threads. Use
+ * <code>WordProfile.Builder</code> to create new instances.
+ *
+ * @author Jeremy Brooks
+ */
+public class WordProfile implements Serializable {
+
+    private static final long serialVersionUID = 4182204561993107520L;
+
+    private final String word;
+
+    private final Word lookup;
+
+    private final List<Definition> definitions;
+
+    private final SearchResults examples;
+
+    private final Example topExample;
+
+    private final List<Related> related;
+
+    private final List<Pronunciation> pronunciations;
+
+    private final List<Syllable> hyphenation;
+
+    private final List<AudioFileMetadata> audio;
+
+    private final FrequencySummary frequency;
+
+    private final Map<Facet, KnickerException> errors;
+
+
+    private WordProfile(Builder builder) {
+        this.word = builder.word;
+        this.lookup = builder.lookup;
+        this.definitions = unmodifiable(builder.definitions);
+        this.examples = builder.examples;
+        this.topExample = builder.topExample;
+        this.related = unmodifiable(builder.related);
+        this.pronunciations = unmodifiable(builder.pronunciations);
+        this.hyphenation = unmodifiable(builder.hyphenation);
+        this.audio = unmodifiable(builder.audio);
+        this.frequency = builder.frequency;
+        this.errors = Collections.unmodifiableMap(new EnumMap<Facet, KnickerException>(builder.errors));
+    }
+
+
+    private static <T> List<T> unmodifiable(List<T> list) {
+        return list == null ? null : Collections.unmodifiableList(new ArrayList<T>(list));
+    }
+
+
+    /**
+     * @return the word the profile was requested for.
+     */
+    public String getWord() {
+        return word;
+    }
+
+
+    public Word getLookup() {
+        return lookup;
+    }
+
+
+    /**
+     * @return the definitions; the returned list cannot be modified
+     */
+    public List<Definition> getDefinitions() {
+        return definitions;
+    }
+
+
+    public SearchResults getExamples() {
+        return examples;
+    }
+
+
+    public Example getTopExample() {
+        return topExample;
+    }
+
+
+    /**
+     * @return the related words; the returned list cannot be modified
+     */
+    public List<Related> getRelated() {
+        return related;
+    }
+
+
+    /**
+     * @return the pronunciations; the returned list cannot be modified
+     */
+    public List<Pronunciation> getPronunciations() {
+        return pronunciations;
+    }
+
+
+    /**
+     * @return the syllables; the returned list cannot be modified
+     */
+    public List<Syllable> getHyphenation() {
+        return hyphenation;
+    }
+
+
+    /**
+     * @return the audio metadata; the returned list cannot be modified
+     */
+    public List<AudioFileMetadata> getAudio() {
+        return audio;
+    }
+
+
+    public FrequencySummary getFrequency() {
+        return frequency;
+    }
+
+
+    /**
+     * @return the error for each facet that failed; the returned map cannot be modified
+     */
+    public Map<Facet, KnickerException> getErrors() {
+        return errors;
+    }
+
+
+    /**
+     * @return true if every requested facet was fetched.
+     */
+    public boolean isComplete() {
+        return errors.isEmpty();
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(WordProfile.class.getName());
+        sb.append(": [ word=").append(this.word).append(" | ");
+        sb.append("lookup=").append(this.lookup).append(" | ");
+        sb.append("definitions=").append(this.definitions).append(" | ");
+        sb.append("examples=").append(this.examples).append(" | ");
+        sb.append("topExample=").append(this.topExample).append(" | ");
+        sb.append("related=").append(this.related).append(" | ");
+        sb.append("pronunciations=").append(this.pronunciations).append(" | ");
+        sb.append("hyphenation=").append(this.hyphenation).append(" | ");
+        sb.append("audio=").append(this.audio).append(" | ");
+        sb.append("frequency=").append(this.frequency).append(" | ");
+        sb.append("errors=").append(this.errors.keySet()).append(" ]");
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Builds immutable <code>WordProfile</code> instances.
+     */
+    public static class Builder {
+
+        private String word;
+
+        private Word lookup;
+
+        private List<Definition> definitions;
+
+        private SearchResults examples;
+
+        private Example topExample;
+
+        private List<Related> related;
+
+        private List<Pronunciation> pronunciations;
+
+        private List<Syllable> hyphenation;
+
+        private List<AudioFileMetadata> audio;
+
+        private FrequencySummary frequency;
+
+        private Map<Facet, KnickerException> errors = new EnumMap<Facet, KnickerException>(Facet.class);
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing instance.
+         *
+         * @param source the instance to copy values from.
+         */
+        public Builder(WordProfile source) {
+            this.word = source.word;
+            this.lookup = source.lookup;
+            this.definitions = source.definitions;
+            this.examples = source.examples;
+            this.topExample = source.topExample;
+            this.related = source.related;
+            this.pronunciations = source.pronunciations;
+            this.hyphenation = source.hyphenation;
+            this.audio = source.audio;
+            this.frequency = source.frequency;
+            this.errors.putAll(source.errors);
+        }
+
+
+        public Builder word(String word) {
+            this.word = word;
+            return this;
+        }
+
+
+        public Builder lookup(Word lookup) {
+            this.lookup = lookup;
+            return this;
+        }
+
+
+        public Builder definitions(List<Definition> definitions) {
+            this.definitions = definitions;
+            return this;
+        }
+
+
+        public Builder examples(SearchResults examples) {
+            this.examples = examples;
+            return this;
+        }
+
+
+        public Builder topExample(Example topExample) {
+            this.topExample = topExample;
+            return this;
+        }
+
+
+        public Builder related(List<Related> related) {
+            this.related = related;
+            return this;
+        }
+
+
+        public Builder pronunciations(List<Pronunciation> pronunciations) {
+            this.pronunciations = pronunciations;
+            return this;
+        }
+
+
+        public Builder hyphenation(List<Syllable> hyphenation) {
+            this.hyphenation = hyphenation;
+            return this;
+        }
+
+
+        public Builder audio(List<AudioFileMetadata> audio) {
+            this.audio = audio;
+            return this;
+        }
+
+
+        public Builder frequency(FrequencySummary frequency) {
+            this.frequency = frequency;
+            return this;
+        }
+
+
+        /**
+         * @param facet the facet that failed.
+         * @param error why it failed.
+         * @return this builder.
+         */
+        public Builder addError(Facet facet, KnickerException error) {
+            this.errors.put(facet, error);
+            return this;
+        }
+
+
+        /**
+         * @return a new immutable <code>WordProfile</code>.
+         */
+        public WordProfile build() {
+            return new WordProfile(this);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.flow;
+
+/**
+ * Reactive Streams interfaces for publishing results one item at a time.
+ * <p/>
+ * These have the same shape and rules as <code>java.util.concurrent.Flow</code>,
+ * which is not available on the Java versions Knicker supports. A publisher
+ * never sends more items than a subscriber has requested, so a slow
+ * subscriber controls how much is fetched and buffered. Adapting these to
+ * <code>java.util.concurrent.Flow</code> or to any other Reactive Streams library
+ * needs only a few lines of delegation.
+ *
+ * @author Jeremy Brooks
+ */
+public final class Flow {
+
+    private Flow() {
+    }
+
+
+    /**
+     * A producer of items that subscribers receive as they request them.
+     *
+     * @param <T> the item type.
+     */
+    public interface Publisher<T> {
+
+        /**
+         * Add a subscriber. <code>onSubscribe</code> is called before any other signal.
+         *
+         * @param subscriber the subscriber.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+
+    /**
+     * A receiver of items. Signals to a subscriber are never sent concurrently.
+     *
+     * @param <T> the item type.
+     */
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+
+    /**
+     * The link between a publisher and a subscriber.
+     */
+    public interface Subscription {
+
+        /**
+         * Ask for up to n more items. Requests add up.
+         *
+         * @param n number of items, which must be greater than zero.
+         */
+        void request(long n);
+
+
+        /**
+         * Stop sending items. Items may still arrive for a short time afterwards.
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.flow;
+
+import net.jeremybrooks.knicker.KnickerException;
+import net.jeremybrooks.knicker.RequestContext;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the items of a paged API call, fetching pages as subscribers ask for items.
+ * <p/>
+ * Each subscriber gets its own walk through the pages, starting at the first
+ * page. A page is fetched only when the subscriber has requested an item
+ * that is not already buffered, so no more than one page is held for a
+ * subscriber at any time. The stream completes when the server returns a
+ * page that is shorter than requested.
+ * <p/>
+ * With a concurrency greater than one, the pages after the one being read
+ * are fetched in parallel, up to that many pages at a time, so the next
+ * items are usually ready when the subscriber asks for them. Items are
+ * still delivered in order. If a page fails, the items of the pages before
+ * it are delivered before the error; pages fetched past the end of the
+ * results are discarded.
+ * <p/>
+ * Fetching and signalling run on the executor. Each subscription has its own
+ * <code>RequestContext</code>, so cancelling the subscription also aborts a
+ * page fetch that is in flight. If a context is bound to the subscribing
+ * thread, the subscription's context is its child and shares its deadline.
+ *
+ * @param <T> the item type.
+ * @author Jeremy Brooks
+ */
+public abstract class PagedPublisher<T> implements Flow.Publisher<T> {
+
+    private final Executor executor;
+
+    private final int pageSize;
+
+    private final int concurrency;
+
+
+    /**
+     * @param executor executor used to fetch pages and signal subscribers.
+     * @param pageSize number of items to ask the server for in each call.
+     */
+    protected PagedPublisher(Executor executor, int pageSize) {
+        this(executor, pageSize, 1);
+    }
+
+
+    /**
+     * @param executor    executor used to fetch pages and signal subscribers.
+     * @param pageSize    number of items to ask the server for in each call.
+     * @param concurrency most pages fetched at a time for one subscriber.
+     */
+    protected PagedPublisher(Executor executor, int pageSize, int concurrency) {
+        if (executor == null) {
+            throw new IllegalArgumentException("An executor is required.");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be greater than zero.");
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be greater than zero.");
+        }
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.concurrency = concurrency;
+    }
+
+
+    /**
+     * Fetch one page.
+     *
+     * @param context context for the call. It is cancelled when the subscription is cancelled.
+     * @param skip    number of items to skip.
+     * @param limit   maximum number of items to return.
+     * @return the items in the page. An empty or short page ends the stream.
+     * @throws KnickerException if the page cannot be fetched.
+     */
+    protected abstract List<T> fetchPage(RequestContext context, int skip, int limit) throws KnickerException;
+
+
+    /**
+     * @return number of items asked for in each call.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+
+    /**
+     * @return most pages fetched at a time for one subscriber.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null.");
+        }
+        PagedSubscription subscription = new PagedSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+
+    /*
+     * One subscriber's walk through the pages. All signals are sent from the
+     * drain loop, and the work-in-progress counter makes sure only one thread
+     * runs it at a time.
+     */
+    private class PagedSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super T> subscriber;
+
+        private final RequestContext context;
+
+        private final AtomicLong demand = new AtomicLong();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private final Queue<T> buffer = new ArrayDeque<T>();
+
+        /* Pages being fetched, in order. The first is the next to be read. */
+        private final Queue<FutureTask<List<T>>> pages = new ArrayDeque<FutureTask<List<T>>>();
+
+        private volatile boolean cancelled;
+
+        private volatile Throwable invalidRequest;
+
+        private int skip;
+
+        private boolean lastPage;
+
+        private boolean terminated;
+
+
+        PagedSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            RequestContext current = RequestContext.current();
+            this.context = current == null ? RequestContext.create() : current.child();
+        }
+
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Request must be greater than zero, but was " + n);
+            } else {
+                long current;
+                long next;
+                do {
+                    current = demand.get();
+                    next = current + n;
+                    if (next < 0) {
+                        next = Long.MAX_VALUE;
+                    }
+                } while (!demand.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            context.cancel();
+            schedule();
+        }
+
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    cancel();
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+
+        private void drain() {
+            while (!terminated) {
+                if (cancelled) {
+                    terminated = true;
+                    buffer.clear();
+                    discardPages();
+                    return;
+                }
+                if (invalidRequest != null) {
+                    terminate(invalidRequest);
+                    return;
+                }
+                if (buffer.isEmpty()) {
+                    if (lastPage) {
+                        terminate(null);
+                        return;
+                    }
+                    if (demand.get() == 0) {
+                        return;
+                    }
+                    try {
+                        List<T> page = nextPage();
+                        if (page == null || page.size() < pageSize) {
+                            lastPage = true;
+                            discardPages();
+                        }
+                        if (page != null) {
+                            buffer.addAll(page);
+                        }
+                    } catch (Throwable t) {
+                        if (!cancelled) {
+                            terminate(t);
+                        }
+                        return;
+                    }
+                    continue;
+                }
+                if (demand.get() == 0) {
+                    return;
+                }
+                demand.decrementAndGet();
+                subscriber.onNext(buffer.poll());
+            }
+        }
+
+
+        /*
+         * Read the next page, first starting fetches of the pages after it
+         * up to the concurrency. The next page is fetched on this thread if
+         * no other thread has started it, so a busy executor cannot stall
+         * the subscription. Pages are assumed to be full when the next
+         * offset is worked out; a short page ends the stream anyway.
+         */
+        private List<T> nextPage() throws Exception {
+            while (pages.size() < concurrency) {
+                final int pageSkip = skip;
+                FutureTask<List<T>> page = new FutureTask<List<T>>(new Callable<List<T>>() {
+                    @Override
+                    public List<T> call() throws KnickerException {
+                        return fetchPage(context, pageSkip, pageSize);
+                    }
+                });
+                skip += pageSize;
+                pages.add(page);
+                if (pages.size() > 1) {
+                    try {
+                        executor.execute(page);
+                    } catch (RejectedExecutionException e) {
+                        // run when it is read
+                    }
+                }
+            }
+            FutureTask<List<T>> next = pages.poll();
+            next.run();
+            try {
+                return next.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+            }
+        }
+
+
+        private void discardPages() {
+            for (FutureTask<List<T>> page : pages) {
+                page.cancel(false);
+            }
+            pages.clear();
+        }
+
+
+        private void terminate(Throwable error) {
+            terminated = true;
+            cancelled = true;
+            buffer.clear();
+            discardPages();
+            if (error == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.graph;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A concurrent set of long keys that gives each key a dense index, in the
+ * order the keys were added.
+ * <p/>
+ * Keys are stored in primitive open-addressing tables, one per lock stripe,
+ * so a crawl of a million words costs about 12 bytes per slot instead of a
+ * map entry, a boxed key and a boxed value per word. Threads that add keys
+ * to different stripes do not contend.
+ * <p/>
+ * Keys may be hashes of larger values. Given a <code>Matcher</code>, a key
+ * that is already present only counts as the same entry if the matcher says
+ * the value at its index is the one being added; otherwise the key is added
+ * again with a new index, so colliding values are kept apart.
+ * <p/>
+ * The key 0 is reserved and cannot be added.
+ *
+ * @author Jeremy Brooks
+ */
+class ConcurrentLongIndex {
+
+    /* Returned by add when the key is absent and the index is full. */
+    static final int FULL = Integer.MIN_VALUE;
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final AtomicInteger next = new AtomicInteger();
+
+
+    /**
+     * @param expectedSize number of keys expected, used to size the tables.
+     */
+    ConcurrentLongIndex(int expectedSize) {
+        int perStripe = Math.max(16, Integer.highestOneBit(Math.max(1, expectedSize / STRIPES) * 2) * 2);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+
+    /**
+     * Add a key unless the index already holds <code>limit</code> keys.
+     *
+     * @param key   the key; must not be 0.
+     * @param limit maximum number of keys the index may hold.
+     * @return the new index of the key if it was added, <code>-(index + 1)</code>
+     *         if it was already present, or <code>FULL</code> if it was absent
+     *         and the index is full.
+     */
+    int add(long key, int limit) {
+        return add(key, limit, null);
+    }
+
+
+    /**
+     * Add a key unless the index already holds <code>limit</code> keys or
+     * holds it for a matching value.
+     *
+     * @param key     the key; must not be 0.
+     * @param limit   maximum number of keys the index may hold.
+     * @param matcher tells whether an index with the same key holds the value
+     *                being added. Called with the stripe locked. If null, the
+     *                same key always means the same value.
+     * @return the new index of the key if it was added, <code>-(index + 1)</code>
+     *         if it was already present for the value, or <code>FULL</code> if
+     *         it was absent and the index is full.
+     */
+    int add(long key, int limit, Matcher matcher) {
+        if (key == 0) {
+            throw new IllegalArgumentException("The key 0 is reserved.");
+        }
+        long h = mix(key);
+        Stripe stripe = stripes[(int) (h >>> 58)];
+        synchronized (stripe) {
+            int existing = stripe.get(key, h, matcher);
+            if (existing >= 0) {
+                return -(existing + 1);
+            }
+            int index;
+            do {
+                index = next.get();
+                if (index >= limit) {
+                    return FULL;
+                }
+            } while (!next.compareAndSet(index, index + 1));
+            stripe.put(key, h, index);
+            return index;
+        }
+    }
+
+
+    /**
+     * @param key the key.
+     * @return the index of the key, or -1 if it is not present.
+     */
+    int get(long key) {
+        long h = mix(key);
+        Stripe stripe = stripes[(int) (h >>> 58)];
+        synchronized (stripe) {
+            return stripe.get(key, h, null);
+        }
+    }
+
+
+    /**
+     * @return number of keys added. Every index below this value has been
+     *         handed out, though the thread that added it may still be
+     *         storing what the index refers to.
+     */
+    int size() {
+        return next.get();
+    }
+
+
+    /*
+     * Spread the bits of the key; keys from a good hash gain nothing, but
+     * sequential keys would otherwise share a stripe.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+
+    /**
+     * Tells whether an index holds the value whose key is being added.
+     */
+    interface Matcher {
+
+        /**
+         * @param index an index whose key equals the key being added.
+         * @return true if the index holds the value being added.
+         */
+        boolean matches(int index);
+    }
+
+
+    private static final class Stripe {
+
+        private long[] keys;
+
+        private int[] values;
+
+        private int count;
+
+
+        Stripe(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+        }
+
+
+        /*
+         * A key added for several values sits in several slots of the same
+         * probe run, so probing goes on past a slot the matcher rejects.
+         */
+        int get(long key, long h, Matcher matcher) {
+            int mask = keys.length - 1;
+            for (int slot = (int) h & mask; ; slot = (slot + 1) & mask) {
+                long k = keys[slot];
+                if (k == key && (matcher == null || matcher.matches(values[slot]))) {
+                    return values[slot];
+                }
+                if (k == 0) {
+                    return -1;
+                }
+            }
+        }
+
+
+        void put(long key, long h, int value) {
+            if ((count + 1) * 2 > keys.length) {
+                grow();
+            }
+            insert(key, h, value);
+            count++;
+        }
+
+
+        private void insert(long key, long h, int value) {
+            int mask = keys.length - 1;
+            int slot = (int) h & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    insert(oldKeys[i], mix(oldKeys[i]), oldValues[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,827 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.graph;
+
+import net.jeremybrooks.knicker.Knicker.Priority;
+import net.jeremybrooks.knicker.Knicker.RelationshipType;
+import net.jeremybrooks.knicker.KnickerClient;
+import net.jeremybrooks.knicker.KnickerException;
+import net.jeremybrooks.knicker.RequestContext;
+import net.jeremybrooks.knicker.dto.Related;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+
+
+/**
+ * Builds a graph of related words by crawling <code>related</code>
+ * breadth-first from a set of seed words.
+ * <p/>
+ * Up to <code>parallelism</code> words are expanded at once. Each word is
+ * fetched only once: words are deduplicated by a 64 bit hash in a concurrent
+ * primitive index, which also gives each word its node number. Words whose
+ * hashes collide are told apart by comparing the words. Calls go through the
+ * client, so they respect its throttle and request context.
+ * <p/>
+ * With a checkpoint file, the crawl saves its progress every
+ * <code>checkpointInterval</code> words and when it stops. Each save appends
+ * the words found and expanded since the last one, so its cost does not grow
+ * with the graph. A save cut short by a crash is ignored. A crawler created
+ * with the same checkpoint file picks up where the last one left off,
+ * expanding the words that were discovered but not yet fetched, and
+ * retrying the words whose fetch failed.
+ * <code>
+ * RelatedWordCrawler crawler = new RelatedWordCrawler.Builder(client)
+ *         .relationshipTypes(EnumSet.of(RelationshipType.synonym))
+ *         .parallelism(8)
+ *         .maxDepth(4)
+ *         .checkpointFile(new File("thesaurus.ckpt"))
+ *         .build();
+ * crawler.crawl(Arrays.asList("happy", "sad"));
+ * crawler.writeGraph(new File("thesaurus.csr"));
+ * </code>
+ * The graph is written in compressed sparse row form; see
+ * <code>RelatedWordGraph</code>.
+ *
+ * @author Jeremy Brooks
+ */
+public class RelatedWordCrawler {
+
+    /* Label recorded for relationship types this version does not know. */
+    static final byte UNKNOWN_LABEL = -1;
+
+    private static final int CHECKPOINT_MAGIC = 0x4B434B50;
+
+    private static final int CHECKPOINT_VERSION = 1;
+
+    private static final int CHUNK_BITS = 12;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final int[] NONE = new int[0];
+
+    private final KnickerClient client;
+
+    private final Set<RelationshipType> relationshipTypes;
+
+    private final int limitPerRelationshipType;
+
+    private final boolean useCanonical;
+
+    private final int parallelism;
+
+    private final int maxDepth;
+
+    private final int maxWords;
+
+    private final File checkpointFile;
+
+    private final int checkpointInterval;
+
+    private final ConcurrentLongIndex index;
+
+    /* Nodes by number, in chunks that are created as the crawl grows. */
+    private final AtomicReferenceArray<AtomicReferenceArray<Node>> chunks;
+
+    private final AtomicInteger expandedCount = new AtomicInteger();
+
+    private final AtomicLong edgeCount = new AtomicLong();
+
+    private final AtomicLong failureCount = new AtomicLong();
+
+    /* Expanded nodes whose edges are not in the checkpoint yet. */
+    private final Queue<Integer> unsaved = new ConcurrentLinkedQueue<Integer>();
+
+    private boolean checkpointLoaded;
+
+    /* Number of nodes in the checkpoint. */
+    private int savedCount;
+
+    /* Length of the checkpoint up to the end of its last complete save. */
+    private long checkpointLength;
+
+
+    private RelatedWordCrawler(Builder builder) {
+        this.client = builder.client;
+        this.relationshipTypes = builder.relationshipTypes == null || builder.relationshipTypes.isEmpty() ?
+                null : EnumSet.copyOf(builder.relationshipTypes);
+        this.limitPerRelationshipType = builder.limitPerRelationshipType;
+        this.useCanonical = builder.useCanonical;
+        this.parallelism = builder.parallelism;
+        this.maxDepth = builder.maxDepth;
+        this.maxWords = builder.maxWords;
+        this.checkpointFile = builder.checkpointFile;
+        this.checkpointInterval = builder.checkpointInterval;
+        this.index = new ConcurrentLongIndex(Math.min(maxWords, 1 << 20));
+        this.chunks = new AtomicReferenceArray<AtomicReferenceArray<Node>>(
+                (int) (((long) maxWords + CHUNK_SIZE - 1) >>> CHUNK_BITS));
+    }
+
+
+    /**
+     * Crawl from the seed words until there is nothing left to expand.
+     * <p/>
+     * If a checkpoint file is configured and exists, it is loaded the first
+     * time this method is called, and the crawl continues from it. The seed
+     * words are added to whatever has been crawled already, so calling this
+     * method again extends the graph.
+     * <p/>
+     * Words whose fetch fails are left unexpanded and counted by
+     * <code>getFailureCount</code>; they are retried by the next call or the
+     * next crawler that resumes from the checkpoint.
+     *
+     * @param seeds words to start from. May be null or empty when resuming.
+     * @throws KnickerException if the checkpoint cannot be read or written, if
+     *                          the client's context is cancelled or its
+     *                          deadline passes, or if the thread is interrupted.
+     */
+    public synchronized void crawl(Collection<String> seeds) throws KnickerException {
+        if (!checkpointLoaded) {
+            checkpointLoaded = true;
+            readCheckpoint();
+        }
+
+        ArrayDeque<Integer> frontier = new ArrayDeque<Integer>();
+        int known = index.size();
+        for (int i = 0; i < known; i++) {
+            Node node = node(i);
+            if (node.edges == null && node.depth < maxDepth) {
+                frontier.add(i);
+            }
+        }
+        if (seeds != null) {
+            for (String seed : seeds) {
+                if (seed != null && !seed.trim().isEmpty()) {
+                    int id = register(seed.trim(), 0);
+                    if (id >= 0 && maxDepth > 0) {
+                        frontier.add(id);
+                    }
+                }
+            }
+        }
+
+        RequestContext parent = client.getContext();
+        RequestContext ctx = (parent == null ? RequestContext.create() : parent).withPriority(Priority.BULK);
+        final KnickerClient c = client.withContext(ctx);
+        CompletionService<int[]> done = new ExecutorCompletionService<int[]>(client.getExecutor());
+        int inFlight = 0;
+        int sinceCheckpoint = 0;
+        InterruptedException interrupted = null;
+        Throwable error = null;
+        try {
+            while (inFlight > 0 || !frontier.isEmpty()) {
+                while (inFlight < parallelism && !frontier.isEmpty() && !ctx.isCancelled()) {
+                    final int id = frontier.poll();
+                    done.submit(new Callable<int[]>() {
+                        @Override
+                        public int[] call() {
+                            return expand(c, id);
+                        }
+                    });
+                    inFlight++;
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+                int[] discovered = done.take().get();
+                inFlight--;
+                for (int id : discovered) {
+                    if (node(id).depth < maxDepth) {
+                        frontier.add(id);
+                    }
+                }
+                if (checkpointFile != null && ++sinceCheckpoint >= checkpointInterval) {
+                    writeCheckpoint();
+                    sinceCheckpoint = 0;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            interrupted = e;
+        } catch (ExecutionException e) {
+            error = e.getCause();
+        } finally {
+            // stops anything still in flight if we are leaving early
+            ctx.cancel();
+        }
+
+        writeCheckpoint();
+        if (interrupted != null) {
+            throw new KnickerException("Interrupted while crawling.", interrupted);
+        }
+        if (error != null) {
+            throw new KnickerException("Error while crawling.", error);
+        }
+        if (parent != null) {
+            parent.checkActive();
+        }
+    }
+
+
+    /**
+     * Continue the crawl saved in the checkpoint file.
+     *
+     * @throws KnickerException under the same conditions as <code>crawl</code>.
+     * @see #crawl(java.util.Collection)
+     */
+    public void resume() throws KnickerException {
+        crawl(null);
+    }
+
+
+    /**
+     * Write the graph crawled so far as a compressed sparse row file.
+     * Words that have not been expanded are written with no edges.
+     *
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     * @see RelatedWordGraph
+     */
+    public synchronized void writeGraph(File file) throws IOException {
+        int count = index.size();
+        String[] words = new String[count];
+        int[][] targets = new int[count][];
+        byte[][] labels = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            Node node = node(i);
+            words[i] = node.word;
+            Edges edges = node.edges;
+            if (edges != null && edges.within(count)) {
+                targets[i] = edges.targets;
+                labels[i] = edges.labels;
+            }
+        }
+        RelatedWordGraph.write(file, words, targets, labels);
+    }
+
+
+    /**
+     * @return number of words discovered, including unexpanded ones.
+     */
+    public int getWordCount() {
+        return index.size();
+    }
+
+
+    /**
+     * @return number of words whose related words have been fetched.
+     */
+    public int getExpandedCount() {
+        return expandedCount.get();
+    }
+
+
+    /**
+     * @return number of edges in the graph.
+     */
+    public long getEdgeCount() {
+        return edgeCount.get();
+    }
+
+
+    /**
+     * @return number of fetches that failed.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ words=").append(this.getWordCount()).append(" | ");
+        sb.append("expanded=").append(this.getExpandedCount()).append(" | ");
+        sb.append("edges=").append(this.getEdgeCount()).append(" | ");
+        sb.append("failures=").append(this.getFailureCount()).append(" ]");
+
+        return sb.toString();
+    }
+
+
+    /*
+     * Fetch the related words of a node, register the words not seen before,
+     * and record its edges. Returns the numbers of the new words.
+     */
+    private int[] expand(KnickerClient c, int id) {
+        Node node = node(id);
+        List<Related> related;
+        try {
+            related = c.related(node.word, useCanonical, relationshipTypes, limitPerRelationshipType);
+        } catch (KnickerException e) {
+            if (!c.getContext().isCancelled()) {
+                failureCount.incrementAndGet();
+            }
+            return NONE;
+        }
+
+        int size = 0;
+        for (Related r : related) {
+            size += r.getWords().size();
+        }
+        int[] targets = new int[size];
+        byte[] labels = new byte[size];
+        int[] discovered = new int[size];
+        int edges = 0;
+        int found = 0;
+        for (Related r : related) {
+            byte label = label(r.getRelType());
+            for (String w : r.getWords()) {
+                String word = w == null ? "" : w.trim();
+                if (word.isEmpty()) {
+                    continue;
+                }
+                int target = register(word, node.depth + 1);
+                if (target == ConcurrentLongIndex.FULL) {
+                    continue;
+                }
+                if (target >= 0) {
+                    discovered[found++] = target;
+                } else {
+                    target = -(target + 1);
+                }
+                if (target != id) {
+                    targets[edges] = target;
+                    labels[edges] = label;
+                    edges++;
+                }
+            }
+        }
+        node.edges = new Edges(Arrays.copyOf(targets, edges), Arrays.copyOf(labels, edges));
+        unsaved.add(id);
+        expandedCount.incrementAndGet();
+        edgeCount.addAndGet(edges);
+        return Arrays.copyOf(discovered, found);
+    }
+
+
+    /*
+     * Add a word to the index and store its node. Returns the result of
+     * ConcurrentLongIndex.add.
+     */
+    private int register(final String word, int depth) {
+        int id = index.add(key(word), maxWords, new ConcurrentLongIndex.Matcher() {
+            @Override
+            public boolean matches(int index) {
+                return node(index).word.equals(word);
+            }
+        });
+        if (id >= 0) {
+            int c = id >>> CHUNK_BITS;
+            AtomicReferenceArray<Node> chunk = chunks.get(c);
+            if (chunk == null) {
+                chunks.compareAndSet(c, null, new AtomicReferenceArray<Node>(CHUNK_SIZE));
+                chunk = chunks.get(c);
+            }
+            chunk.set(id & (CHUNK_SIZE - 1), new Node(word, depth));
+        }
+        return id;
+    }
+
+
+    /*
+     * Get a node by number. A number is handed out just before its node is
+     * stored, so a reader that gets here first waits for the store.
+     */
+    private Node node(int id) {
+        while (true) {
+            AtomicReferenceArray<Node> chunk = chunks.get(id >>> CHUNK_BITS);
+            if (chunk != null) {
+                Node node = chunk.get(id & (CHUNK_SIZE - 1));
+                if (node != null) {
+                    return node;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+
+    /*
+     * 64 bit FNV-1a hash of the word. With a million words the chance of
+     * any two colliding is about one in ten million; register compares the
+     * words when they do.
+     */
+    static long key(String word) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            h ^= word.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h == 0 ? 1 : h;
+    }
+
+
+    static byte label(String relType) {
+        if (relType == null) {
+            return UNKNOWN_LABEL;
+        }
+        try {
+            return (byte) RelationshipType.valueOf(relType.trim().replace('-', '_')).ordinal();
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN_LABEL;
+        }
+    }
+
+
+    /*
+     * Append the nodes found and the edges recorded since the last save, as
+     * one record: its length, a CRC32 of its payload, and the payload. Edges
+     * that point past the nodes saved, and nodes still being expanded, are
+     * left for a later save; if the crawl stops first, those nodes are
+     * fetched again on resume.
+     */
+    private void writeCheckpoint() throws KnickerException {
+        if (checkpointFile == null) {
+            return;
+        }
+        int count = index.size();
+        List<Integer> edges = new ArrayList<Integer>();
+        List<Integer> later = new ArrayList<Integer>();
+        Integer id;
+        while ((id = unsaved.poll()) != null) {
+            (node(id).edges.within(count) ? edges : later).add(id);
+        }
+        unsaved.addAll(later);
+        if (count == savedCount && edges.isEmpty()) {
+            return;
+        }
+
+        RandomAccessFile out = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(bytes);
+            payload.writeInt(savedCount);
+            payload.writeInt(count - savedCount);
+            for (int i = savedCount; i < count; i++) {
+                Node node = node(i);
+                payload.writeUTF(node.word);
+                payload.writeInt(node.depth);
+            }
+            payload.writeInt(edges.size());
+            for (int expanded : edges) {
+                Edges e = node(expanded).edges;
+                payload.writeInt(expanded);
+                payload.writeInt(e.targets.length);
+                for (int target : e.targets) {
+                    payload.writeInt(target);
+                }
+                payload.write(e.labels);
+            }
+            byte[] record = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(record);
+
+            out = new RandomAccessFile(checkpointFile, "rw");
+            if (checkpointLength == 0) {
+                out.setLength(0);
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(CHECKPOINT_VERSION);
+                checkpointLength = 8;
+            }
+            // drops a save that was cut short
+            out.setLength(checkpointLength);
+            out.seek(checkpointLength);
+            out.writeInt(record.length);
+            out.writeInt((int) crc.getValue());
+            out.write(record);
+            out.close();
+            out = null;
+            checkpointLength += record.length + 8;
+            savedCount = count;
+        } catch (IOException e) {
+            // saved again next time
+            unsaved.addAll(edges);
+            throw new KnickerException("Error writing checkpoint " + checkpointFile + ".", e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // already failing
+                }
+            }
+        }
+    }
+
+
+    /*
+     * Load the checkpoint, if there is one. Reading stops at the first record
+     * that is cut short or fails its checksum, and the next save overwrites it.
+     */
+    private void readCheckpoint() throws KnickerException {
+        if (checkpointFile == null || !checkpointFile.exists()) {
+            return;
+        }
+        File file = checkpointFile;
+        long length = file.length();
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (length < 8 || in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new KnickerException(file + " is not a crawl checkpoint.");
+            }
+            long position = 8;
+            CRC32 crc = new CRC32();
+            while (length - position >= 8) {
+                int size = in.readInt();
+                long checksum = in.readInt() & 0xFFFFFFFFL;
+                if (size <= 0 || size > length - position - 8) {
+                    break;
+                }
+                byte[] record = new byte[size];
+                in.readFully(record);
+                crc.reset();
+                crc.update(record);
+                if (crc.getValue() != checksum) {
+                    break;
+                }
+                load(file, new DataInputStream(new ByteArrayInputStream(record)));
+                position += size + 8;
+            }
+            checkpointLength = position;
+            savedCount = index.size();
+        } catch (IOException e) {
+            throw new KnickerException("Error reading checkpoint " + file + ".", e);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // nothing more to read
+                }
+            }
+        }
+    }
+
+
+    /*
+     * Register the nodes and record the edges of one checkpoint record.
+     */
+    private void load(File file, DataInputStream in) throws IOException, KnickerException {
+        int first = in.readInt();
+        int count = in.readInt();
+        if (first != index.size()) {
+            throw new KnickerException("Checkpoint " + file + " is out of order at word " + first + ".");
+        }
+        for (int i = first; i < first + count; i++) {
+            String word = in.readUTF();
+            int depth = in.readInt();
+            int id = register(word, depth);
+            if (id == ConcurrentLongIndex.FULL) {
+                throw new KnickerException("Checkpoint " + file + " holds more than the limit of " +
+                        maxWords + " words.");
+            }
+            if (id != i) {
+                throw new KnickerException("Checkpoint " + file + " contains duplicate word " + word + ".");
+            }
+        }
+        int expanded = in.readInt();
+        for (int i = 0; i < expanded; i++) {
+            int id = in.readInt();
+            int size = in.readInt();
+            int[] targets = new int[size];
+            for (int j = 0; j < size; j++) {
+                targets[j] = in.readInt();
+            }
+            byte[] labels = new byte[size];
+            in.readFully(labels);
+            if (id < 0 || id >= index.size()) {
+                throw new KnickerException("Checkpoint " + file + " has edges for unknown word " + id + ".");
+            }
+            Node node = node(id);
+            if (node.edges == null) {
+                node.edges = new Edges(targets, labels);
+                expandedCount.incrementAndGet();
+                edgeCount.addAndGet(size);
+            }
+        }
+    }
+
+
+    private static final class Node {
+
+        final String word;
+
+        final int depth;
+
+        /* Null until the word has been expanded. */
+        volatile Edges edges;
+
+
+        Node(String word, int depth) {
+            this.word = word;
+            this.depth = depth;
+        }
+    }
+
+
+    private static final class Edges {
+
+        final int[] targets;
+
+        final byte[] labels;
+
+
+        Edges(int[] targets, byte[] labels) {
+            this.targets = targets;
+            this.labels = labels;
+        }
+
+
+        /*
+         * True if every target is below count. Edges recorded after a snapshot
+         * was sized can point past it.
+         */
+        boolean within(int count) {
+            for (int target : targets) {
+                if (target >= count) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Builds <code>RelatedWordCrawler</code> instances.
+     */
+    public static class Builder {
+
+        private final KnickerClient client;
+
+        private Set<RelationshipType> relationshipTypes;
+
+        private int limitPerRelationshipType;
+
+        private boolean useCanonical;
+
+        private int parallelism = 4;
+
+        private int maxDepth = Integer.MAX_VALUE;
+
+        private int maxWords = 1000000;
+
+        private File checkpointFile;
+
+        private int checkpointInterval = 1000;
+
+
+        /**
+         * @param client the client used for every call.
+         */
+        public Builder(KnickerClient client) {
+            if (client == null) {
+                throw new IllegalArgumentException("Client cannot be null.");
+            }
+            this.client = client;
+        }
+
+
+        /**
+         * @param relationshipTypes the relationships to follow. If null or
+         *                          empty, which is the default, all are followed.
+         * @return this builder.
+         */
+        public Builder relationshipTypes(Set<RelationshipType> relationshipTypes) {
+            this.relationshipTypes = relationshipTypes;
+            return this;
+        }
+
+
+        /**
+         * @param limitPerRelationshipType maximum words to fetch for each
+         *                                 relationship. Zero, the default, uses
+         *                                 the server's limit.
+         * @return this builder.
+         */
+        public Builder limitPerRelationshipType(int limitPerRelationshipType) {
+            this.limitPerRelationshipType = limitPerRelationshipType;
+            return this;
+        }
+
+
+        /**
+         * @param useCanonical if true, fetch the related words of each word's root form.
+         * @return this builder.
+         */
+        public Builder useCanonical(boolean useCanonical) {
+            this.useCanonical = useCanonical;
+            return this;
+        }
+
+
+        /**
+         * @param parallelism maximum number of words expanded at once. The default is 4.
+         * @return this builder.
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+
+        /**
+         * @param maxDepth number of steps from the seeds to expand. Words found
+         *                 at this depth are added to the graph but not expanded.
+         *                 The default is no limit.
+         * @return this builder.
+         */
+        public Builder maxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+
+        /**
+         * @param maxWords maximum number of words in the graph. Once it is
+         *                 reached, edges to new words are dropped. The default
+         *                 is 1,000,000.
+         * @return this builder.
+         */
+        public Builder maxWords(int maxWords) {
+            this.maxWords = maxWords;
+            return this;
+        }
+
+
+        /**
+         * @param checkpointFile file to save progress to and resume from. If
+         *                       null, which is the default, progress is not saved.
+         * @return this builder.
+         */
+        public Builder checkpointFile(File checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+
+        /**
+         * @param checkpointInterval number of words expanded between
+         *                           checkpoints. The default is 1000.
+         * @return this builder.
+         */
+        public Builder checkpointInterval(int checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+
+        public RelatedWordCrawler build() {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1.");
+            }
+            if (maxDepth < 0) {
+                throw new IllegalArgumentException("Maximum depth cannot be negative.");
+            }
+            if (maxWords < 1) {
+                throw new IllegalArgumentException("Maximum words must be at least 1.");
+            }
+            if (checkpointInterval < 1) {
+                throw new IllegalArgumentException("Checkpoint interval must be at least 1.");
+            }
+            return new RelatedWordCrawler(this);
+        }
+    }
+}
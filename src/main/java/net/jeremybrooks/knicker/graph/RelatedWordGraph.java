@@ -0,0 +1,380 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.graph;
+
+import net.jeremybrooks.knicker.Knicker.RelationshipType;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * A related-word graph read from a compressed sparse row file written by
+ * <code>RelatedWordCrawler.writeGraph</code>.
+ * <p/>
+ * The file is memory-mapped, so opening even a large graph is cheap and
+ * the operating system pages it in as it is used. All values are big-endian,
+ * and every array of longs starts on an 8 byte boundary. The layout is:
+ * <ul>
+ * <li>header: magic "KCSR", version, node count, label count (ints); edge
+ * count and the positions of the six sections below (longs)</li>
+ * <li>offsets: <code>long[nodeCount + 1]</code>; the edges of node
+ * <code>n</code> are <code>offsets[n]</code> up to <code>offsets[n + 1]</code></li>
+ * <li>targets: <code>int[edgeCount]</code>, the node at the end of each edge</li>
+ * <li>labels: <code>byte[edgeCount]</code>, the relationship of each edge as
+ * an index into the label names, or -1 if it was not recognized</li>
+ * <li>word index: <code>long[nodeCount + 1]</code> positions into the word data</li>
+ * <li>word data: the words, UTF-8 encoded</li>
+ * <li>label names: for each label, a short length and the UTF-8 encoded name
+ * of the <code>RelationshipType</code></li>
+ * </ul>
+ * Nodes are numbered in the order the crawl discovered them. A mapped file
+ * is limited to 2GB, which is room for about 400 million edges.
+ * <p/>
+ * Instances are safe to share between threads.
+ *
+ * @author Jeremy Brooks
+ */
+public class RelatedWordGraph implements Closeable {
+
+    static final int MAGIC = 0x4B435352;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 72;
+
+    private final RandomAccessFile file;
+
+    private final ByteBuffer buffer;
+
+    private final int nodeCount;
+
+    private final long edgeCount;
+
+    private final int offsetsPos;
+
+    private final int targetsPos;
+
+    private final int labelsPos;
+
+    private final int wordIndexPos;
+
+    private final int wordDataPos;
+
+    private final RelationshipType[] labels;
+
+    private volatile Map<String, Integer> nodesByWord;
+
+
+    private RelatedWordGraph(RandomAccessFile file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a related word graph file.");
+        }
+        this.nodeCount = buffer.getInt(8);
+        int labelCount = buffer.getInt(12);
+        this.edgeCount = buffer.getLong(16);
+        this.offsetsPos = (int) buffer.getLong(24);
+        this.targetsPos = (int) buffer.getLong(32);
+        this.labelsPos = (int) buffer.getLong(40);
+        this.wordIndexPos = (int) buffer.getLong(48);
+        this.wordDataPos = (int) buffer.getLong(56);
+        int pos = (int) buffer.getLong(64);
+
+        this.labels = new RelationshipType[labelCount];
+        for (int i = 0; i < labelCount; i++) {
+            int length = buffer.getShort(pos) & 0xffff;
+            String name = decode(pos + 2, length);
+            pos += 2 + length;
+            try {
+                labels[i] = RelationshipType.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                // written by a version that knew more relationships
+            }
+        }
+    }
+
+
+    /**
+     * Memory-map a graph file.
+     *
+     * @param file the file written by <code>RelatedWordCrawler.writeGraph</code>.
+     * @return the graph. Close it when done.
+     * @throws IOException if the file cannot be read, is not a graph file, or
+     *                     is larger than 2GB.
+     */
+    public static RelatedWordGraph open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            long size = raf.length();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to map.");
+            }
+            ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+            RelatedWordGraph graph = new RelatedWordGraph(raf, buffer);
+            raf = null;
+            return graph;
+        } finally {
+            if (raf != null) {
+                raf.close();
+            }
+        }
+    }
+
+
+    /**
+     * @return number of words in the graph.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+
+    /**
+     * @return number of edges in the graph.
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+
+    /**
+     * @param node node number.
+     * @return the word of the node.
+     */
+    public String getWord(int node) {
+        checkNode(node);
+        int start = (int) buffer.getLong(wordIndexPos + node * 8);
+        int end = (int) buffer.getLong(wordIndexPos + (node + 1) * 8);
+        return decode(wordDataPos + start, end - start);
+    }
+
+
+    /**
+     * Find the node of a word. The first call builds an index of all words.
+     *
+     * @param word the word.
+     * @return the node number, or -1 if the word is not in the graph.
+     */
+    public int indexOf(String word) {
+        Map<String, Integer> map = nodesByWord;
+        if (map == null) {
+            map = new HashMap<String, Integer>(nodeCount * 2);
+            for (int i = 0; i < nodeCount; i++) {
+                map.put(getWord(i), i);
+            }
+            nodesByWord = map;
+        }
+        Integer node = map.get(word);
+        return node == null ? -1 : node;
+    }
+
+
+    /**
+     * @param node node number.
+     * @return number of edges leaving the node.
+     */
+    public int getDegree(int node) {
+        checkNode(node);
+        return (int) (offset(node + 1) - offset(node));
+    }
+
+
+    /**
+     * @param node node number.
+     * @param edge edge number, from 0 to <code>getDegree(node) - 1</code>.
+     * @return the node at the end of the edge.
+     */
+    public int getTarget(int node, int edge) {
+        return buffer.getInt(targetsPos + (int) edgeIndex(node, edge) * 4);
+    }
+
+
+    /**
+     * @param node node number.
+     * @param edge edge number, from 0 to <code>getDegree(node) - 1</code>.
+     * @return the relationship of the edge, or null if it was not recognized.
+     */
+    public RelationshipType getRelationshipType(int node, int edge) {
+        int label = buffer.get(labelsPos + (int) edgeIndex(node, edge));
+        return label < 0 || label >= labels.length ? null : labels[label];
+    }
+
+
+    /**
+     * @param node node number.
+     * @return the nodes at the end of each edge leaving the node.
+     */
+    public int[] getTargets(int node) {
+        int degree = getDegree(node);
+        int start = targetsPos + (int) offset(node) * 4;
+        int[] targets = new int[degree];
+        for (int i = 0; i < degree; i++) {
+            targets[i] = buffer.getInt(start + i * 4);
+        }
+        return targets;
+    }
+
+
+    /**
+     * Release the file. The mapping itself is released when the graph is
+     * garbage collected.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ nodeCount=").append(this.nodeCount).append(" | ");
+        sb.append("edgeCount=").append(this.edgeCount).append(" ]");
+
+        return sb.toString();
+    }
+
+
+    private long offset(int node) {
+        return buffer.getLong(offsetsPos + node * 8);
+    }
+
+
+    private long edgeIndex(int node, int edge) {
+        if (edge < 0 || edge >= getDegree(node)) {
+            throw new IndexOutOfBoundsException("Edge " + edge + " of node " + node + ".");
+        }
+        return offset(node) + edge;
+    }
+
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node " + node + " of " + nodeCount + ".");
+        }
+    }
+
+
+    private String decode(int pos, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(pos + i);
+        }
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    /*
+     * Write a graph. targets[n] and labels[n] hold the edges of node n, or are
+     * null if it has none.
+     */
+    static void write(File file, String[] words, int[][] targets, byte[][] labels) throws IOException {
+        int nodeCount = words.length;
+        long edgeCount = 0;
+        for (int[] t : targets) {
+            edgeCount += t == null ? 0 : t.length;
+        }
+        byte[][] encoded = new byte[nodeCount][];
+        long wordBytes = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            encoded[i] = words[i].getBytes("UTF-8");
+            wordBytes += encoded[i].length;
+        }
+        RelationshipType[] types = RelationshipType.values();
+
+        long offsetsPos = HEADER_SIZE;
+        long targetsPos = offsetsPos + 8L * (nodeCount + 1);
+        long labelsPos = targetsPos + 4L * edgeCount;
+        long wordIndexPos = (labelsPos + edgeCount + 7) & ~7L;
+        long wordDataPos = wordIndexPos + 8L * (nodeCount + 1);
+        long labelNamesPos = wordDataPos + wordBytes;
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nodeCount);
+            out.writeInt(types.length);
+            out.writeLong(edgeCount);
+            out.writeLong(offsetsPos);
+            out.writeLong(targetsPos);
+            out.writeLong(labelsPos);
+            out.writeLong(wordIndexPos);
+            out.writeLong(wordDataPos);
+            out.writeLong(labelNamesPos);
+
+            long offset = 0;
+            out.writeLong(offset);
+            for (int[] t : targets) {
+                offset += t == null ? 0 : t.length;
+                out.writeLong(offset);
+            }
+            for (int[] t : targets) {
+                if (t != null) {
+                    for (int target : t) {
+                        out.writeInt(target);
+                    }
+                }
+            }
+            for (byte[] l : labels) {
+                if (l != null) {
+                    out.write(l);
+                }
+            }
+            for (long pad = labelsPos + edgeCount; pad < wordIndexPos; pad++) {
+                out.write(0);
+            }
+
+            long position = 0;
+            out.writeLong(position);
+            for (byte[] word : encoded) {
+                position += word.length;
+                out.writeLong(position);
+            }
+            for (byte[] word : encoded) {
+                out.write(word);
+            }
+
+            for (RelationshipType type : types) {
+                byte[] name = type.name().getBytes("UTF-8");
+                out.writeShort(name.length);
+                out.write(name);
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.transport;
+
+/**
+ * Lets a <code>Transport</code> find out that the caller has given up on a request.
+ * <p/>
+ * A transport registers a listener while a request is in flight, and the
+ * listener aborts the connection. Listeners registered after the signal has
+ * fired are run immediately, on the registering thread.
+ *
+ * @author Jeremy Brooks
+ */
+public interface CancellationSignal {
+
+    /**
+     * @return true if the request should be abandoned.
+     */
+    boolean isCancelled();
+
+
+    /**
+     * Register a listener to run when the signal fires.
+     *
+     * @param listener the listener.
+     */
+    void addCancelListener(Runnable listener);
+
+
+    /**
+     * Remove a listener registered with <code>addCancelListener</code>.
+     *
+     * @param listener the listener.
+     */
+    void removeCancelListener(Runnable listener);
+}
@@ -0,0 +1,229 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.transport;
+
+/**
+ * Records how long each phase of a single API request took.
+ * <p/>
+ * The client creates one of these for each sampled request, hands it to the
+ * transport with the request, and fills in the parse and map phases after the
+ * response has been read. Phases are additive, so a request that is retried
+ * reports the total spent in each phase across all of its attempts.
+ * <p/>
+ * <code>HttpURLConnection</code> does not report the TLS handshake separately,
+ * so for https requests the handshake is included in the connect phase.
+ * <p/>
+ * Instances are filled in by one thread at a time and are not thread safe
+ * until they have been finished.
+ *
+ * @author Jeremy Brooks
+ */
+public class RequestTiming {
+
+    /**
+     * The phases of a request, in the order they happen.
+     */
+    public static enum Phase {
+        /** Waiting for the throttle, concurrency limiter, and other interceptors. */
+        QUEUE,
+        /** Opening the connection, including any TLS handshake. */
+        CONNECT,
+        /** Writing the request body. */
+        SEND,
+        /** Waiting for the status line and headers (time to first byte). */
+        WAIT,
+        /** Reading the response body. */
+        DOWNLOAD,
+        /** Parsing the response body into a document. */
+        PARSE,
+        /** Mapping the document into the returned objects. */
+        MAP
+    }
+
+    private final String method;
+
+    private final String endpoint;
+
+    private final long startMillis;
+
+    private final long startNanos;
+
+    private final long[] nanos = new long[Phase.values().length];
+
+    private int attempts;
+
+    private int statusCode = -1;
+
+    private boolean failed;
+
+    private long totalNanos = -1;
+
+
+    /**
+     * Start timing a request now.
+     *
+     * @param method   the HTTP method.
+     * @param endpoint the endpoint, such as <code>word/definitions</code>.
+     */
+    public RequestTiming(String method, String endpoint) {
+        this.method = method;
+        this.endpoint = endpoint;
+        this.startMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+
+    /**
+     * Add time to a phase.
+     *
+     * @param phase the phase.
+     * @param nanos nanoseconds spent in the phase; negative values are ignored.
+     */
+    public void record(Phase phase, long nanos) {
+        if (nanos > 0) {
+            this.nanos[phase.ordinal()] += nanos;
+        }
+    }
+
+
+    /**
+     * Note that the request is being sent to the transport.
+     */
+    public void attempt() {
+        this.attempts++;
+    }
+
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+
+    /**
+     * Stop the clock. Calling this more than once has no effect.
+     *
+     * @param failed true if the request did not produce a result.
+     */
+    public void finish(boolean failed) {
+        if (this.totalNanos < 0) {
+            this.failed = failed;
+            this.totalNanos = System.nanoTime() - this.startNanos;
+        }
+    }
+
+
+    /**
+     * @param phase the phase.
+     * @return nanoseconds spent in the phase.
+     */
+    public long getNanos(Phase phase) {
+        return this.nanos[phase.ordinal()];
+    }
+
+
+    /**
+     * @param phase the phase.
+     * @return milliseconds spent in the phase.
+     */
+    public double getMillis(Phase phase) {
+        return this.nanos[phase.ordinal()] / 1000000d;
+    }
+
+
+    /**
+     * @return nanoseconds from start to finish, or to now if the timing has not finished.
+     */
+    public long getTotalNanos() {
+        return this.totalNanos < 0 ? System.nanoTime() - this.startNanos : this.totalNanos;
+    }
+
+
+    public double getTotalMillis() {
+        return getTotalNanos() / 1000000d;
+    }
+
+
+    /**
+     * @return the value of <code>System.nanoTime()</code> when the request started.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+
+    /**
+     * @return wall clock time when the request started.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+
+    public String getMethod() {
+        return method;
+    }
+
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+
+    /**
+     * @return number of times the request was handed to the transport.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+
+    /**
+     * @return HTTP status of the last response, or -1 if none was received.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+
+    public boolean isFinished() {
+        return this.totalNanos >= 0;
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ method=").append(this.method).append(" | ");
+        sb.append("endpoint=").append(this.endpoint).append(" | ");
+        sb.append("statusCode=").append(this.statusCode).append(" | ");
+        sb.append("attempts=").append(this.attempts).append(" | ");
+        sb.append("failed=").append(this.failed).append(" | ");
+        for (Phase phase : Phase.values()) {
+            sb.append(phase.name().toLowerCase()).append('=').append(getMillis(phase)).append("ms | ");
+        }
+        sb.append("total=").append(getTotalMillis()).append("ms ]");
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.transport;
+
+import java.io.IOException;
+
+/**
+ * Defines the interface that Knicker uses to talk to the Wordnik servers.
+ * <p/>
+ * By default, Knicker uses <code>UrlConnectionTransport</code>, which is built
+ * on <code>java.net.HttpURLConnection</code>. If you want to use a different
+ * HTTP library, or route requests to a local stand-in server for testing, you
+ * can implement this interface and pass your instance to
+ * <code>KnickerClient.Builder.transport()</code>.
+ * <p/>
+ * Implementations must be safe to use from multiple threads.
+ *
+ * @author Jeremy Brooks
+ */
+public interface Transport {
+
+    /**
+     * Execute a single HTTP exchange.
+     * <p/>
+     * Implementations should return the response for any HTTP status code,
+     * including errors. An IOException should only be thrown when no response
+     * could be read.
+     *
+     * @param request the request to send.
+     * @return the server response.
+     * @throws IOException if the request could not be completed.
+     */
+    public TransportResponse execute(TransportRequest request) throws IOException;
+
+}
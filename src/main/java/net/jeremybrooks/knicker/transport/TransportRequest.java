@@ -0,0 +1,249 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.transport;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Describes a single HTTP request to be executed by a <code>Transport</code>.
+ * <p/>
+ * Instances are immutable. Use <code>TransportRequest.Builder</code> to create them.
+ *
+ * @author Jeremy Brooks
+ */
+public class TransportRequest {
+
+    private final String method;
+
+    private final String url;
+
+    private final Map<String, String> headers;
+
+    private final byte[] body;
+
+    private final int connectTimeout;
+
+    private final int readTimeout;
+
+    private final CancellationSignal cancellationSignal;
+
+    private final RequestTiming timing;
+
+
+    private TransportRequest(Builder builder) {
+        this.method = builder.method;
+        this.url = builder.url;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<String, String>(builder.headers));
+        this.body = builder.body;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.cancellationSignal = builder.cancellationSignal;
+        this.timing = builder.timing;
+    }
+
+
+    /**
+     * @return the HTTP method, such as GET or POST.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+
+    /**
+     * @return the absolute, encoded URL.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+
+    /**
+     * @return request headers; the returned map cannot be modified.
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+
+    /**
+     * @return the request body, or null if there is no body.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+
+    /**
+     * @return connect timeout in milliseconds.
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+
+    /**
+     * @return read timeout in milliseconds.
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+
+    /**
+     * @return signal the transport should watch to abort the request, or null.
+     */
+    public CancellationSignal getCancellationSignal() {
+        return cancellationSignal;
+    }
+
+
+    /**
+     * @return timing the transport should record its phases in, or null if the request is not timed.
+     */
+    public RequestTiming getTiming() {
+        return timing;
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ method=").append(this.method).append(" | ");
+        sb.append("url=").append(this.url).append(" | ");
+        sb.append("bodyLength=").append(this.body == null ? 0 : this.body.length).append(" | ");
+        sb.append("connectTimeout=").append(this.connectTimeout).append(" | ");
+        sb.append("readTimeout=").append(this.readTimeout).append(" ]");
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Builds immutable <code>TransportRequest</code> instances.
+     */
+    public static class Builder {
+
+        private String method = "GET";
+
+        private String url;
+
+        private Map<String, String> headers = new LinkedHashMap<String, String>();
+
+        private byte[] body;
+
+        private int connectTimeout;
+
+        private int readTimeout;
+
+        private CancellationSignal cancellationSignal;
+
+        private RequestTiming timing;
+
+
+        public Builder() {
+        }
+
+
+        /**
+         * Create a builder initialized with the values of an existing request.
+         *
+         * @param source the request to copy values from.
+         */
+        public Builder(TransportRequest source) {
+            this.method = source.method;
+            this.url = source.url;
+            this.headers.putAll(source.headers);
+            this.body = source.body;
+            this.connectTimeout = source.connectTimeout;
+            this.readTimeout = source.readTimeout;
+            this.cancellationSignal = source.cancellationSignal;
+            this.timing = source.timing;
+        }
+
+
+        public Builder method(String method) {
+            this.method = method;
+            return this;
+        }
+
+
+        public Builder url(String url) {
+            this.url = url;
+            return this;
+        }
+
+
+        /**
+         * Set a request header. A null value removes the header.
+         *
+         * @param name  header name.
+         * @param value header value.
+         * @return this builder.
+         */
+        public Builder header(String name, String value) {
+            if (value == null) {
+                this.headers.remove(name);
+            } else {
+                this.headers.put(name, value);
+            }
+            return this;
+        }
+
+
+        public Builder body(byte[] body) {
+            this.body = body;
+            return this;
+        }
+
+
+        public Builder connectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+
+        public Builder readTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+
+        public Builder cancellationSignal(CancellationSignal cancellationSignal) {
+            this.cancellationSignal = cancellationSignal;
+            return this;
+        }
+
+
+        public Builder timing(RequestTiming timing) {
+            this.timing = timing;
+            return this;
+        }
+
+
+        public TransportRequest build() {
+            if (this.url == null) {
+                throw new IllegalStateException("A url is required.");
+            }
+            return new TransportRequest(this);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The result of a single HTTP exchange executed by a <code>Transport</code>.
+ * <p/>
+ * Header names are matched without regard to case.
+ *
+ * @author Jeremy Brooks
+ */
+public class TransportResponse {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final int statusCode;
+
+    private final Map<String, List<String>> headers;
+
+    private final byte[] body;
+
+
+    /**
+     * Create a new response.
+     *
+     * @param statusCode the HTTP status code.
+     * @param headers    response headers. May be null.
+     * @param body       response body. May be null.
+     */
+    public TransportResponse(int statusCode, Map<String, List<String>> headers, byte[] body) {
+        this.statusCode = statusCode;
+        Map<String, List<String>> map = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        if (headers != null) {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                // HttpURLConnection reports the status line with a null key
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    map.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<String>(entry.getValue())));
+                }
+            }
+        }
+        this.headers = Collections.unmodifiableMap(map);
+        this.body = body == null ? EMPTY : body;
+    }
+
+
+    /**
+     * @return the HTTP status code.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+
+    /**
+     * @return true if the status code is in the 2xx range.
+     */
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+
+    /**
+     * @return all response headers; the returned map cannot be modified.
+     */
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+
+    /**
+     * Get the first value of a response header. Header names are not case
+     * sensitive.
+     *
+     * @param name the header name.
+     * @return the first header value, or null if the header is not present.
+     */
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        if (values == null) {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                if (entry.getKey() != null && entry.getKey().equalsIgnoreCase(name)) {
+                    values = entry.getValue();
+                    break;
+                }
+            }
+        }
+        return (values == null || values.isEmpty()) ? null : values.get(0);
+    }
+
+
+    /**
+     * @return the response body. Never null.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName());
+        sb.append(": [ statusCode=").append(this.statusCode).append(" | ");
+        sb.append("headers=").append(this.headers).append(" | ");
+        sb.append("bodyLength=").append(this.body.length).append(" ]");
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * The default <code>Transport</code>, built on <code>java.net.HttpURLConnection</code>.
+ * <p/>
+ * This class keeps no state between requests, so a single instance can be
+ * shared by any number of clients and threads.
+ * <p/>
+ * Each request is sent once. A request with a body is streamed, so it is not
+ * sent again if the connection fails, since the server may already have
+ * acted on it; retries are left to <code>RetryInterceptor</code>, which only
+ * retries idempotent methods.
+ *
+ * @author Jeremy Brooks
+ */
+public class UrlConnectionTransport implements Transport {
+
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        final HttpURLConnection conn = (HttpURLConnection) new URL(request.getUrl()).openConnection();
+        conn.setConnectTimeout(request.getConnectTimeout());
+        conn.setReadTimeout(request.getReadTimeout());
+        conn.setUseCaches(false);
+        conn.setRequestMethod(request.getMethod());
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            conn.addRequestProperty(header.getKey(), header.getValue());
+        }
+
+        // closing the connection from another thread makes the blocked connect or read fail
+        CancellationSignal signal = request.getCancellationSignal();
+        Runnable abort = null;
+        if (signal != null) {
+            abort = new Runnable() {
+                @Override
+                public void run() {
+                    conn.disconnect();
+                }
+            };
+            signal.addCancelListener(abort);
+        }
+
+        try {
+            if (signal != null && signal.isCancelled()) {
+                throw new IOException("Request cancelled before it was sent.");
+            }
+            RequestTiming timing = request.getTiming();
+            byte[] body = request.getBody();
+            if (body != null) {
+                conn.setDoOutput(true);
+                conn.setFixedLengthStreamingMode(body.length);
+            }
+
+            // connecting explicitly lets the handshake be timed apart from the exchange
+            long mark = System.nanoTime();
+            conn.connect();
+            mark = lap(timing, RequestTiming.Phase.CONNECT, mark);
+
+            if (body != null) {
+                OutputStream out = conn.getOutputStream();
+                try {
+                    out.write(body);
+                    out.flush();
+                } finally {
+                    out.close();
+                }
+                mark = lap(timing, RequestTiming.Phase.SEND, mark);
+            }
+
+            int status = conn.getResponseCode();
+            mark = lap(timing, RequestTiming.Phase.WAIT, mark);
+            InputStream in = status >= 400 ? conn.getErrorStream() : conn.getInputStream();
+            byte[] data = readFully(in);
+            lap(timing, RequestTiming.Phase.DOWNLOAD, mark);
+
+            return new TransportResponse(status, conn.getHeaderFields(), data);
+        } finally {
+            if (abort != null) {
+                signal.removeCancelListener(abort);
+            }
+        }
+    }
+
+
+    /*
+     * Record the time since mark against a phase and return the new mark.
+     */
+    private static long lap(RequestTiming timing, RequestTiming.Phase phase, long mark) {
+        long now = System.nanoTime();
+        if (timing != null) {
+            timing.record(phase, now - mark);
+        }
+        return now;
+    }
+
+
+    /*
+     * Read a stream to the end and close it. A null stream returns an empty array.
+     */
+    private static byte[] readFully(InputStream in) throws IOException {
+        if (in == null) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            try {
+                in.close();
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.TokenStatus;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests key selection against a local server that enforces a quota per key.
+ * The key "bad" is rejected, and the key "hot" is always rate limited.
+ *
+ * @author Jeremy Brooks
+ */
+public class ApiKeyPoolTest {
+
+    static StubServer server;
+    static String baseUrl;
+    static final Map<String, Integer> quotas = new HashMap<String, Integer>();
+    static final Map<String, AtomicInteger> used = new ConcurrentHashMap<String, AtomicInteger>();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        quotas.put("k1", 3);
+        quotas.put("k2", 10);
+        quotas.put("cold", 100);
+        server = new StubServer()
+                .route("/apiTokenStatus", new StubServer.Handler() {
+                    @Override
+                    public void handle(StubServer.Exchange exchange) throws Exception {
+                        String key = exchange.getHeader("api_key");
+                        Integer quota = quotas.get(key);
+                        exchange.reply("<apiTokenStatus><expiresInMillis>0</expiresInMillis>" +
+                                "<remainingCalls>" + (quota == null ? 0 : quota - usage(key).get()) + "</remainingCalls>" +
+                                "<resetsInMillis>3600000</resetsInMillis><token>" + key + "</token>" +
+                                "<totalRequests>0</totalRequests><valid>" + (quota != null) + "</valid></apiTokenStatus>");
+                    }
+                })
+                .fallback(new StubServer.Handler() {
+                    @Override
+                    public void handle(StubServer.Exchange exchange) throws Exception {
+                        String key = exchange.getHeader("api_key");
+                        if (key.equals("hot")) {
+                            exchange.header("Retry-After", "1").reply(429);
+                        } else if (!quotas.containsKey(key)) {
+                            exchange.reply(401);
+                        } else {
+                            int remaining = quotas.get(key) - usage(key).incrementAndGet();
+                            if (remaining < 0) {
+                                exchange.reply(429);
+                            } else {
+                                exchange.header("x-ratelimit-remaining", Integer.toString(remaining))
+                                        .reply("<definitions/>");
+                            }
+                        }
+                    }
+                })
+                .start();
+        baseUrl = server.getBaseUrl();
+    }
+
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        server.stop();
+    }
+
+
+    private static AtomicInteger usage(String key) {
+        AtomicInteger count = used.get(key);
+        if (count == null) {
+            used.put(key, new AtomicInteger());
+            count = used.get(key);
+        }
+        return count;
+    }
+
+
+    private static void call(KnickerClient client) throws KnickerException {
+        client.definitions("cat", 0, null, false, null, false, false);
+    }
+
+
+    @Test
+    public void testRoutesByHeadroomAndSidelines() throws Exception {
+        ApiKeyPool pool = new ApiKeyPool(Arrays.asList("k1", "k2", "bad"));
+        KnickerClient client = new KnickerClient.Builder().baseUrl(baseUrl).keyPool(pool).build();
+
+        assertEquals(3, pool.refresh(client));
+        assertEquals(ApiKeyPool.State.INVALID, pool.getKeyStatus("bad").getState());
+        assertEquals(3, pool.getKeyStatus("k1").getRemainingCalls());
+        assertEquals(10, pool.getKeyStatus("k2").getRemainingCalls());
+
+        for (int i = 0; i < 7; i++) {
+            call(client);
+        }
+        // k2 had the most headroom until it came down to k1's
+        assertEquals(0, pool.getKeyStatus("k1").getRequestCount());
+        assertEquals(7, pool.getKeyStatus("k2").getRequestCount());
+
+        for (int i = 0; i < 6; i++) {
+            call(client);
+        }
+        assertEquals(3, pool.getKeyStatus("k1").getRequestCount());
+        assertEquals(10, pool.getKeyStatus("k2").getRequestCount());
+        assertEquals(0, pool.getKeyStatus("bad").getRequestCount());
+        assertEquals(ApiKeyPool.State.EXHAUSTED, pool.getKeyStatus("k1").getState());
+        assertEquals(ApiKeyPool.State.EXHAUSTED, pool.getKeyStatus("k2").getState());
+
+        int before = server.getRequestCount();
+        try {
+            call(client);
+            fail("Expected every key to be sidelined.");
+        } catch (KnickerException e) {
+            assertTrue(e.getMessage().startsWith("No API key is available"));
+        }
+        assertEquals(before, server.getRequestCount());
+        client.shutdown();
+    }
+
+
+    @Test
+    public void testRateLimitedKeyReturnsAfterRetryAfter() throws Exception {
+        ApiKeyPool pool = new ApiKeyPool(Arrays.asList("hot", "cold"));
+        KnickerClient client = new KnickerClient.Builder().baseUrl(baseUrl).keyPool(pool).build();
+
+        try {
+            call(client);
+            fail("Expected HTTP 429.");
+        } catch (KnickerException e) {
+            assertTrue(e.getMessage().endsWith("HTTP 429."));
+        }
+        ApiKeyPool.KeyStatus hot = pool.getKeyStatus("hot");
+        assertEquals(ApiKeyPool.State.EXHAUSTED, hot.getState());
+        assertEquals(1, hot.getRateLimitedCount());
+        assertEquals(1, hot.getErrorCount());
+
+        call(client);
+        call(client);
+        assertEquals(2, pool.getKeyStatus("cold").getRequestCount());
+        assertEquals(1, pool.getKeyStatus("hot").getRequestCount());
+
+        TimeUnit.MILLISECONDS.sleep(1100);
+        assertEquals(ApiKeyPool.State.ACTIVE, pool.getKeyStatus("hot").getState());
+        client.shutdown();
+    }
+
+
+    private static TokenStatus remaining(int calls) {
+        return new TokenStatus.Builder().valid(true).remainingCalls(calls).build();
+    }
+
+
+    @Test
+    public void testCallInFlightIsCountedOnce() throws Exception {
+        ApiKeyPool pool = new ApiKeyPool(Arrays.asList("a", "b"));
+        pool.update("a", remaining(10));
+        pool.update("b", remaining(6));
+
+        // a has more headroom than b until four calls are in flight with it
+        for (int i = 0; i < 4; i++) {
+            assertEquals("a", pool.acquire());
+        }
+        assertEquals(4, pool.getKeyStatus("a").getInFlight());
+        assertEquals(10, pool.getKeyStatus("a").getRemainingCalls());
+
+        pool.release("a", null, false);
+        assertEquals(3, pool.getKeyStatus("a").getInFlight());
+        assertEquals(10, pool.getKeyStatus("a").getRemainingCalls());
+    }
+
+
+    @Test
+    public void testConcurrentCallsAreSpreadEvenly() throws Exception {
+        final ApiKeyPool pool = new ApiKeyPool(Arrays.asList("a", "b", "c"));
+        for (String key : pool.getKeys()) {
+            pool.update(key, remaining(1000));
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 30; i++) {
+                            pool.acquire();
+                        }
+                    } catch (Exception e) {
+                        // counted below
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (String key : pool.getKeys()) {
+            assertEquals(key, 80, pool.getKeyStatus(key).getInFlight());
+            assertEquals(key, 80, pool.getKeyStatus(key).getRequestCount());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.cache.InMemoryKnickerCache;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class CacheWarmerTest {
+
+    @Test
+    public void testParseWord() {
+        assertEquals("cat", CacheWarmer.parseWord("cat"));
+        assertEquals("cat", CacheWarmer.parseWord("  cat 1200"));
+        assertEquals("dog", CacheWarmer.parseWord("dog\t900"));
+        assertNull(CacheWarmer.parseWord("   "));
+        assertNull(CacheWarmer.parseWord("# top words"));
+    }
+
+
+    @Test
+    public void testWarmUp() throws Exception {
+        StubServer server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                String path = exchange.getPath();
+                String word = path.split("/")[3];
+                String xml;
+                int status = 200;
+                if (path.endsWith("/definitions")) {
+                    if (word.equals("broken")) {
+                        status = 500;
+                        xml = "<error>broken</error>";
+                    } else {
+                        xml = "<definitions><definition sequence=\"0\"><text>A word.</text>"
+                                + "<word>" + word + "</word></definition></definitions>";
+                    }
+                } else if (path.endsWith("/pronunciations")) {
+                    xml = "<textProns><textPron seq=\"0\"><raw>" + word + "</raw>"
+                            + "<rawType>arpabet</rawType></textPron></textProns>";
+                } else {
+                    xml = "<wordObject><word>" + word + "</word><canonicalForm>" + word
+                            + "</canonicalForm></wordObject>";
+                }
+                exchange.reply(status, xml);
+            }
+        });
+
+        File wordFile = File.createTempFile("knicker-words", ".txt");
+        Writer out = new OutputStreamWriter(new FileOutputStream(wordFile), "UTF-8");
+        out.write("# word count\ncat 1200\ndog\t900\n\nemu\nbroken\nfox\nowl\nyak\nelk\ngnu\n");
+        out.close();
+        try {
+            InMemoryKnickerCache cache = new InMemoryKnickerCache();
+            KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl(server.getBaseUrl())
+                    .cache(cache)
+                    .throttle(new Throttle(1000, 10))
+                    .build();
+            CacheWarmer warmer = new CacheWarmer.Builder(client, wordFile)
+                    .quotaFraction(0.5)
+                    .readyCoverage(0.8)
+                    .progressInterval(5)
+                    .build();
+            assertEquals(500, warmer.getThrottle().getPermitsPerSecond(), 0.001);
+            assertFalse(warmer.isReady());
+
+            warmer.start();
+            assertTrue(warmer.awaitReady(10, TimeUnit.SECONDS));
+            assertTrue(warmer.awaitDone(10, TimeUnit.SECONDS));
+            assertEquals(9, warmer.getWordCount());
+            assertEquals(8, warmer.getWarmedCount());
+            assertEquals(1, warmer.getFailedCount());
+            assertEquals(8 / 9.0, warmer.getCoverage(), 0.001);
+            // three calls per word, except the word whose definitions failed
+            assertEquals(26, warmer.getThrottle().getAcquiredCount());
+            assertEquals(26, server.getRequestCount());
+
+            client.lookup("cat", false, false);
+            client.definitions("gnu", 0, null, false, null, false, false);
+            client.pronunciations("owl", false, null, null, 0);
+            assertEquals(26, server.getRequestCount());
+        } finally {
+            server.stop();
+            wordFile.delete();
+        }
+    }
+
+
+    @Test
+    public void testNotReadyIfCoverageIsNotReached() throws Exception {
+        File wordFile = File.createTempFile("knicker-words", ".txt");
+        Writer out = new OutputStreamWriter(new FileOutputStream(wordFile), "UTF-8");
+        out.write("cat\ndog\n");
+        out.close();
+        try {
+            KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl("http://127.0.0.1:1/v4")
+                    .cache(new InMemoryKnickerCache())
+                    .build();
+            CacheWarmer warmer = new CacheWarmer.Builder(client, wordFile).build().start();
+            assertFalse(warmer.awaitReady(10, TimeUnit.SECONDS));
+            assertTrue(warmer.isDone());
+            assertEquals(2, warmer.getFailedCount());
+            assertNull(warmer.getThrottle());
+        } finally {
+            wordFile.delete();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class ChunkedWordListTest {
+
+    private final AuthenticationToken token = new AuthenticationToken.Builder().token("secret").build();
+
+    /* The words the server received, one list per request. */
+    private final List<List<String>> requests = Collections.synchronizedList(new ArrayList<List<String>>());
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private StubServer server;
+
+    private KnickerClient client;
+
+
+    @Before
+    public void setUp() throws IOException {
+        server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                int now = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), now));
+                }
+                int status = 200;
+                try {
+                    // the body must be well formed XML
+                    Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                            .parse(new ByteArrayInputStream(exchange.getBody()));
+                    NodeList nodes = doc.getElementsByTagName("word");
+                    List<String> words = new ArrayList<String>();
+                    for (int i = 0; i < nodes.getLength(); i++) {
+                        words.add(nodes.item(i).getTextContent());
+                    }
+                    requests.add(words);
+                    if (words.contains("broken")) {
+                        status = 500;
+                    }
+                    Thread.sleep(50);
+                } catch (Exception e) {
+                    status = 400;
+                }
+                inFlight.decrementAndGet();
+                exchange.reply(status);
+            }
+        });
+        client = new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .build();
+    }
+
+
+    @After
+    public void tearDown() {
+        server.stop();
+        client.shutdown();
+    }
+
+
+    @Test
+    public void testWordsAreEscapedAndSplit() throws Exception {
+        List<String> words = new ArrayList<String>();
+        words.add("fish & chips");
+        words.add("<b>bold</b>");
+        words.add("café");
+        words.add("😀");
+        for (int i = 0; i < 40; i++) {
+            words.add("word" + i);
+        }
+
+        List<ChunkResult> results = client.addWordsToList(token, "list", words, 400, 3);
+        assertTrue(results.size() > 1);
+        List<String> sent = new ArrayList<String>();
+        for (int i = 0; i < results.size(); i++) {
+            ChunkResult result = results.get(i);
+            assertEquals(i, result.getIndex());
+            assertTrue(result.isSuccessful());
+            assertTrue(result.getByteCount() <= 400);
+            sent.addAll(result.getWords());
+        }
+        assertEquals(words, sent);
+        assertTrue(maxInFlight.get() > 1);
+        assertTrue(maxInFlight.get() <= 3);
+
+        List<String> received = new ArrayList<String>();
+        for (List<String> request : requests) {
+            received.addAll(request);
+        }
+        assertEquals(words.size(), received.size());
+        assertTrue(received.containsAll(words));
+
+        // the short form sends everything in one request
+        requests.clear();
+        client.deleteWordsFromList(token, "list", words);
+        assertEquals(1, requests.size());
+        assertEquals(words, requests.get(0));
+    }
+
+
+    @Test
+    public void testFailedChunkIsReported() throws Exception {
+        List<String> words = Arrays.asList("one", "two", "broken", "three");
+        List<ChunkResult> results = client.deleteWordsFromList(token, "list", words, 1, 2);
+        assertEquals(4, results.size());
+        for (ChunkResult result : results) {
+            assertEquals(1, result.getWordCount());
+            if (result.getWords().contains("broken")) {
+                assertFalse(result.isSuccessful());
+                assertNotNull(result.getException());
+            } else {
+                assertTrue(result.isSuccessful());
+            }
+        }
+        assertEquals(4, requests.size());
+    }
+
+
+    @Test
+    public void testInvalidWordIsRejected() throws Exception {
+        try {
+            client.addWordsToList(token, "list", Arrays.asList("good", "bad\u0001"));
+            fail("A control character should be rejected.");
+        } catch (KnickerException expected) {
+        }
+        try {
+            client.addWordsToList(token, "list", Arrays.asList("good", "bad\ud800"));
+            fail("An unpaired surrogate should be rejected.");
+        } catch (KnickerException expected) {
+        }
+        try {
+            client.deleteWordsFromList(token, "list", Arrays.asList("good", "bad\udc00"));
+            fail("An unpaired low surrogate should be rejected.");
+        } catch (KnickerException expected) {
+        }
+        try {
+            client.deleteWordsFromList(token, "list", Arrays.asList("good", "bad\ufffe"));
+            fail("A noncharacter should be rejected.");
+        } catch (KnickerException expected) {
+        }
+        try {
+            client.addWordsToList(token, "list", Arrays.asList("good", null));
+            fail("A null word should be rejected.");
+        } catch (KnickerException expected) {
+        }
+        assertEquals(0, requests.size());
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.transport.TransportResponse;
+import org.junit.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final String ENDPOINT = "word/definitions";
+
+
+    private static TransportResponse response(int status) {
+        return new TransportResponse(status, Collections.<String, List<String>>emptyMap(), new byte[0]);
+    }
+
+
+    @Test
+    public void testEndpointOf() {
+        assertEquals("word/definitions",
+                ConcurrencyLimiter.endpointOf("http://api.wordnik.com/v4/word.xml/cat/definitions?limit=5"));
+        assertEquals("word", ConcurrencyLimiter.endpointOf("http://api.wordnik.com/v4/word.xml/cat?useCanonical=true"));
+        assertEquals("words/search", ConcurrencyLimiter.endpointOf("http://api.wordnik.com/v4/words.xml/search/ca*"));
+        assertEquals("wordList/words",
+                ConcurrencyLimiter.endpointOf("http://api.wordnik.com/v4/wordList.xml/my-list/words"));
+        assertEquals("account/authenticate",
+                ConcurrencyLimiter.endpointOf("http://api.wordnik.com/v4/account.json/authenticate/bob"));
+    }
+
+
+    @Test
+    public void testLimitGrowsWhileLatencyIsSteady() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().initialLimit(2).maxLimit(4).build();
+        for (int round = 0; round < 20; round++) {
+            int limit = limiter.getEndpointStatus(ENDPOINT) == null
+                    ? 2 : limiter.getEndpointStatus(ENDPOINT).getLimit();
+            List<ConcurrencyLimiter.Permit> permits = new ArrayList<ConcurrencyLimiter.Permit>();
+            for (int i = 0; i < limit; i++) {
+                permits.add(limiter.acquire(ENDPOINT, null));
+            }
+            for (ConcurrencyLimiter.Permit permit : permits) {
+                permit.release(response(200), null);
+            }
+        }
+        ConcurrencyLimiter.EndpointStatus status = limiter.getEndpointStatus(ENDPOINT);
+        assertEquals(4, status.getLimit());
+        assertEquals(0, status.getInFlight());
+        assertEquals(0, status.getDecreaseCount());
+    }
+
+
+    @Test
+    public void testLimitIsCutOnOverload() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+                .initialLimit(16).maxLimit(16).backoffRatio(0.5).build();
+
+        limiter.acquire(ENDPOINT, null).release(response(429), null);
+        assertEquals(8, limiter.getEndpointStatus(ENDPOINT).getLimit());
+
+        // a cancelled call says nothing about the server
+        limiter.acquire(ENDPOINT, null).release(null, new KnickerException("The request was cancelled."));
+        assertEquals(8, limiter.getEndpointStatus(ENDPOINT).getLimit());
+
+        Thread.sleep(5);
+        limiter.acquire(ENDPOINT, null).release(null,
+                new KnickerException("Error", new SocketTimeoutException("Read timed out")));
+        assertEquals(4, limiter.getEndpointStatus(ENDPOINT).getLimit());
+        assertEquals(2, limiter.getEndpointStatus(ENDPOINT).getDroppedCount());
+
+        // establish a baseline, then answer slowly
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(ENDPOINT, null).release(response(200), null);
+        }
+        ConcurrencyLimiter.Permit slow = limiter.acquire(ENDPOINT, null);
+        Thread.sleep(50);
+        slow.release(response(200), null);
+        assertEquals(2, limiter.getEndpointStatus(ENDPOINT).getLimit());
+        assertEquals(3, limiter.getEndpointStatus(ENDPOINT).getDecreaseCount());
+    }
+
+
+    @Test
+    public void testCallersQueueUntilDeadline() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+                .initialLimit(1).minLimit(1).maxLimit(1).build();
+        ConcurrencyLimiter.Permit held = limiter.acquire(ENDPOINT, null);
+
+        long start = System.nanoTime();
+        try {
+            limiter.acquire(ENDPOINT, RequestContext.withTimeout(100, TimeUnit.MILLISECONDS));
+            fail("Expected the deadline to pass.");
+        } catch (KnickerException e) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("took " + elapsed + "ms", elapsed >= 80 && elapsed < 2000);
+        }
+
+        final RequestContext ctx = RequestContext.create();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<ConcurrencyLimiter.Permit> waiting = executor.submit(new Callable<ConcurrencyLimiter.Permit>() {
+            @Override
+            public ConcurrencyLimiter.Permit call() throws Exception {
+                return limiter.acquire(ENDPOINT, ctx);
+            }
+        });
+        long end = System.currentTimeMillis() + 2000;
+        while (limiter.getEndpointStatus(ENDPOINT).getQueueLength() == 0 && System.currentTimeMillis() < end) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, limiter.getEndpointStatus(ENDPOINT).getQueueLength());
+        held.release(response(200), null);
+        waiting.get(2, TimeUnit.SECONDS).release(response(200), null);
+        executor.shutdown();
+
+        assertEquals(0, limiter.getEndpointStatus(ENDPOINT).getQueueLength());
+        assertEquals(0, limiter.getEndpointStatus(ENDPOINT).getInFlight());
+    }
+
+
+    @Test
+    public void testInteractiveCallersGoFirst() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+                .initialLimit(1).minLimit(1).maxLimit(1).build();
+        ConcurrencyLimiter.Permit held = limiter.acquire(ENDPOINT, null);
+
+        final List<Knicker.Priority> order = Collections.synchronizedList(new ArrayList<Knicker.Priority>());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        Knicker.Priority[] arrivals = {Knicker.Priority.BULK, Knicker.Priority.BULK,
+                Knicker.Priority.INTERACTIVE, Knicker.Priority.INTERACTIVE};
+        for (int i = 0; i < arrivals.length; i++) {
+            final Knicker.Priority priority = arrivals[i];
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    ConcurrencyLimiter.Permit permit =
+                            limiter.acquire(ENDPOINT, RequestContext.create().withPriority(priority));
+                    order.add(priority);
+                    permit.release(response(200), null);
+                    return null;
+                }
+            }));
+            long end = System.currentTimeMillis() + 2000;
+            while (limiter.getEndpointStatus(ENDPOINT).getQueueLength() <= i && System.currentTimeMillis() < end) {
+                Thread.sleep(5);
+            }
+        }
+        assertEquals(4, limiter.getEndpointStatus(ENDPOINT).getQueueLength());
+        held.release(response(200), null);
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(Arrays.asList(Knicker.Priority.INTERACTIVE, Knicker.Priority.INTERACTIVE,
+                Knicker.Priority.BULK, Knicker.Priority.BULK), order);
+    }
+
+
+    @Test
+    public void testFullQueueRejects() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+                .initialLimit(1).maxLimit(1).maxQueueLength(0).build();
+        ConcurrencyLimiter.Permit held = limiter.acquire(ENDPOINT, null);
+        try {
+            limiter.acquire(ENDPOINT, null);
+            fail("Expected the call to be rejected.");
+        } catch (KnickerException e) {
+            assertEquals(1, limiter.getEndpointStatus(ENDPOINT).getRejectedCount());
+        }
+        held.release(response(200), null);
+        limiter.acquire(ENDPOINT, null).release(response(200), null);
+    }
+
+
+    @Test
+    public void testClientStaysWithinLimit() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        StubServer server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                int now = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), now));
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                exchange.reply("<definitions></definitions>");
+            }
+        });
+        try {
+            final KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl(server.getBaseUrl())
+                    .concurrencyLimiter(new ConcurrencyLimiter.Builder().initialLimit(2).maxLimit(2).build())
+                    .build();
+            ExecutorService callers = Executors.newFixedThreadPool(6);
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> results = new ArrayList<Future<Object>>();
+            for (int i = 0; i < 6; i++) {
+                final String word = "word" + i;
+                results.add(callers.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        start.await();
+                        return client.definitions(word, 0, null, false, null, false, false);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Object> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+            callers.shutdown();
+            assertEquals(2, maxInFlight.get());
+            assertEquals(6, client.getConcurrencyLimiter().getEndpointStatus("word/definitions").getRequestCount());
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.dto.Word;
+import net.jeremybrooks.knicker.transport.TransportRequest;
+import net.jeremybrooks.knicker.transport.TransportResponse;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class InterceptorTest {
+
+    @Test
+    public void testChainOrder() {
+        Interceptor first = new Recorder("first", new ArrayList<String>());
+        Interceptor second = new Recorder("second", new ArrayList<String>());
+        Throttle throttle = new Throttle(10, 10);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().build();
+
+        KnickerClient client = new KnickerClient.Builder()
+                .interceptor(first)
+                .interceptor(second)
+                .throttle(throttle)
+                .concurrencyLimiter(limiter)
+                .build();
+        assertEquals(Arrays.asList(first, second, throttle, limiter), client.getInterceptors());
+
+        // the throttle runs where it was added, and only there
+        client = new KnickerClient.Builder()
+                .interceptor(throttle)
+                .interceptor(first)
+                .throttle(throttle)
+                .build();
+        assertEquals(Arrays.asList(throttle, first), client.getInterceptors());
+
+        // views and copies keep the chain
+        assertEquals(client.getInterceptors(), client.withContext(RequestContext.create()).getInterceptors());
+        assertEquals(client.getInterceptors(), client.toBuilder().build().getInterceptors());
+    }
+
+
+    @Test
+    public void testInterceptorsSeeRequestAndCanShortCircuit() throws Exception {
+        StubServer server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                exchange.reply(exchange.getPath().contains("/account.xml/")
+                        ? "<wordLists></wordLists>" : "<wordObject><word>cat</word></wordObject>");
+            }
+        });
+        try {
+            final List<String> seen = Collections.synchronizedList(new ArrayList<String>());
+            final List<Interceptor.Chain> chains = Collections.synchronizedList(new ArrayList<Interceptor.Chain>());
+            Interceptor inspector = new Interceptor() {
+                @Override
+                public TransportResponse intercept(Chain chain) throws KnickerException {
+                    chains.add(chain);
+                    return chain.proceed(chain.getRequest());
+                }
+            };
+            Interceptor shortCircuit = new Interceptor() {
+                @Override
+                public TransportResponse intercept(Chain chain) throws KnickerException {
+                    if (chain.getParameters().containsKey("useSuggestions")) {
+                        try {
+                            return new TransportResponse(200, null,
+                                    "<wordObject><word>canned</word></wordObject>".getBytes("UTF-8"));
+                        } catch (IOException e) {
+                            throw new KnickerException("Encoding failed.", e);
+                        }
+                    }
+                    return chain.proceed(chain.getRequest());
+                }
+            };
+
+            KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl(server.getBaseUrl())
+                    .interceptor(new Recorder("outer", seen))
+                    .interceptor(inspector)
+                    .interceptor(shortCircuit)
+                    .interceptor(new Recorder("inner", seen))
+                    .build();
+
+            RequestContext ctx = RequestContext.create();
+            Word word = client.withContext(ctx).lookup("cat", true, false);
+            assertEquals("cat", word.getWord());
+            assertEquals(Arrays.asList("outer>", "inner>", "<inner", "<outer"), seen);
+            assertEquals(1, server.getRequestCount());
+
+            Interceptor.Chain chain = chains.get(0);
+            assertEquals("word", chain.getEndpoint());
+            assertEquals("true", chain.getParameters().get("useCanonical"));
+            assertEquals("test", chain.getRequest().getHeaders().get("api_key"));
+            assertSame(ctx, chain.getContext());
+            assertNull(chain.getAuthenticationToken());
+            assertTrue(chain.getStartNanos() <= System.nanoTime());
+
+            seen.clear();
+            word = client.lookup("cat", false, true);
+            assertEquals("canned", word.getWord());
+            assertEquals(Arrays.asList("outer>", "<outer"), seen);
+            assertEquals(1, server.getRequestCount());
+
+            AuthenticationToken token = new AuthenticationToken.Builder().token("secret").build();
+            client.wordLists(token);
+            Interceptor.Chain userChain = chains.get(chains.size() - 1);
+            assertEquals("account/wordLists", userChain.getEndpoint());
+            assertSame(token, userChain.getAuthenticationToken());
+            assertEquals("secret", userChain.getParameters().get("auth_token"));
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    @Test
+    public void testParseQuery() {
+        Map<String, String> params = InterceptorChain.parseQuery(
+                "http://api.wordnik.com/v4/words.xml/reverseDictionary?query=caf%C3%A9%20au+lait&skip=0&empty");
+        assertEquals(Arrays.asList("query", "skip", "empty"), new ArrayList<String>(params.keySet()));
+        assertEquals("café au+lait", params.get("query"));
+        assertEquals("", params.get("empty"));
+        assertTrue(InterceptorChain.parseQuery("http://api.wordnik.com/v4/words.xml/wordOfTheDay").isEmpty());
+    }
+
+
+    /*
+     * Records when requests enter and leave it.
+     */
+    private static class Recorder implements Interceptor {
+        private final String name;
+        private final List<String> seen;
+
+        Recorder(String name, List<String> seen) {
+            this.name = name;
+            this.seen = seen;
+        }
+
+        @Override
+        public TransportResponse intercept(Chain chain) throws KnickerException {
+            seen.add(name + ">");
+            try {
+                TransportRequest request = chain.getRequest();
+                return chain.proceed(request);
+            } finally {
+                seen.add("<" + name);
+            }
+        }
+    }
+}
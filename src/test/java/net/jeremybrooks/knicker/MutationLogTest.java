@@ -0,0 +1,172 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.ListType;
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.dto.WordList;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class MutationLogTest {
+
+    private final AuthenticationToken token = new AuthenticationToken.Builder().token("secret").userId("42").build();
+
+
+    @Test
+    public void testUnconfirmedChangesAreRecovered() throws Exception {
+        File file = newFile();
+        MutationLog log = MutationLog.open(file);
+        assertTrue(log.getRecovered().isEmpty());
+        long add = log.append(MutationLog.ADD, token, "list", "apple", null);
+        long delete = log.append(MutationLog.DELETE, token, "list", "banana", null);
+        WordList details = new WordList.Builder().permalink("list").name("Fruit").type(ListType.PRIVATE)
+                .numberWordsInList(3).build();
+        long update = log.append(MutationLog.UPDATE, token, "list", null, details);
+        log.sync(update);
+        log.confirm(Arrays.asList(delete));
+        assertEquals(2, log.getPendingCount());
+        log.close();
+
+        log = MutationLog.open(file);
+        List<MutationLog.Entry> recovered = log.getRecovered();
+        assertEquals(2, recovered.size());
+        MutationLog.Entry first = recovered.get(0);
+        assertEquals(add, first.sequence);
+        assertEquals(MutationLog.ADD, first.op);
+        assertEquals(MutationLog.reference(token), first.tokenReference);
+        assertEquals("list", first.permalink);
+        assertEquals("apple", first.word);
+        MutationLog.Entry second = recovered.get(1);
+        assertEquals(MutationLog.UPDATE, second.op);
+        assertEquals("Fruit", second.wordList.getName());
+        assertEquals(ListType.PRIVATE, second.wordList.getType());
+        assertEquals(3, second.wordList.getNumberWordsInList());
+        assertNull(second.wordList.getDescription());
+
+        // sequence numbers carry on after a restart
+        assertTrue(log.append(MutationLog.ADD, token, "list", "cherry", null) > update);
+        log.close();
+    }
+
+
+    @Test
+    public void testTokensAreNotWritten() throws Exception {
+        File file = newFile();
+        MutationLog log = MutationLog.open(file);
+        log.sync(log.append(MutationLog.ADD, token, "list", "apple", null));
+        log.close();
+
+        byte[] contents = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        in.readFully(contents);
+        in.close();
+        assertEquals(-1, new String(contents, "ISO-8859-1").indexOf("secret"));
+        assertEquals(64, MutationLog.reference(token).length());
+        assertFalse(MutationLog.reference(token).equals(
+                MutationLog.reference(new AuthenticationToken.Builder().token("other").build())));
+    }
+
+
+    @Test
+    public void testTornTailIsIgnored() throws Exception {
+        File file = newFile();
+        MutationLog log = MutationLog.open(file);
+        log.append(MutationLog.ADD, token, "list", "apple", null);
+        log.sync(log.append(MutationLog.ADD, token, "list", "banana", null));
+        log.close();
+
+        // a crash part way through writing a third record
+        long intact = file.length();
+        FileOutputStream out = new FileOutputStream(file, true);
+        out.write(new byte[]{0, 0, 0, 40, 1, 2, 3});
+        out.close();
+        log = MutationLog.open(file);
+        assertEquals(2, log.getRecovered().size());
+        assertEquals(intact, file.length());
+        log.close();
+
+        // a damaged record ends the log
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(intact - 1);
+        raf.write(0x7F);
+        raf.close();
+        log = MutationLog.open(file);
+        assertEquals(1, log.getRecovered().size());
+        assertEquals("apple", log.getRecovered().get(0).word);
+        log.close();
+
+        out = new FileOutputStream(file);
+        out.write("not a log".getBytes("UTF-8"));
+        out.close();
+        try {
+            MutationLog.open(file);
+            fail("A file that is not a log should be rejected.");
+        } catch (java.io.IOException e) {
+            // expected
+        }
+    }
+
+
+    @Test
+    public void testConfirmedRecordsAreCompacted() throws Exception {
+        File file = newFile();
+        MutationLog log = MutationLog.open(file);
+        List<Long> sequences = new ArrayList<Long>();
+        for (int i = 0; i < 1000; i++) {
+            sequences.add(log.append(MutationLog.ADD, token, "list", "word" + i, null));
+        }
+        log.append(MutationLog.ADD, token, "list", "kept", null);
+        long full = file.length();
+        log.confirm(sequences);
+        assertEquals(1, log.getPendingCount());
+        assertTrue(file.length() < full / 100);
+        log.close();
+
+        log = MutationLog.open(file);
+        assertEquals(1, log.getRecovered().size());
+        assertEquals("kept", log.getRecovered().get(0).word);
+        log.close();
+    }
+
+
+    private static File newFile() throws Exception {
+        File file = File.createTempFile("knicker", ".wal");
+        assertTrue(file.delete());
+        file.deleteOnExit();
+        return file;
+    }
+}
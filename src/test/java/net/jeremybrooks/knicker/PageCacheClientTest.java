@@ -0,0 +1,108 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.cache.PageCache;
+import net.jeremybrooks.knicker.dto.SearchResult;
+import net.jeremybrooks.knicker.dto.SearchResults;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class PageCacheClientTest {
+
+    private static final int RESULTS = 45;
+
+    /* The skip and limit of each request. */
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+    private StubServer server;
+
+    private KnickerClient client;
+
+
+    @Before
+    public void setUp() throws IOException {
+        server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                int skip = exchange.getParam("skip", 0);
+                int limit = exchange.getParam("limit", 10);
+                requests.add(skip + "+" + limit);
+                StringBuilder xml = new StringBuilder("<wordSearchResults><totalResults>" + RESULTS
+                        + "</totalResults><searchResults>");
+                for (int i = skip; i < skip + limit && i < RESULTS; i++) {
+                    xml.append("<searchResult><count>1</count><word>w").append(i).append("</word></searchResult>");
+                }
+                xml.append("</searchResults></wordSearchResults>");
+                exchange.reply(xml.toString());
+            }
+        });
+        client = new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .pageCache(new PageCache())
+                .build();
+    }
+
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+
+    private List<String> search(int skip, int limit) throws KnickerException {
+        SearchResults results = client.search("w*", false, null, null, 0, 0, 0, 0, 0, 0, skip, limit);
+        assertEquals(RESULTS, results.getTotal());
+        List<String> words = new ArrayList<String>();
+        for (SearchResult result : results.getSearchResults()) {
+            words.add(result.getWord());
+        }
+        return words;
+    }
+
+
+    @Test
+    public void testOnlyGapsAreFetched() throws Exception {
+        assertEquals(Arrays.asList("w0", "w1", "w2"), search(0, 3));
+        assertEquals(10, search(0, 10).size());
+        assertEquals(RESULTS, search(0, 50).size());
+        List<String> words = search(20, 10);
+        assertEquals("w20", words.get(0));
+        assertEquals("w29", words.get(9));
+        assertEquals(5, search(40, 10).size());
+        assertEquals(0, search(60, 10).size());
+
+        assertEquals(Arrays.asList("0+3", "3+7", "10+40"), requests);
+        assertEquals(3, client.getPageCache().getHitCount());
+        assertEquals(3, client.getPageCache().getMissCount());
+    }
+}
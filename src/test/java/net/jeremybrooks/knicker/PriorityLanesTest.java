@@ -0,0 +1,82 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.Priority;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class PriorityLanesTest {
+
+    @Test
+    public void testTurnsFollowWeights() {
+        PriorityLanes lanes = new PriorityLanes();
+        for (int i = 0; i < 100; i++) {
+            lanes.enter(Priority.INTERACTIVE);
+            lanes.enter(Priority.NORMAL);
+            lanes.enter(Priority.BULK);
+        }
+        int[] turns = new int[3];
+        for (int i = 0; i < 21; i++) {
+            Priority next = take(lanes);
+            turns[next.ordinal()]++;
+        }
+        assertEquals(16, turns[Priority.INTERACTIVE.ordinal()]);
+        assertEquals(4, turns[Priority.NORMAL.ordinal()]);
+        assertEquals(1, turns[Priority.BULK.ordinal()]);
+    }
+
+
+    @Test
+    public void testLonePriorityGetsEveryTurn() {
+        PriorityLanes lanes = new PriorityLanes();
+        assertTrue(lanes.isEmpty());
+        lanes.enter(Priority.BULK);
+        lanes.enter(Priority.BULK);
+        assertTrue(lanes.isTurn(Priority.BULK));
+        assertFalse(lanes.isTurn(Priority.INTERACTIVE));
+        assertEquals(Priority.BULK, take(lanes));
+
+        lanes.enter(Priority.INTERACTIVE);
+        assertEquals(2, lanes.getWaiting());
+        assertEquals(1, lanes.getWaitingAhead(Priority.INTERACTIVE));
+        assertEquals(2, lanes.getWaitingAhead(Priority.BULK));
+        assertEquals(Priority.INTERACTIVE, take(lanes));
+        assertEquals(Priority.BULK, take(lanes));
+        assertTrue(lanes.isEmpty());
+    }
+
+
+    private static Priority take(PriorityLanes lanes) {
+        for (Priority p : Priority.values()) {
+            if (lanes.isTurn(p)) {
+                lanes.taken(p);
+                lanes.leave(p);
+                return p;
+            }
+        }
+        throw new AssertionError("No priority has a turn.");
+    }
+}
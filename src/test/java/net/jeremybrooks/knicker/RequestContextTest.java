@@ -0,0 +1,208 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests RequestContext deadlines and cancellation against a local server
+ * that never answers in time.
+ *
+ * @author Jeremy Brooks
+ */
+public class RequestContextTest {
+
+    static StubServer server;
+    static KnickerClient client;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    // shutting down
+                }
+                exchange.reply(200);
+            }
+        });
+        client = new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .build();
+    }
+
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        server.stop();
+    }
+
+
+    @Test
+    public void testDeadlineAbortsCall() throws Exception {
+        RequestContext ctx = RequestContext.withTimeout(300, TimeUnit.MILLISECONDS);
+        long start = System.currentTimeMillis();
+        try {
+            client.withContext(ctx).lookup("zebra", false, false);
+            fail("Expected the deadline to be exceeded.");
+        } catch (KnickerException e) {
+            assertEquals("The request deadline was exceeded.", e.getMessage());
+        }
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(ctx.isExpired());
+    }
+
+
+    @Test
+    public void testCancelAbortsCall() throws Exception {
+        final RequestContext ctx = RequestContext.create();
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                ctx.cancel();
+            }
+        }.start();
+
+        RequestContext previous = ctx.attach();
+        long start = System.currentTimeMillis();
+        try {
+            client.lookup("zebra", false, false);
+            fail("Expected the request to be cancelled.");
+        } catch (KnickerException e) {
+            assertEquals("The request was cancelled.", e.getMessage());
+        } finally {
+            ctx.detach(previous);
+        }
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertEquals(null, RequestContext.current());
+    }
+
+
+    @Test
+    public void testExpiredContextFailsFast() throws Exception {
+        RequestContext ctx = RequestContext.withTimeout(0, TimeUnit.MILLISECONDS);
+        try {
+            client.withContext(ctx).definitions("zebra", null);
+            fail("Expected the deadline to be exceeded.");
+        } catch (KnickerException e) {
+            assertEquals(null, e.getCause());
+        }
+    }
+
+
+    @Test
+    public void testBudget() {
+        RequestContext none = RequestContext.create();
+        assertEquals(Long.MAX_VALUE, none.getRemainingMillis());
+        assertEquals(30000, none.budget(30000));
+
+        RequestContext ctx = RequestContext.withTimeout(2, TimeUnit.SECONDS);
+        assertTrue(ctx.budget(30000) <= 2000);
+        assertTrue(ctx.budget(0) <= 2000);
+        assertEquals(500, ctx.budget(500));
+    }
+
+
+    @Test
+    public void testChildIsCancelledWithParent() {
+        final AtomicInteger fired = new AtomicInteger();
+        RequestContext parent = RequestContext.withTimeout(10, TimeUnit.SECONDS);
+        RequestContext child = parent.child(1, TimeUnit.SECONDS);
+        assertTrue(child.getRemainingMillis() <= 1000);
+        child.addCancelListener(new Runnable() {
+            @Override
+            public void run() {
+                fired.incrementAndGet();
+            }
+        });
+
+        RequestContext sibling = parent.child();
+        sibling.cancel();
+        assertFalse(parent.isCancelled());
+        assertFalse(child.isCancelled());
+
+        parent.cancel();
+        assertTrue(child.isCancelled());
+        assertEquals(1, fired.get());
+
+        // listeners added late run at once
+        child.addCancelListener(new Runnable() {
+            @Override
+            public void run() {
+                fired.incrementAndGet();
+            }
+        });
+        assertEquals(2, fired.get());
+    }
+
+
+    @Test
+    public void testDroppedChildrenAreNotKept() throws Exception {
+        RequestContext parent = RequestContext.create();
+        RequestContext kept = parent.child();
+        for (int i = 0; i < 10000; i++) {
+            parent.child();
+        }
+        System.gc();
+        TimeUnit.MILLISECONDS.sleep(100);
+        for (int i = 0; i < 10000; i++) {
+            parent.withPriority(Knicker.Priority.BULK);
+        }
+        assertTrue("listeners: " + parent.getListenerCount(), parent.getListenerCount() < 10000);
+
+        parent.cancel();
+        assertTrue(kept.isCancelled());
+        assertEquals(0, parent.getListenerCount());
+    }
+
+
+    @Test
+    public void testCancelledExpiriesArePurged() {
+        RequestContext ctx = RequestContext.withTimeout(1, TimeUnit.HOURS);
+        Runnable listener = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        int before = RequestContext.getScheduledExpiryCount();
+        for (int i = 0; i < 2000; i++) {
+            ctx.addCancelListener(listener);
+            ctx.removeCancelListener(listener);
+        }
+        assertTrue(RequestContext.getScheduledExpiryCount() - before < 300);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.PartOfSpeech;
+import net.jeremybrooks.knicker.Knicker.RelationshipType;
+import net.jeremybrooks.knicker.Knicker.TypeFormat;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class RequestTemplateTest {
+
+    private static final String ENDPOINT = "http://api.wordnik.com/v4/word.xml";
+
+
+    @Test
+    public void testExpand() {
+        RequestTemplate template = RequestTemplate.compile("/{word}/definitions");
+        assertEquals(1, template.getVariableCount());
+        assertEquals(ENDPOINT + "/cat/definitions", template.expand(ENDPOINT, " cat ").build());
+        assertEquals(ENDPOINT + "/cat/definitions?limit=5&useCanonical=true&partOfSpeech=noun-plural",
+                template.expand(ENDPOINT, "cat")
+                        .param("limit", 5)
+                        .param("useCanonical", true)
+                        .param("sourceDictionaries", EnumSet.noneOf(Knicker.SourceDictionary.class))
+                        .param("contentProvider", (String) null)
+                        .param("partOfSpeech", EnumSet.of(PartOfSpeech.noun_plural))
+                        .build());
+
+        try {
+            template.expand(ENDPOINT);
+            fail("Expected the missing value to be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            RequestTemplate.compile("/{word");
+            fail("Expected the unclosed variable to be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+
+    @Test
+    public void testValuesAreEncodedOnce() {
+        RequestTemplate template = RequestTemplate.compile("/{word}");
+        assertEquals(ENDPOINT + "/ice%20cream?q=ice%20cream",
+                template.expand(ENDPOINT, "ice cream").param("q", "ice cream").build());
+        assertEquals(ENDPOINT + "/caf%C3%A9?q=caf%C3%A9",
+                template.expand(ENDPOINT, "café").param("q", "café").build());
+        assertEquals(ENDPOINT + "/a%2Fb?q=a/b", template.expand(ENDPOINT, "a/b").param("q", "a/b").build());
+        assertEquals(ENDPOINT + "/50%25?q=50%25", template.expand(ENDPOINT, "50%").param("q", "50%").build());
+        assertEquals(ENDPOINT + "/c%23?q=a%26b%3Dc%2B",
+                template.expand(ENDPOINT, "c#").param("q", "a&b=c+").build());
+        assertEquals(ENDPOINT + "/x%3Fy", template.expand(ENDPOINT, "x?y").build());
+        assertEquals(ENDPOINT + "/ca*", template.expand(ENDPOINT, "ca*").build());
+        assertEquals(ENDPOINT + "/%E6%97%A5%F0%9F%98%80",
+                template.expand(ENDPOINT, "日😀").build());
+    }
+
+
+    @Test
+    public void testWireNames() {
+        assertEquals("verb-stem", Util.wireName(RelationshipType.verb_stem));
+        assertEquals("gcide-diacritical", Util.wireName(TypeFormat.gcide_diacritical));
+        assertSame(Util.wireName(PartOfSpeech.proper_noun), Util.wireName(PartOfSpeech.proper_noun));
+
+        Set<RelationshipType> set = EnumSet.of(RelationshipType.verb_form, RelationshipType.synonym);
+        assertEquals("synonym,verb-form", Util.wireNames(set));
+        assertSame(Util.wireNames(set), Util.wireNames(EnumSet.copyOf(set)));
+
+        // other sets keep their iteration order
+        Set<RelationshipType> ordered = new LinkedHashSet<RelationshipType>();
+        ordered.add(RelationshipType.verb_form);
+        ordered.add(RelationshipType.synonym);
+        assertEquals("verb-form,synonym", Util.wireNames(ordered));
+    }
+
+
+    @Test
+    public void testServerSeesDecodedValues() throws Exception {
+        final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+        StubServer server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                requests.add(exchange.getPath() + "?" + exchange.getQuery());
+                exchange.reply("<definitions></definitions>");
+            }
+        });
+        try {
+            KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl(server.getBaseUrl())
+                    .build();
+            client.definitions("crème brûlée", 3,
+                    EnumSet.of(PartOfSpeech.noun, PartOfSpeech.proper_noun), false, null, false, false);
+            assertEquals(1, requests.size());
+            assertEquals("/v4/word.xml/crème brûlée/definitions"
+                    + "?limit=3&partOfSpeech=noun,proper-noun", requests.get(0));
+        } finally {
+            server.stop();
+        }
+    }
+}
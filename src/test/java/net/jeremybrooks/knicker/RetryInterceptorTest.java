@@ -0,0 +1,221 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.transport.TransportResponse;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class RetryInterceptorTest {
+
+    @Test
+    public void testRetriesUntilSuccess() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        StubServer server = server(calls, 2, null);
+        try {
+            RetryInterceptor retry = new RetryInterceptor.Builder()
+                    .initialBackoff(1, TimeUnit.MILLISECONDS)
+                    .build();
+            KnickerClient client = client(server, retry);
+            assertEquals("cat", client.lookup("cat", false, false).getWord());
+            assertEquals(3, calls.get());
+            assertEquals(2, retry.getRetryCount());
+            assertEquals(0, retry.getExhaustedCount());
+
+            // too many failures for three attempts
+            calls.set(-2);
+            try {
+                client.lookup("dog", false, false);
+                fail("Expected the request to fail.");
+            } catch (KnickerException e) {
+                assertTrue(e.getMessage().endsWith("HTTP 503."));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(1, retry.getExhaustedCount());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    @Test
+    public void testPostIsNotRetried() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        StubServer server = server(calls, 1, null);
+        try {
+            RetryInterceptor retry = new RetryInterceptor.Builder().build();
+            KnickerClient client = client(server, retry);
+            try {
+                client.addWordToList(new AuthenticationToken.Builder().token("t").build(), "list", "cat");
+                fail("Expected the request to fail.");
+            } catch (KnickerException e) {
+                // expected
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, retry.getRetryCount());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    @Test
+    public void testRetryAfter() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        StubServer server = server(calls, 1, "1");
+        try {
+            // the server asks for more than the maximum pause
+            RetryInterceptor retry = new RetryInterceptor.Builder()
+                    .initialBackoff(1, TimeUnit.MILLISECONDS)
+                    .maxBackoff(500, TimeUnit.MILLISECONDS)
+                    .build();
+            try {
+                client(server, retry).lookup("cat", false, false);
+                fail("Expected the request to fail.");
+            } catch (KnickerException e) {
+                // expected
+            }
+            assertEquals(1, calls.get());
+
+            // the pause is honored
+            calls.set(0);
+            retry = new RetryInterceptor.Builder().initialBackoff(1, TimeUnit.MILLISECONDS).build();
+            long start = System.nanoTime();
+            client(server, retry).lookup("cat", false, false);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("took " + elapsed + "ms", elapsed >= 900);
+            assertEquals(2, calls.get());
+
+            // no retry if the pause would outlast the deadline
+            calls.set(0);
+            try {
+                client(server, retry).withContext(RequestContext.withTimeout(500, TimeUnit.MILLISECONDS))
+                        .lookup("cat", false, false);
+                fail("Expected the request to fail.");
+            } catch (KnickerException e) {
+                // expected
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    @Test
+    public void testRateLimitedRetryUsesAnotherPoolKey() throws Exception {
+        final List<String> keys = Collections.synchronizedList(new ArrayList<String>());
+        StubServer server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                String key = exchange.getHeader("api_key");
+                keys.add(key);
+                if (key.equals("hot")) {
+                    exchange.reply(429);
+                } else {
+                    exchange.reply("<wordObject><word>cat</word></wordObject>");
+                }
+            }
+        });
+        try {
+            ApiKeyPool pool = new ApiKeyPool(Arrays.asList("hot", "cold"));
+            RetryInterceptor retry = new RetryInterceptor.Builder()
+                    .initialBackoff(1, TimeUnit.MILLISECONDS)
+                    .build();
+            KnickerClient client = new KnickerClient.Builder()
+                    .baseUrl(server.getBaseUrl())
+                    .keyPool(pool)
+                    .interceptor(retry)
+                    .build();
+            assertEquals("cat", client.lookup("cat", false, false).getWord());
+            assertEquals(Arrays.asList("hot", "cold"), keys);
+            assertEquals(ApiKeyPool.State.EXHAUSTED, pool.getKeyStatus("hot").getState());
+            assertEquals(0, pool.getKeyStatus("hot").getInFlight());
+            assertEquals(0, pool.getKeyStatus("cold").getInFlight());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    @Test
+    public void testBackoff() {
+        RetryInterceptor retry = new RetryInterceptor.Builder()
+                .initialBackoff(100, TimeUnit.MILLISECONDS)
+                .maxBackoff(1, TimeUnit.SECONDS)
+                .build();
+        for (int i = 0; i < 20; i++) {
+            long first = retry.backoffMillis(1, null);
+            assertTrue(first >= 50 && first <= 100);
+            long fourth = retry.backoffMillis(4, null);
+            assertTrue(fourth >= 400 && fourth <= 800);
+            long tenth = retry.backoffMillis(10, null);
+            assertTrue(tenth >= 500 && tenth <= 1000);
+        }
+        Map<String, List<String>> headers = Collections.singletonMap("Retry-After", Arrays.asList("0"));
+        assertEquals(0, retry.backoffMillis(1, new TransportResponse(429, headers, null)));
+    }
+
+
+    /*
+     * A server that answers 503, with the given Retry-After header, until it
+     * has been called the given number of times.
+     */
+    private static StubServer server(final AtomicInteger calls, final int failures, final String retryAfter)
+            throws IOException {
+        return StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                if (calls.incrementAndGet() <= failures) {
+                    if (retryAfter != null) {
+                        exchange.header("Retry-After", retryAfter);
+                    }
+                    exchange.reply(503);
+                } else {
+                    exchange.reply("<wordObject><word>cat</word></wordObject>");
+                }
+            }
+        });
+    }
+
+
+    private static KnickerClient client(StubServer server, RetryInterceptor retry) {
+        return new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .interceptor(retry)
+                .build();
+    }
+}
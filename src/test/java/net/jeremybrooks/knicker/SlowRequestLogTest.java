@@ -0,0 +1,220 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.logger.KnickerLogger;
+import net.jeremybrooks.knicker.logger.LogInterface;
+import net.jeremybrooks.knicker.transport.RequestTiming;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class SlowRequestLogTest {
+
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+
+    private final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+
+
+    @Before
+    public void setUp() {
+        KnickerLogger.setLogger(new LogInterface() {
+            @Override
+            public void log(String message) {
+                messages.add(message);
+            }
+
+            @Override
+            public void log(String message, Throwable t) {
+                messages.add(message);
+                errors.add(t);
+            }
+        });
+    }
+
+
+    @After
+    public void tearDown() {
+        KnickerLogger.setLogger(null);
+    }
+
+
+    @Test
+    public void testBodiesAreTruncated() throws Exception {
+        SlowRequestLog log = new SlowRequestLog.Builder().threshold(0, TimeUnit.MILLISECONDS).maxBodyChars(4).build();
+        RequestTiming timing = new RequestTiming("POST", "wordList/words");
+        timing.finish(false);
+        log.record(timing, "http://localhost/v4/wordList.xml/list/words", "<a>éé</a>".getBytes("UTF-8"),
+                "ok".getBytes("UTF-8"), null);
+
+        assertEquals(1, messages.size());
+        String message = messages.get(0);
+        assertTrue(message, message.startsWith("Slow request ("));
+        assertTrue(message, message.contains("POST http://localhost/v4/wordList.xml/list/words"));
+        assertTrue(message, message.contains("Request body (first 4 characters of 11 bytes): <a>é\n"));
+        assertTrue(message, message.endsWith("Response body: ok"));
+
+        // nothing is logged for a fast request that succeeded
+        log = new SlowRequestLog.Builder().threshold(1, TimeUnit.MINUTES).build();
+        timing = new RequestTiming("GET", "word");
+        timing.finish(false);
+        log.record(timing, "http://localhost/v4/word.xml/cat", null, null, null);
+        assertEquals(1, messages.size());
+        assertEquals(0, log.getLoggedCount());
+    }
+
+
+    @Test
+    public void testSlowAndFailedRequestsAreLogged() throws Exception {
+        StubServer server = new StubServer()
+                .route("/slow", new StubServer.Handler() {
+                    @Override
+                    public void handle(StubServer.Exchange exchange) throws Exception {
+                        Thread.sleep(400);
+                        StringBuilder xml = new StringBuilder("<wordObject><word>cat</word></wordObject>");
+                        for (int i = 0; i < 1000; i++) {
+                            xml.append(' ');
+                        }
+                        exchange.reply(xml.toString());
+                    }
+                })
+                .route("/missing", new StubServer.Handler() {
+                    @Override
+                    public void handle(StubServer.Exchange exchange) throws Exception {
+                        exchange.reply(404, "<error>not found</error>");
+                    }
+                })
+                .fallback(new StubServer.Handler() {
+                    @Override
+                    public void handle(StubServer.Exchange exchange) throws Exception {
+                        exchange.reply("<wordObject><word>cat</word></wordObject>");
+                    }
+                })
+                .start();
+        try {
+            SlowRequestLog log = new SlowRequestLog.Builder()
+                    .threshold(300, TimeUnit.MILLISECONDS)
+                    .maxBodyChars(20)
+                    .maxEntriesPerMinute(2)
+                    .build();
+            KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl(server.getBaseUrl())
+                    .build();
+            // the first request to a new server is slow
+            client.lookup("cat", false, false);
+            client = client.toBuilder().slowRequestLog(log).build();
+
+            client.lookup("cat", false, false);
+            assertTrue(messages.toString(), messages.isEmpty());
+
+            client.lookup("slow", false, false);
+            assertEquals(1, messages.size());
+            String message = messages.get(0);
+            assertTrue(message, message.startsWith("Slow request ("));
+            assertTrue(message, message.contains("/v4/word.xml/slow"));
+            assertTrue(message, message.contains("HTTP 200"));
+            assertTrue(message, message.contains("wait="));
+            assertTrue(message, message.contains("map="));
+            assertTrue(message, message.contains("Response body (first 20 characters of 1041 bytes): <wordObject><word>c"));
+
+            for (int i = 0; i < 4; i++) {
+                try {
+                    client.lookup("missing", false, false);
+                    fail("A 404 should fail.");
+                } catch (KnickerException e) {
+                    // expected
+                }
+            }
+            assertEquals(2, messages.size());
+            message = messages.get(1);
+            assertTrue(message, message.startsWith("Failed request ("));
+            assertTrue(message, message.contains("HTTP 404"));
+            assertTrue(message, message.contains("Response body (first 20 characters of 24 bytes): <error>not found</er"));
+            assertFalse(message, message.contains("suppressed"));
+            assertEquals(2, log.getLoggedCount());
+            assertEquals(3, log.getSuppressedCount());
+            assertTrue(errors.isEmpty());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    @Test
+    public void testSecretsAreMaskedInTheUrl() throws Exception {
+        SlowRequestLog log = new SlowRequestLog.Builder().build();
+        RequestTiming timing = new RequestTiming("GET", "wordList");
+        timing.finish(true);
+        log.record(timing, "http://localhost/v4/wordList.xml/list?auth_token=secret1&limit=10&API_KEY=secret2&x=",
+                null, null, null);
+        assertEquals(1, messages.size());
+        String message = messages.get(0);
+        assertFalse(message, message.contains("secret"));
+        assertTrue(message, message.contains("/v4/wordList.xml/list?auth_token=*****&limit=10&API_KEY=*****&x=, "));
+
+        // a failed authentication is logged without the password
+        KnickerClient client = new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl("http://127.0.0.1:1/v4")
+                .slowRequestLog(log)
+                .build();
+        try {
+            client.authenticate("user", "hunter2");
+            fail("Nothing listens on port 1.");
+        } catch (KnickerException e) {
+            // expected
+        }
+        assertEquals(2, messages.size());
+        message = messages.get(1);
+        assertTrue(message, message.startsWith("Failed request ("));
+        assertTrue(message, message.contains("/authenticate/user?password=*****"));
+        assertFalse(message, message.contains("hunter2"));
+    }
+
+
+    @Test
+    public void testBuilderValidation() {
+        try {
+            new SlowRequestLog.Builder().maxEntriesPerMinute(0).build();
+            fail("Zero entries per minute should be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new SlowRequestLog.Builder().threshold(-1, TimeUnit.SECONDS).build();
+            fail("A negative threshold should be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
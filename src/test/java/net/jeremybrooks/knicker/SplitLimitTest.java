@@ -0,0 +1,242 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.cache.InMemoryKnickerCache;
+import net.jeremybrooks.knicker.dto.DefinitionSearchResult;
+import net.jeremybrooks.knicker.dto.DefinitionSearchResults;
+import net.jeremybrooks.knicker.flow.Flow;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class SplitLimitTest {
+
+    /* The skip and limit of each request. */
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private volatile int total = 200;
+
+    /* Requests for this skip fail. */
+    private volatile int failAt = -1;
+
+    private StubServer server;
+
+    private KnickerClient client;
+
+
+    @Before
+    public void setUp() throws IOException {
+        server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                int now = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), now));
+                }
+                int skip = exchange.getParam("skip", 0);
+                int limit = exchange.getParam("limit", 10);
+                requests.add(skip + "+" + limit);
+                StringBuilder xml = new StringBuilder("<definitionSearchResults><totalResults>" + total
+                        + "</totalResults><results>");
+                for (int i = skip; i < skip + limit && i < total; i++) {
+                    xml.append("<result sequence=\"").append(i).append("\"><relatedWords/><word>w").append(i)
+                            .append("</word><score>1.0</score></result>");
+                }
+                xml.append("</results></definitionSearchResults>");
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                exchange.reply(skip == failAt ? 500 : 200, xml.toString());
+            }
+        });
+        client = builder().splitLimit(20, 3).build();
+    }
+
+
+    @After
+    public void tearDown() {
+        server.stop();
+        client.shutdown();
+    }
+
+
+    private KnickerClient.Builder builder() {
+        return new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl());
+    }
+
+
+    private DefinitionSearchResults reverseDictionary(int skip, int limit) throws KnickerException {
+        return reverseDictionary(client, skip, limit);
+    }
+
+
+    private static DefinitionSearchResults reverseDictionary(KnickerClient client, int skip, int limit)
+            throws KnickerException {
+        return client.reverseDictionary("test", null, null, null, null, null, 0, 0, 0, 0, null, false, null, null,
+                skip, limit);
+    }
+
+
+    @Test
+    public void testLargeLimitIsSplitAndMerged() throws Exception {
+        DefinitionSearchResults results = reverseDictionary(5, 95);
+        assertEquals(200, results.getTotalResults());
+        assertEquals(95, results.getResults().size());
+        for (int i = 0; i < 95; i++) {
+            DefinitionSearchResult result = results.getResults().get(i);
+            assertEquals("w" + (i + 5), result.getWord());
+        }
+        assertEquals(5, requests.size());
+        assertTrue(requests.contains("85+15"));
+        assertTrue(maxInFlight.get() > 1);
+        assertTrue(maxInFlight.get() <= 3);
+
+        // small limits are sent as they are
+        requests.clear();
+        assertEquals(10, reverseDictionary(0, 10).getResults().size());
+        assertEquals(1, requests.size());
+
+        // the results end inside the range
+        total = 50;
+        assertEquals(40, reverseDictionary(10, 100).getResults().size());
+    }
+
+
+    @Test
+    public void testFailedPageFailsTheCall() throws Exception {
+        failAt = 40;
+        try {
+            reverseDictionary(0, 100);
+            fail("The failed page should fail the call.");
+        } catch (KnickerException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("40 to 60"));
+        }
+    }
+
+
+    @Test
+    public void testNoPagesAreFetchedAfterAFailure() throws Exception {
+        KnickerClient serial = builder().splitLimit(20, 1).build();
+        failAt = 20;
+        try {
+            reverseDictionary(serial, 0, 200);
+            fail("The failed page should fail the call.");
+        } catch (KnickerException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("20 to 40"));
+        }
+        assertEquals(Arrays.asList("0+20", "20+20"), requests);
+    }
+
+
+    @Test
+    public void testNoPagesAreFetchedAfterAShortPage() throws Exception {
+        KnickerClient serial = builder().splitLimit(20, 1).build();
+        total = 30;
+        assertEquals(30, reverseDictionary(serial, 0, 200).getResults().size());
+        assertEquals(Arrays.asList("0+20", "20+20"), requests);
+    }
+
+
+    @Test
+    public void testExpiredRangeIsFetchedAgainInPages() throws Exception {
+        KnickerClient cached = builder()
+                .splitLimit(20, 3)
+                .cache(new InMemoryKnickerCache())
+                .cacheTtl(100, TimeUnit.MILLISECONDS)
+                .maxStale(1, TimeUnit.MINUTES)
+                .build();
+        assertEquals(95, reverseDictionary(cached, 5, 95).getResults().size());
+        assertEquals(5, requests.size());
+        Thread.sleep(150);
+
+        // the stale result is served and fetched again in the background
+        assertEquals(95, reverseDictionary(cached, 5, 95).getResults().size());
+        long end = System.currentTimeMillis() + 5000;
+        while (requests.size() < 10 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(10, requests.size());
+        for (String request : requests) {
+            assertTrue(request, Integer.parseInt(request.substring(request.indexOf('+') + 1)) <= 20);
+        }
+    }
+
+
+    @Test
+    public void testPublisherStreamsPagesConcurrently() throws Exception {
+        final List<String> words = Collections.synchronizedList(new ArrayList<String>());
+        final Throwable[] error = new Throwable[1];
+        final CountDownLatch done = new CountDownLatch(1);
+        failAt = 60;
+        client.reverseDictionaryPublisher("test", null, null, null, null, null, 0, 0, 0, 0, null, false, null, null,
+                20, 3).subscribe(new Flow.Subscriber<DefinitionSearchResult>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(DefinitionSearchResult item) {
+                words.add(item.getWord());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error[0] = throwable;
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(60, words.size());
+        assertEquals("w59", words.get(59));
+        assertTrue(error[0] instanceof KnickerException);
+        assertTrue(maxInFlight.get() > 1);
+    }
+}
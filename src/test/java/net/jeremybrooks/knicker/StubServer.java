@@ -0,0 +1,352 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local HTTP server for tests that talk to a client.
+ * <p/>
+ * Each request is counted and handed to the first route whose path ends the
+ * request path, or to the fallback route if none does. A request nothing
+ * handles gets a 404. Handlers reply through <code>Exchange</code>, which
+ * closes the exchange afterwards and answers 200 if the handler did not
+ * reply, or 500 if it threw. Handlers run on a thread pool; <code>stop</code>
+ * interrupts any still running.
+ * <code>
+ * StubServer server = new StubServer()
+ *         .route("/definitions", new StubServer.Handler() { ... })
+ *         .start();
+ * KnickerClient client = new KnickerClient.Builder().apiKey("test").baseUrl(server.getBaseUrl()).build();
+ * </code>
+ *
+ * @author Jeremy Brooks
+ */
+public class StubServer {
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final List<String> paths = new ArrayList<String>();
+
+    private final List<Handler> handlers = new ArrayList<Handler>();
+
+    private volatile Handler fallback;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+
+    /**
+     * Bind a server to a free loopback port. It does not answer until started.
+     *
+     * @throws IOException if the server cannot be bound.
+     */
+    public StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                dispatch(new Exchange(exchange));
+            }
+        });
+        server.setExecutor(executor);
+    }
+
+
+    /**
+     * Start a server that hands every request to one handler.
+     *
+     * @param handler the handler.
+     * @return the started server.
+     * @throws IOException if the server cannot be bound.
+     */
+    public static StubServer start(Handler handler) throws IOException {
+        return new StubServer().fallback(handler).start();
+    }
+
+
+    /**
+     * Route requests whose path ends with the given path. Routes are tried in
+     * the order they were added, and are added before the server starts.
+     *
+     * @param path    the end of the request paths to handle, such as "/definitions".
+     * @param handler the handler.
+     * @return this server.
+     */
+    public StubServer route(String path, Handler handler) {
+        paths.add(path);
+        handlers.add(handler);
+        return this;
+    }
+
+
+    /**
+     * @param handler the handler for requests no route matches.
+     * @return this server.
+     */
+    public StubServer fallback(Handler handler) {
+        this.fallback = handler;
+        return this;
+    }
+
+
+    /**
+     * @return this server, answering requests.
+     */
+    public StubServer start() {
+        server.start();
+        return this;
+    }
+
+
+    /**
+     * Stop the server at once, interrupting handlers that are still running.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * @return the base URL to give a client, ending in the API version.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v4";
+    }
+
+
+    /**
+     * @return number of requests received since the server started or the
+     *         count was last reset.
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+
+    public void resetRequestCount() {
+        requests.set(0);
+    }
+
+
+    private void dispatch(Exchange exchange) throws IOException {
+        try {
+            Handler handler = fallback;
+            String path = exchange.getPath();
+            for (int i = 0; i < paths.size(); i++) {
+                if (path.endsWith(paths.get(i))) {
+                    handler = handlers.get(i);
+                    break;
+                }
+            }
+            if (handler == null) {
+                exchange.reply(404);
+            } else {
+                handler.handle(exchange);
+                if (!exchange.replied) {
+                    exchange.reply(200);
+                }
+            }
+        } catch (Exception e) {
+            if (!exchange.replied) {
+                exchange.reply(500);
+            }
+        } finally {
+            exchange.exchange.close();
+        }
+    }
+
+
+    /**
+     * Answers a request.
+     */
+    public interface Handler {
+
+        /**
+         * @param exchange the request, and the means to reply to it.
+         * @throws Exception to reply 500, if there has been no reply yet.
+         */
+        void handle(Exchange exchange) throws Exception;
+    }
+
+
+    /**
+     * A request and its reply. Only one reply may be sent.
+     */
+    public static final class Exchange {
+
+        private final HttpExchange exchange;
+
+        private boolean replied;
+
+
+        private Exchange(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+
+        public String getMethod() {
+            return exchange.getRequestMethod();
+        }
+
+
+        public String getPath() {
+            return exchange.getRequestURI().getPath();
+        }
+
+
+        /**
+         * @return the decoded query string, or null if there is none.
+         */
+        public String getQuery() {
+            return exchange.getRequestURI().getQuery();
+        }
+
+
+        /**
+         * @param name name of a query parameter.
+         * @return the decoded value of the first parameter with the name, or
+         *         null if there is none.
+         * @throws IOException if the value cannot be decoded.
+         */
+        public String getParam(String name) throws IOException {
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null) {
+                for (String param : query.split("&")) {
+                    if (param.startsWith(name + "=")) {
+                        return URLDecoder.decode(param.substring(name.length() + 1), "UTF-8");
+                    }
+                }
+            }
+            return null;
+        }
+
+
+        /**
+         * @param name    name of a query parameter.
+         * @param missing value if the parameter is not given.
+         * @return the parameter as a number.
+         * @throws IOException if the value cannot be decoded.
+         */
+        public int getParam(String name, int missing) throws IOException {
+            String value = getParam(name);
+            return value == null ? missing : Integer.parseInt(value);
+        }
+
+
+        /**
+         * @param name name of a request header.
+         * @return its first value, or null if it was not sent.
+         */
+        public String getHeader(String name) {
+            return exchange.getRequestHeaders().getFirst(name);
+        }
+
+
+        /**
+         * @return the request body, read in full.
+         * @throws IOException if the body cannot be read.
+         */
+        public byte[] getBody() throws IOException {
+            InputStream in = exchange.getRequestBody();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+            return body.toByteArray();
+        }
+
+
+        /**
+         * Add a header to the reply.
+         *
+         * @return this exchange.
+         */
+        public Exchange header(String name, String value) {
+            exchange.getResponseHeaders().add(name, value);
+            return this;
+        }
+
+
+        /**
+         * Reply with a status and no body.
+         *
+         * @throws IOException if the reply cannot be sent.
+         */
+        public void reply(int status) throws IOException {
+            reply(status, new byte[0]);
+        }
+
+
+        /**
+         * Reply 200 with a body.
+         *
+         * @throws IOException if the reply cannot be sent.
+         */
+        public void reply(String body) throws IOException {
+            reply(200, body);
+        }
+
+
+        /**
+         * Reply with a status and a body in UTF-8.
+         *
+         * @throws IOException if the reply cannot be sent.
+         */
+        public void reply(int status, String body) throws IOException {
+            reply(status, body.getBytes("UTF-8"));
+        }
+
+
+        private void reply(int status, byte[] body) throws IOException {
+            if (replied) {
+                throw new IllegalStateException("Already replied.");
+            }
+            replied = true;
+            // a length of -1 ends the exchange, so nothing may be written after it
+            if (body.length == 0) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                exchange.sendResponseHeaders(status, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class ThrottleTest {
+
+    @Test
+    public void testBurstThenSteadyRate() throws Exception {
+        Throttle throttle = new Throttle(20, 5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(throttle.tryAcquire());
+        }
+        assertFalse(throttle.tryAcquire());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            throttle.acquire(null);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // four permits at 20 per second take about 200ms
+        assertTrue("took " + elapsed + "ms", elapsed >= 150 && elapsed < 1000);
+        assertEquals(9, throttle.getAcquiredCount());
+        assertEquals(4, throttle.getDelayedCount());
+    }
+
+
+    @Test
+    public void testDeadlineTooSoon() throws Exception {
+        Throttle throttle = new Throttle(1, 1);
+        throttle.acquire(null);
+        RequestContext ctx = RequestContext.withTimeout(100, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        try {
+            throttle.acquire(ctx);
+            fail("Expected the deadline to be exceeded.");
+        } catch (KnickerException e) {
+            assertEquals("The request deadline was exceeded.", e.getMessage());
+        }
+        // fails at once rather than waiting out the deadline
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50);
+    }
+
+
+    @Test
+    public void testCancelWakesWaiter() throws Exception {
+        Throttle throttle = new Throttle(0.5, 1);
+        throttle.acquire(null);
+        final RequestContext ctx = RequestContext.create();
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    // cancel anyway
+                }
+                ctx.cancel();
+            }
+        }.start();
+        long start = System.nanoTime();
+        try {
+            throttle.acquire(ctx);
+            fail("Expected the wait to be cancelled.");
+        } catch (KnickerException e) {
+            assertEquals("The request was cancelled.", e.getMessage());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+
+    @Test
+    public void testInteractiveCallersGoFirst() throws Exception {
+        final Throttle throttle = new Throttle(20, 1);
+        throttle.acquire(null);
+
+        final List<Knicker.Priority> order = Collections.synchronizedList(new ArrayList<Knicker.Priority>());
+        List<Thread> threads = new ArrayList<Thread>();
+        Knicker.Priority[] arrivals = {Knicker.Priority.BULK, Knicker.Priority.BULK,
+                Knicker.Priority.INTERACTIVE, Knicker.Priority.INTERACTIVE};
+        for (int i = 0; i < arrivals.length; i++) {
+            final Knicker.Priority priority = arrivals[i];
+            Thread t = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        throttle.acquire(RequestContext.create().withPriority(priority));
+                        order.add(priority);
+                    } catch (KnickerException e) {
+                        // leaves a gap in the order
+                    }
+                }
+            };
+            threads.add(t);
+            t.start();
+            long end = System.currentTimeMillis() + 2000;
+            while (throttle.getWaitingCount() <= i && System.currentTimeMillis() < end) {
+                Thread.sleep(1);
+            }
+        }
+        for (Thread t : threads) {
+            t.join(2000);
+        }
+
+        assertEquals(Arrays.asList(Knicker.Priority.INTERACTIVE, Knicker.Priority.INTERACTIVE,
+                Knicker.Priority.BULK, Knicker.Priority.BULK), order);
+        assertEquals(0, throttle.getWaitingCount());
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.transport.RequestTiming;
+import net.jeremybrooks.knicker.transport.RequestTiming.Phase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class TimingTest {
+
+    @Test
+    public void testRequestTiming() {
+        RequestTiming timing = new RequestTiming("GET", "word/definitions");
+        timing.record(Phase.WAIT, 3000000);
+        timing.record(Phase.WAIT, 2000000);
+        timing.record(Phase.PARSE, -5);
+        assertEquals(5000000, timing.getNanos(Phase.WAIT));
+        assertEquals(5.0, timing.getMillis(Phase.WAIT), 0.0);
+        assertEquals(0, timing.getNanos(Phase.PARSE));
+        assertFalse(timing.isFinished());
+
+        timing.finish(true);
+        long total = timing.getTotalNanos();
+        timing.finish(false);
+        assertTrue(timing.isFinished());
+        assertTrue(timing.isFailed());
+        assertEquals(total, timing.getTotalNanos());
+    }
+
+
+    @Test
+    public void testPhasesAreRecorded() throws Exception {
+        StubServer server = startServer();
+        try {
+            TimingStats stats = new TimingStats();
+            KnickerClient client = newClient(server).timingListener(stats).build();
+
+            RequestContext ctx = RequestContext.create().withTimings();
+            KnickerClient timed = client.withContext(ctx);
+            assertEquals("cat", timed.lookup("cat", false, false).getWord());
+            try {
+                timed.lookup("missing", false, false);
+                fail("A 404 should fail.");
+            } catch (KnickerException e) {
+                // expected
+            }
+
+            List<RequestTiming> timings = ctx.getTimings();
+            assertEquals(2, timings.size());
+            RequestTiming ok = timings.get(0);
+            assertEquals("GET", ok.getMethod());
+            assertEquals("word", ok.getEndpoint());
+            assertEquals(200, ok.getStatusCode());
+            assertEquals(1, ok.getAttempts());
+            assertFalse(ok.isFailed());
+            assertTrue(ok.getNanos(Phase.CONNECT) > 0);
+            assertTrue(ok.getMillis(Phase.WAIT) >= 15);
+            assertTrue(ok.getNanos(Phase.PARSE) > 0);
+            assertTrue(ok.getNanos(Phase.MAP) > 0);
+            long sum = 0;
+            for (Phase phase : Phase.values()) {
+                sum += ok.getNanos(phase);
+            }
+            assertTrue(sum <= ok.getTotalNanos());
+
+            RequestTiming failed = timings.get(1);
+            assertEquals(404, failed.getStatusCode());
+            assertTrue(failed.isFailed());
+            assertEquals(0, failed.getNanos(Phase.PARSE));
+
+            // children share the parent's timings; other contexts do not see them
+            timed.withContext(ctx.child()).lookup("cat", false, false);
+            assertEquals(3, ctx.getTimings().size());
+            assertTrue(RequestContext.create().getTimings().isEmpty());
+
+            TimingStats.Summary summary = stats.getSummary("word");
+            assertEquals(3, summary.getCount());
+            assertEquals(1, summary.getFailures());
+            assertTrue(summary.getMaxMillis(Phase.WAIT) >= 15);
+            assertTrue(summary.getMeanTotalMillis() <= summary.getMaxTotalMillis());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    @Test
+    public void testFailedMappingIsRecordedAsFailed() throws Exception {
+        StubServer server = startServer();
+        try {
+            RequestContext ctx = RequestContext.create().withTimings();
+            KnickerClient client = newClient(server).build().withContext(ctx);
+            try {
+                client.reverseDictionary("broken", null, null, null, null, null, 0, 0, 0, 0, null, false, null, null,
+                        0, 10);
+                fail("The response should not map to definition search results.");
+            } catch (KnickerException e) {
+                // expected
+            }
+            assertEquals(1, ctx.getTimings().size());
+            RequestTiming failed = ctx.getTimings().get(0);
+            assertTrue(failed.isFinished());
+            assertTrue(failed.isFailed());
+            assertEquals(200, failed.getStatusCode());
+
+            client.lookup("cat", false, false);
+            assertEquals(2, ctx.getTimings().size());
+            assertTrue(ctx.getTimings().get(0).isFailed());
+            assertFalse(ctx.getTimings().get(1).isFailed());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    @Test
+    public void testSampling() throws Exception {
+        StubServer server = startServer();
+        try {
+            TimingStats stats = new TimingStats();
+            KnickerClient client = newClient(server).timingListener(stats).timingSampleRate(0.5).build();
+            for (int i = 0; i < 10; i++) {
+                client.lookup("cat", false, false);
+            }
+            assertEquals(5, stats.getSummary("word").getCount());
+
+            // a collecting context is timed regardless of sampling
+            stats.reset();
+            client = client.toBuilder().timingSampleRate(0).build();
+            client.lookup("cat", false, false);
+            assertNull(stats.getSummary("word"));
+            RequestContext ctx = RequestContext.create().withTimings();
+            client.withContext(ctx).lookup("cat", false, false);
+            assertEquals(1, ctx.getTimings().size());
+            assertEquals(1, stats.getSummary("word").getCount());
+
+            try {
+                newClient(server).timingSampleRate(1.5).build();
+                fail("A sample rate over 1 should be rejected.");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    private static KnickerClient.Builder newClient(StubServer server) {
+        return new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl());
+    }
+
+
+    /*
+     * Answers word lookups after a short pause, and 404 for the word "missing".
+     * Reverse dictionary results are missing the related words the mapping
+     * expects.
+     */
+    private static StubServer startServer() throws IOException {
+        return new StubServer()
+                .route("/missing", answer(404, "<error/>"))
+                .route("/reverseDictionary", answer(200,
+                        "<definitionSearchResults><results><result><word>cat</word></result></results>"
+                                + "</definitionSearchResults>"))
+                .fallback(answer(200, "<wordObject><word>cat</word></wordObject>"))
+                .start();
+    }
+
+
+    private static StubServer.Handler answer(final int status, final String xml) {
+        return new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.reply(status, xml);
+            }
+        };
+    }
+}
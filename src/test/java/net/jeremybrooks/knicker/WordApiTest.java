@@ -511,9 +511,11 @@ public class WordApiTest {
         assertTrue(result.length > 0);
         System.out.println("Got " + result.length + " bytes of data.");
 
-        audio.get(0).setFileUrl("http://api.wordnik.com/v4/audioFile.mp3/d7e9fd4ec39829cb61169850a4e8a9e3a8b15d7b730afbeac7c77ee558f73bfc");
+        AudioFileMetadata expired = new AudioFileMetadata.Builder(audio.get(0))
+                .fileUrl("http://api.wordnik.com/v4/audioFile.mp3/d7e9fd4ec39829cb61169850a4e8a9e3a8b15d7b730afbeac7c77ee558f73bfc")
+                .build();
         try {
-            result = WordApi.getAudioData(audio.get(0));
+            result = WordApi.getAudioData(expired);
         } catch (Exception e) {
             assertNotNull(e);
             System.out.println("This is testing a failure. You should see the headers in the excemption.");
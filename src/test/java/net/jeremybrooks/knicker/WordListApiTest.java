@@ -257,10 +257,12 @@ public class WordListApiTest {
         String newDescription = "Changed the description.";
         String newName = "TEST LIST NEW NAME";
 
-        testList.setDescription(newDescription);
-        testList.setName(newName);
-        testList.setType(ListType.PRIVATE);
-        WordListApi.updateWordList(token, testList);
+        WordList updated = new WordList.Builder(testList)
+                .description(newDescription)
+                .name(newName)
+                .type(ListType.PRIVATE)
+                .build();
+        WordListApi.updateWordList(token, updated);
 
         // check that the list has 2 items
         WordList result = WordListApi.getWordList(token, testList.getPermalink());
@@ -0,0 +1,187 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class WordListMirrorTest {
+
+    private final AuthenticationToken token = new AuthenticationToken.Builder().token("secret").build();
+
+    /* The lists on the server, by permalink, and the time each was last updated. */
+    private final Map<String, List<String>> lists = Collections.synchronizedMap(new LinkedHashMap<String, List<String>>());
+
+    private final Map<String, String> updated = Collections.synchronizedMap(new LinkedHashMap<String, String>());
+
+    /* Permalinks of the lists whose words were downloaded. */
+    private final List<String> downloads = Collections.synchronizedList(new ArrayList<String>());
+
+    private StubServer server;
+
+    private KnickerClient client;
+
+    private File file;
+
+
+    @Before
+    public void setUp() throws IOException {
+        server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                String path = exchange.getPath();
+                StringBuilder xml = new StringBuilder();
+                synchronized (lists) {
+                    if (path.endsWith("/wordLists")) {
+                        // like the server, answer one page of at most 50 lists
+                        int skip = exchange.getParam("skip", 0);
+                        int limit = Math.min(exchange.getParam("limit", 50), 50);
+                        List<Map.Entry<String, List<String>>> page =
+                                new ArrayList<Map.Entry<String, List<String>>>(lists.entrySet());
+                        page = page.subList(Math.min(skip, page.size()), Math.min(skip + limit, page.size()));
+                        xml.append("<wordLists>");
+                        for (Map.Entry<String, List<String>> list : page) {
+                            xml.append("<wordList><permalink>").append(list.getKey()).append("</permalink>")
+                                    .append("<name>").append(list.getKey()).append("</name>")
+                                    .append("<type>PUBLIC</type>")
+                                    .append("<numberWordsInList>").append(list.getValue().size())
+                                    .append("</numberWordsInList>")
+                                    .append("<updatedAt>").append(updated.get(list.getKey())).append("</updatedAt>")
+                                    .append("</wordList>");
+                        }
+                        xml.append("</wordLists>");
+                    } else {
+                        String permalink = path.substring(path.indexOf("/wordList.xml/") + 14, path.lastIndexOf('/'));
+                        downloads.add(permalink);
+                        xml.append("<listedWords>");
+                        for (String word : lists.get(permalink)) {
+                            xml.append("<wordListWord><word>").append(word).append("</word>")
+                                    .append("<username>someone</username></wordListWord>");
+                        }
+                        xml.append("</listedWords>");
+                    }
+                }
+                exchange.reply(xml.toString());
+            }
+        });
+        client = new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .build();
+        file = File.createTempFile("knicker", ".mirror");
+        file.delete();
+
+        lists.put("animals", new ArrayList<String>(Arrays.asList("cat", "dog")));
+        updated.put("animals", "2013-01-01T00:00:00.000+0000");
+        lists.put("fruit", new ArrayList<String>(Arrays.asList("apple")));
+        updated.put("fruit", "2013-01-01T00:00:00.000+0000");
+        lists.put("colours", new ArrayList<String>(Arrays.asList("red", "apple")));
+        updated.put("colours", "2013-01-01T00:00:00.000+0000");
+    }
+
+
+    @After
+    public void tearDown() {
+        server.stop();
+        client.shutdown();
+        file.delete();
+    }
+
+
+    @Test
+    public void testOnlyChangedListsAreDownloaded() throws Exception {
+        WordListMirror mirror = new WordListMirror.Builder(client, token).concurrency(2).build();
+        assertEquals(3, mirror.refresh());
+        assertEquals(3, downloads.size());
+        assertTrue(mirror.contains("animals", "cat"));
+        assertFalse(mirror.contains("animals", "apple"));
+        assertEquals("someone", mirror.getWord("fruit", "apple").getUsername());
+        assertEquals(Arrays.asList("fruit", "colours"), mirror.getListsContaining("apple"));
+
+        downloads.clear();
+        lists.get("fruit").add("pear");
+        updated.put("fruit", "2013-01-02T00:00:00.000+0000");
+        lists.remove("colours");
+        assertEquals(1, mirror.refresh());
+        assertEquals(Arrays.asList("fruit"), downloads);
+        assertTrue(mirror.contains("fruit", "pear"));
+        assertNull(mirror.getWords("colours"));
+        assertEquals(2, mirror.getWordLists().size());
+
+        assertEquals(0, mirror.refresh());
+        assertEquals(1, downloads.size());
+    }
+
+
+    @Test
+    public void testMirrorSurvivesARestart() throws Exception {
+        WordListMirror mirror = new WordListMirror.Builder(client, token).file(file).build();
+        mirror.refresh();
+        assertTrue(file.exists());
+
+        downloads.clear();
+        lists.get("animals").add("emu");
+        updated.put("animals", "2013-01-02T00:00:00.000+0000");
+
+        WordListMirror restarted = new WordListMirror.Builder(client, token).file(file).build();
+        assertTrue(restarted.contains("colours", "red"));
+        assertFalse(restarted.contains("animals", "emu"));
+        assertEquals(1, restarted.refresh());
+        assertEquals(Arrays.asList("animals"), downloads);
+        assertTrue(restarted.contains("animals", "emu"));
+        assertEquals(3, restarted.getWords("animals").size());
+    }
+
+
+    @Test
+    public void testListsBeyondTheFirstPageAreKept() throws Exception {
+        for (int i = 0; i < 120; i++) {
+            lists.put("list" + i, new ArrayList<String>(Arrays.asList("word" + i)));
+            updated.put("list" + i, "2013-01-01T00:00:00.000+0000");
+        }
+        WordListMirror mirror = new WordListMirror.Builder(client, token).build();
+        assertEquals(123, mirror.refresh());
+        assertEquals(123, mirror.getWordLists().size());
+        assertTrue(mirror.contains("list119", "word119"));
+
+        downloads.clear();
+        assertEquals(0, mirror.refresh());
+        assertEquals(123, mirror.getWordLists().size());
+        assertTrue(downloads.isEmpty());
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class WordListSyncTest {
+
+    private final AuthenticationToken token = new AuthenticationToken.Builder().token("secret").build();
+
+    /* The contents of the list on the server. */
+    private final TreeSet<String> list = new TreeSet<String>();
+
+    private final AtomicInteger posts = new AtomicInteger();
+
+    private StubServer server;
+
+    private KnickerClient client;
+
+
+    @Before
+    public void setUp() throws IOException {
+        server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                if (exchange.getMethod().equals("GET")) {
+                    exchange.reply(page(exchange.getParam("skip", 0), exchange.getParam("limit", Integer.MAX_VALUE)));
+                    return;
+                }
+                posts.incrementAndGet();
+                NodeList nodes;
+                try {
+                    nodes = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                            .parse(new ByteArrayInputStream(exchange.getBody())).getElementsByTagName("word");
+                } catch (Exception e) {
+                    exchange.reply(400);
+                    return;
+                }
+                synchronized (list) {
+                    for (int i = 0; i < nodes.getLength(); i++) {
+                        if (exchange.getPath().endsWith("/deleteWords")) {
+                            list.remove(nodes.item(i).getTextContent());
+                        } else {
+                            list.add(nodes.item(i).getTextContent());
+                        }
+                    }
+                }
+                exchange.reply(200);
+            }
+        });
+        client = new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .build();
+    }
+
+
+    private String page(int skip, int limit) {
+        StringBuilder xml = new StringBuilder("<listedWords>");
+        synchronized (list) {
+            List<String> words = new ArrayList<String>(list);
+            for (int i = skip; i < words.size() && i < skip + limit; i++) {
+                xml.append("<wordListWord><word>").append(words.get(i).replace("&", "&amp;"))
+                        .append("</word></wordListWord>");
+            }
+        }
+        return xml.append("</listedWords>").toString();
+    }
+
+
+    @After
+    public void tearDown() {
+        server.stop();
+        client.shutdown();
+    }
+
+
+    @Test
+    public void testDiffDoesNotChangeTheList() throws Exception {
+        list.add("apple");
+        list.add("banana");
+        Set<String> desired = new HashSet<String>();
+        desired.add("banana");
+        desired.add("cherry");
+
+        WordListDiff diff = client.diffWordList(token, "list", desired);
+        assertEquals("[cherry]", diff.getToAdd().toString());
+        assertEquals("[apple]", diff.getToDelete().toString());
+        assertEquals(1, diff.getUnchangedCount());
+        assertFalse(diff.isApplied());
+        assertFalse(diff.isEmpty());
+        assertEquals(0, posts.get());
+        assertEquals("[apple, banana]", list.toString());
+    }
+
+
+    @Test
+    public void testSyncSendsOnlyTheDifference() throws Exception {
+        Set<String> desired = new HashSet<String>();
+        for (int i = 0; i < 2500; i++) {
+            list.add(String.format("w%04d", i));
+        }
+        for (int i = 1000; i < 3000; i++) {
+            desired.add(String.format("w%04d", i));
+        }
+        desired.add("fish & chips");
+
+        WordListDiff diff = client.syncWordList(token, "list", desired, 2);
+        assertTrue(diff.isApplied());
+        assertTrue(diff.isSuccessful());
+        assertEquals(501, diff.getToAdd().size());
+        assertEquals(1000, diff.getToDelete().size());
+        assertEquals(1500, diff.getUnchangedCount());
+        assertEquals(desired, list);
+
+        int sent = posts.get();
+        assertTrue(sent > 0);
+        diff = client.syncWordList(token, "list", desired);
+        assertTrue(diff.isEmpty());
+        assertTrue(diff.isSuccessful());
+        assertEquals(sent, posts.get());
+    }
+}
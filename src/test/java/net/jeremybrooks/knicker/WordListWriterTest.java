@@ -0,0 +1,278 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.dto.AuthenticationToken;
+import net.jeremybrooks.knicker.dto.WordList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class WordListWriterTest {
+
+    private static final Pattern WORD = Pattern.compile("<word>([^<]*)</word>");
+
+    private final AuthenticationToken token = new AuthenticationToken.Builder().token("secret").build();
+
+    /* One entry per request: the path and the words in the body. */
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+    private StubServer server;
+
+    private KnickerClient client;
+
+
+    @Before
+    public void setUp() throws IOException {
+        server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                String path = exchange.getPath();
+                List<String> words = new ArrayList<String>();
+                Matcher m = WORD.matcher(new String(exchange.getBody(), "UTF-8"));
+                while (m.find()) {
+                    words.add(m.group(1));
+                }
+                requests.add(path.substring(path.indexOf("/wordList.xml/") + 14) + " " + words);
+                exchange.reply(path.contains("/broken/") ? 500 : 200);
+            }
+        });
+        client = new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .build();
+    }
+
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+
+    @Test
+    public void testChangesAreCombined() throws Exception {
+        WordListWriter writer = new WordListWriter.Builder(client)
+                .window(1, TimeUnit.MINUTES)
+                .flushOnExit(false)
+                .build();
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        futures.add(writer.addWord(token, "list", "apple"));
+        futures.add(writer.addWord(token, "list", "banana"));
+        futures.add(writer.addWord(token, "list", "apple"));
+        futures.add(writer.deleteWord(token, "list", "banana"));
+        futures.add(writer.deleteWord(token, "list", "cherry"));
+        futures.add(writer.deleteWord(token, "list", "date"));
+        futures.add(writer.addWord(token, "list", "date"));
+        Future<Void> cancelled = futures.get(3);
+        assertTrue(cancelled.isDone());
+        assertEquals(3, writer.getPendingCount());
+        assertTrue(requests.isEmpty());
+
+        writer.flush();
+        assertEquals(2, requests.size());
+        assertEquals("list/words [apple, date]", requests.get(0));
+        assertEquals("list/deleteWords [cherry]", requests.get(1));
+        for (Future<Void> future : futures) {
+            assertTrue(future.isDone());
+            future.get();
+        }
+        assertFalse(cancelled.cancel(true));
+        assertEquals(7, writer.getChangeCount());
+        assertEquals(3, writer.getCancelledOutCount());
+        assertEquals(2, writer.getBatchCount());
+        assertEquals(0, writer.getPendingCount());
+        writer.close();
+    }
+
+
+    @Test
+    public void testWindowAndSizeCap() throws Exception {
+        WordListWriter writer = new WordListWriter.Builder(client)
+                .window(50, TimeUnit.MILLISECONDS)
+                .flushOnExit(false)
+                .build();
+        writer.addWord(token, "list", "apple").get(5, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList("list/words [apple]"), requests);
+        writer.close();
+
+        requests.clear();
+        writer = new WordListWriter.Builder(client)
+                .window(1, TimeUnit.MINUTES)
+                .maxBatchSize(3)
+                .flushOnExit(false)
+                .build();
+        writer.addWord(token, "list", "apple");
+        writer.addWord(token, "other", "apple");
+        writer.addWord(token, "list", "banana");
+        writer.addWord(token, "list", "cherry").get(5, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList("list/words [apple, banana, cherry]"), requests);
+        assertEquals(1, writer.getPendingCount());
+
+        // closing flushes what is left, and later changes are rejected
+        writer.close();
+        assertEquals("other/words [apple]", requests.get(1));
+        try {
+            writer.addWord(token, "list", "date");
+            fail("A closed writer should reject changes.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+
+    @Test
+    public void testFailedBatch() throws Exception {
+        WordListWriter writer = new WordListWriter.Builder(client).flushOnExit(false).build();
+        Future<Void> broken = writer.addWord(token, "broken", "apple");
+        Future<Void> fine = writer.addWord(token, "list", "apple");
+        writer.flush();
+        try {
+            broken.get();
+            fail("The batch should have failed.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof KnickerException);
+        }
+        fine.get();
+        assertEquals(1, writer.getFailedBatchCount());
+        writer.close();
+
+        try {
+            writer.addWord(null, "list", "apple");
+            fail("A null token should be rejected.");
+        } catch (KnickerException e) {
+            // expected
+        }
+    }
+
+
+    @Test
+    public void testChangesSurviveARestart() throws Exception {
+        File file = File.createTempFile("knicker", ".wal");
+        assertTrue(file.delete());
+        file.deleteOnExit();
+
+        WordListWriter crashed = new WordListWriter.Builder(client)
+                .window(1, TimeUnit.MINUTES)
+                .flushOnExit(false)
+                .log(file)
+                .build();
+        crashed.addWord(token, "list", "apple");
+        crashed.addWord(token, "list", "banana");
+        crashed.deleteWord(token, "list", "banana");
+        crashed.updateList(token, new WordList.Builder().permalink("list").name("Fruit").type(Knicker.ListType.PUBLIC).build());
+        assertEquals(0, crashed.getRecoveredCount());
+        assertTrue(requests.isEmpty());
+
+        // without the token the changes stay in the log
+        WordListWriter tokenless = new WordListWriter.Builder(client)
+                .window(1, TimeUnit.MINUTES)
+                .flushOnExit(false)
+                .log(file)
+                .build();
+        assertEquals(0, tokenless.getRecoveredCount());
+        tokenless.close();
+        assertTrue(requests.isEmpty());
+
+        // a writer given the token sends what the first never did
+        WordListWriter restarted = new WordListWriter.Builder(client)
+                .window(1, TimeUnit.MINUTES)
+                .flushOnExit(false)
+                .log(file)
+                .replayTokens(token)
+                .build();
+        assertEquals(2, restarted.getRecoveredCount());
+        restarted.flush();
+        assertEquals(2, requests.size());
+        assertEquals("list/words [apple]", requests.get(0));
+        assertEquals("list []", requests.get(1));
+        restarted.close();
+
+        WordListWriter later = new WordListWriter.Builder(client)
+                .flushOnExit(false)
+                .log(file)
+                .replayTokens(token)
+                .build();
+        assertEquals(0, later.getRecoveredCount());
+        later.close();
+    }
+
+
+    @Test
+    public void testNoChangeIsLostWhileClosing() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            final WordListWriter writer = new WordListWriter.Builder(client)
+                    .window(1, TimeUnit.MINUTES)
+                    .flushOnExit(false)
+                    .build();
+            final List<Future<Void>> futures = Collections.synchronizedList(new ArrayList<Future<Void>>());
+            final CountDownLatch started = new CountDownLatch(4);
+            List<Thread> threads = new ArrayList<Thread>();
+            for (int t = 0; t < 4; t++) {
+                final String prefix = round + "-" + t + "-";
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        started.countDown();
+                        try {
+                            for (int i = 0; ; i++) {
+                                futures.add(writer.addWord(token, "list", prefix + i));
+                            }
+                        } catch (IllegalStateException e) {
+                            // closed
+                        } catch (KnickerException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            started.await();
+            writer.close();
+            for (Thread thread : threads) {
+                thread.join(5000);
+            }
+            // every change that was accepted has been sent
+            for (Future<Void> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker;
+
+import net.jeremybrooks.knicker.Knicker.Facet;
+import net.jeremybrooks.knicker.dto.WordProfile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the parallel word profile against a local server.
+ * <p/>
+ * Definitions, pronunciations and audio answer after a short delay,
+ * frequency always fails, and hyphenation never answers in time. Each test
+ * gets its own server, so a slow call left over from one test cannot be
+ * counted by the next.
+ *
+ * @author Jeremy Brooks
+ */
+public class WordProfileTest {
+
+    private StubServer server;
+    private KnickerClient client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer()
+                .route("/frequency", answer(0, null))
+                .route("/hyphenation", answer(5000, "<syllables/>"))
+                .route("/definitions", answer(300, "<definitions/>"))
+                .route("/pronunciations", answer(300, "<textProns/>"))
+                .route("/audio", answer(300, "<audioFiles/>"))
+                .start();
+        client = new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .build();
+    }
+
+
+    @After
+    public void tearDown() throws Exception {
+        // interrupts a hyphenation call that is still sleeping
+        server.stop();
+        client.shutdown();
+    }
+
+
+    /*
+     * Answer after a pause, or fail at once if there is nothing to answer.
+     */
+    private StubServer.Handler answer(final long millis, final String xml) {
+        return new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                int now = inFlight.incrementAndGet();
+                int max;
+                while (now > (max = maxInFlight.get()) && !maxInFlight.compareAndSet(max, now)) {
+                    // retry
+                }
+                try {
+                    if (xml == null) {
+                        exchange.reply(500);
+                        return;
+                    }
+                    try {
+                        Thread.sleep(millis);
+                    } catch (InterruptedException e) {
+                        // shutting down
+                    }
+                    exchange.reply(xml);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+    }
+
+
+    @Test
+    public void testFacetsRunInParallel() throws Exception {
+        long start = System.currentTimeMillis();
+        WordProfile profile = client.profile("cat",
+                EnumSet.of(Facet.DEFINITIONS, Facet.PRONUNCIATIONS, Facet.AUDIO));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(profile.isComplete());
+        assertNotNull(profile.getDefinitions());
+        assertNotNull(profile.getPronunciations());
+        assertNotNull(profile.getAudio());
+        assertEquals(3, maxInFlight.get());
+        assertTrue("took " + elapsed + "ms", elapsed < 800);
+    }
+
+
+    @Test
+    public void testOnlyRequestedFacetsAreFetched() throws Exception {
+        WordProfile profile = client.profile("cat", EnumSet.of(Facet.DEFINITIONS));
+
+        assertNotNull(profile.getDefinitions());
+        assertNull(profile.getLookup());
+        assertNull(profile.getAudio());
+        assertTrue(profile.getErrors().isEmpty());
+    }
+
+
+    @Test
+    public void testFailedFacetDegrades() throws Exception {
+        WordProfile profile = client.profile("cat", EnumSet.of(Facet.DEFINITIONS, Facet.FREQUENCY));
+
+        assertFalse(profile.isComplete());
+        assertNotNull(profile.getDefinitions());
+        assertNull(profile.getFrequency());
+        assertEquals(EnumSet.of(Facet.FREQUENCY), profile.getErrors().keySet());
+    }
+
+
+    @Test
+    public void testSharedDeadline() throws Exception {
+        long start = System.currentTimeMillis();
+        WordProfile profile = client.profile("cat", EnumSet.of(Facet.DEFINITIONS, Facet.HYPHENATION),
+                1, TimeUnit.SECONDS);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertNotNull(profile.getDefinitions());
+        assertNull(profile.getHyphenation());
+        assertTrue(profile.getErrors().containsKey(Facet.HYPHENATION));
+        assertEquals("The request deadline was exceeded.",
+                profile.getErrors().get(Facet.HYPHENATION).getMessage());
+        assertTrue("took " + elapsed + "ms", elapsed < 3000);
+    }
+
+
+    @Test
+    public void testRejectedFacetsRunOnTheCallingThread() throws Exception {
+        // one thread and no queue, so all but the first facet are refused
+        ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<Runnable>());
+        try {
+            KnickerClient bounded = client.toBuilder().executor(executor).build();
+            WordProfile profile = bounded.profile("cat",
+                    EnumSet.of(Facet.DEFINITIONS, Facet.PRONUNCIATIONS, Facet.AUDIO));
+            assertTrue(profile.getErrors().toString(), profile.isComplete());
+            assertNotNull(profile.getDefinitions());
+            assertNotNull(profile.getPronunciations());
+            assertNotNull(profile.getAudio());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void testQueuedFacetTimesOut() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // the only thread is busy, so the facet waits in the queue
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // shutting down
+                    }
+                }
+            });
+            KnickerClient busy = client.toBuilder().executor(executor).build();
+            long start = System.currentTimeMillis();
+            WordProfile profile = busy.profile("cat", EnumSet.of(Facet.DEFINITIONS), 300, TimeUnit.MILLISECONDS);
+            long elapsed = System.currentTimeMillis() - start;
+
+            assertNull(profile.getDefinitions());
+            assertEquals("The request deadline was exceeded.",
+                    profile.getErrors().get(Facet.DEFINITIONS).getMessage());
+            assertTrue("took " + elapsed + "ms", elapsed < 2000);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import net.jeremybrooks.knicker.KnickerClient;
+import net.jeremybrooks.knicker.StubServer;
+import net.jeremybrooks.knicker.dto.Related;
+import net.jeremybrooks.knicker.dto.Syllable;
+import net.jeremybrooks.knicker.dto.Word;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Runs the cache contract against a binary cache backed by a map, standing in
+ * for a remote key-value store.
+ *
+ * @author Jeremy Brooks
+ */
+public class BinaryKnickerCacheTest extends KnickerCacheContractTest {
+
+    static class MapStore extends BinaryKnickerCache {
+        final ConcurrentMap<String, byte[]> store = new ConcurrentHashMap<String, byte[]>();
+
+        @Override
+        protected byte[] read(String key) {
+            return store.get(key);
+        }
+
+        @Override
+        protected void write(String key, byte[] value, long ttlMillis) {
+            store.put(key, value);
+        }
+
+        @Override
+        protected void delete(String key) {
+            store.remove(key);
+        }
+
+        @Override
+        protected void deleteAll() {
+            store.clear();
+        }
+    }
+
+
+    @Override
+    protected KnickerCache createCache() {
+        return new MapStore();
+    }
+
+
+    @Test
+    public void testCodecRoundTrip() {
+        List<Object> values = new ArrayList<Object>();
+        values.add(word("cat"));
+        values.add(new Word.Builder().word("colour").canonicalForm("color")
+                .addSuggestion("color").addSuggestion("coulour").build());
+        values.add(definitions("cat"));
+        values.add(Arrays.asList(
+                new Related.Builder().relationshipType("synonym").addWord("feline").addWord("kitty").build(),
+                new Related.Builder().relationshipType("rhyme").addWord("hat").build()));
+        values.add(Arrays.asList(
+                new Syllable.Builder().seq(0).type("stress").text("ca").build(),
+                new Syllable.Builder().seq(1).text("fé").build()));
+        values.add("über");
+        values.add(null);
+
+        for (Object value : values) {
+            Object decoded = DtoCodec.decode(DtoCodec.encode(value));
+            assertEquals(String.valueOf(value), String.valueOf(decoded));
+        }
+    }
+
+
+    @Test
+    public void testCorruptEntryIsAMiss() {
+        MapStore binary = new MapStore();
+        binary.put("word/cat", CacheEntry.create(word("cat"), 1, TimeUnit.HOURS));
+        byte[] bytes = binary.store.get("word/cat");
+        binary.store.put("word/cat", Arrays.copyOf(bytes, bytes.length / 2));
+        binary.store.put("word/dog", new byte[]{(byte) 0x7f, 1, 2, 3});
+
+        assertNull(binary.get("word/cat"));
+        assertNull(binary.get("word/dog"));
+        assertEquals(0, binary.getAll(Arrays.asList("word/cat", "word/dog")).size());
+    }
+
+
+    @Test
+    public void testClientAnswersRepeatsFromCache() throws Exception {
+        StubServer server = new StubServer()
+                .route("/hyphenation", new StubServer.Handler() {
+                    @Override
+                    public void handle(StubServer.Exchange exchange) throws Exception {
+                        exchange.reply("<syllables><syllable seq=\"0\"><text>cat</text></syllable></syllables>");
+                    }
+                })
+                .fallback(new StubServer.Handler() {
+                    @Override
+                    public void handle(StubServer.Exchange exchange) throws Exception {
+                        exchange.reply("<wordObject><word>cat</word><canonicalForm>cat</canonicalForm></wordObject>");
+                    }
+                })
+                .start();
+        try {
+            MapStore store = new MapStore();
+            KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl(server.getBaseUrl())
+                    .cache(store)
+                    .build();
+            Word first = client.lookup("cat", false, false);
+            Word second = client.lookup("cat", false, false);
+            List<Syllable> syllables = client.hyphenation("cat", false, null, 0);
+            List<Syllable> again = client.hyphenation("cat", false, null, 0);
+
+            assertEquals(2, server.getRequestCount());
+            assertEquals(2, store.store.size());
+            assertEquals(first.toString(), second.toString());
+            assertEquals(syllables.toString(), again.toString());
+            assertNotNull(store.get(store.store.keySet().iterator().next()));
+        } finally {
+            server.stop();
+        }
+    }
+}
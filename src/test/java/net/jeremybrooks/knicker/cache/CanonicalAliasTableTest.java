@@ -0,0 +1,100 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import net.jeremybrooks.knicker.KnickerClient;
+import net.jeremybrooks.knicker.StubServer;
+import net.jeremybrooks.knicker.dto.Definition;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class CanonicalAliasTableTest {
+
+    @Test
+    public void testLearnAndResolve() {
+        CanonicalAliasTable table = new CanonicalAliasTable(2);
+        table.learn("dogs", "dog");
+        table.learn("dog", "dog");
+        table.learn("cats", "");
+        assertEquals(1, table.getSize());
+        assertEquals("dog", table.resolve(" dogs "));
+        assertEquals("cats", table.resolve("cats"));
+        assertEquals(1, table.getHitCount());
+        assertEquals(1, table.getMissCount());
+
+        table.learn("geese", "goose");
+        table.learn("mice", "mouse");
+        assertEquals(2, table.getSize());
+        assertEquals("dogs", table.resolve("dogs"));
+    }
+
+
+    @Test
+    public void testInflectedFormsShareCacheEntry() throws Exception {
+        final List<String> paths = Collections.synchronizedList(new ArrayList<String>());
+        StubServer server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                String path = exchange.getPath();
+                paths.add(path);
+                String xml;
+                if (path.endsWith("/definitions")) {
+                    xml = "<definitions><definition sequence=\"0\"><text>A domesticated canid.</text>"
+                            + "<word>dog</word></definition></definitions>";
+                } else {
+                    String word = path.substring(path.lastIndexOf('/') + 1);
+                    xml = "<wordObject><word>" + word + "</word><canonicalForm>dog</canonicalForm></wordObject>";
+                }
+                exchange.reply(xml);
+            }
+        });
+        try {
+            KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl(server.getBaseUrl())
+                    .cache(new InMemoryKnickerCache())
+                    .aliasTable(new CanonicalAliasTable())
+                    .build();
+            client.lookup("dogs", true, false);
+            client.lookup("Dogs", true, false);
+
+            List<Definition> first = client.definitions("dogs", 0, null, false, null, true, false);
+            List<Definition> second = client.definitions("Dogs", 0, null, false, null, true, false);
+            List<Definition> third = client.definitions("dog", 0, null, false, null, true, false);
+            assertEquals(1, first.size());
+            assertEquals(first.get(0).getText(), second.get(0).getText());
+            assertEquals(first.get(0).getText(), third.get(0).getText());
+
+            // two lookups plus a single definitions call, made for the canonical form
+            assertEquals(3, paths.size());
+            assertEquals("/v4/word.xml/dog/definitions", paths.get(2));
+            assertEquals(2, ((InMemoryKnickerCache) client.getCache()).getHitCount());
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class InMemoryKnickerCacheTest extends KnickerCacheContractTest {
+
+    @Override
+    protected KnickerCache createCache() {
+        return new InMemoryKnickerCache();
+    }
+
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        InMemoryKnickerCache lru = new InMemoryKnickerCache(2);
+        lru.put("a", CacheEntry.create(word("a"), 1, TimeUnit.HOURS));
+        lru.put("b", CacheEntry.create(word("b"), 1, TimeUnit.HOURS));
+        assertNotNull(lru.get("a"));
+        lru.put("c", CacheEntry.create(word("c"), 1, TimeUnit.HOURS));
+
+        assertEquals(2, lru.getSize());
+        assertNull(lru.get("b"));
+        assertNotNull(lru.get("a"));
+        assertNotNull(lru.get("c"));
+        assertEquals(3, lru.getHitCount());
+        assertEquals(1, lru.getMissCount());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import net.jeremybrooks.knicker.dto.Definition;
+import net.jeremybrooks.knicker.dto.Word;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests every <code>KnickerCache</code> implementation must pass. Extend this
+ * class and implement <code>createCache</code> to check a new implementation.
+ *
+ * @author Jeremy Brooks
+ */
+public abstract class KnickerCacheContractTest {
+
+    protected KnickerCache cache;
+
+
+    /**
+     * @return a new, empty cache.
+     */
+    protected abstract KnickerCache createCache();
+
+
+    @Before
+    public void setUp() {
+        cache = createCache();
+    }
+
+
+    protected static Word word(String word) {
+        return new Word.Builder().word(word).canonicalForm(word).originalWord(word).build();
+    }
+
+
+    protected static List<Definition> definitions(String word) {
+        List<Definition> list = new ArrayList<Definition>();
+        list.add(new Definition.Builder().word(word).sequence(0).partOfSpeech("noun")
+                .text("A small domesticated carnivorous mammal.").sourceDictionary("ahd-5").build());
+        list.add(new Definition.Builder().word(word).sequence(1).partOfSpeech("verb")
+                .text("To hoist an anchor.").sourceDictionary("ahd-5").build());
+        return Collections.unmodifiableList(list);
+    }
+
+
+    @Test
+    public void testPutThenGet() {
+        CacheEntry entry = CacheEntry.create(word("cat"), 1, TimeUnit.HOURS);
+        cache.put("word/cat", entry);
+        CacheEntry found = cache.get("word/cat");
+        assertNotNull(found);
+        assertEquals(word("cat").toString(), found.getValue().toString());
+        assertNull(cache.get("word/dog"));
+    }
+
+
+    @Test
+    public void testListValues() {
+        cache.put("word/cat/definitions", CacheEntry.create(definitions("cat"), 1, TimeUnit.HOURS));
+        CacheEntry found = cache.get("word/cat/definitions");
+        assertNotNull(found);
+        assertEquals(definitions("cat").toString(), found.getValue().toString());
+    }
+
+
+    @Test
+    public void testPutReplaces() {
+        cache.put("word/cat", CacheEntry.create(word("cat"), 1, TimeUnit.HOURS));
+        cache.put("word/cat", CacheEntry.create(word("cats"), 1, TimeUnit.HOURS));
+        assertEquals(word("cats").toString(), cache.get("word/cat").getValue().toString());
+    }
+
+
+    @Test
+    public void testGetAllLeavesOutMissingKeys() {
+        cache.put("word/cat", CacheEntry.create(word("cat"), 1, TimeUnit.HOURS));
+        cache.put("word/dog", CacheEntry.create(word("dog"), 1, TimeUnit.HOURS));
+        Map<String, CacheEntry> found = cache.getAll(Arrays.asList("word/cat", "word/dog", "word/emu"));
+        assertEquals(2, found.size());
+        assertEquals(word("cat").toString(), found.get("word/cat").getValue().toString());
+        assertEquals(word("dog").toString(), found.get("word/dog").getValue().toString());
+        assertFalse(found.containsKey("word/emu"));
+        assertTrue(cache.getAll(Collections.<String>emptyList()).isEmpty());
+    }
+
+
+    @Test
+    public void testInvalidate() {
+        cache.put("word/cat", CacheEntry.create(word("cat"), 1, TimeUnit.HOURS));
+        cache.put("word/dog", CacheEntry.create(word("dog"), 1, TimeUnit.HOURS));
+        cache.invalidate("word/cat");
+        cache.invalidate("word/emu");
+        assertNull(cache.get("word/cat"));
+        assertNotNull(cache.get("word/dog"));
+    }
+
+
+    @Test
+    public void testClear() {
+        cache.put("word/cat", CacheEntry.create(word("cat"), 1, TimeUnit.HOURS));
+        cache.put("word/dog", CacheEntry.create(word("dog"), 1, TimeUnit.HOURS));
+        cache.clear();
+        assertNull(cache.get("word/cat"));
+        assertNull(cache.get("word/dog"));
+    }
+
+
+    @Test
+    public void testExpiryIsKept() {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = new CacheEntry(word("cat"), 1000L, now + 60000, now + 120000);
+        cache.put("word/cat", entry);
+        CacheEntry found = cache.get("word/cat");
+        assertEquals(entry.getCreatedMillis(), found.getCreatedMillis());
+        assertEquals(entry.getExpiresMillis(), found.getExpiresMillis());
+        assertEquals(entry.getStaleUntilMillis(), found.getStaleUntilMillis());
+        assertFalse(found.isExpired());
+    }
+
+
+    @Test
+    public void testExpiredEntriesAreKeptUntilStaleLimit() throws Exception {
+        cache.put("word/cat", CacheEntry.create(word("cat"), 50, 60000, TimeUnit.MILLISECONDS));
+        Thread.sleep(100);
+        CacheEntry found = cache.get("word/cat");
+        assertNotNull(found);
+        assertTrue(found.isExpired());
+        assertFalse(found.isPastStaleLimit());
+    }
+
+
+    @Test
+    public void testExpiredEntriesAreNotServedFresh() throws Exception {
+        cache.put("word/cat", CacheEntry.create(word("cat"), 50, TimeUnit.MILLISECONDS));
+        Thread.sleep(100);
+        CacheEntry found = cache.get("word/cat");
+        assertTrue(found == null || found.isExpired());
+    }
+}
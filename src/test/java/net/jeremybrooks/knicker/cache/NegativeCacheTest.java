@@ -0,0 +1,157 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import net.jeremybrooks.knicker.KnickerClient;
+import net.jeremybrooks.knicker.StubServer;
+import net.jeremybrooks.knicker.dto.Word;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class NegativeCacheTest {
+
+    @Test
+    public void testRecordedMissIsKnown() {
+        NegativeCache cache = new NegativeCache();
+        assertFalse(cache.isKnownMissing("zebar"));
+        cache.recordMiss("zebar");
+        assertTrue(cache.isKnownMissing("zebar"));
+        assertFalse(cache.isKnownMissing("zebra"));
+        assertEquals(1, cache.getShortCircuitCount());
+        assertEquals(3, cache.getLookupCount());
+        assertEquals(1, cache.getSize());
+
+        cache.invalidate("zebar");
+        assertFalse(cache.isKnownMissing("zebar"));
+        assertEquals(1, cache.getFalsePositiveCount());
+    }
+
+
+    @Test
+    public void testMissesExpire() throws Exception {
+        NegativeCache cache = new NegativeCache(100, 0.01, 50, TimeUnit.MILLISECONDS);
+        cache.recordMiss("teh");
+        assertTrue(cache.isKnownMissing("teh"));
+        Thread.sleep(120);
+        assertFalse(cache.isKnownMissing("teh"));
+        assertTrue(cache.getRotationCount() > 0);
+        assertEquals(0, cache.getSize());
+    }
+
+
+    @Test
+    public void testOldestMissesAreEvicted() {
+        NegativeCache cache = new NegativeCache(10, 0.01, 1, TimeUnit.HOURS);
+        for (int i = 0; i < 20; i++) {
+            cache.recordMiss("word" + i);
+        }
+        assertEquals(10, cache.getSize());
+        assertFalse(cache.isKnownMissing("word0"));
+        assertTrue(cache.isKnownMissing("word19"));
+    }
+
+
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("w" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("w" + i));
+            if (filter.mightContain("x" + i)) {
+                falsePositives++;
+            }
+        }
+        // 1% target; allow generous slack
+        assertTrue(falsePositives < 50);
+        assertTrue(filter.getExpectedFalsePositiveRate() < 0.05);
+    }
+
+
+    @Test
+    public void testClientSkipsRepeatedEmptyRequests() throws Exception {
+        StubServer server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                exchange.reply("<definitions></definitions>");
+            }
+        });
+        try {
+            NegativeCache cache = new NegativeCache();
+            KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl(server.getBaseUrl())
+                    .negativeCache(cache)
+                    .build();
+            assertTrue(client.definitions("qwxz", null).isEmpty());
+            assertSame(Collections.emptyList(), client.definitions("qwxz", null));
+            assertSame(Collections.emptyList(), client.definitions("qwxz", null));
+            assertEquals(1, server.getRequestCount());
+            assertEquals(2, cache.getShortCircuitCount());
+        } finally {
+            server.stop();
+        }
+    }
+
+
+    @Test
+    public void testLookupWithSuggestionsIsNotShortCircuited() throws Exception {
+        StubServer server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                exchange.reply("<wordObject><suggestions><suggestion>zebra</suggestion></suggestions></wordObject>");
+            }
+        });
+        try {
+            NegativeCache cache = new NegativeCache();
+            KnickerClient client = new KnickerClient.Builder()
+                    .apiKey("test")
+                    .baseUrl(server.getBaseUrl())
+                    .negativeCache(cache)
+                    .build();
+            assertEquals("[zebra]", client.lookup("zebar", false, true).getSuggestions().toString());
+            assertEquals("[zebra]", client.lookup("zebar", false, true).getSuggestions().toString());
+            assertEquals(2, server.getRequestCount());
+            assertEquals(0, cache.getSize());
+
+            // without suggestions the miss is remembered, and answered the same way
+            Word miss = client.lookup("zebar", false, false);
+            Word remembered = client.lookup("zebar", false, false);
+            assertEquals(3, server.getRequestCount());
+            assertEquals(miss.getWord(), remembered.getWord());
+            assertEquals(miss.getCanonicalForm(), remembered.getCanonicalForm());
+            assertEquals(miss.getOriginalWord(), remembered.getOriginalWord());
+            assertTrue(remembered.getSuggestions().isEmpty());
+        } finally {
+            server.stop();
+        }
+    }
+}
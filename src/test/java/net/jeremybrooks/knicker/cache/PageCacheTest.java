@@ -0,0 +1,96 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class PageCacheTest {
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> items = new ArrayList<Integer>();
+        for (int i = from; i < to; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+
+    @Test
+    public void testWindowsAreServedFromMergedRanges() {
+        PageCache cache = new PageCache();
+        cache.put("q", 0, 10, range(0, 10), 100);
+        assertEquals(range(2, 7), cache.get("q", 2, 5).getItems());
+        assertNull(cache.get("q", 5, 10));
+        assertEquals("[[10, 15)]", cache.getMissing("q", 5, 10).toString());
+
+        cache.put("q", 20, 10, range(20, 30), 100);
+        assertEquals("[[10, 20), [30, 40)]", cache.getMissing("q", 0, 40).toString());
+
+        // fills the gap, and joins the two ranges into one
+        cache.put("q", 10, 10, range(10, 20), 100);
+        PageCache.Window window = cache.get("q", 0, 30);
+        assertNotNull(window);
+        assertEquals(range(0, 30), window.getItems());
+        assertEquals(100, window.getTotal());
+        assertEquals(30, cache.getFetchedItemCount());
+    }
+
+
+    @Test
+    public void testShortPageMarksTheEnd() {
+        PageCache cache = new PageCache();
+        cache.put("q", 0, 10, range(0, 10), 14);
+        cache.put("q", 10, 10, range(10, 14), 14);
+        assertEquals(range(5, 14), cache.get("q", 5, 50).getItems());
+        assertEquals(0, cache.get("q", 20, 10).getItems().size());
+        assertEquals(0, cache.getMissing("q", 0, 1000).size());
+
+        // a later, shorter result list drops what is stored past its end
+        cache.put("q", 0, 10, Arrays.asList(0, 1, 2), 3);
+        assertEquals(range(0, 3), cache.get("q", 0, 10).getItems());
+    }
+
+
+    @Test
+    public void testQueriesExpireAndAreEvicted() throws Exception {
+        PageCache cache = new PageCache(2, 50, TimeUnit.MILLISECONDS);
+        cache.put("a", 0, 10, range(0, 10), 10);
+        cache.put("b", 0, 10, range(0, 10), 10);
+        cache.get("a", 0, 10);
+        cache.put("c", 0, 10, range(0, 10), 10);
+        assertNotNull(cache.get("a", 0, 10));
+        assertNull(cache.get("b", 0, 10));
+        Thread.sleep(100);
+        assertNull(cache.get("a", 0, 10));
+        assertEquals(1, cache.getMissing("a", 0, 10).size());
+        assertEquals(1, cache.getMissCount());
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.cache;
+
+import net.jeremybrooks.knicker.Knicker.CachedCall;
+import net.jeremybrooks.knicker.KnickerClient;
+import net.jeremybrooks.knicker.StubServer;
+import net.jeremybrooks.knicker.dto.Definition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Serving expired results while they are fetched again, and refreshing
+ * results before they expire.
+ *
+ * @author Jeremy Brooks
+ */
+public class StaleWhileRevalidateTest {
+
+    private StubServer server;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    /* Responses after the first wait for this. */
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+
+    @Before
+    public void setUp() throws Exception {
+        server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                int version = calls.incrementAndGet();
+                if (version > 1) {
+                    try {
+                        gate.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                String xml = "<definitions><definition sequence=\"0\"><text>version " + version
+                        + "</text><word>cat</word></definition></definitions>";
+                exchange.reply(xml);
+            }
+        });
+    }
+
+
+    @After
+    public void tearDown() {
+        gate.countDown();
+        server.stop();
+    }
+
+
+    private KnickerClient.Builder builder() {
+        return new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .cache(new InMemoryKnickerCache());
+    }
+
+
+    private static String text(KnickerClient client) throws Exception {
+        return client.definitions("cat", 0, null, false, null, false, false).get(0).getText();
+    }
+
+
+    private void awaitCalls(int count) throws Exception {
+        long end = System.currentTimeMillis() + 5000;
+        while (calls.get() < count && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, calls.get());
+    }
+
+
+    @Test
+    public void testExpiredResultIsServedWhileOneFetchRuns() throws Exception {
+        final KnickerClient client = builder()
+                .cacheTtl(100, TimeUnit.MILLISECONDS)
+                .maxStale(1, TimeUnit.MINUTES)
+                .build();
+        assertEquals("version 1", text(client));
+        Thread.sleep(150);
+
+        gate = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        for (int i = 0; i < 20; i++) {
+            results.add(callers.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return text(client);
+                }
+            }));
+        }
+        for (Future<String> result : results) {
+            assertEquals("version 1", result.get(5, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+        awaitCalls(2);
+
+        gate.countDown();
+        long end = System.currentTimeMillis() + 5000;
+        while (!text(client).equals("version 2") && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals("version 2", text(client));
+        assertEquals(2, calls.get());
+    }
+
+
+    @Test
+    public void testStaleLimitPerCall() throws Exception {
+        KnickerClient client = builder()
+                .cacheTtl(100, TimeUnit.MILLISECONDS)
+                .maxStale(1, TimeUnit.MINUTES)
+                .maxStale(CachedCall.DEFINITIONS, 0, TimeUnit.MILLISECONDS)
+                .build();
+        assertEquals(0, client.getMaxStaleMillis(CachedCall.DEFINITIONS));
+        assertEquals(60000, client.getMaxStaleMillis(CachedCall.WORD_OF_THE_DAY));
+
+        assertEquals("version 1", text(client));
+        Thread.sleep(150);
+        // definitions may not be served stale, so the caller waits for a fresh result
+        assertEquals("version 2", text(client));
+        assertEquals(2, calls.get());
+    }
+
+
+    @Test
+    public void testStaleLimitsCanBeChangedOnACopy() throws Exception {
+        KnickerClient client = builder()
+                .maxStale(1, TimeUnit.MINUTES)
+                .maxStale(CachedCall.DEFINITIONS, 0, TimeUnit.MILLISECONDS)
+                .build();
+
+        KnickerClient copy = client.toBuilder().maxStale(2, TimeUnit.MINUTES).build();
+        assertEquals(120000, copy.getMaxStaleMillis(CachedCall.WORD_OF_THE_DAY));
+        assertEquals(0, copy.getMaxStaleMillis(CachedCall.DEFINITIONS));
+
+        copy = client.toBuilder().maxStale(CachedCall.DEFINITIONS, 5, TimeUnit.SECONDS).build();
+        assertEquals(60000, copy.getMaxStaleMillis(CachedCall.WORD_OF_THE_DAY));
+        assertEquals(5000, copy.getMaxStaleMillis(CachedCall.DEFINITIONS));
+
+        // the original is unchanged
+        assertEquals(60000, client.getMaxStaleMillis(CachedCall.WORD_OF_THE_DAY));
+        assertEquals(0, client.getMaxStaleMillis(CachedCall.DEFINITIONS));
+    }
+
+
+    @Test
+    public void testRefreshAheadOfExpiry() throws Exception {
+        KnickerClient client = builder()
+                .cacheTtl(1, TimeUnit.SECONDS)
+                .refreshAhead(0.5)
+                .build();
+        assertEquals("version 1", text(client));
+        assertEquals("version 1", text(client));
+        assertEquals(1, calls.get());
+
+        Thread.sleep(600);
+        assertEquals("version 1", text(client));
+        awaitCalls(2);
+        long end = System.currentTimeMillis() + 5000;
+        while (!text(client).equals("version 2") && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals("version 2", text(client));
+        assertEquals(2, calls.get());
+    }
+
+
+    @Test
+    public void testCachedListIsNotCopied() throws Exception {
+        KnickerClient client = builder().build();
+        List<Definition> first = client.definitions("cat", 0, null, false, null, false, false);
+        List<Definition> second = client.definitions("cat", 0, null, false, null, false, false);
+        List<Definition> third = client.definitions("cat", 0, null, false, null, false, false);
+        assertSame(second, third);
+        assertEquals(first, second);
+        assertEquals(1, calls.get());
+        try {
+            second.clear();
+            fail("Cached lists should be unmodifiable.");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRefreshAheadMustBeBelowOne() {
+        builder().refreshAhead(1).build();
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.flow;
+
+import net.jeremybrooks.knicker.KnickerException;
+import net.jeremybrooks.knicker.RequestContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that PagedPublisher fetches pages only when the subscriber asks for items.
+ *
+ * @author Jeremy Brooks
+ */
+public class PagedPublisherTest {
+
+    /* Runs tasks on the calling thread, so the tests are deterministic. */
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+
+    @Test
+    public void testPagesFollowDemand() {
+        CountingPublisher publisher = new CountingPublisher(25, 10);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        assertEquals(0, publisher.fetches);
+
+        subscriber.subscription.request(3);
+        assertEquals(1, publisher.fetches);
+        assertEquals(3, subscriber.items.size());
+
+        subscriber.subscription.request(7);
+        assertEquals(1, publisher.fetches);
+        assertEquals(10, subscriber.items.size());
+
+        subscriber.subscription.request(1);
+        assertEquals(2, publisher.fetches);
+        assertEquals(Integer.valueOf(10), subscriber.items.get(10));
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(3, publisher.fetches);
+        assertEquals(25, subscriber.items.size());
+        assertTrue(subscriber.completed);
+        assertEquals(null, subscriber.error);
+    }
+
+
+    @Test
+    public void testExactMultipleNeedsEmptyPage() {
+        CountingPublisher publisher = new CountingPublisher(20, 10);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(100);
+        assertEquals(3, publisher.fetches);
+        assertEquals(20, subscriber.items.size());
+        assertTrue(subscriber.completed);
+    }
+
+
+    @Test
+    public void testCancelStopsFetching() {
+        CountingPublisher publisher = new CountingPublisher(100, 10);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscriber.cancelAfter = 5;
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(50);
+        assertEquals(1, publisher.fetches);
+        assertEquals(5, subscriber.items.size());
+        assertFalse(subscriber.completed);
+        assertTrue(publisher.lastContext.isCancelled());
+    }
+
+
+    @Test
+    public void testInvalidRequestSignalsError() {
+        CountingPublisher publisher = new CountingPublisher(5, 10);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertNotNull(subscriber.error);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertEquals(0, publisher.fetches);
+    }
+
+
+    @Test
+    public void testFetchErrorSignalsError() {
+        CountingPublisher publisher = new CountingPublisher(5, 10);
+        publisher.fail = true;
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertTrue(subscriber.error instanceof KnickerException);
+        assertFalse(subscriber.completed);
+    }
+
+
+    @Test
+    public void testConcurrentPagesArriveInOrder() {
+        CountingPublisher publisher = new CountingPublisher(25, 10, 3);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertEquals(3, publisher.fetches);
+        assertEquals(1, subscriber.items.size());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(25, subscriber.items.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(Integer.valueOf(i), subscriber.items.get(i));
+        }
+        assertTrue(subscriber.completed);
+    }
+
+
+    @Test
+    public void testPagesBeforeAFailureAreDelivered() {
+        CountingPublisher publisher = new CountingPublisher(100, 10, 3);
+        publisher.failAt = 20;
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(20, subscriber.items.size());
+        assertTrue(subscriber.error instanceof KnickerException);
+        assertFalse(subscriber.completed);
+    }
+
+
+    /*
+     * Publishes the integers 0 to total - 1 and counts the page fetches.
+     */
+    static class CountingPublisher extends PagedPublisher<Integer> {
+        final int total;
+        int fetches;
+        boolean fail;
+        int failAt = -1;
+        RequestContext lastContext;
+
+        CountingPublisher(int total, int pageSize) {
+            this(total, pageSize, 1);
+        }
+
+        CountingPublisher(int total, int pageSize, int concurrency) {
+            super(DIRECT, pageSize, concurrency);
+            this.total = total;
+        }
+
+        @Override
+        protected List<Integer> fetchPage(RequestContext context, int skip, int limit) throws KnickerException {
+            fetches++;
+            lastContext = context;
+            if (fail || skip == failAt) {
+                throw new KnickerException("Simulated failure.");
+            }
+            List<Integer> page = new ArrayList<Integer>();
+            for (int i = skip; i < Math.min(total, skip + limit); i++) {
+                page.add(i);
+            }
+            return page;
+        }
+    }
+
+
+    static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+        Flow.Subscription subscription;
+        List<Integer> items = new ArrayList<Integer>();
+        boolean completed;
+        Throwable error;
+        int cancelAfter = -1;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+            if (items.size() == cancelAfter) {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
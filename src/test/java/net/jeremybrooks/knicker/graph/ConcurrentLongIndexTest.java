@@ -0,0 +1,74 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.graph;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Jeremy Brooks
+ */
+public class ConcurrentLongIndexTest {
+
+    @Test
+    public void testKeysAreIndexedInOrder() {
+        ConcurrentLongIndex index = new ConcurrentLongIndex(16);
+        assertEquals(0, index.add(7, 10));
+        assertEquals(1, index.add(8, 10));
+        assertEquals(-1, index.add(7, 10));
+        assertEquals(1, index.get(8));
+        assertEquals(-1, index.get(9));
+        assertEquals(ConcurrentLongIndex.FULL, index.add(9, 2));
+        assertEquals(2, index.size());
+    }
+
+
+    @Test
+    public void testCollidingValuesAreKeptApart() {
+        final List<String> values = new ArrayList<String>();
+        ConcurrentLongIndex index = new ConcurrentLongIndex(16);
+        // every value has the same key, as if their hashes collided
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, add(index, values, "word" + i));
+        }
+        // growing the tables keeps every copy of the key
+        for (int i = 0; i < 100; i++) {
+            assertEquals(-(i + 1), add(index, values, "word" + i));
+        }
+        assertEquals(100, index.size());
+    }
+
+
+    private static int add(ConcurrentLongIndex index, final List<String> values, final String value) {
+        int id = index.add(42, 1000, new ConcurrentLongIndex.Matcher() {
+            @Override
+            public boolean matches(int index) {
+                return values.get(index).equals(value);
+            }
+        });
+        if (id >= 0) {
+            values.add(value);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.graph;
+
+import net.jeremybrooks.knicker.Knicker.RelationshipType;
+import net.jeremybrooks.knicker.KnickerClient;
+import net.jeremybrooks.knicker.StubServer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Crawls a synthetic thesaurus served by a local server. Word wN has the
+ * synonyms w2N and w2N+1 up to w63, and the antonym w1, forming a binary
+ * tree with back edges to the root.
+ *
+ * @author Jeremy Brooks
+ */
+public class RelatedWordCrawlerTest {
+
+    static StubServer server;
+    static KnickerClient client;
+    static final Set<String> failing = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    static final AtomicInteger inFlight = new AtomicInteger();
+    static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        server = StubServer.start(new StubServer.Handler() {
+            @Override
+            public void handle(StubServer.Exchange exchange) throws Exception {
+                int now = inFlight.incrementAndGet();
+                int max;
+                while (now > (max = maxInFlight.get()) && !maxInFlight.compareAndSet(max, now)) {
+                    // retry
+                }
+                try {
+                    Thread.sleep(10);
+                    String[] segments = exchange.getPath().split("/");
+                    String word = segments[segments.length - 2];
+                    if (failing.contains(word)) {
+                        exchange.reply(500);
+                        return;
+                    }
+                    int n = Integer.parseInt(word.substring(1));
+                    StringBuilder xml = new StringBuilder("<relatedWords>");
+                    if (n * 2 < 64) {
+                        xml.append("<related relationshipType=\"synonym\"><words>");
+                        xml.append("<word>w").append(n * 2).append("</word>");
+                        xml.append("<word>w").append(n * 2 + 1).append("</word>");
+                        xml.append("</words></related>");
+                    }
+                    xml.append("<related relationshipType=\"antonym\"><words><word>w1</word></words></related>");
+                    xml.append("</relatedWords>");
+                    exchange.reply(xml.toString());
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+        client = new KnickerClient.Builder()
+                .apiKey("test")
+                .baseUrl(server.getBaseUrl())
+                .build();
+    }
+
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        server.stop();
+        client.shutdown();
+    }
+
+
+    @Test
+    public void testCrawlWritesGraph() throws Exception {
+        failing.clear();
+        maxInFlight.set(0);
+        RelatedWordCrawler crawler = new RelatedWordCrawler.Builder(client).parallelism(4).build();
+        crawler.crawl(Arrays.asList("w1"));
+
+        assertEquals(63, crawler.getWordCount());
+        assertEquals(63, crawler.getExpandedCount());
+        // 62 tree edges plus an antonym edge from every word but the root
+        assertEquals(124, crawler.getEdgeCount());
+        assertTrue(maxInFlight.get() <= 4);
+        assertTrue(maxInFlight.get() > 1);
+
+        File file = File.createTempFile("knicker", ".csr");
+        file.deleteOnExit();
+        crawler.writeGraph(file);
+        RelatedWordGraph graph = RelatedWordGraph.open(file);
+        try {
+            assertEquals(63, graph.getNodeCount());
+            assertEquals(124, graph.getEdgeCount());
+            assertEquals("w1", graph.getWord(0));
+            int w5 = graph.indexOf("w5");
+            assertEquals(3, graph.getDegree(w5));
+            Set<String> related = new HashSet<String>();
+            for (int i = 0; i < graph.getDegree(w5); i++) {
+                String target = graph.getWord(graph.getTarget(w5, i));
+                related.add(target + ":" + graph.getRelationshipType(w5, i));
+            }
+            assertEquals(new HashSet<String>(Arrays.asList("w10:synonym", "w11:synonym", "w1:antonym")), related);
+            assertEquals(1, graph.getDegree(graph.indexOf("w40")));
+            assertEquals(-1, graph.indexOf("w64"));
+        } finally {
+            graph.close();
+        }
+    }
+
+
+    @Test
+    public void testLimits() throws Exception {
+        failing.clear();
+        RelatedWordCrawler crawler = new RelatedWordCrawler.Builder(client).maxDepth(2).build();
+        crawler.crawl(Arrays.asList("w1"));
+        // w1, w2-w3 and w4-w7 are found; only the first two levels are expanded
+        assertEquals(7, crawler.getWordCount());
+        assertEquals(3, crawler.getExpandedCount());
+
+        crawler = new RelatedWordCrawler.Builder(client).maxWords(10).build();
+        crawler.crawl(Arrays.asList("w1"));
+        assertEquals(10, crawler.getWordCount());
+    }
+
+
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        File checkpoint = File.createTempFile("knicker", ".ckpt");
+        assertTrue(checkpoint.delete());
+        checkpoint.deleteOnExit();
+
+        failing.clear();
+        failing.add("w3");
+        RelatedWordCrawler first = new RelatedWordCrawler.Builder(client)
+                .checkpointFile(checkpoint)
+                .checkpointInterval(5)
+                .build();
+        first.crawl(Arrays.asList("w1"));
+        // the subtree under w3 was never reached
+        assertEquals(1, first.getFailureCount());
+        assertEquals(33, first.getWordCount());
+        assertEquals(32, first.getExpandedCount());
+        assertTrue(checkpoint.exists());
+        byte[] saved = read(checkpoint);
+
+        // a save cut short by a crash
+        FileOutputStream torn = new FileOutputStream(checkpoint, true);
+        torn.write(new byte[]{0, 0, 1, 0, 9, 9});
+        torn.close();
+
+        failing.clear();
+        server.resetRequestCount();
+        RelatedWordCrawler second = new RelatedWordCrawler.Builder(client)
+                .checkpointFile(checkpoint)
+                .build();
+        second.resume();
+        assertEquals(63, second.getWordCount());
+        assertEquals(63, second.getExpandedCount());
+        assertEquals(124, second.getEdgeCount());
+        // only w3 and the words below it were fetched
+        assertEquals(31, server.getRequestCount());
+
+        // the second crawl appended to what the first saved
+        byte[] resumed = read(checkpoint);
+        assertTrue(resumed.length > saved.length);
+        assertTrue(Arrays.equals(saved, Arrays.copyOf(resumed, saved.length)));
+        RelatedWordCrawler third = new RelatedWordCrawler.Builder(client)
+                .checkpointFile(checkpoint)
+                .build();
+        third.resume();
+        assertEquals(63, third.getExpandedCount());
+        assertEquals(124, third.getEdgeCount());
+        assertEquals(31, server.getRequestCount());
+        assertEquals(resumed.length, checkpoint.length());
+    }
+
+
+    private static byte[] read(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(bytes);
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+
+
+    @Test
+    public void testLabels() {
+        assertEquals(RelationshipType.same_context.ordinal(), RelatedWordCrawler.label("same-context"));
+        assertEquals(RelatedWordCrawler.UNKNOWN_LABEL, RelatedWordCrawler.label("made-up"));
+        assertEquals(RelatedWordCrawler.UNKNOWN_LABEL, RelatedWordCrawler.label(null));
+    }
+}
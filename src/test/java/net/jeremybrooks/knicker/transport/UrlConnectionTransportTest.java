@@ -0,0 +1,159 @@
+/*
+ * Knicker is Copyright 2010-2012 by Jeremy Brooks
+ *
+ * This file is part of Knicker.
+ *
+ * Knicker is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Knicker is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Knicker.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package net.jeremybrooks.knicker.transport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the default transport against a raw socket server, so a connection
+ * can be dropped the way a server drops an idle keep-alive connection.
+ *
+ * @author Jeremy Brooks
+ */
+public class UrlConnectionTransportTest {
+
+    private ServerSocket server;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /* Connections up to this number are closed after the request is read, without a response. */
+    private volatile int dropUntil;
+
+    /* Milliseconds to wait before answering. */
+    private volatile long delay;
+
+    private final UrlConnectionTransport transport = new UrlConnectionTransport();
+
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0, 0, InetAddress.getByName("127.0.0.1"));
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        try {
+                            int n = connections.incrementAndGet();
+                            readRequest(socket.getInputStream());
+                            if (n > dropUntil) {
+                                Thread.sleep(delay);
+                                OutputStream out = socket.getOutputStream();
+                                out.write(("HTTP/1.1 200 OK\r\nContent-Length: 2\r\nConnection: close\r\n\r\nok")
+                                        .getBytes("US-ASCII"));
+                                out.flush();
+                            }
+                        } finally {
+                            socket.close();
+                        }
+                    } catch (Exception e) {
+                        // closed
+                    }
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+
+    /*
+     * Read the request line, the headers and a body of Content-Length bytes.
+     */
+    private static void readRequest(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int length = 0;
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                String header = line.toString().trim();
+                if (header.isEmpty()) {
+                    break;
+                }
+                if (header.toLowerCase().startsWith("content-length:")) {
+                    length = Integer.parseInt(header.substring(15).trim());
+                }
+                line.setLength(0);
+            } else {
+                line.append((char) c);
+            }
+        }
+        for (int i = 0; i < length && in.read() != -1; i++) {
+            // discard the body
+        }
+    }
+
+
+    private TransportRequest post(int readTimeout) throws IOException {
+        return new TransportRequest.Builder()
+                .method("POST")
+                .url("http://127.0.0.1:" + server.getLocalPort() + "/v4/wordList.xml/list/words")
+                .body("<words/>".getBytes("UTF-8"))
+                .readTimeout(readTimeout)
+                .build();
+    }
+
+
+    @Test
+    public void testDroppedPostIsNotSentAgain() throws Exception {
+        // the server reads the whole request, so it may already have acted on it
+        dropUntil = 1;
+        try {
+            transport.execute(post(5000));
+            fail("The dropped connection should fail the request.");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(1, connections.get());
+    }
+
+
+    @Test
+    public void testTimeoutIsNotRetried() throws Exception {
+        delay = 1000;
+        try {
+            transport.execute(post(200));
+            fail("The request should time out.");
+        } catch (SocketTimeoutException e) {
+            // expected
+        }
+        assertEquals(1, connections.get());
+    }
+}